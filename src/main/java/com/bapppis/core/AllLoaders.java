@@ -1,5 +1,17 @@
 package com.bapppis.core;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
 import com.bapppis.core.property.PropertyLoader;
 import com.bapppis.core.spell.SpellLoader;
 import com.bapppis.core.item.ItemLoader;
@@ -8,84 +20,219 @@ import com.bapppis.core.creature.CreatureLoader;
 import com.bapppis.core.creature.playerClass.PlayerClassLoader;
 import com.bapppis.core.creature.playerClass.TalentTreeLoader;
 import com.bapppis.core.dungeon.TileTypeLoader;
+import com.bapppis.core.util.DataBundle;
+import com.bapppis.core.util.ResourceIndex;
 
+/**
+ * Loads all game data.
+ *
+ * Loading is split into stages with explicit dependencies. Each stage starts
+ * on a fork-join pool as soon as the stages it depends on have finished, so
+ * independent domains (tile types, spells, loot pools, player classes...)
+ * parse side by side. A stage that fails is reported and its dependents
+ * still run, as they did when loading was sequential. Wall time per stage is
+ * kept for {@link #getStageTimings()}.
+ *
+ * If a {@link DataBundle} with registries is available, the stages are skipped
+ * and every loader's registries are installed from it instead; see
+ * {@link #writeBundle(OutputStream)}.
+ */
 public class AllLoaders {
 
-    private static PlayerClassLoader playerClassLoader;
-    private static TalentTreeLoader talentTreeLoader;
+    private static volatile PlayerClassLoader playerClassLoader;
+    private static volatile TalentTreeLoader talentTreeLoader;
+
+    static final String BUNDLE_STAGE = "data bundle";
+
+    private static final Map<String, Long> stageNanos = new ConcurrentHashMap<>();
+    private static volatile long totalNanos;
+
+    // Declared in dependency order: a stage may only depend on stages above it
+    private static final List<Stage> STAGES = List.of(
+            new Stage("resource index", AllLoaders::buildResourceIndex),
+            new Stage("properties", PropertyLoader::loadProperties, "resource index"),
+            new Stage("tile types", TileTypeLoader::loadTileTypes, "resource index"),
+            new Stage("spells", SpellLoader::loadSpells, "resource index"),
+            new Stage("player classes", AllLoaders::loadPlayerClasses, "resource index"),
+            new Stage("talent trees", AllLoaders::loadTalentTrees, "resource index"),
+            // Both pool folders write the same LootPoolLoader maps, so they share a stage
+            new Stage("loot pools", AllLoaders::loadLootPools, "resource index"),
+            new Stage("items", ItemLoader::loadItems, "properties"),
+            new Stage("creatures", CreatureLoader::loadCreatures, "properties", "spells", "items"));
+
+    static {
+        List<String> seen = new ArrayList<>();
+        for (Stage stage : STAGES) {
+            for (String dep : stage.dependsOn) {
+                if (!seen.contains(dep))
+                    throw new IllegalStateException("Loader stage '" + stage.name + "' depends on '" + dep
+                            + "', which is not declared before it");
+            }
+            seen.add(stage.name);
+        }
+    }
 
     public static void loadAll() {
+        loadAll(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load everything on the given pool. Does nothing if data is already
+     * loaded; returns once every stage has finished.
+     */
+    public static void loadAll(ForkJoinPool pool) {
         synchronized (AllLoaders.class) {
             if (LoadedState.loaded) {
                 return;
             }
 
-            try {
-                PropertyLoader.loadProperties();
-            } catch (Exception e) {
-                System.err.println("Warning: PropertyLoader.loadProperties() failed");
-                e.printStackTrace();
+            long start = System.nanoTime();
+            stageNanos.clear();
+            if (!loadFromBundle()) {
+                runStages(pool);
             }
+            totalNanos = System.nanoTime() - start;
 
-            try {
-                TileTypeLoader.loadTileTypes();
-            } catch (Exception e) {
-                System.err.println("Warning: TileTypeLoader.loadTileTypes() failed");
-                e.printStackTrace();
+            StringBuilder sb = new StringBuilder("Loaded game data in ").append(totalNanos / 1_000_000).append(" ms (");
+            boolean first = true;
+            for (Map.Entry<String, Long> e : getStageTimings().entrySet()) {
+                if (!first)
+                    sb.append(", ");
+                sb.append(e.getKey()).append(' ').append(e.getValue()).append(" ms");
+                first = false;
             }
+            System.out.println(sb.append(')'));
 
-            try {
-                SpellLoader.loadSpells();
-            } catch (Exception e) {
-                System.err.println("Warning: SpellLoader.loadSpells() failed");
-                e.printStackTrace();
-            }
+            LoadedState.loaded = true;
+        }
+    }
 
-            try {
-                playerClassLoader = new PlayerClassLoader();
-                playerClassLoader.loadAllPlayerClasses();
-            } catch (Exception e) {
-                System.err.println("Warning: PlayerClassLoader.loadAllPlayerClasses() failed");
-                e.printStackTrace();
+    private static void runStages(ForkJoinPool pool) {
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        for (Stage stage : STAGES) {
+            CompletableFuture<?>[] deps = new CompletableFuture<?>[stage.dependsOn.length];
+            for (int i = 0; i < deps.length; i++) {
+                deps[i] = futures.get(stage.dependsOn[i]);
             }
+            futures.put(stage.name, CompletableFuture.allOf(deps).thenRunAsync(() -> runStage(stage), pool));
+        }
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+    }
 
-            try {
-                talentTreeLoader = new TalentTreeLoader();
-            } catch (Exception e) {
-                System.err.println("Warning: TalentTreeLoader initialization failed");
-                e.printStackTrace();
+    /**
+     * Install every loader's registries from the data bundle.
+     * @return false, having installed nothing, if there is no bundle or it
+     *         cannot be used
+     */
+    private static boolean loadFromBundle() {
+        DataBundle bundle = DataBundle.open();
+        if (bundle == null || !bundle.hasRegistries())
+            return false;
+        long t0 = System.nanoTime();
+        Map<?, ?> registries;
+        try {
+            registries = (Map<?, ?>) bundle.readRegistries();
+            // Every stage but the resource index has a section
+            for (Stage stage : STAGES.subList(1, STAGES.size())) {
+                if (!(registries.get(stage.name) instanceof List))
+                    throw new IOException("missing registries for " + stage.name);
             }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: data bundle unusable, loading JSON instead: " + e.getMessage());
+            return false;
+        }
+        PropertyLoader.installRegistries(section(registries, "properties"));
+        TileTypeLoader.installRegistries(section(registries, "tile types"));
+        SpellLoader.installRegistries(section(registries, "spells"));
+        playerClassLoader = PlayerClassLoader.fromRegistries(section(registries, "player classes"));
+        talentTreeLoader = TalentTreeLoader.fromRegistries(section(registries, "talent trees"));
+        LootPoolLoader.installRegistries(section(registries, "loot pools"));
+        ItemLoader.installRegistries(section(registries, "items"));
+        CreatureLoader.installRegistries(section(registries, "creatures"));
+        stageNanos.put(BUNDLE_STAGE, System.nanoTime() - t0);
+        return true;
+    }
 
-            try {
-                ItemLoader.loadItems();
-            } catch (Exception e) {
-                System.err.println("Warning: ItemLoader.loadItems() failed");
-                e.printStackTrace();
-            }
+    @SuppressWarnings("unchecked")
+    private static List<Map<?, ?>> section(Map<?, ?> registries, String stage) {
+        return (List<Map<?, ?>>) registries.get(stage);
+    }
 
-            try {
-                LootPoolLoader.loadPoolsFromResources("loot_pools");
-            } catch (Exception e) {
-                System.err.println("Warning: LootPoolLoader.loadPoolsFromResources('loot_pools') failed");
-                e.printStackTrace();
-            }
+    /**
+     * Load everything from JSON, ignoring any existing bundle, and write a
+     * data bundle of the result to {@code out}.
+     * @throws IllegalStateException if data was already loaded from a bundle
+     */
+    public static void writeBundle(OutputStream out) throws IOException {
+        DataBundle.disable();
+        if (ResourceIndex.get().isBundled())
+            throw new IllegalStateException("Game data was already loaded from a bundle");
+        loadAll();
+        Map<String, List<Map<?, ?>>> registries = new LinkedHashMap<>();
+        registries.put("properties", new ArrayList<>(PropertyLoader.getRegistries()));
+        registries.put("tile types", new ArrayList<>(TileTypeLoader.getRegistries()));
+        registries.put("spells", new ArrayList<>(SpellLoader.getRegistries()));
+        registries.put("player classes", new ArrayList<>(playerClassLoader.getRegistries()));
+        registries.put("talent trees", new ArrayList<>(talentTreeLoader.getRegistries()));
+        registries.put("loot pools", new ArrayList<>(LootPoolLoader.getRegistries()));
+        registries.put("items", new ArrayList<>(ItemLoader.getRegistries()));
+        registries.put("creatures", new ArrayList<>(CreatureLoader.getRegistries()));
+        DataBundle.write(ResourceIndex.get(), registries, out);
+    }
 
-            try {
-                LootPoolLoader.loadPoolsFromResources("monster_pools");
-            } catch (Exception e) {
-                System.err.println("Warning: LootPoolLoader.loadPoolsFromResources('monster_pools') failed");
-                e.printStackTrace();
-            }
+    private static void runStage(Stage stage) {
+        long t0 = System.nanoTime();
+        try {
+            stage.task.run();
+        } catch (Exception e) {
+            System.err.println("Warning: loader stage '" + stage.name + "' failed");
+            e.printStackTrace();
+        } finally {
+            stageNanos.put(stage.name, System.nanoTime() - t0);
+        }
+    }
 
-            try {
-                CreatureLoader.loadCreatures();
-            } catch (Exception e) {
-                System.err.println("Warning: CreatureLoader.loadCreatures() failed");
-                e.printStackTrace();
-            }
+    private static void buildResourceIndex() {
+        ResourceIndex.get();
+    }
 
-            LoadedState.loaded = true;
+    private static void loadPlayerClasses() {
+        PlayerClassLoader loader = new PlayerClassLoader();
+        loader.loadAllPlayerClasses();
+        playerClassLoader = loader;
+    }
+
+    private static void loadTalentTrees() {
+        talentTreeLoader = new TalentTreeLoader();
+    }
+
+    private static void loadLootPools() {
+        LootPoolLoader.loadPoolsFromResources("loot_pools");
+        LootPoolLoader.loadPoolsFromResources("monster_pools");
+    }
+
+    /**
+     * Wall time of each stage of the last {@link #loadAll()}, in milliseconds,
+     * in declaration order. Empty if nothing has been loaded yet.
+     */
+    public static Map<String, Long> getStageTimings() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        Long bundled = stageNanos.get(BUNDLE_STAGE);
+        if (bundled != null)
+            out.put(BUNDLE_STAGE, bundled / 1_000_000);
+        for (Stage stage : STAGES) {
+            Long nanos = stageNanos.get(stage.name);
+            if (nanos != null)
+                out.put(stage.name, nanos / 1_000_000);
         }
+        return Collections.unmodifiableMap(out);
+    }
+
+    /**
+     * Wall time of the last {@link #loadAll()}, in milliseconds.
+     */
+    public static long getTotalLoadMillis() {
+        return totalNanos / 1_000_000;
     }
 
     public static PlayerClassLoader getPlayerClassLoader() {
@@ -95,6 +242,18 @@ public class AllLoaders {
     public static TalentTreeLoader getTalentTreeLoader() {
         return talentTreeLoader;
     }
+
+    private static final class Stage {
+        final String name;
+        final Runnable task;
+        final String[] dependsOn;
+
+        Stage(String name, Runnable task, String... dependsOn) {
+            this.name = name;
+            this.task = task;
+            this.dependsOn = dependsOn;
+        }
+    }
 }
 
 class LoadedState {
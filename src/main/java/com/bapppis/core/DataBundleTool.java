@@ -0,0 +1,32 @@
+package com.bapppis.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.bapppis.core.util.DataBundle;
+
+/**
+ * Build step that writes the data bundle: loads all game data from JSON and
+ * saves it to the file given as the only argument, normally
+ * {@code target/data-bundle/data.bundle} (the {@code data-bundle} Maven
+ * profile runs it before packaging and adds the file to the jar only).
+ */
+public class DataBundleTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: DataBundleTool <output file>");
+            System.exit(2);
+        }
+        Path target = Paths.get(args[0]);
+        if (target.getParent() != null)
+            Files.createDirectories(target.getParent());
+        try (OutputStream out = Files.newOutputStream(target)) {
+            AllLoaders.writeBundle(out);
+        }
+        System.out.println("Wrote " + DataBundle.RESOURCE + " to " + target + " (" + Files.size(target) + " bytes)");
+    }
+}
@@ -0,0 +1,31 @@
+package com.bapppis.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.bapppis.core.game.SessionReplayer;
+
+/**
+ * Replays a recorded session (see {@code -Drecall.record}) headless and
+ * prints its state-hash checks and slowest commands. Exits with status 1 if
+ * the replay diverged from the recording.
+ */
+public class ReplayTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ReplayTool <session log>");
+            System.exit(2);
+        }
+        AllLoaders.loadAll();
+        SessionReplayer.Result result;
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            result = SessionReplayer.replay(in);
+        }
+        System.out.print(result);
+        if (result.diverged())
+            System.exit(1);
+    }
+}
@@ -4,13 +4,43 @@ import com.bapppis.core.creature.Attack;
 import com.bapppis.core.creature.Creature;
 import com.bapppis.core.Resistances;
 import com.bapppis.core.item.Weapon;
-import com.bapppis.core.util.Dice;
 import com.bapppis.core.util.ResistanceUtil;
 
+/**
+ * Resolves attacks between creatures.
+ *
+ * The hot path does no heap allocation: per-hit crit flags are kept in two
+ * {@code long} bitmasks (enough for 128 hits per attack), and the report
+ * handed to {@link #attackListener} is a per-thread instance that is reset
+ * and refilled for every attack.
+ */
 public final class AttackEngine {
 
+    /**
+     * Receives a report after every resolved attack. The report object is
+     * reused for the next attack on the same thread, so listeners must read
+     * what they need during the callback (or keep {@link AttackReport#copy()}).
+     */
     public static java.util.function.Consumer<AttackReport> attackListener = null;
 
+    private static final ThreadLocal<AttackReport> REPORT = ThreadLocal.withInitial(AttackReport::new);
+
+    private static final ThreadLocal<java.util.function.Consumer<AttackReport>> THREAD_LISTENER = new ThreadLocal<>();
+
+    /**
+     * Install a listener that only sees attacks resolved on the calling
+     * thread, alongside {@link #attackListener}. Pass null to remove it.
+     * Lets background work (e.g. {@link CombatSimulator}) collect reports
+     * without touching the UI's global listener.
+     */
+    public static void setThreadListener(java.util.function.Consumer<AttackReport> listener) {
+        if (listener == null) {
+            THREAD_LISTENER.remove();
+        } else {
+            THREAD_LISTENER.set(listener);
+        }
+    }
+
     private AttackEngine() {
     }
 
@@ -55,12 +85,108 @@ public final class AttackEngine {
         public int magicMissResist;
         public boolean dualRoll;
         public boolean trueDamage;
+
+        /**
+         * Clear every field so a recycled report carries nothing over from the
+         * previous attack.
+         */
+        public void reset() {
+            attackName = null;
+            physRaw = 0;
+            magRaw = 0;
+            physAfterCritBeforeResist = 0;
+            physAfter = 0;
+            magAfter = 0;
+            phys2After = 0;
+            mag2After = 0;
+            totalDamageDealt = 0;
+            times = 0;
+            damageType = null;
+            magicType = null;
+            critCount = 0;
+            isCrit = false;
+            attacker = null;
+            target = null;
+            magicStatBonus = 0;
+            magicStatExtra = 0;
+            magicDamageMultiplier = 0f;
+            physStatBase = 0;
+            physStatExtra = 0;
+            physDamageMultiplier = 0f;
+            magicStatChosen = null;
+            physStatChosen = null;
+            physCritCount = 0;
+            magicCritCount = 0;
+            physAttempts = 0;
+            physMissDodge = 0;
+            physMissBlock = 0;
+            physPropertyAttempted = 0;
+            physPropertyApplied = 0;
+            magPropertyAttempted = 0;
+            magPropertyApplied = 0;
+            physPropertyName = null;
+            magPropertyName = null;
+            magicAttempts = 0;
+            magicMissDodge = 0;
+            magicMissResist = 0;
+            dualRoll = false;
+            trueDamage = false;
+        }
+
+        /**
+         * Detached copy for listeners that need to keep a report past the
+         * callback.
+         */
+        public AttackReport copy() {
+            AttackReport c = new AttackReport();
+            c.attackName = attackName;
+            c.physRaw = physRaw;
+            c.magRaw = magRaw;
+            c.physAfterCritBeforeResist = physAfterCritBeforeResist;
+            c.physAfter = physAfter;
+            c.magAfter = magAfter;
+            c.phys2After = phys2After;
+            c.mag2After = mag2After;
+            c.totalDamageDealt = totalDamageDealt;
+            c.times = times;
+            c.damageType = damageType;
+            c.magicType = magicType;
+            c.critCount = critCount;
+            c.isCrit = isCrit;
+            c.attacker = attacker;
+            c.target = target;
+            c.magicStatBonus = magicStatBonus;
+            c.magicStatExtra = magicStatExtra;
+            c.magicDamageMultiplier = magicDamageMultiplier;
+            c.physStatBase = physStatBase;
+            c.physStatExtra = physStatExtra;
+            c.physDamageMultiplier = physDamageMultiplier;
+            c.magicStatChosen = magicStatChosen;
+            c.physStatChosen = physStatChosen;
+            c.physCritCount = physCritCount;
+            c.magicCritCount = magicCritCount;
+            c.physAttempts = physAttempts;
+            c.physMissDodge = physMissDodge;
+            c.physMissBlock = physMissBlock;
+            c.physPropertyAttempted = physPropertyAttempted;
+            c.physPropertyApplied = physPropertyApplied;
+            c.magPropertyAttempted = magPropertyAttempted;
+            c.magPropertyApplied = magPropertyApplied;
+            c.physPropertyName = physPropertyName;
+            c.magPropertyName = magPropertyName;
+            c.magicAttempts = magicAttempts;
+            c.magicMissDodge = magicMissDodge;
+            c.magicMissResist = magicMissResist;
+            c.dualRoll = dualRoll;
+            c.trueDamage = trueDamage;
+            return c;
+        }
     }
 
     public static void applyAttackToTarget(Creature attacker, Attack attack, int statBonus, Creature target,
             Resistances physicalType, Resistances magicType, Weapon weapon) {
         applyAttackToTarget(attacker, attack, statBonus, target, physicalType, magicType, weapon,
-                new DefaultRandomProvider());
+                SessionRandom.current().combat());
     }
 
     public static void applyAttackToTarget(Creature attacker, Attack attack, int statBonus, Creature target,
@@ -78,7 +204,8 @@ public final class AttackEngine {
         int phys2After = 0; // Secondary physical damage
         int physPropertyAttempted = 0;
         int physPropertyApplied = 0;
-        boolean[] physHitCrits = new boolean[100]; // Track which hits crit (max 100 hits per attack)
+        long physCritLo = 0L; // Crit flags of successful hits 0-63
+        long physCritHi = 0L; // and 64-127
         int times = attack.getTimes();
         float baseCrit = attacker.getCrit();
         int critMod = 0;
@@ -134,10 +261,7 @@ public final class AttackEngine {
                         }
                     }
                 }
-                int hit = 0;
-                if (attack.physicalDamageDice != null && !attack.physicalDamageDice.isBlank()) {
-                    hit = Dice.roll(attack.physicalDamageDice) * 5;
-                }
+                int hit = attack.getPhysicalDice().roll(rng) * 5;
                 // Stat bonus will be added per-hit with multiplier
                 int statBonusForHit = (int) Math.floor(statBonus * 5.0 * Math.max(0.0, attack.damageMultiplier));
                 hit += statBonusForHit;
@@ -148,7 +272,13 @@ public final class AttackEngine {
                     physCritCount++;
                     hit *= 2;
                 }
-                physHitCrits[successfulHitIndex] = crit;
+                if (crit) {
+                    if (successfulHitIndex < 64) {
+                        physCritLo |= 1L << successfulHitIndex;
+                    } else if (successfulHitIndex < 128) {
+                        physCritHi |= 1L << (successfulHitIndex - 64);
+                    }
+                }
                 successfulHitIndex++;
                 totalPhysBeforeResist += hit;
                 // For every successful physical hit, add build-up to the target using the
@@ -174,12 +304,12 @@ public final class AttackEngine {
             // Secondary damage: no stat bonus, no buildup, applies only when primary hits
             // Secondary damage crits when the corresponding primary hit crit
             if (weapon != null && weapon.getDamageType2() != null
-                    && attack.physicalDamageDice2 != null && !attack.physicalDamageDice2.isBlank()) {
+                    && !attack.getPhysicalDice2().isZero()) {
                 int totalPhys2BeforeResist = 0;
                 for (int i = 0; i < successfulPrimaryHits; i++) {
-                    int hit2 = Dice.roll(attack.physicalDamageDice2) * 5;
+                    int hit2 = attack.getPhysicalDice2().roll(rng) * 5;
                     // Apply crit if the corresponding primary hit crit
-                    if (physHitCrits[i]) {
+                    if (isCritHit(physCritLo, physCritHi, i)) {
                         hit2 *= 2;
                     }
                     totalPhys2BeforeResist += hit2;
@@ -235,7 +365,8 @@ public final class AttackEngine {
         int mag2After = 0; // Secondary magic damage
         int magPropertyAttempted = 0;
         int magPropertyApplied = 0;
-        boolean[] magicHitCrits = new boolean[100]; // Track which magic hits crit (max 100 hits per attack)
+        long magicCritLo = 0L;
+        long magicCritHi = 0L;
         float magicMult = attack.magicDamageMultiplier;
         String magicStatChosenName = null;
         int magicAttempts = 0;
@@ -248,8 +379,11 @@ public final class AttackEngine {
                 if (weapon != null) {
                     com.bapppis.core.creature.creatureEnums.Stats chosen = null;
                     int best = Integer.MIN_VALUE;
-                    if (weapon.getMagicStatBonuses() != null && !weapon.getMagicStatBonuses().isEmpty()) {
-                        for (com.bapppis.core.creature.creatureEnums.Stats s : weapon.getMagicStatBonuses()) {
+                    java.util.List<com.bapppis.core.creature.creatureEnums.Stats> magicStats = weapon
+                            .getMagicStatBonuses();
+                    if (magicStats != null && !magicStats.isEmpty()) {
+                        for (int si = 0; si < magicStats.size(); si++) {
+                            com.bapppis.core.creature.creatureEnums.Stats s = magicStats.get(si);
                             int b = attacker.getStatBonus(s);
                             if (b > best) {
                                 best = b;
@@ -311,10 +445,7 @@ public final class AttackEngine {
                     }
                     continue;
                 }
-                int hit = 0;
-                if (attack.magicDamageDice != null && !attack.magicDamageDice.isBlank()) {
-                    hit = Dice.roll(attack.magicDamageDice) * 5;
-                }
+                int hit = attack.getMagicDice().roll(rng) * 5;
                 // Add stat bonus per-hit with multiplier
                 int magicStatBonusForHit = (int) Math.floor(magicStatBonus * 5.0 * Math.max(0.0, magicMult));
                 hit += magicStatBonusForHit;
@@ -325,7 +456,13 @@ public final class AttackEngine {
                     magicCritCount++;
                     hit *= 2;
                 }
-                magicHitCrits[successfulMagicHitIndex] = crit;
+                if (crit) {
+                    if (successfulMagicHitIndex < 64) {
+                        magicCritLo |= 1L << successfulMagicHitIndex;
+                    } else if (successfulMagicHitIndex < 128) {
+                        magicCritHi |= 1L << (successfulMagicHitIndex - 64);
+                    }
+                }
                 successfulMagicHitIndex++;
                 magicBeforeResist += hit;
                 // For every successful magic hit, add build-up to the target. Prefer the
@@ -358,12 +495,12 @@ public final class AttackEngine {
             // magic hits
             // Secondary magic damage crits when the corresponding primary magic hit crit
             if (weapon != null && weapon.getMagicElement2() != null
-                    && attack.magicDamageDice2 != null && !attack.magicDamageDice2.isBlank()) {
+                    && !attack.getMagicDice2().isZero()) {
                 int totalMag2BeforeResist = 0;
                 for (int i = 0; i < successfulMagicHits; i++) {
-                    int hit2 = Dice.roll(attack.magicDamageDice2) * 5; // Option 2: Scale by 5
+                    int hit2 = attack.getMagicDice2().roll(rng) * 5; // Option 2: Scale by 5
                     // Apply crit if the corresponding primary magic hit crit
-                    if (magicHitCrits[i]) {
+                    if (isCritHit(magicCritLo, magicCritHi, i)) {
                         hit2 *= 2;
                     }
                     totalMag2BeforeResist += hit2;
@@ -405,8 +542,11 @@ public final class AttackEngine {
         }
 
         try {
-            if (AttackEngine.attackListener != null) {
-                AttackReport rpt = new AttackReport();
+            java.util.function.Consumer<AttackReport> globalListener = AttackEngine.attackListener;
+            java.util.function.Consumer<AttackReport> threadListener = THREAD_LISTENER.get();
+            if (globalListener != null || threadListener != null) {
+                AttackReport rpt = REPORT.get();
+                rpt.reset();
                 rpt.attackName = attack.name;
                 rpt.physRaw = physRaw;
                 rpt.magRaw = magRaw;
@@ -447,7 +587,10 @@ public final class AttackEngine {
                 rpt.magPropertyApplied = magPropertyApplied;
                 rpt.physPropertyName = attack.physicalOnHitProperty;
                 rpt.magPropertyName = attack.magicOnHitProperty;
-                AttackEngine.attackListener.accept(rpt);
+                if (threadListener != null)
+                    threadListener.accept(rpt);
+                if (globalListener != null)
+                    globalListener.accept(rpt);
             }
         } catch (Exception ignored) {
         }
@@ -460,4 +603,10 @@ public final class AttackEngine {
         }
     }
 
+    private static boolean isCritHit(long lo, long hi, int hitIndex) {
+        if (hitIndex < 64) {
+            return (lo & (1L << hitIndex)) != 0;
+        }
+        return hitIndex < 128 && (hi & (1L << (hitIndex - 64))) != 0;
+    }
 }
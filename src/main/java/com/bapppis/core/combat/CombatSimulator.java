@@ -0,0 +1,455 @@
+package com.bapppis.core.combat;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+
+/**
+ * Monte Carlo balance tool: fights two creature templates against each other
+ * many times and reports how the matchup tends to go.
+ *
+ * Every trial fights fresh copies of both templates (see
+ * {@link CreatureLoader#spawnCopy}), so nothing leaks into the loaded
+ * templates or the running game. Trials are split across a fork-join pool;
+ * each leaf task rolls with its own {@link SplittableRandomProvider} stream
+ * split off the seed, and the split tree depends only on the trial count, so
+ * the same seed always gives the same result however many threads run it.
+ *
+ * A fight follows the auto-resolve rules of
+ * {@link com.bapppis.core.game.Combat#startCombat(Creature, Creature, boolean)}:
+ * the attacker swings first, then the defender, until one side drops. Fights
+ * that run past {@code maxRounds} are counted as draws.
+ */
+public final class CombatSimulator {
+
+    public static final int DEFAULT_MAX_ROUNDS = 200;
+
+    /** Trials run sequentially by one leaf task before it stops splitting. */
+    private static final int LEAF_TRIALS = 64;
+
+    static final byte ATTACKER_WON = 1;
+    static final byte DEFENDER_WON = 2;
+    static final byte DRAW = 0;
+
+    private CombatSimulator() {
+    }
+
+    /**
+     * Simulate a matchup between two creatures looked up by id.
+     * @throws IllegalArgumentException if either id is unknown
+     */
+    public static Result simulate(int attackerId, int defenderId, int trials, long seed) {
+        Creature attacker = CreatureLoader.getCreatureById(attackerId);
+        Creature defender = CreatureLoader.getCreatureById(defenderId);
+        if (attacker == null)
+            throw new IllegalArgumentException("Unknown creature id: " + attackerId);
+        if (defender == null)
+            throw new IllegalArgumentException("Unknown creature id: " + defenderId);
+        return simulate(attacker, defender, trials, seed, DEFAULT_MAX_ROUNDS);
+    }
+
+    public static Result simulate(Creature attackerTemplate, Creature defenderTemplate, int trials, long seed) {
+        return simulate(attackerTemplate, defenderTemplate, trials, seed, DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * Run {@code trials} fights on the common fork-join pool.
+     */
+    public static Result simulate(Creature attackerTemplate, Creature defenderTemplate, int trials, long seed,
+            int maxRounds) {
+        return simulate(attackerTemplate, defenderTemplate, trials, seed, maxRounds, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run {@code trials} fights on the given pool.
+     */
+    public static Result simulate(Creature attackerTemplate, Creature defenderTemplate, int trials, long seed,
+            int maxRounds, ForkJoinPool pool) {
+        if (attackerTemplate == null || defenderTemplate == null)
+            throw new IllegalArgumentException("Both creature templates are required");
+        if (trials <= 0)
+            throw new IllegalArgumentException("trials must be positive: " + trials);
+        if (maxRounds <= 0)
+            throw new IllegalArgumentException("maxRounds must be positive: " + maxRounds);
+
+        Trials out = new Trials(trials);
+        SplittableRandomProvider root = new SplittableRandomProvider(seed);
+        SideCounts[] counts = pool.invoke(
+                new TrialTask(attackerTemplate, defenderTemplate, maxRounds, out, 0, trials, root));
+        return new Result(attackerTemplate.getName(), defenderTemplate.getName(), maxRounds, out, counts[0],
+                counts[1]);
+    }
+
+    /**
+     * Per-trial outcomes. Leaf tasks write disjoint index ranges, and
+     * {@code invoke} joins them all before anyone reads.
+     */
+    static final class Trials {
+        final byte[] outcome;
+        final int[] rounds;
+        final int[] attackerDamage;
+        final int[] defenderDamage;
+
+        Trials(int n) {
+            outcome = new byte[n];
+            rounds = new int[n];
+            attackerDamage = new int[n];
+            defenderDamage = new int[n];
+        }
+    }
+
+    /**
+     * Attack-roll tallies for one side, filled from {@link AttackEngine}
+     * reports. Spells do not produce reports, so these only cover weapon and
+     * natural attacks.
+     */
+    public static final class SideCounts {
+        long attacks;
+        long attempts;
+        long hits;
+        long crits;
+        long dodged;
+        long blocked;
+        long resisted;
+
+        void add(AttackEngine.AttackReport r) {
+            attacks++;
+            int tries = r.physAttempts + r.magicAttempts;
+            int misses = r.physMissDodge + r.physMissBlock + r.magicMissDodge + r.magicMissResist;
+            attempts += tries;
+            hits += Math.max(0, tries - misses);
+            crits += r.critCount;
+            dodged += r.physMissDodge + r.magicMissDodge;
+            blocked += r.physMissBlock;
+            resisted += r.magicMissResist;
+        }
+
+        void merge(SideCounts o) {
+            attacks += o.attacks;
+            attempts += o.attempts;
+            hits += o.hits;
+            crits += o.crits;
+            dodged += o.dodged;
+            blocked += o.blocked;
+            resisted += o.resisted;
+        }
+
+        public long getAttacks() {
+            return attacks;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        /** Fraction of attack rolls that landed. */
+        public double getHitRate() {
+            return attempts == 0 ? 0.0 : (double) hits / attempts;
+        }
+
+        /** Fraction of landed hits that crit. */
+        public double getCritRate() {
+            return hits == 0 ? 0.0 : (double) crits / hits;
+        }
+
+        /** Fraction of attack rolls the target blocked. */
+        public double getBlockRate() {
+            return attempts == 0 ? 0.0 : (double) blocked / attempts;
+        }
+
+        public double getDodgeRate() {
+            return attempts == 0 ? 0.0 : (double) dodged / attempts;
+        }
+
+        public double getResistRate() {
+            return attempts == 0 ? 0.0 : (double) resisted / attempts;
+        }
+    }
+
+    /**
+     * Splits the trial range in halves until it is small enough to run. The
+     * right half always takes a {@code split()} of the left half's stream.
+     */
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks are never serialized
+    private static final class TrialTask extends RecursiveTask<SideCounts[]> {
+        private final Creature attackerTemplate;
+        private final Creature defenderTemplate;
+        private final int maxRounds;
+        private final Trials out;
+        private final int from;
+        private final int to;
+        private final SplittableRandomProvider rng;
+
+        TrialTask(Creature attackerTemplate, Creature defenderTemplate, int maxRounds, Trials out, int from, int to,
+                SplittableRandomProvider rng) {
+            this.attackerTemplate = attackerTemplate;
+            this.defenderTemplate = defenderTemplate;
+            this.maxRounds = maxRounds;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.rng = rng;
+        }
+
+        @Override
+        protected SideCounts[] compute() {
+            if (to - from <= LEAF_TRIALS) {
+                return runLeaf();
+            }
+            int mid = (from + to) >>> 1;
+            TrialTask right = new TrialTask(attackerTemplate, defenderTemplate, maxRounds, out, mid, to, rng.split());
+            TrialTask left = new TrialTask(attackerTemplate, defenderTemplate, maxRounds, out, from, mid, rng);
+            right.fork();
+            SideCounts[] l = left.compute();
+            SideCounts[] r = right.join();
+            l[0].merge(r[0]);
+            l[1].merge(r[1]);
+            return l;
+        }
+
+        private SideCounts[] runLeaf() {
+            SideCounts attackerCounts = new SideCounts();
+            SideCounts defenderCounts = new SideCounts();
+            Creature[] fighters = new Creature[2];
+            AttackEngine.setThreadListener(report -> {
+                if (report.attacker == fighters[0]) {
+                    attackerCounts.add(report);
+                } else if (report.attacker == fighters[1]) {
+                    defenderCounts.add(report);
+                }
+            });
+            try {
+                for (int i = from; i < to; i++) {
+                    Creature a = CreatureLoader.spawnCopy(attackerTemplate);
+                    Creature d = CreatureLoader.spawnCopy(defenderTemplate);
+                    fighters[0] = a;
+                    fighters[1] = d;
+                    fight(a, d, i);
+                }
+            } finally {
+                AttackEngine.setThreadListener(null);
+            }
+            return new SideCounts[] { attackerCounts, defenderCounts };
+        }
+
+        private void fight(Creature a, Creature d, int trial) {
+            int dealtByA = 0;
+            int dealtByD = 0;
+            int round = 0;
+            byte outcome = DRAW;
+            while (round < maxRounds) {
+                round++;
+                int before = d.getCurrentHp();
+                a.attack(d, rng);
+                dealtByA += Math.max(0, before - d.getCurrentHp());
+                if (d.getCurrentHp() <= 0) {
+                    outcome = ATTACKER_WON;
+                    break;
+                }
+                before = a.getCurrentHp();
+                d.attack(a, rng);
+                dealtByD += Math.max(0, before - a.getCurrentHp());
+                if (a.getCurrentHp() <= 0) {
+                    outcome = DEFENDER_WON;
+                    break;
+                }
+            }
+            out.outcome[trial] = outcome;
+            out.rounds[trial] = round;
+            out.attackerDamage[trial] = dealtByA;
+            out.defenderDamage[trial] = dealtByD;
+        }
+    }
+
+    /**
+     * Summary of a sample of per-fight values.
+     */
+    public static final class Distribution {
+        private final double[] sorted;
+        private final double mean;
+        private final double stdDev;
+
+        Distribution(double[] values) {
+            this.sorted = values.clone();
+            Arrays.sort(this.sorted);
+            double sum = 0.0;
+            for (double v : sorted)
+                sum += v;
+            this.mean = sorted.length == 0 ? 0.0 : sum / sorted.length;
+            double sq = 0.0;
+            for (double v : sorted)
+                sq += (v - mean) * (v - mean);
+            this.stdDev = sorted.length == 0 ? 0.0 : Math.sqrt(sq / sorted.length);
+        }
+
+        public int getCount() {
+            return sorted.length;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStdDev() {
+            return stdDev;
+        }
+
+        public double getMin() {
+            return sorted.length == 0 ? 0.0 : sorted[0];
+        }
+
+        public double getMax() {
+            return sorted.length == 0 ? 0.0 : sorted[sorted.length - 1];
+        }
+
+        /**
+         * Nearest-rank percentile.
+         * @param p percentile in [0, 100]
+         */
+        public double percentile(double p) {
+            if (sorted.length == 0)
+                return 0.0;
+            double clamped = Math.max(0.0, Math.min(100.0, p));
+            int rank = (int) Math.ceil(clamped / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mean=%.2f sd=%.2f p10=%.1f p50=%.1f p90=%.1f", mean, stdDev, percentile(10),
+                    percentile(50), percentile(90));
+        }
+    }
+
+    /**
+     * Outcome of a simulation run.
+     */
+    public static final class Result {
+        private final String attackerName;
+        private final String defenderName;
+        private final int trials;
+        private final int maxRounds;
+        private final int attackerWins;
+        private final int defenderWins;
+        private final int draws;
+        private final Distribution timeToKill;
+        private final Distribution attackerDamagePerTurn;
+        private final Distribution defenderDamagePerTurn;
+        private final SideCounts attackerCounts;
+        private final SideCounts defenderCounts;
+
+        Result(String attackerName, String defenderName, int maxRounds, Trials t, SideCounts attackerCounts,
+                SideCounts defenderCounts) {
+            this.attackerName = attackerName;
+            this.defenderName = defenderName;
+            this.trials = t.outcome.length;
+            this.maxRounds = maxRounds;
+            this.attackerCounts = attackerCounts;
+            this.defenderCounts = defenderCounts;
+
+            int aWins = 0;
+            int dWins = 0;
+            for (byte o : t.outcome) {
+                if (o == ATTACKER_WON)
+                    aWins++;
+                else if (o == DEFENDER_WON)
+                    dWins++;
+            }
+            this.attackerWins = aWins;
+            this.defenderWins = dWins;
+            this.draws = trials - aWins - dWins;
+
+            double[] ttk = new double[aWins + dWins];
+            double[] aDpt = new double[trials];
+            double[] dDpt = new double[trials];
+            int k = 0;
+            for (int i = 0; i < trials; i++) {
+                if (t.outcome[i] != DRAW)
+                    ttk[k++] = t.rounds[i];
+                aDpt[i] = (double) t.attackerDamage[i] / t.rounds[i];
+                dDpt[i] = (double) t.defenderDamage[i] / t.rounds[i];
+            }
+            this.timeToKill = new Distribution(ttk);
+            this.attackerDamagePerTurn = new Distribution(aDpt);
+            this.defenderDamagePerTurn = new Distribution(dDpt);
+        }
+
+        public String getAttackerName() {
+            return attackerName;
+        }
+
+        public String getDefenderName() {
+            return defenderName;
+        }
+
+        public int getTrials() {
+            return trials;
+        }
+
+        public int getMaxRounds() {
+            return maxRounds;
+        }
+
+        public int getAttackerWins() {
+            return attackerWins;
+        }
+
+        public int getDefenderWins() {
+            return defenderWins;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        /** Probability that the attacker wins a fight. */
+        public double getWinProbability() {
+            return (double) attackerWins / trials;
+        }
+
+        /** Rounds until either side dropped, over decided fights only. */
+        public Distribution getTimeToKill() {
+            return timeToKill;
+        }
+
+        /** HP the attacker took off the defender per round, per fight. */
+        public Distribution getAttackerDamagePerTurn() {
+            return attackerDamagePerTurn;
+        }
+
+        /** HP the defender took off the attacker per round, per fight. */
+        public Distribution getDefenderDamagePerTurn() {
+            return defenderDamagePerTurn;
+        }
+
+        public SideCounts getAttackerCounts() {
+            return attackerCounts;
+        }
+
+        public SideCounts getDefenderCounts() {
+            return defenderCounts;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(attackerName).append(" vs ").append(defenderName).append(" (").append(trials)
+                    .append(" trials)\n");
+            sb.append(String.format("  win %.1f%%  loss %.1f%%  draw %.1f%%%n", 100.0 * attackerWins / trials,
+                    100.0 * defenderWins / trials, 100.0 * draws / trials));
+            sb.append("  time to kill: ").append(timeToKill).append('\n');
+            appendSide(sb, attackerName, attackerDamagePerTurn, attackerCounts);
+            appendSide(sb, defenderName, defenderDamagePerTurn, defenderCounts);
+            return sb.toString();
+        }
+
+        private static void appendSide(StringBuilder sb, String name, Distribution dpt, SideCounts c) {
+            sb.append("  ").append(name).append(": dmg/turn ").append(dpt)
+                    .append(String.format("  hit %.1f%% crit %.1f%% blocked %.1f%%%n", 100 * c.getHitRate(),
+                            100 * c.getCritRate(), 100 * c.getBlockRate()));
+        }
+    }
+}
@@ -7,8 +7,16 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public final class DefaultRandomProvider implements RandomProvider {
 
+    /** Stateless, so one instance serves every caller. */
+    public static final DefaultRandomProvider INSTANCE = new DefaultRandomProvider();
+
     @Override
     public float nextFloat() {
         return ThreadLocalRandom.current().nextFloat();
     }
+
+    @Override
+    public int nextInt(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
 }
@@ -1,11 +1,29 @@
 package com.bapppis.core.combat;
 
 /**
- * RNG abstraction used by the combat engine to allow deterministic testing.
+ * RNG abstraction used by combat, loot, AI and generation so runs can be
+ * seeded and replayed (see {@link SessionRandom}) and tests can script rolls.
  */
 public interface RandomProvider {
     /**
      * Returns a uniformly distributed float in [0.0, 1.0).
      */
     float nextFloat();
+
+    /**
+     * Returns a uniformly distributed int in [0, bound). The default scales
+     * {@link #nextFloat()}, so stubs that only script floats still work.
+     */
+    default int nextInt(int bound) {
+        int r = (int) (nextFloat() * bound);
+        return r >= bound ? bound - 1 : r;
+    }
+
+    /**
+     * Returns a uniformly distributed double in [0.0, 1.0). The default widens
+     * {@link #nextFloat()}.
+     */
+    default double nextDouble() {
+        return nextFloat();
+    }
 }
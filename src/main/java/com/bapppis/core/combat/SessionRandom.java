@@ -0,0 +1,107 @@
+package com.bapppis.core.combat;
+
+/**
+ * The random state of one game session, built from a single seed.
+ *
+ * Each subsystem draws from its own child stream (combat, loot, AI, dungeon
+ * generation), forked from the root in a fixed order. The same seed therefore
+ * replays the same run, and an extra roll in one subsystem does not shift the
+ * numbers any other subsystem sees.
+ *
+ * Code that has no session passed to it uses {@link #current()}: the session
+ * bound to the calling thread (see
+ * {@link com.bapppis.core.game.GameContext#bind()}), or else the global one.
+ * Streams are not thread-safe; parallel work should
+ * {@link SplittableRandomProvider#split() split} its own streams instead of
+ * sharing these.
+ */
+public final class SessionRandom {
+    private static volatile SessionRandom current = new SessionRandom(System.nanoTime());
+    private static final ThreadLocal<SessionRandom> bound = new ThreadLocal<>();
+
+    private final long seed;
+    private final SplittableRandomProvider combat;
+    private final SplittableRandomProvider loot;
+    private final SplittableRandomProvider ai;
+    private final SplittableRandomProvider generation;
+
+    public SessionRandom(long seed) {
+        this.seed = seed;
+        SplittableRandomProvider root = new SplittableRandomProvider(seed);
+        // Order matters: it is part of what makes a seed reproducible
+        this.combat = root.split();
+        this.loot = root.split();
+        this.ai = root.split();
+        this.generation = root.split();
+    }
+
+    /**
+     * The session used by code that is not handed one explicitly.
+     */
+    public static SessionRandom current() {
+        SessionRandom session = bound.get();
+        return session != null ? session : current;
+    }
+
+    /**
+     * Replace the current session: the one bound to this thread if there is
+     * one, otherwise the global one.
+     */
+    public static void setCurrent(SessionRandom session) {
+        if (session == null) {
+            throw new IllegalArgumentException("SessionRandom cannot be null");
+        }
+        if (bound.get() != null)
+            bound.set(session);
+        else
+            current = session;
+    }
+
+    /**
+     * Replace the current session with a fresh one built from {@code seed}.
+     */
+    public static SessionRandom reseed(long seed) {
+        SessionRandom session = new SessionRandom(seed);
+        setCurrent(session);
+        return session;
+    }
+
+    /**
+     * Make {@code session} current on this thread only; null unbinds the
+     * thread so it sees the global session again.
+     * @return the session bound before, or null, for {@link #restoreThread}
+     */
+    public static SessionRandom bindThread(SessionRandom session) {
+        SessionRandom previous = bound.get();
+        restoreThread(session);
+        return previous;
+    }
+
+    /** Undo {@link #bindThread}; null unbinds the thread. */
+    public static void restoreThread(SessionRandom previous) {
+        if (previous != null)
+            bound.set(previous);
+        else
+            bound.remove();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SplittableRandomProvider combat() {
+        return combat;
+    }
+
+    public SplittableRandomProvider loot() {
+        return loot;
+    }
+
+    public SplittableRandomProvider ai() {
+        return ai;
+    }
+
+    public SplittableRandomProvider generation() {
+        return generation;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bapppis.core.combat;
+
+import java.util.SplittableRandom;
+
+/**
+ * RandomProvider over a {@link SplittableRandom}. Two providers built from the
+ * same seed produce the same sequence, and {@link #split()} forks an
+ * independent stream for another consumer or thread.
+ *
+ * Not thread-safe: give each thread its own split instead of sharing one.
+ */
+public final class SplittableRandomProvider implements RandomProvider {
+    private final SplittableRandom random;
+
+    public SplittableRandomProvider(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomProvider(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public float nextFloat() {
+        // 24 random bits, the same construction as Random.nextFloat()
+        return (random.nextInt() >>> 8) * 0x1.0p-24f;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    /**
+     * Fork an independent stream. The parent advances, so successive splits
+     * from the same parent differ from each other.
+     */
+    public SplittableRandomProvider split() {
+        return new SplittableRandomProvider(random.split());
+    }
+}
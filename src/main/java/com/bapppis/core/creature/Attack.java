@@ -2,6 +2,7 @@ package com.bapppis.core.creature;
 
 import com.bapppis.core.Resistances;
 import com.bapppis.core.util.Dice;
+import com.bapppis.core.util.DiceExpression;
 
 public class Attack {
 
@@ -26,6 +27,52 @@ public class Attack {
     public Float physBuildUpMod;
     public Float magicBuildUpMod;
 
+    // Compiled dice, recompiled only if the matching string field is reassigned
+    private transient DiceExpression physicalDice;
+    private transient String physicalDiceSource;
+    private transient DiceExpression physicalDice2;
+    private transient String physicalDice2Source;
+    private transient DiceExpression magicDice;
+    private transient String magicDiceSource;
+    private transient DiceExpression magicDice2;
+    private transient String magicDice2Source;
+
+    public Attack() {
+    }
+
+    /**
+     * Copy constructor, used when copying a creature so its attacks can be
+     * changed without touching the template's.
+     */
+    public Attack(Attack other) {
+        this.name = other.name;
+        this.times = other.times;
+        this.physicalDamageDice = other.physicalDamageDice;
+        this.physicalDamageDice2 = other.physicalDamageDice2;
+        this.physicalOnHitProperty = other.physicalOnHitProperty;
+        this.magicDamageDice = other.magicDamageDice;
+        this.magicDamageDice2 = other.magicDamageDice2;
+        this.magicOnHitProperty = other.magicOnHitProperty;
+        this.magicDamageType = other.magicDamageType;
+        this.damageMultiplier = other.damageMultiplier;
+        this.magicDamageMultiplier = other.magicDamageMultiplier;
+        this.damageType = other.damageType;
+        this.weight = other.weight;
+        this.critMod = other.critMod;
+        this.accuracy = other.accuracy;
+        this.magicAccuracy = other.magicAccuracy;
+        this.physBuildUpMod = other.physBuildUpMod;
+        this.magicBuildUpMod = other.magicBuildUpMod;
+        this.physicalDice = other.physicalDice;
+        this.physicalDiceSource = other.physicalDiceSource;
+        this.physicalDice2 = other.physicalDice2;
+        this.physicalDice2Source = other.physicalDice2Source;
+        this.magicDice = other.magicDice;
+        this.magicDiceSource = other.magicDiceSource;
+        this.magicDice2 = other.magicDice2;
+        this.magicDice2Source = other.magicDice2Source;
+    }
+
     public int getTimes() {
         return times == null ? 1 : times;
     }
@@ -74,6 +121,38 @@ public class Attack {
         return magicBuildUpMod;
     }
 
+    public DiceExpression getPhysicalDice() {
+        if (physicalDice == null || physicalDiceSource != physicalDamageDice) {
+            physicalDice = Dice.compile(physicalDamageDice);
+            physicalDiceSource = physicalDamageDice;
+        }
+        return physicalDice;
+    }
+
+    public DiceExpression getPhysicalDice2() {
+        if (physicalDice2 == null || physicalDice2Source != physicalDamageDice2) {
+            physicalDice2 = Dice.compile(physicalDamageDice2);
+            physicalDice2Source = physicalDamageDice2;
+        }
+        return physicalDice2;
+    }
+
+    public DiceExpression getMagicDice() {
+        if (magicDice == null || magicDiceSource != magicDamageDice) {
+            magicDice = Dice.compile(magicDamageDice);
+            magicDiceSource = magicDamageDice;
+        }
+        return magicDice;
+    }
+
+    public DiceExpression getMagicDice2() {
+        if (magicDice2 == null || magicDice2Source != magicDamageDice2) {
+            magicDice2 = Dice.compile(magicDamageDice2);
+            magicDice2Source = magicDamageDice2;
+        }
+        return magicDice2;
+    }
+
     public Resistances getDamageTypeEnum() {
         return this.damageType;
     }
@@ -117,9 +196,7 @@ public class Attack {
     public int rollPhysicalDamage(int statBonus) {
         int total = 0;
         for (int i = 0; i < getTimes(); i++) {
-            if (physicalDamageDice != null && !physicalDamageDice.isBlank()) {
-                total += Dice.roll(physicalDamageDice);
-            }
+            total += getPhysicalDice().roll();
             total += Math.max(0, statBonus);
         }
         return total;
@@ -131,9 +208,7 @@ public class Attack {
     public int rollMagicDamage() {
         int total = 0;
         for (int i = 0; i < getTimes(); i++) {
-            if (magicDamageDice != null && !magicDamageDice.isBlank()) {
-                total += Dice.roll(magicDamageDice);
-            }
+            total += getMagicDice().roll();
         }
         return total;
     }
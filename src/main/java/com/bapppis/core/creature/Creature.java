@@ -777,6 +777,14 @@ public abstract class Creature {
     }
 
     public void attack(Creature target) {
+        attack(target, com.bapppis.core.combat.SessionRandom.current().combat());
+    }
+
+    /**
+     * Pick a weighted attack or spell and resolve it against the target,
+     * drawing every roll from the given random source.
+     */
+    public void attack(Creature target, com.bapppis.core.combat.RandomProvider rng) {
         // Build weighted pool: weapon attacks, creature attacks, and spells
         java.util.List<Object> actionPool = new java.util.ArrayList<>();
         java.util.List<Integer> weights = new java.util.ArrayList<>();
@@ -847,7 +855,7 @@ public abstract class Creature {
             totalWeight += w;
         }
 
-        int pick = java.util.concurrent.ThreadLocalRandom.current().nextInt(Math.max(1, totalWeight));
+        int pick = rng.nextInt(Math.max(1, totalWeight));
         Object chosen = null;
         for (int i = 0; i < actionPool.size(); i++) {
             pick -= weights.get(i);
@@ -864,7 +872,7 @@ public abstract class Creature {
         if (chosen instanceof Spell) {
             // Cast spell
             Spell spell = (Spell) chosen;
-            com.bapppis.core.spell.SpellEngine.castSpell(this, spell, target);
+            com.bapppis.core.spell.SpellEngine.castSpell(this, spell, target, rng);
         } else if (chosen instanceof Attack) {
             // Execute attack
             Attack attack = (Attack) chosen;
@@ -877,12 +885,12 @@ public abstract class Creature {
                 // This is a weapon attack - pass stat bonus (not multiplied), will be applied with multiplier in AttackEngine
                 statBonus = WeaponUtil.determineWeaponStatBonus(this, weapon);
                 com.bapppis.core.combat.AttackEngine.applyAttackToTarget(this, attack, statBonus, target,
-                        weapon.getDamageType(), weapon.getMagicElement(), weapon);
+                        weapon.getDamageType(), weapon.getMagicElement(), weapon, rng);
             } else {
                 // This is a natural attack - pass stat bonus (not multiplied), will be applied with multiplier in AttackEngine
                 statBonus = Math.max(0, this.getStatBonus(Stats.STRENGTH));
                 com.bapppis.core.combat.AttackEngine.applyAttackToTarget(this, attack, statBonus, target, physType,
-                        magType, null);
+                        magType, null, rng);
             }
         }
     }
@@ -891,6 +899,10 @@ public abstract class Creature {
         return inventory;
     }
 
+    public java.util.List<Attack> getAttacks() {
+        return attacks;
+    }
+
     public java.util.List<Spell> getSpells() {
         return spells;
     }
@@ -1287,6 +1299,141 @@ public abstract class Creature {
         updateCrit();
     }
 
+    private static final ClassValue<java.util.function.Supplier<Creature>> BLANK_FACTORIES = new ClassValue<>() {
+        @Override
+        protected java.util.function.Supplier<Creature> computeValue(Class<?> type) {
+            try {
+                java.lang.reflect.Constructor<?> ctor = type.getDeclaredConstructor();
+                ctor.setAccessible(true);
+                return () -> {
+                    try {
+                        return (Creature) ctor.newInstance();
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("Cannot instantiate " + type.getName(), e);
+                    }
+                };
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(type.getName() + " needs a no-arg constructor to be copied", e);
+            }
+        }
+    };
+
+    /**
+     * Deep copy of this creature, used to spawn instances from loaded
+     * templates. Stats, resistances, build-ups, equipment bookkeeping,
+     * properties, attacks and spell references are duplicated; item and
+     * spell definitions are shared, as they are not modified after loading.
+     * World placement (position, AI state) is not copied.
+     */
+    public Creature copy() {
+        Creature c = newBlank();
+        if (c.getClass() != getClass()) {
+            // A subclass inherited its parent's newBlank() without overriding it
+            c = BLANK_FACTORIES.get(getClass()).get();
+        }
+        c.copyFrom(this);
+        return c;
+    }
+
+    /**
+     * Blank instance of this creature's class for {@link #copy()}. Every
+     * creature class in the game overrides this with a constructor call;
+     * other subclasses fall back to a constructor looked up once per class.
+     */
+    protected Creature newBlank() {
+        return BLANK_FACTORIES.get(getClass()).get();
+    }
+
+    /**
+     * Copy all state from {@code src} into this freshly constructed creature.
+     * Subclasses with their own fields override this and call super first.
+     */
+    protected void copyFrom(Creature src) {
+        this.id = src.id;
+        this.name = src.name;
+        this.visionRange = src.visionRange;
+        this.level = src.level;
+        this.xp = src.xp;
+        this.baseHp = src.baseHp;
+        this.maxHp = src.maxHp;
+        this.currentHp = src.currentHp;
+        this.hpDice = src.hpDice;
+        this.currentMana = src.currentMana;
+        this.currentStamina = src.currentStamina;
+        this.maxMana = src.maxMana;
+        this.baseMaxMana = src.baseMaxMana;
+        this.maxStamina = src.maxStamina;
+        this.baseMaxStamina = src.baseMaxStamina;
+        this.baseHpRegen = src.baseHpRegen;
+        this.baseStaminaRegen = src.baseStaminaRegen;
+        this.baseManaRegen = src.baseManaRegen;
+        this.size = src.size;
+        this.type = src.type;
+        this.creatureType = src.creatureType;
+        this.stats = src.stats == null ? null : new EnumMap<>(src.stats);
+        this.resistances = src.resistances == null ? null : new EnumMap<>(src.resistances);
+        this.resBuildUp = src.resBuildUp == null ? null : new java.util.EnumMap<>(src.resBuildUp);
+        this.freshResBuildUps = src.freshResBuildUps == null ? java.util.EnumSet.noneOf(ResBuildUp.class)
+                : java.util.EnumSet.copyOf(src.freshResBuildUps);
+        this.baseCrit = src.baseCrit;
+        this.baseDodge = src.baseDodge;
+        this.baseBlock = src.baseBlock;
+        this.baseMagicResist = src.baseMagicResist;
+        this.hpRegen = src.hpRegen;
+        this.staminaRegen = src.staminaRegen;
+        this.manaRegen = src.manaRegen;
+        this.crit = src.crit;
+        this.dodge = src.dodge;
+        this.block = src.block;
+        this.magicResist = src.magicResist;
+        this.accuracy = src.accuracy;
+        this.magicAccuracy = src.magicAccuracy;
+        this.equipmentStats.clear();
+        this.equipmentStats.putAll(src.equipmentStats);
+        this.equipmentResists.clear();
+        this.equipmentResists.putAll(src.equipmentResists);
+        this.equipmentHpRegen = src.equipmentHpRegen;
+        this.equipmentStaminaRegen = src.equipmentStaminaRegen;
+        this.equipmentManaRegen = src.equipmentManaRegen;
+        this.equipmentCrit = src.equipmentCrit;
+        this.equipmentDodge = src.equipmentDodge;
+        this.equipmentBlock = src.equipmentBlock;
+        this.equipmentMagicResist = src.equipmentMagicResist;
+        this.equipmentAccuracy = src.equipmentAccuracy;
+        this.equipmentMagicAccuracy = src.equipmentMagicAccuracy;
+        this.propertyCrit = src.propertyCrit;
+        this.propertyDodge = src.propertyDodge;
+        this.propertyBlock = src.propertyBlock;
+        this.propertyMagicResist = src.propertyMagicResist;
+        this.propertyAccuracy = src.propertyAccuracy;
+        this.propertyMagicAccuracy = src.propertyMagicAccuracy;
+        this.statBonuses.clear();
+        this.statBonuses.putAll(src.statBonuses);
+        this.propertyManager = new PropertyManager(this);
+        this.propertyManager.copyFrom(src.propertyManager);
+        this.description = src.description;
+        this.equipment = new EnumMap<>(EquipmentSlot.class);
+        this.equipment.putAll(src.equipment);
+        this.inventory = new Inventory();
+        this.inventory.setOwner(this);
+        this.inventory.copyFrom(src.inventory);
+        this.attacks = new java.util.ArrayList<>(src.attacks == null ? 0 : src.attacks.size());
+        if (src.attacks != null) {
+            for (Attack a : src.attacks)
+                this.attacks.add(new Attack(a));
+        }
+        this.spells = src.spells == null ? new java.util.ArrayList<>() : new java.util.ArrayList<>(src.spells);
+        this.spellReferences = new java.util.ArrayList<>(
+                src.spellReferences == null ? 0 : src.spellReferences.size());
+        if (src.spellReferences != null) {
+            for (com.bapppis.core.spell.SpellReference r : src.spellReferences)
+                this.spellReferences.add(new com.bapppis.core.spell.SpellReference(r));
+        }
+        this.sprite = src.sprite;
+        this.deathSprite = src.deathSprite;
+        this.lootPool = src.lootPool;
+    }
+
     public void printAllFields() {
         System.out.println("Creature: " + getName() + " (Id:" + getId() + ")");
         System.out.println("Class: " + getClass().getSimpleName());
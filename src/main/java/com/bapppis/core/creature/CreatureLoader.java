@@ -4,38 +4,48 @@ import com.bapppis.core.property.PropertyLoader;
 import com.bapppis.core.property.Property;
 import com.bapppis.core.item.ItemLoader;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.Resource;
-import io.github.classgraph.ScanResult;
-import java.io.InputStreamReader;
+import com.bapppis.core.util.ResourceIndex;
 import java.io.Reader;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.Map;
 
 public class CreatureLoader {
-    private static final HashMap<String, Creature> creatureMap = new HashMap<>();
-    private static final HashMap<Integer, Creature> creatureIdMap = new HashMap<>();
-    private static final HashMap<String, Player> playerMap = new HashMap<>();
-    private static final HashMap<Integer, Player> playerIdMap = new HashMap<>();
-    private static boolean loaded = false;
+    // The four lookup maps, built by a load and published together. A
+    // published registry is never modified, so generator and simulation
+    // threads can look templates up without locking.
+    private static volatile Registry registry = new Registry();
+    private static volatile boolean loaded = false;
+    private static final String[] CREATURE_DIRS = { "data/creatures" };
+
+    private static final class Registry {
+        final HashMap<String, Creature> creatureMap = new HashMap<>();
+        final HashMap<Integer, Creature> creatureIdMap = new HashMap<>();
+        final HashMap<String, Player> playerMap = new HashMap<>();
+        final HashMap<Integer, Player> playerIdMap = new HashMap<>();
+    }
 
     public static void loadCreatures() {
         if (loaded)
             return;
-        forceReload();
+        synchronized (CreatureLoader.class) {
+            if (!loaded)
+                forceReload();
+        }
     }
 
     /**
      * Force reload of all creatures, even if already loaded. Use in individual
      * tests.
      */
-    public static void forceReload() {
-        creatureMap.clear();
-        creatureIdMap.clear();
-        playerMap.clear();
-        playerIdMap.clear();
+    public static synchronized void forceReload() {
+        Registry next = new Registry();
+        HashMap<String, Creature> creatureMap = next.creatureMap;
+        HashMap<Integer, Creature> creatureIdMap = next.creatureIdMap;
+        HashMap<String, Player> playerMap = next.playerMap;
+        HashMap<Integer, Player> playerIdMap = next.playerIdMap;
         loaded = false;
 
         // Ensure items are loaded first so starting inventory/equipment ids resolve
@@ -49,24 +59,14 @@ public class CreatureLoader {
                 .registerTypeAdapter(com.bapppis.core.Resistances.class,
                         new com.bapppis.core.util.ResistancesDeserializer())
                 .create();
-        try (ScanResult scanResult = new ClassGraph()
-                // Scan production creature data and the test fixture package so unit tests
-                // find JSON under com/... during test execution.
-                .acceptPaths("data/creatures", "com/bapppis/core/Creature")
-                .scan()) {
-            // Keep track of relative resource paths we've processed so we don't load the
-            // same path multiple times when it appears on the classpath (for example
-            // when both a source and compiled copy exist). This prevents duplicate-id
-            // warnings caused by duplicate classpath entries.
-            java.util.Set<String> processedResourcePaths = new java.util.HashSet<>();
-            for (Resource resource : scanResult.getAllResources()) {
+        // The resource index keeps one copy of each path, so a path that appears
+        // twice on the classpath is only loaded once.
+        ResourceIndex index = ResourceIndex.get();
+        for (String dir : CREATURE_DIRS) {
+            for (ResourceIndex.Entry resource : index.list(dir)) {
                 String relPath = resource.getPath();
-                // Skip duplicates of the same relative path
-                if (processedResourcePaths.contains(relPath))
-                    continue;
-                processedResourcePaths.add(relPath);
                 if (relPath.endsWith(".json")) {
-                    try (Reader reader = new InputStreamReader(resource.open())) {
+                    try (Reader reader = resource.openReader()) {
                         Creature creature;
                         // Read the JSON into a JsonObject first so we can strip fields that would
                         // conflict with existing types (for example: inventory is an array in
@@ -572,14 +572,23 @@ public class CreatureLoader {
                 }
             }
         }
+        registry = next;
         loaded = true;
+        // Loot tables hold the templates they were compiled against
+        com.bapppis.core.loot.LootPoolRegistry.invalidate();
     }
 
     // copyCreatureFields removed: unused helper
 
+    private static Reader openData(String resourcePath) throws java.io.FileNotFoundException {
+        ResourceIndex.Entry entry = ResourceIndex.get().find(resourcePath);
+        if (entry == null)
+            throw new java.io.FileNotFoundException(resourcePath);
+        return entry.openReader();
+    }
+
     private static void applyStartingItemsFromJson(String resourcePath, com.google.gson.Gson gson, Creature creature) {
-        try (Reader reader = new InputStreamReader(
-                CreatureLoader.class.getClassLoader().getResourceAsStream(resourcePath))) {
+        try (Reader reader = openData(resourcePath)) {
             com.google.gson.JsonObject obj = gson.fromJson(reader, com.google.gson.JsonObject.class);
             if (obj == null)
                 return;
@@ -650,8 +659,7 @@ public class CreatureLoader {
     }
 
     private static void applySpellsFromJson(String resourcePath, com.google.gson.Gson gson, Creature creature) {
-        try (Reader reader = new InputStreamReader(
-                CreatureLoader.class.getClassLoader().getResourceAsStream(resourcePath))) {
+        try (Reader reader = openData(resourcePath)) {
             com.google.gson.JsonObject obj = gson.fromJson(reader, com.google.gson.JsonObject.class);
             if (obj == null)
                 return;
@@ -721,8 +729,7 @@ public class CreatureLoader {
 
     // Helper to extract property IDs from JSON
     private static List<Integer> getPropertyIdsFromJson(String resourcePath, com.google.gson.Gson gson) {
-        try (Reader reader = new InputStreamReader(
-                CreatureLoader.class.getClassLoader().getResourceAsStream(resourcePath))) {
+        try (Reader reader = openData(resourcePath)) {
             com.google.gson.JsonObject obj = gson.fromJson(reader, com.google.gson.JsonObject.class);
             if (obj != null && obj.has("properties")) {
                 List<Integer> ids = new ArrayList<>();
@@ -759,8 +766,7 @@ public class CreatureLoader {
 
     // Helper to extract property IDs to remove from JSON ("removeProperties")
     private static List<Integer> getRemovePropertyIdsFromJson(String resourcePath, com.google.gson.Gson gson) {
-        try (Reader reader = new InputStreamReader(
-                CreatureLoader.class.getClassLoader().getResourceAsStream(resourcePath))) {
+        try (Reader reader = openData(resourcePath)) {
             com.google.gson.JsonObject obj = gson.fromJson(reader, com.google.gson.JsonObject.class);
             if (obj != null && obj.has("removeProperties")) {
                 List<Integer> ids = new ArrayList<>();
@@ -798,26 +804,28 @@ public class CreatureLoader {
     public static Creature getCreature(String name) {
         if (name == null)
             return null;
+        Registry r = registry;
         String key = name.trim().toLowerCase();
-        Creature c = creatureMap.get(key);
+        Creature c = r.creatureMap.get(key);
         if (c != null)
             return c;
-        Creature p = playerMap.get(key);
+        Creature p = r.playerMap.get(key);
         if (p != null)
             return p;
         // try space-free variant
         String keyNoSpace = key.replaceAll("\\s+", "");
-        c = creatureMap.get(keyNoSpace);
+        c = r.creatureMap.get(keyNoSpace);
         if (c != null)
             return c;
-        return playerMap.get(keyNoSpace);
+        return r.playerMap.get(keyNoSpace);
     }
 
     public static Creature getCreatureById(int id) {
-        Creature c = creatureIdMap.get(id);
+        Registry r = registry;
+        Creature c = r.creatureIdMap.get(id);
         if (c != null)
             return c;
-        return playerIdMap.get(id);
+        return r.playerIdMap.get(id);
     }
 
     /**
@@ -830,72 +838,74 @@ public class CreatureLoader {
         String t = name.trim();
         try {
             int id = Integer.parseInt(t);
-            Creature tmpl = getCreatureById(id);
-            if (tmpl == null)
-                return null;
-            // Use a Gson instance that excludes the 'propertyManager' field during
-            // serialization to avoid serializing the back-reference to the creature
-            // (which causes infinite recursion). The new instance will create its
-            // own PropertyManager in the constructor when deserialized.
-            com.google.gson.Gson g = new com.google.gson.GsonBuilder()
-                    .addSerializationExclusionStrategy(new com.google.gson.ExclusionStrategy() {
-                        @Override
-                        public boolean shouldSkipField(com.google.gson.FieldAttributes f) {
-                            return "propertyManager".equals(f.getName());
-                        }
-
-                        @Override
-                        public boolean shouldSkipClass(Class<?> clazz) {
-                            return false;
-                        }
-                    }).create();
-            Creature copy = g.fromJson(g.toJson(tmpl), tmpl.getClass());
-            copy.finalizeAfterLoad();
-            return copy;
+            return spawnCopy(getCreatureById(id));
         } catch (NumberFormatException ignored) {
         }
-        Creature tmpl = getCreature(name);
-        if (tmpl == null)
-            return null;
         try {
-            com.google.gson.Gson g = new com.google.gson.GsonBuilder()
-                    .addSerializationExclusionStrategy(new com.google.gson.ExclusionStrategy() {
-                        @Override
-                        public boolean shouldSkipField(com.google.gson.FieldAttributes f) {
-                            return "propertyManager".equals(f.getName());
-                        }
-
-                        @Override
-                        public boolean shouldSkipClass(Class<?> clazz) {
-                            return false;
-                        }
-                    }).create();
-            Creature copy = g.fromJson(g.toJson(tmpl), tmpl.getClass());
-            copy.finalizeAfterLoad();
-            return copy;
+            return spawnCopy(getCreature(name));
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * Create a deep copy of a creature template (see {@link Creature#copy()}).
+     * The copy shares no mutable state with the template, so it can be
+     * fought, equipped or killed freely. Returns null if the template is null.
+     */
+    public static Creature spawnCopy(Creature tmpl) {
+        if (tmpl == null)
+            return null;
+        Creature copy = tmpl.copy();
+        copy.finalizeAfterLoad();
+        return copy;
+    }
+
     public static List<Creature> getAllCreatures() {
-        ArrayList<Creature> combined = new ArrayList<>(creatureMap.values());
-        combined.addAll(playerMap.values());
+        Registry r = registry;
+        ArrayList<Creature> combined = new ArrayList<>(r.creatureMap.values());
+        combined.addAll(r.playerMap.values());
         return combined;
     }
 
     // Player-specific accessors
     public static Player getPlayer(String name) {
-        return playerMap.get(name);
+        return registry.playerMap.get(name);
     }
 
     public static Player getPlayerById(int id) {
-        return playerIdMap.get(id);
+        return registry.playerIdMap.get(id);
     }
 
     public static List<Player> getAllPlayers() {
         // Use playerIdMap to avoid duplicates (playerMap has same player under multiple
         // name keys)
-        return new ArrayList<>(playerIdMap.values());
+        return new ArrayList<>(registry.playerIdMap.values());
+    }
+
+    /**
+     * The registry maps, in the order {@link #installRegistries(List)} takes
+     * them. Used to write a data bundle.
+     */
+    public static List<Map<?, ?>> getRegistries() {
+        Registry r = registry;
+        return List.of(r.creatureMap, r.creatureIdMap, r.playerMap, r.playerIdMap);
+    }
+
+    /**
+     * Replace the registries with maps read back from a data bundle and mark
+     * creatures as loaded. The templates are used as they were when the bundle
+     * was written, species deltas and property effects already applied.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized void installRegistries(List<Map<?, ?>> maps) {
+        Registry next = new Registry();
+        next.creatureMap.putAll((Map<String, Creature>) maps.get(0));
+        next.creatureIdMap.putAll((Map<Integer, Creature>) maps.get(1));
+        next.playerMap.putAll((Map<String, Player>) maps.get(2));
+        next.playerIdMap.putAll((Map<Integer, Player>) maps.get(3));
+        registry = next;
+        loaded = true;
+        com.bapppis.core.loot.LootPoolRegistry.invalidate();
     }
 }
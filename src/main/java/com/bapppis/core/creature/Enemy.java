@@ -5,6 +5,8 @@ import com.bapppis.core.creature.creatureEnums.Type;
 import com.bapppis.core.dungeon.Coordinate;
 import com.bapppis.core.item.Item;
 import com.bapppis.core.item.itemEnums.EquipmentSlot;
+import com.bapppis.core.util.DebugLog;
+import com.bapppis.core.util.DebugLog.Category;
 import com.bapppis.core.util.LevelUtil;
 
 import java.util.ArrayList;
@@ -20,46 +22,53 @@ public class Enemy extends Creature {
     private List<Coordinate> patrolRoute = new ArrayList<>();
     private int patrolIndex = 0;
     private int alertCooldown = 0; // Turns remaining in ALERT state
-    private int stuckCounter = 0; // Consecutive turns unable to move toward waypoint
     private Coordinate spawnPosition = null; // Enemy's original spawn position for route regeneration
     private int routeCompletions = 0; // Number of times enemy has completed full patrol route
 
+    // Cached A* path (cell indices), valid while the floor layout and goal are unchanged
+    private int[] cachedPath = new int[8];
+    private int cachedPathLength = 0;
+    private int cachedPathStep = 0;
+    private int cachedPathGoal = -1;
+    private int cachedPathVersion = -1;
+    private com.bapppis.core.dungeon.Floor cachedPathFloor = null;
+
     public Enemy() {
         this.setType(Type.ENEMY);
     }
 
+    @Override
+    protected Enemy newBlank() {
+        return new Enemy();
+    }
+
+    @Override
+    protected void copyFrom(Creature src) {
+        super.copyFrom(src);
+        if (src instanceof Enemy) {
+            this.enemyXp = ((Enemy) src).enemyXp;
+        }
+    }
+
     public Coordinate getPosition() {
         return position;
     }
 
     public void setPosition(Coordinate position) {
-        // Update tile occupancy: remove from old tile occupants, add to new tile
-        // occupants
-        try {
-            com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState.getCurrentFloor();
-            if (floor != null) {
-                // Remove from previous tile occupants
-                if (this.position != null) {
-                    com.bapppis.core.dungeon.Tile old = floor.getTile(this.position);
-                    if (old != null) {
-                        old.getOccupants().remove(this);
-                    }
-                }
-                // Set new position
-                this.position = position;
-                // Add to new tile occupants
-                if (this.position != null) {
-                    com.bapppis.core.dungeon.Tile now = floor.getTile(this.position);
-                    if (now != null && !now.getOccupants().contains(this)) {
-                        now.getOccupants().add(this);
-                    }
-                }
-                return;
-            }
-        } catch (Exception ignored) {
-            // Fall back to simple set if anything goes wrong
-        }
+        setPosition(com.bapppis.core.game.GameState.getCurrentFloor(), position);
+    }
+
+    /**
+     * Set position on a specific floor, updating its tile occupants and
+     * creature registry. Used by generators, which place enemies on floors
+     * that are not the current one.
+     */
+    public void setPosition(com.bapppis.core.dungeon.Floor floor, Coordinate position) {
+        Coordinate previous = this.position;
         this.position = position;
+        if (floor != null) {
+            floor.moveCreature(this, previous, position);
+        }
     }
 
     public void setPosition(int x, int y) {
@@ -96,23 +105,44 @@ public class Enemy extends Creature {
      *                      (typically 3-5)
      */
     public void initializePatrolRoute(Coordinate spawnPosition, int patrolRadius) {
-        System.out.println("DEBUG InitPatrol: Initializing for " + getName() + " at " + spawnPosition + ", radius="
-                + patrolRadius);
+        initializePatrolRoute(com.bapppis.core.game.GameState.getCurrentFloor(), spawnPosition, patrolRadius);
+    }
+
+    /**
+     * Initialize a patrol route against a specific floor.
+     *
+     * @see #initializePatrolRoute(Coordinate, int)
+     */
+    public void initializePatrolRoute(com.bapppis.core.dungeon.Floor floor, Coordinate spawnPosition,
+            int patrolRadius) {
+        initializePatrolRoute(floor, spawnPosition, patrolRadius,
+                com.bapppis.core.combat.SessionRandom.current().ai());
+    }
+
+    /**
+     * Initialize a patrol route, drawing waypoints from {@code random}.
+     * Generators pass their own seeded source so a floor comes out the same
+     * whenever and on whichever thread it is built.
+     *
+     * @see #initializePatrolRoute(Coordinate, int)
+     */
+    public void initializePatrolRoute(com.bapppis.core.dungeon.Floor floor, Coordinate spawnPosition,
+            int patrolRadius, com.bapppis.core.combat.RandomProvider random) {
+        DebugLog.debug(Category.AI, () -> "InitPatrol: Initializing for " + getName() + " at " + spawnPosition
+                + ", radius=" + patrolRadius);
         this.spawnPosition = spawnPosition; // Store spawn for route regeneration
         patrolRoute.clear();
         patrolIndex = 0;
 
-        com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState.getCurrentFloor();
         if (floor == null || spawnPosition == null) {
-            System.out.println("  Floor or spawn is null!");
+            DebugLog.debug(Category.AI, () -> "  Floor or spawn is null!");
             return;
         }
 
         // Generate 2-4 waypoints around spawn (don't include spawn itself to avoid
         // teleporting)
-        java.util.Random random = new java.util.Random();
         int waypointCount = 2 + random.nextInt(3); // 2-4 waypoints
-        System.out.println("  Attempting " + waypointCount + " waypoints");
+        DebugLog.debug(Category.AI, () -> "  Attempting " + waypointCount + " waypoints");
 
         for (int i = 0; i < waypointCount; i++) {
             // Try to find a valid waypoint within patrol radius
@@ -144,10 +174,11 @@ public class Enemy extends Creature {
 
                     if (!isDuplicate && isReachable) {
                         patrolRoute.add(waypoint);
-                        System.out.println("  Added waypoint " + (i + 1) + ": " + waypoint);
+                        int added = i + 1;
+                        DebugLog.debug(Category.AI, () -> "  Added waypoint " + added + ": " + waypoint);
                         break;
                     } else if (!isDuplicate && !isReachable) {
-                        System.out.println("  Skipped " + waypoint + " (blocked by walls)");
+                        DebugLog.debug(Category.AI, () -> "  Skipped " + waypoint + " (blocked by walls)");
                     }
                 }
             }
@@ -155,7 +186,8 @@ public class Enemy extends Creature {
 
         // If we couldn't find enough waypoints, try cardinal directions
         if (patrolRoute.size() < 2) {
-            System.out.println("  Only " + patrolRoute.size() + " waypoint(s), trying cardinal directions...");
+            DebugLog.debug(Category.AI,
+                    () -> "  Only " + patrolRoute.size() + " waypoint(s), trying cardinal directions...");
             // Try to add waypoints in cardinal directions
             int[][] directions = { { 0, -2 }, { 2, 0 }, { 0, 2 }, { -2, 0 } };
             for (int[] dir : directions) {
@@ -177,12 +209,12 @@ public class Enemy extends Creature {
                     }
                     if (!isDuplicate) {
                         patrolRoute.add(waypoint);
-                        System.out.println("  Added cardinal waypoint: " + waypoint);
+                        DebugLog.debug(Category.AI, () -> "  Added cardinal waypoint: " + waypoint);
                     }
                 }
             }
         }
-        System.out.println("  Final patrol route size: " + patrolRoute.size());
+        DebugLog.debug(Category.AI, () -> "  Final patrol route size: " + patrolRoute.size());
     }
 
     /**
@@ -197,8 +229,17 @@ public class Enemy extends Creature {
      * If adjacent to player (distance 1), initiates combat instead of moving.
      */
     public void takeAITurn() {
+        takeAITurn(com.bapppis.core.game.GameContext.current());
+    }
+
+    /**
+     * Take a turn in the given game.
+     *
+     * @see #takeAITurn()
+     */
+    public void takeAITurn(com.bapppis.core.game.GameContext game) {
         // Don't move during combat
-        if (com.bapppis.core.game.GameState.isInCombat()) {
+        if (game.isInCombat()) {
             return;
         }
 
@@ -208,23 +249,23 @@ public class Enemy extends Creature {
         }
 
         // Get current floor and player
-        com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState.getCurrentFloor();
-        com.bapppis.core.creature.Player player = com.bapppis.core.game.GameState.getPlayer();
+        com.bapppis.core.dungeon.Floor floor = game.getCurrentFloor();
+        com.bapppis.core.creature.Player player = game.getPlayer();
 
         if (floor == null || player == null || player.getPosition() == null) {
             return;
         }
 
-        // Check if player is within vision range and has line of sight
+        // Check if player is within vision range and in the shared (symmetric) field of view
         int distanceToPlayer = Coordinate.manhattanDistance(this.position, player.getPosition());
         boolean canSeePlayer = distanceToPlayer <= this.getVisionRange()
-                && floor.hasLineOfSight(position.getX(), position.getY(),
-                        player.getPosition().getX(), player.getPosition().getY(), true);
+                && floor.canSee(position.getX(), position.getY(),
+                        player.getPosition().getX(), player.getPosition().getY(), this.getVisionRange());
 
         // If adjacent to player, start combat regardless of state
         if (distanceToPlayer == 1) {
-            com.bapppis.core.game.GameState.setInCombat(true);
-            com.bapppis.core.game.GameState.setCombatEnemy(this);
+            game.setInCombat(true);
+            game.setCombatEnemy(this);
             return;
         }
 
@@ -263,98 +304,62 @@ public class Enemy extends Creature {
         }
 
         // Continue patrolling
-        System.out.println("DEBUG Patrol: Enemy " + getName() + " at " + position);
-        System.out.println("  Patrol route size: " + patrolRoute.size());
+        DebugLog.debug(Category.AI, () -> "Patrol: Enemy " + getName() + " at " + position);
+        DebugLog.debug(Category.AI, () -> "  Patrol route size: " + patrolRoute.size());
 
         if (patrolRoute.isEmpty()) {
             // No patrol route - initialize one now
-            System.out.println("  Route empty, initializing...");
+            DebugLog.debug(Category.AI, () -> "  Route empty, initializing...");
             if (position != null) {
                 initializePatrolRoute(position, 4);
-                System.out.println("  After init, route size: " + patrolRoute.size());
+                DebugLog.debug(Category.AI, () -> "  After init, route size: " + patrolRoute.size());
             }
             return;
         }
 
         Coordinate targetWaypoint = patrolRoute.get(patrolIndex);
-        System.out.println("  Current waypoint index: " + patrolIndex + ", target: " + targetWaypoint);
-        System.out.println("  Route completions: " + routeCompletions);
+        DebugLog.debug(Category.AI,
+                () -> "  Current waypoint index: " + patrolIndex + ", target: " + targetWaypoint);
+        DebugLog.debug(Category.AI, () -> "  Route completions: " + routeCompletions);
 
         // Move toward target waypoint first
         if (!position.equals(targetWaypoint)) {
-            Coordinate positionBefore = new Coordinate(position.getX(), position.getY());
-            System.out.println("  Moving toward " + targetWaypoint + " (distance: "
+            DebugLog.debug(Category.AI, () -> "  Moving toward " + targetWaypoint + " (distance: "
                     + Coordinate.manhattanDistance(position, targetWaypoint) + ")");
-            moveToward(floor, targetWaypoint);
-
-            // Check if we actually moved
-            if (position.equals(positionBefore)) {
-                // Stuck! Increment counter
-                stuckCounter++;
-                System.out.println("  Stuck counter: " + stuckCounter + "/5");
-
-                if (stuckCounter >= 5) {
-                    // Waypoint is unreachable, skip to next
-                    System.out.println("  Waypoint unreachable after 5 attempts, skipping to next");
-                    int oldIndex = patrolIndex;
-                    patrolIndex = (patrolIndex + 1) % patrolRoute.size();
-                    stuckCounter = 0;
-                    
-                    // Check if we just completed a full cycle by wrapping around
-                    if (oldIndex > patrolIndex) {
-                        routeCompletions++;
-                        System.out.println("  Route completion #" + routeCompletions + " (from stuck skip)");
-                        
-                        // Regenerate route after 2 completions
-                        if (routeCompletions >= 2 && spawnPosition != null) {
-                            System.out.println("  Regenerating patrol route (2 completions reached)");
-                            initializePatrolRoute(spawnPosition, 4);
-                            routeCompletions = 0;
-                        }
-                    }
-                }
-            } else {
-                // Successfully moved, reset stuck counter
-                stuckCounter = 0;
-
-                // After moving, check if we've now reached the waypoint
-                if (position.equals(targetWaypoint)) {
-                    int oldIndex = patrolIndex;
-                    patrolIndex = (patrolIndex + 1) % patrolRoute.size();
-                    System.out.println("  Reached waypoint! Next target: " + patrolRoute.get(patrolIndex));
-                    
-                    // Check if we just completed a full cycle by wrapping to index 0
-                    if (oldIndex > patrolIndex) {
-                        routeCompletions++;
-                        System.out.println("  Route completion #" + routeCompletions);
-                        
-                        // Regenerate route after 2 completions
-                        if (routeCompletions >= 2 && spawnPosition != null) {
-                            System.out.println("  Regenerating patrol route (2 completions reached)");
-                            initializePatrolRoute(spawnPosition, 4);
-                            routeCompletions = 0;
-                        }
-                    }
-                }
+            if (!moveToward(floor, targetWaypoint)) {
+                // No path exists at all, so waiting will not help
+                DebugLog.debug(Category.AI, () -> "  Waypoint unreachable, skipping to next");
+                advanceWaypoint();
+            } else if (position.equals(targetWaypoint)) {
+                advanceWaypoint();
+                DebugLog.debug(Category.AI,
+                        () -> "  Reached waypoint! Next target: " + patrolRoute.get(patrolIndex));
             }
         } else {
             // Already at waypoint, advance to next
-            int oldIndex = patrolIndex;
-            patrolIndex = (patrolIndex + 1) % patrolRoute.size();
-            stuckCounter = 0;
-            System.out.println("  At waypoint, advancing to next: " + patrolRoute.get(patrolIndex));
-            
-            // Check if we just completed a full cycle by wrapping to index 0
-            if (oldIndex > patrolIndex) {
-                routeCompletions++;
-                System.out.println("  Route completion #" + routeCompletions);
-                
-                // Regenerate route after 2 completions
-                if (routeCompletions >= 2 && spawnPosition != null) {
-                    System.out.println("  Regenerating patrol route (2 completions reached)");
-                    initializePatrolRoute(spawnPosition, 4);
-                    routeCompletions = 0;
-                }
+            advanceWaypoint();
+            DebugLog.debug(Category.AI, () -> "  At waypoint, advancing to next: " + patrolRoute.get(patrolIndex));
+        }
+    }
+
+    /**
+     * Advance to the next patrol waypoint, regenerating the route after two
+     * full cycles.
+     */
+    private void advanceWaypoint() {
+        int oldIndex = patrolIndex;
+        patrolIndex = (patrolIndex + 1) % patrolRoute.size();
+
+        // Check if we just completed a full cycle by wrapping to index 0
+        if (oldIndex > patrolIndex) {
+            routeCompletions++;
+            DebugLog.debug(Category.AI, () -> "  Route completion #" + routeCompletions);
+
+            // Regenerate route after 2 completions
+            if (routeCompletions >= 2 && spawnPosition != null) {
+                DebugLog.debug(Category.AI, () -> "  Regenerating patrol route (2 completions reached)");
+                initializePatrolRoute(spawnPosition, 4);
+                routeCompletions = 0;
             }
         }
     }
@@ -368,7 +373,7 @@ public class Enemy extends Creature {
         if (canSeePlayer) {
             // Update last seen position and chase
             lastSeenPlayerPosition = new Coordinate(player.getPosition().getX(), player.getPosition().getY());
-            moveToward(floor, player.getPosition());
+            stepTowardPlayer(floor, player.getPosition());
         } else {
             // Lost sight of player - switch to investigating
             aiState = EnemyAIState.INVESTIGATING;
@@ -430,56 +435,92 @@ public class Enemy extends Creature {
     }
 
     /**
-     * Move one step toward target position using greedy pathfinding.
-     * Chooses the adjacent tile that minimizes Manhattan distance to target.
+     * Move one step along a shortest path toward the target.
+     *
+     * The path is planned with the floor's {@link com.bapppis.core.dungeon.Pathfinder}
+     * and cached on this enemy, so following it costs nothing until the goal
+     * changes, the enemy is pushed off it, or the floor layout changes. If the
+     * next cell is held by another creature, a one-off detour around creatures
+     * is tried; failing that the enemy waits.
+     *
+     * @return false if the target cannot be reached at all, true otherwise
+     *         (including turns spent waiting for a creature to clear the way)
      */
-    private void moveToward(com.bapppis.core.dungeon.Floor floor, Coordinate target) {
-        Coordinate oldPosition = new Coordinate(position.getX(), position.getY());
-        int bestX = position.getX();
-        int bestY = position.getY();
-        int bestDistance = Coordinate.manhattanDistance(position, target);
-
-        // Check all four adjacent directions: north, east, south, west
-        int[][] directions = { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
-        String[] dirNames = { "North", "East", "South", "West" };
-
-        for (int i = 0; i < directions.length; i++) {
-            int[] dir = directions[i];
-            int newX = position.getX() + dir[0];
-            int newY = position.getY() + dir[1];
-            Coordinate candidate = new Coordinate(newX, newY);
-
-            // Calculate distance from this candidate to target
-            int candidateDistance = Coordinate.manhattanDistance(candidate, target);
-
-            com.bapppis.core.dungeon.Tile tile = floor.getTile(candidate);
-
-            // Debug: why can't we move here?
-            if (candidateDistance < bestDistance) {
-                if (tile == null) {
-                    System.out.println("      " + dirNames[i] + " " + candidate + ": no tile");
-                } else if (tile.isWall()) {
-                    System.out.println("      " + dirNames[i] + " " + candidate + ": WALL");
-                } else if (tile.isOccupied()) {
-                    System.out
-                            .println("      " + dirNames[i] + " " + candidate + ": OCCUPIED by " + tile.getOccupants());
-                } else {
-                    System.out
-                            .println("      " + dirNames[i] + " " + candidate + ": OK, distance=" + candidateDistance);
-                    bestX = newX;
-                    bestY = newY;
-                    bestDistance = candidateDistance;
-                }
+    private boolean moveToward(com.bapppis.core.dungeon.Floor floor, Coordinate target) {
+        int width = floor.getWidth();
+        int goal = target.getY() * width + target.getX();
+        if (!isCachedPathValid(floor, goal) && !planPath(floor, target, false)) {
+            DebugLog.debug(Category.AI, () -> "    No path from " + position + " to " + target);
+            return false;
+        }
+
+        int next = cachedPath[cachedPathStep];
+        if (floor.getTile(next % width, next / width).isOccupied()) {
+            // Another creature is in the way; the goal itself being occupied means we are already adjacent
+            if (next == goal || !planPath(floor, target, true)) {
+                DebugLog.debug(Category.AI, () -> "    Could not move from " + position + " (path blocked)");
+                cachedPathLength = 0; // replan around the blocker next turn
+                return true;
             }
+            next = cachedPath[cachedPathStep];
         }
 
-        // Move if we found a better position
-        if (bestX != position.getX() || bestY != position.getY()) {
-            setPosition(bestX, bestY);
-            System.out.println("    Moved from " + oldPosition + " to " + position);
-        } else {
-            System.out.println("    Could not move from " + position + " (all tiles blocked or no improvement)");
+        Coordinate oldPosition = position;
+        setPosition(floor, new Coordinate(next % width, next / width));
+        cachedPathStep++;
+        DebugLog.debug(Category.AI, () -> "    Moved from " + oldPosition + " to " + position);
+        return true;
+    }
+
+    /**
+     * Move one step down the floor's shared distance field toward the player.
+     * The field is built once per player position, so every chasing enemy in
+     * a turn reads the same BFS instead of running its own search.
+     */
+    private void stepTowardPlayer(com.bapppis.core.dungeon.Floor floor, Coordinate playerPosition) {
+        com.bapppis.core.dungeon.DistanceMap field = floor.getDistanceMap(playerPosition.getX(),
+                playerPosition.getY());
+        int next = field.nextStep(position.getX(), position.getY());
+        if (next < 0) {
+            DebugLog.debug(Category.AI, () -> "    Could not move from " + position + " (no closer free tile)");
+            return;
+        }
+        Coordinate oldPosition = position;
+        int width = floor.getWidth();
+        setPosition(floor, new Coordinate(next % width, next / width));
+        DebugLog.debug(Category.AI, () -> "    Moved from " + oldPosition + " to " + position);
+    }
+
+    private boolean isCachedPathValid(com.bapppis.core.dungeon.Floor floor, int goal) {
+        if (cachedPathFloor != floor || cachedPathVersion != floor.getLayoutVersion() || cachedPathGoal != goal
+                || cachedPathStep >= cachedPathLength) {
+            return false;
+        }
+        // The enemy must still be where the path expects it to be
+        int here = position.getY() * floor.getWidth() + position.getX();
+        return cachedPathStep > 0 && cachedPath[cachedPathStep - 1] == here;
+    }
+
+    private boolean planPath(com.bapppis.core.dungeon.Floor floor, Coordinate target, boolean avoidCreatures) {
+        com.bapppis.core.dungeon.Pathfinder pathfinder = floor.getPathfinder();
+        int length = pathfinder.findPath(position.getX(), position.getY(), target.getX(), target.getY(),
+                avoidCreatures);
+        cachedPathStep = 0;
+        cachedPathLength = 0;
+        if (length <= 0) {
+            return false;
+        }
+        if (cachedPath.length < length) {
+            cachedPath = new int[Math.max(length, cachedPath.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            cachedPath[i] = pathfinder.getPathCell(i);
         }
+        cachedPathLength = length;
+        cachedPathGoal = target.getY() * floor.getWidth() + target.getX();
+        cachedPathVersion = floor.getLayoutVersion();
+        cachedPathFloor = floor;
+        return true;
     }
 
     public Integer getEnemyXp() {
@@ -44,6 +44,13 @@ public class Inventory {
         return count;
     }
 
+    /**
+     * Add all of another inventory's items, already in sorted order.
+     */
+    void copyFrom(Inventory src) {
+        items.addAll(src.items);
+    }
+
     public boolean isOverEncumbered() {
         return getCurrentLoad() > getMaxCapacity();
     }
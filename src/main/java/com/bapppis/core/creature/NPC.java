@@ -8,6 +8,11 @@ public class NPC extends Creature {
         this.setType(Type.NPC);
     }
 
+    @Override
+    protected NPC newBlank() {
+        return new NPC();
+    }
+
     @Override
     public String toString() {
         // Basic NPC printout (less detail than player/enemy)
@@ -28,6 +28,25 @@ public class Player extends Creature {
         this.setType(Type.PLAYER);
     }
 
+    @Override
+    protected Player newBlank() {
+        return new Player();
+    }
+
+    @Override
+    protected void copyFrom(Creature src) {
+        super.copyFrom(src);
+        if (src instanceof Player) {
+            Player p = (Player) src;
+            this.statPoints = p.statPoints;
+            this.playerClassId = p.playerClassId;
+            this.talentPoints = p.talentPoints;
+            this.learnedTalents = p.learnedTalents == null ? new HashSet<>() : new HashSet<>(p.learnedTalents);
+            this.unlockedTalentNodes = p.unlockedTalentNodes == null ? new HashSet<>()
+                    : new HashSet<>(p.unlockedTalentNodes);
+        }
+    }
+
     public static Player fromJson(String json) {
         Gson gson = new GsonBuilder()
                 .registerTypeAdapter(com.bapppis.core.Resistances.class,
@@ -41,32 +60,13 @@ public class Player extends Creature {
     }
 
     public void setPosition(Coordinate position) {
-        // Update tile occupancy: remove from old tile occupants, add to new tile occupants
-        try {
-            com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState.getCurrentFloor();
-            if (floor != null) {
-                // Remove from previous tile occupants
-                if (this.position != null) {
-                    com.bapppis.core.dungeon.Tile old = floor.getTile(this.position);
-                    if (old != null) {
-                        old.getOccupants().remove(this);
-                    }
-                }
-                // Set new position
-                this.position = position;
-                // Add to new tile occupants
-                if (this.position != null) {
-                    com.bapppis.core.dungeon.Tile now = floor.getTile(this.position);
-                    if (now != null && !now.getOccupants().contains(this)) {
-                        now.getOccupants().add(this);
-                    }
-                }
-                return;
-            }
-        } catch (Exception ignored) {
-            // Fall back to simple set if anything goes wrong
-        }
+        // Update tile occupancy and the floor's creature registry
+        Coordinate previous = this.position;
         this.position = position;
+        com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState.getCurrentFloor();
+        if (floor != null) {
+            floor.moveCreature(this, previous, position);
+        }
     }
 
     public void setPosition(int x, int y) {
@@ -16,6 +16,25 @@ public class PropertyManager {
         this.owner = owner;
     }
 
+    // For GraphCodec, which fills the fields in from a data bundle
+    private PropertyManager() {
+        this(null);
+    }
+
+    /**
+     * Fill this (empty) manager with copies of another creature's
+     * properties. The owner already carries their stat effects, so
+     * {@code onApply} is not run again.
+     */
+    void copyFrom(PropertyManager src) {
+        for (Map.Entry<Integer, Property> e : src.buffs.entrySet())
+            buffs.put(e.getKey(), e.getValue().copyWithAppliedState());
+        for (Map.Entry<Integer, Property> e : src.debuffs.entrySet())
+            debuffs.put(e.getKey(), e.getValue().copyWithAppliedState());
+        for (Map.Entry<Integer, Property> e : src.traits.entrySet())
+            traits.put(e.getKey(), e.getValue().copyWithAppliedState());
+    }
+
     public HashMap<Integer, Property> getBuffs() {
         return buffs;
     }
@@ -10,4 +10,9 @@ public class Aberration extends Creature {
     public Aberration() {
         super();
     }
+
+    @Override
+    protected Aberration newBlank() {
+        return new Aberration();
+    }
 }
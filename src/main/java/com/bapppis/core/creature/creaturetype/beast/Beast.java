@@ -12,4 +12,9 @@ public class Beast extends Creature {
     public Beast() {
         super();
     }
+
+    @Override
+    protected Beast newBlank() {
+        return new Beast();
+    }
 }
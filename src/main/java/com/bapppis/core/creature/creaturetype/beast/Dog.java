@@ -11,4 +11,9 @@ public class Dog extends Beast {
     public Dog() {
         super();
     }
+
+    @Override
+    protected Dog newBlank() {
+        return new Dog();
+    }
 }
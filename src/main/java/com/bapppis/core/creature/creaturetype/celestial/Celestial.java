@@ -10,4 +10,9 @@ public class Celestial extends Creature {
     public Celestial() {
         super();
     }
+
+    @Override
+    protected Celestial newBlank() {
+        return new Celestial();
+    }
 }
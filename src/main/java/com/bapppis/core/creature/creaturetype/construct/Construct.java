@@ -10,4 +10,9 @@ public class Construct extends Creature {
     public Construct() {
         super();
     }
+
+    @Override
+    protected Construct newBlank() {
+        return new Construct();
+    }
 }
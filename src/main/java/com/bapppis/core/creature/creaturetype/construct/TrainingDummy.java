@@ -14,4 +14,9 @@ public class TrainingDummy extends Construct {
         // Example: add a property by name
         // addProperty("ImmunityPoison");
     }
+
+    @Override
+    protected TrainingDummy newBlank() {
+        return new TrainingDummy();
+    }
 }
@@ -14,4 +14,9 @@ public class Dragon extends Creature {
     public Dragon() {
         super();
     }
+
+    @Override
+    protected Dragon newBlank() {
+        return new Dragon();
+    }
 }
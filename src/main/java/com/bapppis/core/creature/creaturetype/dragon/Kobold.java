@@ -19,4 +19,9 @@ public class Kobold extends Dragon {
     public Kobold() {
         super();
     }
+
+    @Override
+    protected Kobold newBlank() {
+        return new Kobold();
+    }
 }
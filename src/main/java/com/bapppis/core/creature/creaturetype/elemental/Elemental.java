@@ -10,4 +10,9 @@ public class Elemental extends Creature {
     public Elemental() {
         super();
     }
+
+    @Override
+    protected Elemental newBlank() {
+        return new Elemental();
+    }
 }
@@ -10,4 +10,9 @@ public class Fey extends Creature {
     public Fey() {
         super();
     }
+
+    @Override
+    protected Fey newBlank() {
+        return new Fey();
+    }
 }
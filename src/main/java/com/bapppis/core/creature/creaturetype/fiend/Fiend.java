@@ -10,4 +10,9 @@ public class Fiend extends Creature {
     public Fiend() {
         super();
     }
+
+    @Override
+    protected Fiend newBlank() {
+        return new Fiend();
+    }
 }
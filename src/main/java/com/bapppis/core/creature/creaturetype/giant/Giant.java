@@ -10,4 +10,9 @@ public class Giant extends Creature {
     public Giant() {
         super();
     }
+
+    @Override
+    protected Giant newBlank() {
+        return new Giant();
+    }
 }
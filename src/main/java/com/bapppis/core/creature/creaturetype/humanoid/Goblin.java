@@ -18,4 +18,9 @@ public class Goblin extends Humanoid {
     public Goblin() {
         super();
     }
+
+    @Override
+    protected Goblin newBlank() {
+        return new Goblin();
+    }
 }
@@ -10,4 +10,9 @@ public class Human extends Humanoid {
     public Human() {
         super();
     }
+
+    @Override
+    protected Human newBlank() {
+        return new Human();
+    }
 }
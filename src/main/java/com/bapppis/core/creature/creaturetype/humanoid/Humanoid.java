@@ -15,4 +15,9 @@ public class Humanoid extends Creature {
     public Humanoid() {
         super();
     }
+
+    @Override
+    protected Humanoid newBlank() {
+        return new Humanoid();
+    }
 }
@@ -10,4 +10,9 @@ public class Monstrosity extends Creature {
     public Monstrosity() {
         super();
     }
+
+    @Override
+    protected Monstrosity newBlank() {
+        return new Monstrosity();
+    }
 }
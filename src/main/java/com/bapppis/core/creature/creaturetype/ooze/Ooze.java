@@ -10,4 +10,9 @@ public class Ooze extends Creature {
     public Ooze() {
         super();
     }
+
+    @Override
+    protected Ooze newBlank() {
+        return new Ooze();
+    }
 }
@@ -10,4 +10,9 @@ public class Plant extends Creature {
     public Plant() {
         super();
     }
+
+    @Override
+    protected Plant newBlank() {
+        return new Plant();
+    }
 }
@@ -10,4 +10,9 @@ public class PlayerType extends Creature {
     public PlayerType() {
         super();
     }
+
+    @Override
+    protected PlayerType newBlank() {
+        return new PlayerType();
+    }
 }
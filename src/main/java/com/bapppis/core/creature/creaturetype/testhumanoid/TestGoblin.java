@@ -36,4 +36,9 @@ public class TestGoblin extends TestHumanoid {
     public TestGoblin() {
         super();
     }
+
+    @Override
+    protected TestGoblin newBlank() {
+        return new TestGoblin();
+    }
 }
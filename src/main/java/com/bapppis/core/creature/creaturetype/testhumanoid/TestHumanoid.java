@@ -33,4 +33,9 @@ public class TestHumanoid extends Player {
     public TestHumanoid() {
         super();
     }
+
+    @Override
+    protected TestHumanoid newBlank() {
+        return new TestHumanoid();
+    }
 }
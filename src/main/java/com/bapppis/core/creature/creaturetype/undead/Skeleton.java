@@ -14,4 +14,9 @@ public class Skeleton extends Undead {
     public Skeleton() {
         super();
     }
+
+    @Override
+    protected Skeleton newBlank() {
+        return new Skeleton();
+    }
 }
@@ -17,4 +17,9 @@ public class Undead extends Creature {
     public Undead() {
         super();
     }
+
+    @Override
+    protected Undead newBlank() {
+        return new Undead();
+    }
 }
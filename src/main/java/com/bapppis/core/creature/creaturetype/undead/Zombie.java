@@ -14,4 +14,9 @@ public class Zombie extends Undead {
         // Example: add a property by name
         // addProperty("Relentless");
     }
+
+    @Override
+    protected Zombie newBlank() {
+        return new Zombie();
+    }
 }
@@ -10,4 +10,9 @@ public class Unknown extends Creature {
     public Unknown() {
         super();
     }
+
+    @Override
+    protected Unknown newBlank() {
+        return new Unknown();
+    }
 }
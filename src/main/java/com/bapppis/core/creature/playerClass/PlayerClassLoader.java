@@ -1,16 +1,16 @@
 package com.bapppis.core.creature.playerClass;
 
 import com.bapppis.core.Resistances;
+import com.bapppis.core.util.DebugLog;
+import com.bapppis.core.util.DebugLog.Category;
 import com.bapppis.core.util.ResistancesDeserializer;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.Resource;
-import io.github.classgraph.ScanResult;
+import com.bapppis.core.util.ResourceIndex;
 
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -38,13 +38,9 @@ public class PlayerClassLoader {
         .registerTypeAdapter(Resistances.class, new ResistancesDeserializer())
         .create();
 
-    try (ScanResult scanResult = new ClassGraph()
-        .acceptPaths(PLAYER_CLASS_DIRECTORY)
-        .scan()) {
-
-      for (Resource resource : scanResult.getAllResources()) {
+    try {
+      for (ResourceIndex.Entry resource : ResourceIndex.get().list(PLAYER_CLASS_DIRECTORY, ".json")) {
         String relPath = resource.getPath();
-        if (!relPath.endsWith(".json")) continue;
 
         // Only load JSON files that are directly under the player_classes directory.
         // Ignore talent_trees or other nested subdirectories (they have different schemas).
@@ -56,25 +52,26 @@ public class PlayerClassLoader {
           continue;
         }
 
-        try (Reader reader = new InputStreamReader(resource.open())) {
+        try (Reader reader = resource.openReader()) {
           PlayerClass playerClass = gson.fromJson(reader, PlayerClass.class);
 
           if (playerClass != null) {
             classesById.put(playerClass.getId(), playerClass);
             classesByName.put(playerClass.getName().toLowerCase(), playerClass);
-            System.out.println("Loaded player class: " + playerClass.getName() + " (ID: " + playerClass.getId() + ")");
+            DebugLog.debug(Category.LOADER,
+                () -> "Loaded player class: " + playerClass.getName() + " (ID: " + playerClass.getId() + ")");
           }
         } catch (Exception e) {
-          System.err.println("Error loading player class from " + relPath + ": " + e.getMessage());
+          DebugLog.error(Category.LOADER, "Error loading player class from " + relPath + ": " + e.getMessage());
           e.printStackTrace();
         }
       }
     } catch (Exception e) {
-      System.err.println("Error scanning player class directory: " + e.getMessage());
+      DebugLog.error(Category.LOADER, "Error reading player class directory: " + e.getMessage());
       e.printStackTrace();
     }
 
-    System.out.println("Loaded " + classesById.size() + " player classes.");
+    DebugLog.info(Category.LOADER, () -> "Loaded " + classesById.size() + " player classes.");
   }
 
   /**
@@ -140,4 +137,23 @@ public class PlayerClassLoader {
   public int getClassCount() {
     return classesById.size();
   }
+
+  /**
+   * The registry maps, in the order {@link #fromRegistries(List)} takes them.
+   * Used to write a data bundle.
+   */
+  public List<Map<?, ?>> getRegistries() {
+    return List.of(classesById, classesByName);
+  }
+
+  /**
+   * A loader holding maps read back from a data bundle, without reading JSON.
+   */
+  @SuppressWarnings("unchecked")
+  public static PlayerClassLoader fromRegistries(List<Map<?, ?>> maps) {
+    PlayerClassLoader loader = new PlayerClassLoader();
+    loader.classesById.putAll((Map<Integer, PlayerClass>) maps.get(0));
+    loader.classesByName.putAll((Map<String, PlayerClass>) maps.get(1));
+    return loader;
+  }
 }
@@ -1,13 +1,14 @@
 package com.bapppis.core.creature.playerClass;
 
+import com.bapppis.core.util.DebugLog;
+import com.bapppis.core.util.DebugLog.Category;
 import com.bapppis.core.util.ResistancesDeserializer;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.Resource;
-import io.github.classgraph.ScanResult;
+import com.bapppis.core.util.ResourceIndex;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,30 +25,35 @@ public class TalentTreeLoader {
 
   private final Map<Integer, TalentTree> treesById = new HashMap<>();
   private final Map<Integer, TalentTree> treesByClassId = new HashMap<>();
-  private final Gson gson;
 
   public TalentTreeLoader() {
-    this.gson = new GsonBuilder()
-        .registerTypeAdapter(com.bapppis.core.Resistances.class, new ResistancesDeserializer())
-        .create();
     loadAllTalentTrees();
   }
 
+  private TalentTreeLoader(Map<Integer, TalentTree> treesById, Map<Integer, TalentTree> treesByClassId) {
+    this.treesById.putAll(treesById);
+    this.treesByClassId.putAll(treesByClassId);
+  }
+
   private void loadAllTalentTrees() {
-    try (ScanResult scanResult = new ClassGraph()
-        .acceptPaths(TALENT_TREE_PATHS)
-        .scan()) {
-
-      // Debug: print any JSON resources that look like talent tree files
-      for (Resource r : scanResult.getResourcesWithExtension("json")) {
-        if (r.getPath() != null && r.getPath().toLowerCase().contains("talent_trees")) {
-          System.out.println("Found JSON resource path: " + r.getPath());
+    Gson gson = new GsonBuilder()
+        .registerTypeAdapter(com.bapppis.core.Resistances.class, new ResistancesDeserializer())
+        .create();
+    try {
+      java.util.List<ResourceIndex.Entry> resources = new java.util.ArrayList<>();
+      for (String dir : TALENT_TREE_PATHS) {
+        resources.addAll(ResourceIndex.get().list(dir, ".json"));
+      }
+
+      if (DebugLog.isEnabled(Category.LOADER, DebugLog.Level.DEBUG)) {
+        for (ResourceIndex.Entry r : resources) {
+          DebugLog.debug(Category.LOADER, () -> "Found JSON resource path: " + r.getPath());
         }
       }
 
-      for (Resource resource : scanResult.getResourcesWithExtension("json")) {
+      for (ResourceIndex.Entry resource : resources) {
         try {
-          String json = resource.getContentAsString();
+          String json = resource.readString();
           TalentTree tree = gson.fromJson(json, TalentTree.class);
 
           if (tree != null) {
@@ -55,17 +61,17 @@ public class TalentTreeLoader {
             if (tree.getClassId() != null) {
               treesByClassId.put(tree.getClassId(), tree);
             }
-            System.out.println("Loaded talent tree: " + tree.getName() + " (ID: " + tree.getId() + ")");
+            DebugLog.debug(Category.LOADER, () -> "Loaded talent tree: " + tree.getName() + " (ID: " + tree.getId() + ")");
           }
         } catch (Exception e) {
-          System.err.println("Error loading talent tree from " + resource.getPath() + ": " + e.getMessage());
+          DebugLog.error(Category.LOADER, "Error loading talent tree from " + resource.getPath() + ": " + e.getMessage());
           e.printStackTrace();
         }
       }
 
-      System.out.println("Loaded " + treesById.size() + " talent trees.");
+      DebugLog.info(Category.LOADER, () -> "Loaded " + treesById.size() + " talent trees.");
     } catch (Exception e) {
-      System.err.println("Error scanning talent trees: " + e.getMessage());
+      DebugLog.error(Category.LOADER, "Error reading talent trees: " + e.getMessage());
       e.printStackTrace();
     }
   }
@@ -111,4 +117,20 @@ public class TalentTreeLoader {
   public int getTreeCount() {
     return treesById.size();
   }
+
+  /**
+   * The registry maps, in the order {@link #fromRegistries(List)} takes them.
+   * Used to write a data bundle.
+   */
+  public List<Map<?, ?>> getRegistries() {
+    return List.of(treesById, treesByClassId);
+  }
+
+  /**
+   * A loader holding maps read back from a data bundle, without reading JSON.
+   */
+  @SuppressWarnings("unchecked")
+  public static TalentTreeLoader fromRegistries(List<Map<?, ?>> maps) {
+    return new TalentTreeLoader((Map<Integer, TalentTree>) maps.get(0), (Map<Integer, TalentTree>) maps.get(1));
+  }
 }
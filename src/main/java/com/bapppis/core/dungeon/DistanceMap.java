@@ -0,0 +1,137 @@
+package com.bapppis.core.dungeon;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first distance field ("Dijkstra map") over a {@link Floor}.
+ *
+ * Every walkable cell holds its step distance to a single source, so any
+ * number of creatures heading for that source can each pick their next move
+ * by reading their four neighbours. The field is rebuilt only when the source
+ * moves or the floor's layout version changes; otherwise {@link #update} is a
+ * pair of comparisons.
+ *
+ * Distances and the BFS queue are primitive arrays reused between rebuilds,
+ * with a generation stamp marking which cells hold a current distance.
+ * Walkability follows {@link Floor#isWalkable(int, int)}; creatures are
+ * ignored so the field does not churn as they move.
+ */
+public class DistanceMap {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int[] DX = { 0, 1, 0, -1 }; // north, east, south, west
+    private static final int[] DY = { -1, 0, 1, 0 };
+
+    private final Floor floor;
+    private int width;
+    private int height;
+    private int[] distance = new int[0];
+    private int[] stamps = new int[0];
+    private int[] queue = new int[0];
+    private int generation = 0;
+    private int sourceX = -1;
+    private int sourceY = -1;
+    private int builtVersion = -1;
+
+    public DistanceMap(Floor floor) {
+        if (floor == null) {
+            throw new IllegalArgumentException("DistanceMap requires a floor");
+        }
+        this.floor = floor;
+    }
+
+    /**
+     * Point the field at (sx, sy), rebuilding it if the source or the floor
+     * layout changed since the last build.
+     * @return true if the field was rebuilt
+     */
+    public boolean update(int sx, int sy) {
+        if (sx == sourceX && sy == sourceY && builtVersion == floor.getLayoutVersion()) {
+            return false;
+        }
+        rebuild(sx, sy);
+        return true;
+    }
+
+    /**
+     * Steps from (x, y) to the source, or {@link #UNREACHABLE}.
+     */
+    public int getDistance(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return UNREACHABLE;
+        int index = y * width + x;
+        return stamps[index] == generation ? distance[index] : UNREACHABLE;
+    }
+
+    /**
+     * Pick the neighbour of (x, y) that is closest to the source and not held
+     * by a creature. Neighbours are tried north, east, south, west, so ties
+     * resolve the same way every time.
+     * @return the chosen cell index ({@code y * width + x}), or -1 if no
+     *         neighbour gets closer
+     */
+    public int nextStep(int x, int y) {
+        int best = -1;
+        int bestDistance = getDistance(x, y);
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            int dist = getDistance(nx, ny);
+            if (dist >= bestDistance) continue;
+            if (!floor.getTile(nx, ny).getOccupants().isEmpty()) continue;
+            best = ny * width + nx;
+            bestDistance = dist;
+        }
+        return best;
+    }
+
+    public int getSourceX() {
+        return sourceX;
+    }
+
+    public int getSourceY() {
+        return sourceY;
+    }
+
+    private void rebuild(int sx, int sy) {
+        width = floor.getWidth();
+        height = floor.getHeight();
+        int area = width * height;
+        if (stamps.length < area) {
+            distance = new int[area];
+            stamps = new int[area];
+            queue = new int[area];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        sourceX = sx;
+        sourceY = sy;
+        builtVersion = floor.getLayoutVersion();
+        if (!floor.inBounds(sx, sy)) return;
+
+        int head = 0;
+        int tail = 0;
+        int source = sy * width + sx;
+        stamps[source] = generation;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = current % width;
+            int cy = current / width;
+            int next = distance[current] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                int index = ny * width + nx;
+                if (stamps[index] == generation || !floor.isWalkable(nx, ny)) continue;
+                stamps[index] = generation;
+                distance[index] = next;
+                queue[tail++] = index;
+            }
+        }
+    }
+}
@@ -12,4 +12,16 @@ public abstract class Dungeon {
     public Floor getFloor(int id) {
         return floors.get(id);
     }
-}
\ No newline at end of file
+
+    /** Whether there is a floor {@code id}, without building it. */
+    public boolean hasFloor(int id) {
+        return floors.containsKey(id);
+    }
+
+    /**
+     * Called when the player arrives on floor {@code id}. Does nothing here;
+     * see {@link LazyDungeon#onEnter}.
+     */
+    public void onEnter(int id) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.bapppis.core.dungeon;
+
+import java.util.Arrays;
+
+/**
+ * Symmetric recursive shadowcasting over a {@link Floor}.
+ *
+ * One call to {@link #compute} visits every cell within a square (Chebyshev)
+ * radius once, so a cast costs O(r^2) instead of one Bresenham walk per cell.
+ * Results are written into a reusable stamp buffer: a cell is visible when its
+ * stamp equals the current generation, so nothing is cleared between casts.
+ *
+ * Floor cells are only marked visible when the view is symmetric (if A sees B
+ * then B sees A), which lets perception checks read a single cast from the
+ * target instead of casting once per observer. Blocking cells (walls) are
+ * marked whenever light reaches them so their faces are revealed.
+ *
+ * Slopes are kept as integer fractions; no objects are allocated per cast.
+ */
+public class FieldOfView {
+    private static final int NONE = 0;
+    private static final int OPEN = 1;
+    private static final int BLOCKED = 2;
+
+    private final Floor floor;
+    private int[] stamps = new int[0];
+    private int generation = 0;
+    private int width;
+    private int height;
+    private int originX;
+    private int originY;
+    private int radius = -1;
+    private boolean obstaclesBlock;
+
+    public FieldOfView(Floor floor) {
+        if (floor == null) {
+            throw new IllegalArgumentException("FieldOfView requires a floor");
+        }
+        this.floor = floor;
+    }
+
+    /**
+     * Cast a field of view from (ox, oy).
+     * @param ox origin x
+     * @param oy origin y
+     * @param radius maximum Chebyshev distance to reveal
+     * @param obstaclesBlock if true, occupied tile types (chests etc.) block sight as well as walls
+     */
+    public void compute(int ox, int oy, int radius, boolean obstaclesBlock) {
+        width = floor.getWidth();
+        height = floor.getHeight();
+        if (stamps.length < width * height) {
+            stamps = new int[width * height];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        this.originX = ox;
+        this.originY = oy;
+        this.radius = Math.max(0, radius);
+        this.obstaclesBlock = obstaclesBlock;
+
+        mark(ox, oy);
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            scan(quadrant, 1, -1, 1, 1, 1);
+        }
+    }
+
+    public boolean isVisible(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return false;
+        return stamps[y * width + x] == generation && generation != 0;
+    }
+
+    public int getOriginX() {
+        return originX;
+    }
+
+    public int getOriginY() {
+        return originY;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public boolean isObstaclesBlock() {
+        return obstaclesBlock;
+    }
+
+    /**
+     * Scan one row of a quadrant between two slopes (startNum/startDen to
+     * endNum/endDen, denominators always positive) and recurse into the next
+     * row for every lit span.
+     */
+    private void scan(int quadrant, int depth, int startNum, int startDen, int endNum, int endDen) {
+        if (depth > radius) return;
+
+        // round-ties-up(depth * start) and round-ties-down(depth * end)
+        int minCol = Math.floorDiv(2 * depth * startNum + startDen, 2 * startDen);
+        int maxCol = -Math.floorDiv(endDen - 2 * depth * endNum, 2 * endDen);
+
+        int prev = NONE;
+        for (int col = minCol; col <= maxCol; col++) {
+            int x = cellX(quadrant, depth, col);
+            int y = cellY(quadrant, depth, col);
+            boolean blocked = isBlocking(x, y);
+
+            if (blocked || (col * startDen >= depth * startNum && col * endDen <= depth * endNum)) {
+                mark(x, y);
+            }
+            if (prev == BLOCKED && !blocked) {
+                startNum = 2 * col - 1;
+                startDen = 2 * depth;
+            }
+            if (prev == OPEN && blocked) {
+                scan(quadrant, depth + 1, startNum, startDen, 2 * col - 1, 2 * depth);
+            }
+            prev = blocked ? BLOCKED : OPEN;
+        }
+        if (prev == OPEN) {
+            scan(quadrant, depth + 1, startNum, startDen, endNum, endDen);
+        }
+    }
+
+    private int cellX(int quadrant, int depth, int col) {
+        switch (quadrant) {
+            case 1: return originX + depth; // east
+            case 3: return originX - depth; // west
+            default: return originX + col; // north, south
+        }
+    }
+
+    private int cellY(int quadrant, int depth, int col) {
+        switch (quadrant) {
+            case 0: return originY - depth; // north
+            case 2: return originY + depth; // south
+            default: return originY + col; // east, west
+        }
+    }
+
+    private boolean isBlocking(int x, int y) {
+        Tile t = floor.getTile(x, y);
+        if (t == null || t.isWall()) return true;
+        return obstaclesBlock && t.getTileType().isOccupied;
+    }
+
+    private void mark(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return;
+        stamps[y * width + x] = generation;
+    }
+}
@@ -1,46 +1,284 @@
 package com.bapppis.core.dungeon;
 
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
+import com.bapppis.core.creature.Creature;
+
+/**
+ * A single dungeon level.
+ * Tiles are stored in a dense row-major array indexed by {@code y * width + x},
+ * so {@link #getTile(int, int)} is a bounds check and an array read. The
+ * {@link Coordinate} overloads are thin adapters over the int versions.
+ *
+ * Fog of war lives here too, as two bit layers over the same indices:
+ * "discovered" (remembered) and "visible" (in view after the last reveal).
+ * {@link Tile#isDiscovered()} delegates to the discovered layer, so resetting
+ * a floor is a word-level clear rather than a walk over every tile.
+ *
+ * The floor also keeps a registry of the creatures standing on it, maintained
+ * by {@link #moveCreature}, so per-turn processing can iterate creatures
+ * instead of cells.
+ */
 public abstract class Floor {
-    private HashMap<Coordinate, Tile> tiles = new HashMap<>();
+    private int width;
+    private int height;
+    private Tile[] grid;
+    private BitSet discovered = new BitSet();
+    private BitSet visible = new BitSet();
+    // Creature has identity equality, so this is an insertion-ordered identity set
+    private final Set<Creature> creatures = new LinkedHashSet<>();
+    private int layoutVersion = 0;
+    private FieldOfView visionFov;
+    private FieldOfView perceptionFov;
+    private int perceptionVersion = -1;
+    private Pathfinder pathfinder;
+    private DistanceMap distanceMap;
+
+    /**
+     * Create an empty floor that grows as tiles are added (used by parsers that
+     * do not know the map size up front).
+     */
+    public Floor() {
+        this(0, 0);
+    }
+
+    /**
+     * Create a floor with a fixed initial size.
+     * @param width number of columns
+     * @param height number of rows
+     */
+    public Floor(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Floor size cannot be negative: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.grid = new Tile[width * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
 
     public void addTile(Coordinate coordinate, Tile tile) {
-        tiles.put(coordinate, tile);
+        setTile(coordinate.getX(), coordinate.getY(), tile);
+    }
+
+    /**
+     * Place a tile at (x, y), growing the grid if the position lies outside the
+     * current bounds.
+     */
+    public void setTile(int x, int y, Tile tile) {
+        if (x < 0 || y < 0) {
+            throw new IllegalArgumentException("Tile coordinates cannot be negative: (" + x + ", " + y + ")");
+        }
+        if (x >= width || y >= height) {
+            resize(Math.max(width, x + 1), Math.max(height, y + 1));
+        }
+        int index = y * width + x;
+        Tile previous = grid[index];
+        grid[index] = tile;
+        if (tile != null) {
+            tile.attach(this, index);
+            // Creatures standing on a replaced cell stay on the cell
+            if (previous != null && previous != tile) {
+                for (Creature c : previous.getOccupants()) {
+                    if (!tile.getOccupants().contains(c)) tile.getOccupants().add(c);
+                }
+            }
+            creatures.addAll(tile.getOccupants());
+        }
+        layoutVersion++;
+    }
+
+    /**
+     * Counter bumped whenever a tile is placed or replaced. Caches derived from
+     * the layout (sight, paths) compare against it to know when to rebuild.
+     */
+    public int getLayoutVersion() {
+        return layoutVersion;
+    }
+
+    /**
+     * Record an in-place change to a tile that affects walkability or sight.
+     */
+    void markLayoutChanged() {
+        layoutVersion++;
+    }
+
+    /**
+     * Whether a creature could ever stand on (x, y): the cell exists, is not a
+     * wall or an occupied tile type (chests), and holds no loot. Creatures
+     * standing there are not considered.
+     */
+    public boolean isWalkable(int x, int y) {
+        Tile t = getTile(x, y);
+        return t != null && !t.isWall() && !t.getTileType().isOccupied && t.getLoot() == null;
+    }
+
+    public Tile getTile(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return null;
+        return grid[y * width + x];
     }
 
     public Tile getTile(Coordinate coordinate) {
-        return tiles.get(coordinate);
+        if (coordinate == null) return null;
+        return getTile(coordinate.getX(), coordinate.getY());
     }
 
-    public HashMap<Coordinate, Tile> getTiles() {
+    /**
+     * Snapshot of all tiles keyed by coordinate, in row-major order.
+     * Kept for callers that still want a map; per-cell access should use
+     * {@link #getTile(int, int)} with {@link #getWidth()}/{@link #getHeight()}.
+     */
+    public Map<Coordinate, Tile> getTiles() {
+        Map<Coordinate, Tile> tiles = new LinkedHashMap<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Tile t = grid[y * width + x];
+                if (t != null) tiles.put(new Coordinate(x, y), t);
+            }
+        }
         return tiles;
     }
 
+    /**
+     * Find the first tile in row-major order matching the given predicate.
+     * @return the matching tile, or null if none matches
+     */
+    public Tile findTile(Predicate<Tile> predicate) {
+        for (Tile t : grid) {
+            if (t != null && predicate.test(t)) return t;
+        }
+        return null;
+    }
+
+    private void resize(int newWidth, int newHeight) {
+        Tile[] newGrid = new Tile[newWidth * newHeight];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * width, newGrid, y * newWidth, width);
+        }
+        discovered = remap(discovered, newWidth);
+        visible = remap(visible, newWidth);
+        grid = newGrid;
+        width = newWidth;
+        height = newHeight;
+        for (int i = 0; i < grid.length; i++) {
+            if (grid[i] != null) grid[i].attach(this, i);
+        }
+    }
+
+    private BitSet remap(BitSet bits, int newWidth) {
+        BitSet moved = new BitSet(newWidth * height);
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            moved.set((i / width) * newWidth + (i % width));
+        }
+        return moved;
+    }
+
+    // === Creatures ===
+
+    /**
+     * Move a creature between cells, keeping tile occupants and the creature
+     * registry in sync. A null {@code from} places the creature on this floor;
+     * a null {@code to} removes it.
+     */
+    public void moveCreature(Creature creature, Coordinate from, Coordinate to) {
+        if (creature == null) return;
+        if (from != null) {
+            Tile old = getTile(from);
+            if (old != null) {
+                old.getOccupants().remove(creature);
+            }
+        }
+        if (to == null) {
+            creatures.remove(creature);
+            return;
+        }
+        Tile now = getTile(to);
+        if (now != null && !now.getOccupants().contains(creature)) {
+            now.getOccupants().add(creature);
+        }
+        creatures.add(creature);
+    }
+
+    /**
+     * Creatures currently on this floor, in the order they arrived.
+     */
+    public Set<Creature> getCreatures() {
+        return Collections.unmodifiableSet(creatures);
+    }
+
+    /** Whether the creature is currently on this floor. */
+    public boolean hasCreature(Creature creature) {
+        return creatures.contains(creature);
+    }
+
+    // === Fog of war ===
+
+    public boolean isDiscovered(int x, int y) {
+        return inBounds(x, y) && discovered.get(y * width + x);
+    }
+
+    public void setDiscovered(int x, int y, boolean value) {
+        if (inBounds(x, y)) discovered.set(y * width + x, value);
+    }
+
+    /**
+     * Whether (x, y) was in view during the most recent reveal.
+     */
+    public boolean isVisible(int x, int y) {
+        return inBounds(x, y) && visible.get(y * width + x);
+    }
+
+    boolean isDiscoveredAt(int index) {
+        return discovered.get(index);
+    }
+
+    void setDiscoveredAt(int index, boolean value) {
+        discovered.set(index, value);
+    }
+
+    boolean isVisibleAt(int index) {
+        return visible.get(index);
+    }
+
     /**
      * Reveal all tiles on this floor (set discovered = true).
      */
     public void revealAll() {
-        for (Tile t : tiles.values()) {
-            if (t != null) t.setDiscovered(true);
-        }
+        discovered.set(0, width * height);
     }
 
     /**
-     * Hide all tiles on this floor (set discovered = false).
+     * Hide all tiles on this floor (clears both the remembered and the
+     * currently visible layer).
      */
     public void hideAll() {
-        for (Tile t : tiles.values()) {
-            if (t != null) t.setDiscovered(false);
-        }
+        discovered.clear();
+        visible.clear();
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int y = 0; y < 20; y++) {
-            for (int x = 0; x < 20; x++) {
-                Tile tile = getTile(new Coordinate(x, y));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Tile tile = grid[y * width + x];
                 sb.append(tile != null ? tile.getSymbol() : '.');
             }
             sb.append('\n');
@@ -48,20 +286,80 @@ public abstract class Floor {
         return sb.toString();
     }
 
+    /**
+     * Reveal every tile visible from (px, py) within visionRange using a single
+     * shadowcasting pass.
+     */
     public void revealTilesWithVision(int px, int py, int visionRange) {
-        for (int dx = -visionRange; dx <= visionRange; dx++) {
-            for (int dy = -visionRange; dy <= visionRange; dy++) {
-                int tx = px + dx;
-                int ty = py + dy;
-                if (Math.max(Math.abs(dx), Math.abs(dy)) > visionRange) continue;
-                Coordinate target = new Coordinate(tx, ty);
-                if (tiles.containsKey(target) && hasLineOfSight(px, py, tx, ty)) {
-                    tiles.get(target).setDiscovered(true);
+        FieldOfView fov = computeVision(px, py, visionRange);
+        visible.clear();
+        int minX = Math.max(0, px - visionRange);
+        int maxX = Math.min(width - 1, px + visionRange);
+        int minY = Math.max(0, py - visionRange);
+        int maxY = Math.min(height - 1, py + visionRange);
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                int index = y * width + x;
+                if (grid[index] != null && fov.isVisible(x, y)) {
+                    visible.set(index);
+                    discovered.set(index);
                 }
             }
         }
     }
 
+    /**
+     * Cast the floor's shared vision buffer from (px, py). Walls block sight;
+     * occupied tiles do not. The returned buffer is reused by the next call.
+     */
+    public FieldOfView computeVision(int px, int py, int visionRange) {
+        if (visionFov == null) visionFov = new FieldOfView(this);
+        visionFov.compute(px, py, visionRange, false);
+        return visionFov;
+    }
+
+    /**
+     * Whether a creature at (x, y) can see (targetX, targetY) within range.
+     * Walls and occupied tile types (chests) block sight; creatures do not.
+     * Because shadowcasting is symmetric the answer is read from one cast made
+     * from the target, which is cached until the target moves, a larger range
+     * is asked for, or the layout changes. All enemies looking at the player in
+     * a turn therefore share a single cast.
+     */
+    public boolean canSee(int x, int y, int targetX, int targetY, int range) {
+        if (Math.max(Math.abs(x - targetX), Math.abs(y - targetY)) > range) return false;
+        if (perceptionFov == null) perceptionFov = new FieldOfView(this);
+        boolean reusable = perceptionVersion == layoutVersion
+                && perceptionFov.getOriginX() == targetX
+                && perceptionFov.getOriginY() == targetY;
+        if (!reusable || perceptionFov.getRadius() < range) {
+            int radius = reusable ? Math.max(range, perceptionFov.getRadius()) : range;
+            perceptionFov.compute(targetX, targetY, radius, true);
+            perceptionVersion = layoutVersion;
+        }
+        return perceptionFov.isVisible(x, y);
+    }
+
+    /**
+     * The floor's shared A* search. Its buffers are reused by every caller, so
+     * read a result before asking for the next path.
+     */
+    public Pathfinder getPathfinder() {
+        if (pathfinder == null) pathfinder = new Pathfinder(this);
+        return pathfinder;
+    }
+
+    /**
+     * The floor's shared distance field, pointed at (targetX, targetY). It is
+     * only rebuilt when the target moves or the layout changes, so every
+     * creature chasing the same target in a turn shares one BFS.
+     */
+    public DistanceMap getDistanceMap(int targetX, int targetY) {
+        if (distanceMap == null) distanceMap = new DistanceMap(this);
+        distanceMap.update(targetX, targetY);
+        return distanceMap;
+    }
+
     public boolean hasLineOfSight(int x0, int y0, int x1, int y1) {
         return hasLineOfSight(x0, y0, x1, y1, false);
     }
@@ -86,7 +384,7 @@ public abstract class Floor {
         while (true) {
             if (cx == x1 && cy == y1) break;
             if (!(cx == x0 && cy == y0)) {
-                Tile t = tiles.get(new Coordinate(cx, cy));
+                Tile t = getTile(cx, cy);
                 if (t == null) return false;
                 if (t.isWall()) return false;
                 if (checkOccupied && t.isOccupied()) return false;
@@ -0,0 +1,148 @@
+package com.bapppis.core.dungeon;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * A dungeon whose floors are generated on first use.
+ *
+ * Floors {@code minFloor..maxFloor} exist from the start but are only built
+ * when {@link #getFloor} first asks for one, or ahead of time on a
+ * background executor after {@link #prefetch}. Each floor must be a pure
+ * function of its number (e.g. generated from {@code baseSeed + id}), so
+ * the order floors are built in, and the thread that builds them, does not
+ * change the dungeon.
+ *
+ * If {@link #getFloor} asks for a floor that is queued but not started, it
+ * builds the floor itself rather than wait behind other work; if the floor
+ * is being built, it waits for it.
+ */
+public class LazyDungeon extends Dungeon {
+    private final int minFloor;
+    private final int maxFloor;
+    private final IntFunction<Floor> factory;
+    private final Executor executor;
+    private final ConcurrentHashMap<Integer, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * @param factory  builds floor {@code id}; called at most once per floor,
+     *                 from the caller's thread or the executor's
+     * @param executor runs prefetches
+     */
+    public LazyDungeon(int minFloor, int maxFloor, IntFunction<Floor> factory, Executor executor) {
+        if (minFloor > maxFloor)
+            throw new IllegalArgumentException("minFloor " + minFloor + " > maxFloor " + maxFloor);
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.factory = factory;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean hasFloor(int id) {
+        return (id >= minFloor && id <= maxFloor) || super.getFloor(id) != null;
+    }
+
+    /**
+     * The floor, built now if it has not been built yet. Floors added with
+     * {@link #addFloor} take precedence; null outside the range.
+     */
+    @Override
+    public Floor getFloor(int id) {
+        Floor added = super.getFloor(id);
+        if (added != null || id < minFloor || id > maxFloor)
+            return added;
+        Slot slot = slot(id);
+        slot.run();
+        try {
+            return slot.floor.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /** Start building floor {@code id} in the background, if it exists and has not been started. */
+    public void prefetch(int id) {
+        if (id < minFloor || id > maxFloor || super.getFloor(id) != null)
+            return;
+        Slot slot = slot(id);
+        if (!slot.claimed.get())
+            executor.execute(slot::run);
+    }
+
+    /**
+     * Prefetch the floors the player can reach next: both neighbours of
+     * floor 0, where the path forks, and otherwise the next floor further
+     * from 0, since the player cannot turn back past the fork.
+     */
+    @Override
+    public void onEnter(int id) {
+        if (id >= 0)
+            prefetch(id + 1);
+        if (id <= 0)
+            prefetch(id - 1);
+    }
+
+    /** Whether floor {@code id} has been built (or added). */
+    public boolean isGenerated(int id) {
+        if (super.getFloor(id) != null)
+            return true;
+        Slot slot = slots.get(id);
+        return slot != null && slot.floor.isDone() && !slot.floor.isCompletedExceptionally();
+    }
+
+    /** How many floors have been built so far. */
+    public int getGeneratedCount() {
+        int n = 0;
+        for (int id = minFloor; id <= maxFloor; id++) {
+            if (isGenerated(id))
+                n++;
+        }
+        return n;
+    }
+
+    /**
+     * Future for floor {@code id}, started in the background if need be;
+     * null if there is no such floor.
+     */
+    public CompletableFuture<Floor> floorAsync(int id) {
+        Floor added = super.getFloor(id);
+        if (added != null)
+            return CompletableFuture.completedFuture(added);
+        if (id < minFloor || id > maxFloor)
+            return null;
+        prefetch(id);
+        return slot(id).floor;
+    }
+
+    private Slot slot(int id) {
+        return slots.computeIfAbsent(id, Slot::new);
+    }
+
+    // One floor's build: whoever claims it first (caller or executor) runs it
+    private final class Slot {
+        final int id;
+        final AtomicBoolean claimed = new AtomicBoolean();
+        final CompletableFuture<Floor> floor = new CompletableFuture<>();
+
+        Slot(int id) {
+            this.id = id;
+        }
+
+        void run() {
+            if (!claimed.compareAndSet(false, true))
+                return;
+            try {
+                floor.complete(factory.apply(id));
+            } catch (Throwable t) {
+                floor.completeExceptionally(t);
+            }
+        }
+    }
+}
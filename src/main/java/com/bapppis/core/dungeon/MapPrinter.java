@@ -8,14 +8,8 @@ public class MapPrinter {
             System.out.println("[No floor loaded]");
             return;
         }
-        int maxY = 0;
-        int maxX = 0;
-        for (Coordinate c : floor.getTiles().keySet()) {
-            if (c.getY() > maxY) maxY = c.getY();
-            if (c.getX() > maxX) maxX = c.getX();
-        }
-        int height = maxY + 1;
-        int width = maxX + 1;
+        int height = floor.getHeight();
+        int width = floor.getWidth();
 
         int px = -1, py = -1;
         if (player != null && player.getPosition() != null) {
@@ -29,7 +23,7 @@ public class MapPrinter {
                 if (x == px && y == py) {
                     sb.append('P');
                 } else {
-                    Tile t = floor.getTile(new Coordinate(x, y));
+                    Tile t = floor.getTile(x, y);
                     if (t == null) {
                         sb.append('.');
                     } else if (!t.isDiscovered()) {
@@ -51,14 +45,8 @@ public class MapPrinter {
         if (floor == null) {
             return "[No floor loaded]";
         }
-        int maxY = 0;
-        int maxX = 0;
-        for (Coordinate c : floor.getTiles().keySet()) {
-            if (c.getY() > maxY) maxY = c.getY();
-            if (c.getX() > maxX) maxX = c.getX();
-        }
-        int height = maxY + 1;
-        int width = maxX + 1;
+        int height = floor.getHeight();
+        int width = floor.getWidth();
 
         int px = -1, py = -1;
         if (player != null && player.getPosition() != null) {
@@ -72,7 +60,7 @@ public class MapPrinter {
                 if (x == px && y == py) {
                     sb.append('P');
                 } else {
-                    Tile t = floor.getTile(new Coordinate(x, y));
+                    Tile t = floor.getTile(x, y);
                     if (t == null) {
                         sb.append('.');
                     } else if (!t.isDiscovered()) {
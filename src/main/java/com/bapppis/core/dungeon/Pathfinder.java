@@ -0,0 +1,217 @@
+package com.bapppis.core.dungeon;
+
+import java.util.Arrays;
+
+/**
+ * A* search over a {@link Floor}'s 4-connected grid.
+ *
+ * All working state lives in primitive arrays owned by the instance and
+ * reused between calls. Instead of clearing them, each search bumps a
+ * generation counter: a cell's g-score is only valid when its stamp matches
+ * the current generation. A search therefore allocates nothing unless the
+ * floor has grown since the previous one.
+ *
+ * Only {@link Floor#isWalkable(int, int) walkable} cells are entered.
+ * Creatures are ignored unless {@code avoidCreatures} is set, so a cached path
+ * stays valid while other enemies shuffle around. The goal cell is always
+ * accepted, even when it is occupied (e.g. by the player).
+ *
+ * Instances are not thread-safe; each floor owns one via
+ * {@link Floor#getPathfinder()}.
+ */
+public class Pathfinder {
+    private static final int[] DX = { 0, 1, 0, -1 }; // north, east, south, west
+    private static final int[] DY = { -1, 0, 1, 0 };
+
+    private final Floor floor;
+    private int width;
+    private int height;
+
+    private int[] gScore = new int[0];
+    private int[] parent = new int[0];
+    private int[] seen = new int[0];
+    private int[] closed = new int[0];
+    private int generation = 0;
+
+    // Binary min-heap of cell indices keyed by (f, -g)
+    private int[] heapNode = new int[16];
+    private int[] heapF = new int[16];
+    private int[] heapG = new int[16];
+    private int heapSize = 0;
+
+    private int[] path = new int[16];
+    private int pathLength = 0;
+
+    public Pathfinder(Floor floor) {
+        if (floor == null) {
+            throw new IllegalArgumentException("Pathfinder requires a floor");
+        }
+        this.floor = floor;
+    }
+
+    /**
+     * Find a shortest path from (sx, sy) to (tx, ty).
+     *
+     * @param avoidCreatures if true, cells holding creatures (other than the goal) are blocked
+     * @return number of steps (0 when start equals goal), or -1 if the goal is unreachable.
+     *         The steps are available through {@link #getPathCell(int)} until the next call.
+     */
+    public int findPath(int sx, int sy, int tx, int ty, boolean avoidCreatures) {
+        pathLength = 0;
+        if (!floor.inBounds(sx, sy) || !floor.inBounds(tx, ty)) return -1;
+        prepare();
+
+        int start = sy * width + sx;
+        int goal = ty * width + tx;
+        if (start == goal) return 0;
+
+        seen[start] = generation;
+        gScore[start] = 0;
+        parent[start] = -1;
+        heapSize = 0;
+        push(start, heuristic(sx, sy, tx, ty), 0);
+
+        while (heapSize > 0) {
+            int current = heapNode[0];
+            int currentG = heapG[0];
+            pop();
+            if (closed[current] == generation) continue;
+            if (currentG != gScore[current]) continue; // stale heap entry
+            closed[current] = generation;
+            if (current == goal) {
+                buildPath(start, goal);
+                return pathLength;
+            }
+
+            int cx = current % width;
+            int cy = current / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                int next = ny * width + nx;
+                if (closed[next] == generation) continue;
+                if (next != goal && !isWalkable(nx, ny, avoidCreatures)) continue;
+                int g = currentG + 1;
+                if (seen[next] == generation && gScore[next] <= g) continue;
+                seen[next] = generation;
+                gScore[next] = g;
+                parent[next] = current;
+                push(next, g + heuristic(nx, ny, tx, ty), g);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Cell index of step {@code i} of the last path found (0 is the first move,
+     * {@code length - 1} is the goal). Decode with {@code x = index % width},
+     * {@code y = index / width}.
+     */
+    public int getPathCell(int i) {
+        if (i < 0 || i >= pathLength) {
+            throw new IndexOutOfBoundsException("Path step " + i + " out of range 0.." + (pathLength - 1));
+        }
+        return path[i];
+    }
+
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Whether a creature could step onto (x, y) for planning purposes.
+     * @see Floor#isWalkable(int, int)
+     */
+    public boolean isWalkable(int x, int y, boolean avoidCreatures) {
+        if (!floor.isWalkable(x, y)) return false;
+        return !avoidCreatures || floor.getTile(x, y).getOccupants().isEmpty();
+    }
+
+    private void prepare() {
+        width = floor.getWidth();
+        height = floor.getHeight();
+        int area = width * height;
+        if (seen.length < area) {
+            gScore = new int[area];
+            parent = new int[area];
+            seen = new int[area];
+            closed = new int[area];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    private void buildPath(int start, int goal) {
+        int length = 0;
+        for (int c = goal; c != start; c = parent[c]) {
+            length++;
+        }
+        if (path.length < length) {
+            path = new int[Math.max(length, path.length * 2)];
+        }
+        int i = length - 1;
+        for (int c = goal; c != start; c = parent[c]) {
+            path[i--] = c;
+        }
+        pathLength = length;
+    }
+
+    private static int heuristic(int x, int y, int tx, int ty) {
+        return Math.abs(x - tx) + Math.abs(y - ty);
+    }
+
+    // === Binary heap ===
+
+    private boolean less(int a, int b) {
+        if (heapF[a] != heapF[b]) return heapF[a] < heapF[b];
+        return heapG[a] > heapG[b]; // prefer deeper nodes on ties
+    }
+
+    private void push(int node, int f, int g) {
+        if (heapSize == heapNode.length) {
+            int size = heapNode.length * 2;
+            heapNode = Arrays.copyOf(heapNode, size);
+            heapF = Arrays.copyOf(heapF, size);
+            heapG = Arrays.copyOf(heapG, size);
+        }
+        int i = heapSize++;
+        heapNode[i] = node;
+        heapF[i] = f;
+        heapG[i] = g;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!less(i, p)) break;
+            swap(i, p);
+            i = p;
+        }
+    }
+
+    private void pop() {
+        heapSize--;
+        if (heapSize == 0) return;
+        heapNode[0] = heapNode[heapSize];
+        heapF[0] = heapF[heapSize];
+        heapG[0] = heapG[heapSize];
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= heapSize) break;
+            int r = l + 1;
+            int m = (r < heapSize && less(r, l)) ? r : l;
+            if (!less(m, i)) break;
+            swap(i, m);
+            i = m;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int n = heapNode[a]; heapNode[a] = heapNode[b]; heapNode[b] = n;
+        int f = heapF[a]; heapF[a] = heapF[b]; heapF[b] = f;
+        int g = heapG[a]; heapG[a] = heapG[b]; heapG[b] = g;
+    }
+}
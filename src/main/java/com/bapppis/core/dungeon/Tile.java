@@ -16,7 +16,9 @@ import com.bapppis.core.loot.LootPoolLoader;
 public class Tile {
     private final TileType tileType;
     private final Coordinate coordinate;
-    private boolean isDiscovered = false;
+    private boolean isDiscovered = false; // Used until the tile is placed on a floor
+    private Floor floor = null;
+    private int cellIndex = -1;
     private boolean isSpawn = false;
     private LootPool loot = null;
     private String lootPoolId = null; // For corpses - stores the loot pool ID reference
@@ -119,13 +121,40 @@ public class Tile {
     }
 
     public boolean isDiscovered() {
+        if (floor != null) {
+            return floor.isDiscoveredAt(cellIndex);
+        }
         return isDiscovered;
     }
 
     public void setDiscovered(boolean discovered) {
+        if (floor != null) {
+            floor.setDiscoveredAt(cellIndex, discovered);
+            return;
+        }
         this.isDiscovered = discovered;
     }
 
+    /**
+     * Whether this tile was in the player's view during the last reveal.
+     */
+    public boolean isVisible() {
+        return floor != null && floor.isVisibleAt(cellIndex);
+    }
+
+    /**
+     * Bind this tile to a floor cell so fog-of-war state is read from the
+     * floor's discovery layer. A discovered flag set before placement carries
+     * over to the cell.
+     */
+    void attach(Floor floor, int cellIndex) {
+        if (this.floor == null && isDiscovered) {
+            floor.setDiscoveredAt(cellIndex, true);
+        }
+        this.floor = floor;
+        this.cellIndex = cellIndex;
+    }
+
     public boolean isOccupied() {
         return tileType.isOccupied || !occupants.isEmpty() || loot != null;
     }
@@ -170,6 +199,9 @@ public class Tile {
 
     public void spawnTreasureChest(LootPool loot) {
         this.loot = loot;
+        if (floor != null) {
+            floor.markLayoutChanged();
+        }
         // Note: This method is deprecated in favor of replacing the tile with a chest TileType
         // The BSPRoomGenerator should replace the tile instead of calling this method
     }
@@ -1,58 +1,40 @@
 package com.bapppis.core.dungeon;
 
+import com.bapppis.core.util.ResourceIndex;
 import com.google.gson.Gson;
 import com.google.gson.stream.JsonReader;
 
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.List;
 
 public class TileTypeLoader {
-  private static final Gson GSON = new Gson();
-  private static Map<String, TileType> tileTypesByName = new HashMap<>();
+  // Replaced whole after a load and never modified once published, so
+  // generator threads can look tile types up without locking
+  private static volatile Map<String, TileType> tileTypesByName = new HashMap<>();
 
   /**
    * Load all tile types from the data/tile_types directory
    */
-  public static void loadTileTypes() {
-    tileTypesByName.clear();
+  public static synchronized void loadTileTypes() {
+    Map<String, TileType> loaded = new HashMap<>();
+    Gson gson = new Gson();
 
-    // List of tile type file names to load
-    String[] tileTypeFiles = {
-      "basicWall.json",
-      "basicFloor.json",
-      "basicGenFloor.json",
-      "basicUpStairs.json",
-      "basicDownStairs.json",
-      "commonTreasureChest.json",
-      "lootableCorpse.json",
-      "droppedItem.json",
-      "droppedPotion.json"
-    };
-
-    for (String fileName : tileTypeFiles) {
-      String resourcePath = "data/tile_types/" + fileName;
-      try (InputStream is = TileTypeLoader.class.getClassLoader().getResourceAsStream(resourcePath)) {
-        if (is == null) {
-          System.err.println("Could not find tile type resource: " + resourcePath);
-          continue;
-        }
-        try (JsonReader jr = new JsonReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-          TileType tileType = GSON.fromJson(jr, TileType.class);
-          if (tileType != null && tileType.name != null) {
-            tileTypesByName.put(tileType.name.toLowerCase(), tileType);
-            System.out.println("Loaded tile type: " + tileType.name);
-          }
+    for (ResourceIndex.Entry entry : ResourceIndex.get().list("data/tile_types", ".json")) {
+      try (JsonReader jr = new JsonReader(entry.openReader())) {
+        TileType tileType = gson.fromJson(jr, TileType.class);
+        if (tileType != null && tileType.name != null) {
+          loaded.put(tileType.name.toLowerCase(), tileType);
+          System.out.println("Loaded tile type: " + tileType.name);
         }
       } catch (Exception e) {
-        System.err.println("Error loading tile type from " + fileName + ": " + e.getMessage());
+        System.err.println("Error loading tile type from " + entry.getName() + ": " + e.getMessage());
         e.printStackTrace();
       }
     }
 
-    System.out.println("Loaded " + tileTypesByName.size() + " tile types");
+    tileTypesByName = loaded;
+    System.out.println("Loaded " + loaded.size() + " tile types");
   }
 
   /**
@@ -77,4 +59,20 @@ public class TileTypeLoader {
   public static Map<String, TileType> getAllTileTypes() {
     return new HashMap<>(tileTypesByName);
   }
+
+  /**
+   * The registry map, as the list {@link #installRegistries(List)} takes.
+   * Used to write a data bundle.
+   */
+  public static List<Map<?, ?>> getRegistries() {
+    return List.of(tileTypesByName);
+  }
+
+  /**
+   * Replace the registry with a map read back from a data bundle.
+   */
+  @SuppressWarnings("unchecked")
+  public static synchronized void installRegistries(List<Map<?, ?>> maps) {
+    tileTypesByName = new HashMap<>((Map<String, TileType>) maps.get(0));
+  }
 }
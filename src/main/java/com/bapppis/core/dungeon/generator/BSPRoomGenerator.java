@@ -40,7 +40,7 @@ public class BSPRoomGenerator implements MapGenerator {
   @Override
   public Floor generate(int width, int height, int floorNumber, long seed) {
     Random random = new Random(seed);
-    Floor floor = new Floor() {
+    Floor floor = new Floor(width, height) {
     };
 
     // Load tile types
@@ -227,7 +227,7 @@ public class BSPRoomGenerator implements MapGenerator {
     // --- Spawn enemies on floor 0: place one monster in each quadrant that does
     // NOT contain the player ---
     if (floorNumber == 0) {
-      spawnMonsters(tiles, "Floor 0 Enemies", 2, 3, true, qBounds, random);
+      spawnMonsters(floor, tiles, "Floor 0 Enemies", 2, 3, true, qBounds, upCoord, downCoord, random);
     }
 
     // FINAL CONNECTIVITY CHECK: Ensure upstairs and downstairs are mutually
@@ -257,7 +257,20 @@ public class BSPRoomGenerator implements MapGenerator {
     // Add tiles to floor
     for (int x = 0; x < width; x++) {
       for (int y = 0; y < height; y++) {
-        floor.addTile(tiles[x][y].getCoordinate(), tiles[x][y]);
+        floor.setTile(x, y, tiles[x][y]);
+      }
+    }
+
+    // Patrol routes need the assembled floor to validate waypoints. They draw
+    // from the floor's own seed, not the session's AI stream, so the floor is
+    // the same whenever it is generated
+    com.bapppis.core.combat.SplittableRandomProvider patrolRandom =
+        new com.bapppis.core.combat.SplittableRandomProvider(random.nextLong());
+    for (com.bapppis.core.creature.Creature c : floor.getCreatures()) {
+      if (c instanceof com.bapppis.core.creature.Enemy) {
+        com.bapppis.core.creature.Enemy enemy = (com.bapppis.core.creature.Enemy) c;
+        // Initialize patrol route with 3-5 tile radius from spawn
+        enemy.initializePatrolRoute(floor, enemy.getPosition(), 4, patrolRandom);
       }
     }
 
@@ -562,49 +575,12 @@ public class BSPRoomGenerator implements MapGenerator {
 
   /**
    * Check if two coordinates are reachable via floor tiles.
-   * Uses BFS to test connectivity.
+   * Occupied tiles block the way, except for b itself.
    */
   private boolean isReachable(Tile[][] tiles, Coordinate a, Coordinate b) {
     if (a == null || b == null)
       return false;
-
-    java.util.Queue<Coordinate> q = new java.util.ArrayDeque<>();
-    java.util.Set<String> seen = new java.util.HashSet<>();
-    q.add(a);
-    seen.add(a.getX() + "," + a.getY());
-
-    int width = tiles.length, height = tiles[0].length;
-    while (!q.isEmpty()) {
-      Coordinate cur = q.remove();
-      if (cur.getX() == b.getX() && cur.getY() == b.getY())
-        return true;
-
-      int[][] dirs = { { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 } };
-      for (int[] d : dirs) {
-        int nx = cur.getX() + d[0], ny = cur.getY() + d[1];
-        if (nx < 0 || ny < 0 || nx >= width || ny >= height)
-          continue;
-
-        Tile t = tiles[nx][ny];
-        if (t == null)
-          continue;
-
-        // Can walk through floors, stairs, and spawn tiles (not walls or occupied
-        // tiles)
-        char sym = t.getSymbol();
-        if (sym == '#')
-          continue;
-        if (t.isOccupied() && !(nx == b.getX() && ny == b.getY()))
-          continue; // Allow target even if occupied
-
-        String key = nx + "," + ny;
-        if (seen.contains(key))
-          continue;
-        seen.add(key);
-        q.add(new Coordinate(nx, ny));
-      }
-    }
-    return false;
+    return new FloorConnectivity(tiles, a, b).allTargetsReachable();
   }
 
   /**
@@ -619,49 +595,51 @@ public class BSPRoomGenerator implements MapGenerator {
     if (isReachable(tiles, start, target))
       return; // Already connected
 
-    // BFS that ignores walls to find path
-    java.util.Queue<Coordinate> q = new java.util.ArrayDeque<>();
-    java.util.Map<Coordinate, Coordinate> prev = new java.util.HashMap<>();
-    java.util.Set<String> seen = new java.util.HashSet<>();
-    q.add(target);
-    seen.add(target.getX() + "," + target.getY());
-
-    boolean found = false;
+    // BFS that ignores walls to find path; cells are indexed x * height + y
     int width = tiles.length, height = tiles[0].length;
+    int[] queue = new int[width * height];
+    int[] prev = new int[width * height];
+    boolean[] seen = new boolean[width * height];
+    int head = 0, tail = 0;
+    int targetIndex = target.getX() * height + target.getY();
+    int startIndex = start.getX() * height + start.getY();
+    queue[tail++] = targetIndex;
+    seen[targetIndex] = true;
 
-    while (!q.isEmpty() && !found) {
-      Coordinate cur = q.remove();
-      int[][] dirs = { { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 } };
+    boolean found = false;
+    int[][] dirs = { { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 } };
+    while (head < tail && !found) {
+      int cur = queue[head++];
+      int cx = cur / height, cy = cur % height;
       for (int[] d : dirs) {
-        int nx = cur.getX() + d[0], ny = cur.getY() + d[1];
+        int nx = cx + d[0], ny = cy + d[1];
         if (nx < 0 || ny < 0 || nx >= width || ny >= height)
           continue;
 
-        String key = nx + "," + ny;
-        if (seen.contains(key))
+        int next = nx * height + ny;
+        if (seen[next])
           continue;
-        seen.add(key);
+        seen[next] = true;
+        prev[next] = cur;
 
-        Coordinate next = new Coordinate(nx, ny);
-        prev.put(next, cur);
-
-        if (nx == start.getX() && ny == start.getY()) {
+        if (next == startIndex) {
           found = true;
           break;
         }
-        q.add(next);
+        queue[tail++] = next;
       }
     }
 
     // Backtrack and carve path
     if (found) {
-      Coordinate cur = start;
-      while (cur != null && !(cur.getX() == target.getX() && cur.getY() == target.getY())) {
-        Tile t = tiles[cur.getX()][cur.getY()];
+      int cur = startIndex;
+      while (cur != targetIndex) {
+        int x = cur / height, y = cur % height;
+        Tile t = tiles[x][y];
         if (t == null || t.getSymbol() == '#') {
-          tiles[cur.getX()][cur.getY()] = new Tile(new Coordinate(cur.getX(), cur.getY()), floorType);
+          tiles[x][y] = new Tile(new Coordinate(x, y), floorType);
         }
-        cur = prev.get(cur);
+        cur = prev[cur];
       }
     }
   }
@@ -672,6 +650,7 @@ public class BSPRoomGenerator implements MapGenerator {
    * Spawn monsters from a monster pool with min/max count and optional spawn
    * avoidance.
    *
+   * @param floor           Floor being generated (enemies are registered on it)
    * @param tiles           The tile grid
    * @param monsterPoolName Name of the monster pool to spawn from
    * @param min             Minimum number of monsters to spawn
@@ -679,10 +658,12 @@ public class BSPRoomGenerator implements MapGenerator {
    * @param avoidSpawn      If true, avoid spawning in the same quadrant as player
    *                        spawn
    * @param qBounds         Quadrant boundary information
+   * @param upCoord         Upstairs coordinate (monsters never cut it off)
+   * @param downCoord       Downstairs coordinate (monsters never cut it off)
    * @param random          Random number generator
    */
-  private void spawnMonsters(Tile[][] tiles, String monsterPoolName, int min, int max, boolean avoidSpawn,
-      QuadrantBounds qBounds, Random random) {
+  private void spawnMonsters(Floor floor, Tile[][] tiles, String monsterPoolName, int min, int max, boolean avoidSpawn,
+      QuadrantBounds qBounds, Coordinate upCoord, Coordinate downCoord, Random random) {
 
     LootPool monsterPool = LootPoolLoader.getLootPoolByName(monsterPoolName);
     if (monsterPool == null || monsterPool.entries == null || monsterPool.entries.isEmpty()) {
@@ -729,6 +710,7 @@ public class BSPRoomGenerator implements MapGenerator {
 
     // Spawn one per available quadrant first, then distribute remaining randomly
     int spawned = 0;
+    FloorConnectivity paths = criticalPaths(tiles, upCoord, downCoord);
 
     // Phase 1: One per quadrant
     for (int q : availableQuads) {
@@ -736,8 +718,10 @@ public class BSPRoomGenerator implements MapGenerator {
         break;
 
       com.bapppis.core.creature.Creature monster = pickRandomMonsterFromPool(monsterPool, random);
-      if (monster != null && placeMonsterInQuadrant(tiles, monster, q, qBounds, random)) {
+      if (monster != null && placeMonsterInQuadrant(floor, tiles, monster, q, qBounds, paths, random)) {
         spawned++;
+        // An occupied tile can turn its neighbours into choke points
+        paths = criticalPaths(tiles, upCoord, downCoord);
       }
     }
 
@@ -745,8 +729,9 @@ public class BSPRoomGenerator implements MapGenerator {
     while (spawned < count) {
       int q = availableQuads.get(random.nextInt(availableQuads.size()));
       com.bapppis.core.creature.Creature monster = pickRandomMonsterFromPool(monsterPool, random);
-      if (monster != null && placeMonsterInQuadrant(tiles, monster, q, qBounds, random)) {
+      if (monster != null && placeMonsterInQuadrant(floor, tiles, monster, q, qBounds, paths, random)) {
         spawned++;
+        paths = criticalPaths(tiles, upCoord, downCoord);
       } else {
         // Avoid infinite loop if placement consistently fails
         break;
@@ -819,6 +804,7 @@ public class BSPRoomGenerator implements MapGenerator {
     int spawned = 0;
     int attempts = 0;
     int maxAttempts = count * 50; // Prevent infinite loops
+    FloorConnectivity paths = criticalPaths(tiles, upCoord, downCoord);
 
     while (spawned < count && attempts < maxAttempts) {
       attempts++;
@@ -839,7 +825,7 @@ public class BSPRoomGenerator implements MapGenerator {
 
       // Prefer floor tiles that aren't spawn and don't block paths
       if (cand.getSymbol() == '.' && !cand.isSpawn() && !cand.isOccupied()) {
-        if (!wouldBlockPath(tiles, x, y, upCoord, downCoord)) {
+        if (!wouldBlockPath(paths, x, y)) {
           // Replace floor tile with chest tile
           TileType chestType = TileTypeLoader.getTileTypeByName("commonTreasureChest");
           if (chestType != null) {
@@ -862,6 +848,7 @@ public class BSPRoomGenerator implements MapGenerator {
             if (chestTile.getDown() != null)
               chestTile.getDown().setUp(chestTile);
             spawned++;
+            paths = criticalPaths(tiles, upCoord, downCoord);
           }
         }
       }
@@ -891,7 +878,7 @@ public class BSPRoomGenerator implements MapGenerator {
           continue;
 
         // Replace wall with chest if it doesn't block critical paths
-        if (cand.getSymbol() == '#' && !wouldBlockPath(tiles, x, y, upCoord, downCoord)) {
+        if (cand.getSymbol() == '#' && !wouldBlockPath(paths, x, y)) {
           Tile newTile = new Tile(new Coordinate(x, y), chestType);
           // Copy navigation and state
           newTile.setLeft(cand.getLeft());
@@ -911,6 +898,7 @@ public class BSPRoomGenerator implements MapGenerator {
           if (newTile.getDown() != null)
             newTile.getDown().setUp(newTile);
           spawned++;
+          paths = criticalPaths(tiles, upCoord, downCoord);
         }
       }
     }
@@ -960,11 +948,12 @@ public class BSPRoomGenerator implements MapGenerator {
   }
 
   /**
-   * Attempt to place a monster in a specific quadrant.
+   * Attempt to place a monster in a specific quadrant, off any tile that would
+   * cut spawn off from the stairs.
    * Returns true if successful, false otherwise.
    */
-  private boolean placeMonsterInQuadrant(Tile[][] tiles, com.bapppis.core.creature.Creature monster, int quadrant,
-      QuadrantBounds qBounds, Random random) {
+  private boolean placeMonsterInQuadrant(Floor floor, Tile[][] tiles, com.bapppis.core.creature.Creature monster,
+      int quadrant, QuadrantBounds qBounds, FloorConnectivity paths, Random random) {
 
     int[][] bounds = qBounds.getQuadrantBounds(quadrant);
     int xMin = bounds[0][0], xMax = bounds[0][1];
@@ -982,14 +971,14 @@ public class BSPRoomGenerator implements MapGenerator {
         continue;
       if (cand.getSymbol() == '#')
         continue;
+      if (wouldBlockPath(paths, x, y))
+        continue;
 
       cand.getOccupants().add(monster);
-      // Set enemy position if it's an Enemy
+      // Set enemy position if it's an Enemy (patrol routes are set up once the
+      // floor is assembled)
       if (monster instanceof com.bapppis.core.creature.Enemy) {
-        com.bapppis.core.creature.Enemy enemy = (com.bapppis.core.creature.Enemy) monster;
-        enemy.setPosition(cand.getCoordinate());
-        // Initialize patrol route with 3-5 tile radius from spawn
-        enemy.initializePatrolRoute(cand.getCoordinate(), 4);
+        ((com.bapppis.core.creature.Enemy) monster).setPosition(floor, cand.getCoordinate());
       }
       return true;
     }
@@ -1004,14 +993,13 @@ public class BSPRoomGenerator implements MapGenerator {
           continue;
         if (cand.getSymbol() == '#')
           continue;
+        if (wouldBlockPath(paths, x, y))
+          continue;
 
         cand.getOccupants().add(monster);
         // Set enemy position if it's an Enemy
         if (monster instanceof com.bapppis.core.creature.Enemy) {
-          com.bapppis.core.creature.Enemy enemy = (com.bapppis.core.creature.Enemy) monster;
-          enemy.setPosition(cand.getCoordinate());
-          // Initialize patrol route with 3-5 tile radius from spawn
-          enemy.initializePatrolRoute(cand.getCoordinate(), 4);
+          ((com.bapppis.core.creature.Enemy) monster).setPosition(floor, cand.getCoordinate());
         }
         return true;
       }
@@ -1021,36 +1009,24 @@ public class BSPRoomGenerator implements MapGenerator {
   }
 
   /**
-   * Test if placing a chest at (x,y) would block critical paths.
-   * Returns true if blocking spawn→upstairs or spawn→downstairs.
+   * Spawn-to-stairs connectivity of the grid as it is now, or null if the
+   * floor has no spawn tile (then nothing counts as blocking).
    */
-  private boolean wouldBlockPath(Tile[][] tiles, int x, int y, Coordinate upCoord, Coordinate downCoord) {
-    // Find spawn tile
-    Coordinate spawnCoord = null;
-    for (int sx = 0; sx < tiles.length && spawnCoord == null; sx++) {
-      for (int sy = 0; sy < tiles[0].length && spawnCoord == null; sy++) {
-        if (tiles[sx][sy] != null && tiles[sx][sy].isSpawn()) {
-          spawnCoord = new Coordinate(sx, sy);
-        }
+  private FloorConnectivity criticalPaths(Tile[][] tiles, Coordinate upCoord, Coordinate downCoord) {
+    for (int x = 0; x < tiles.length; x++) {
+      for (int y = 0; y < tiles[0].length; y++) {
+        if (tiles[x][y] != null && tiles[x][y].isSpawn())
+          return new FloorConnectivity(tiles, new Coordinate(x, y), upCoord, downCoord);
       }
     }
-    if (spawnCoord == null)
-      return false; // No spawn, can't block
-
-    // Temporarily mark chest location as occupied
-    Tile original = tiles[x][y];
-
-    // Create temporary wall tile to simulate blocking
-    Tile tempWall = new Tile(new Coordinate(x, y), original.getTileType());
-    tiles[x][y] = tempWall;
-
-    // Test reachability
-    boolean blocksUp = !isReachable(tiles, spawnCoord, upCoord);
-    boolean blocksDown = !isReachable(tiles, spawnCoord, downCoord);
-
-    // Restore original tile
-    tiles[x][y] = original;
+    return null;
+  }
 
-    return blocksUp || blocksDown;
+  /**
+   * Test if blocking (x,y) would block critical paths.
+   * Returns true if blocking spawn→upstairs or spawn→downstairs.
+   */
+  private boolean wouldBlockPath(FloorConnectivity paths, int x, int y) {
+    return paths != null && paths.isCritical(x, y);
   }
 }
@@ -0,0 +1,120 @@
+package com.bapppis.core.dungeon.generator;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.bapppis.core.dungeon.Dungeon;
+import com.bapppis.core.dungeon.Floor;
+
+/**
+ * Builds the dungeon's floors from a base seed, either one at a time (see
+ * {@link #generateFloor}) or all at once on a fork-join pool.
+ *
+ * Floor {@code i} is generated by a fresh {@link BSPRoomGenerator} from
+ * {@code baseSeed + i} and nothing else, so a floor comes out the same
+ * whichever thread builds it and in whatever order. Building the whole
+ * dungeon in parallel therefore gives exactly the dungeon a sequential
+ * build would. Game data must be loaded first.
+ */
+public final class DungeonBuilder {
+  public static final int MIN_FLOOR = -10;
+  public static final int MAX_FLOOR = 10;
+
+  private DungeonBuilder() {
+  }
+
+  /**
+   * Floor {@code i} of the dungeon built from {@code baseSeed}. Floors 0 to
+   * ±4 are 20 to 30 tiles a side, deeper floors 30 to 40.
+   */
+  public static Floor generateFloor(long baseSeed, int i) {
+    // Determine floor size based on depth
+    int minSize, maxSize;
+    if (i >= -4 && i <= 4) {
+      // Floors 0 to ±4: 20x20 to 30x30
+      minSize = 20;
+      maxSize = 30;
+    } else {
+      // Floors ±5 to ±10: 30x30 to 40x40
+      minSize = 30;
+      maxSize = 40;
+    }
+
+    // Generate random size within range
+    Random random = new Random(baseSeed + i);
+    int width = minSize + random.nextInt(maxSize - minSize + 1);
+    int height = minSize + random.nextInt(maxSize - minSize + 1);
+
+    return new BSPRoomGenerator().generate(width, height, i, baseSeed + i);
+  }
+
+  /**
+   * Every floor from {@link #MIN_FLOOR} to {@link #MAX_FLOOR}, built on the
+   * common fork-join pool.
+   */
+  public static Dungeon buildAll(long baseSeed) {
+    return buildAll(baseSeed, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Every floor from {@link #MIN_FLOOR} to {@link #MAX_FLOOR}, built on
+   * {@code pool}.
+   */
+  public static Dungeon buildAll(long baseSeed, ForkJoinPool pool) {
+    return buildAll(baseSeed, MIN_FLOOR, MAX_FLOOR, pool);
+  }
+
+  /**
+   * Floors {@code minFloor..maxFloor}, built on {@code pool}. Returns once
+   * every floor is done; a failure in any floor is rethrown.
+   */
+  public static Dungeon buildAll(long baseSeed, int minFloor, int maxFloor, ForkJoinPool pool) {
+    if (minFloor > maxFloor)
+      throw new IllegalArgumentException("minFloor " + minFloor + " > maxFloor " + maxFloor);
+    Floor[] floors = new Floor[maxFloor - minFloor + 1];
+    pool.invoke(new FloorTask(baseSeed, minFloor, floors, 0, floors.length));
+    // invoke() joins every task, so the array is complete and visible here
+    Dungeon dungeon = new Dungeon() {
+    };
+    for (int k = 0; k < floors.length; k++) {
+      dungeon.addFloor(minFloor + k, floors[k]);
+    }
+    return dungeon;
+  }
+
+  /**
+   * Splits the floor range in halves down to single floors. Floors differ a
+   * lot in size, so one floor per leaf lets idle workers steal the rest.
+   */
+  @SuppressWarnings("serial")
+  private static final class FloorTask extends RecursiveAction {
+    private final long baseSeed;
+    private final int minFloor;
+    private final Floor[] out;
+    private final int from;
+    private final int to;
+
+    FloorTask(long baseSeed, int minFloor, Floor[] out, int from, int to) {
+      this.baseSeed = baseSeed;
+      this.minFloor = minFloor;
+      this.out = out;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        if (from < to)
+          out[from] = generateFloor(baseSeed, minFloor + from);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      FloorTask right = new FloorTask(baseSeed, minFloor, out, mid, to);
+      right.fork();
+      new FloorTask(baseSeed, minFloor, out, from, mid).compute();
+      right.join();
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.bapppis.core.dungeon.generator;
+
+import com.bapppis.core.dungeon.Coordinate;
+import com.bapppis.core.dungeon.Tile;
+
+/**
+ * Connectivity of a tile grid between a source cell and one or more target
+ * cells (e.g. spawn and the stairs), computed once and then queried in O(1).
+ *
+ * A cell is open if it is not a wall and not occupied. The source is always
+ * open and the targets are open unless they are walls, matching what a
+ * reachability search from the source would accept. Components come from a
+ * union-find over the grid; the cells whose blocking would cut the source off
+ * from a target come from one articulation-point pass (Tarjan) over a DFS
+ * from the source.
+ *
+ * The analysis is a snapshot: rebuild it after changing which cells are open.
+ */
+final class FloorConnectivity {
+  private final int width;
+  private final int height;
+  private final boolean[] open;
+  private final int[] parent;
+  private final int source;
+  private final int[] targets;
+  private boolean[] critical;
+
+  FloorConnectivity(Tile[][] tiles, Coordinate source, Coordinate... targets) {
+    this.width = tiles.length;
+    this.height = width == 0 ? 0 : tiles[0].length;
+    int n = width * height;
+    this.open = new boolean[n];
+    this.parent = new int[n];
+    this.source = index(source.getX(), source.getY());
+    this.targets = new int[targets.length];
+
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        Tile t = tiles[x][y];
+        open[index(x, y)] = t != null && t.getSymbol() != '#' && !t.isOccupied();
+      }
+    }
+    open[this.source] = true;
+    for (int k = 0; k < targets.length; k++) {
+      int i = index(targets[k].getX(), targets[k].getY());
+      this.targets[k] = i;
+      Tile t = tiles[targets[k].getX()][targets[k].getY()];
+      if (t != null && t.getSymbol() != '#')
+        open[i] = true;
+    }
+
+    for (int i = 0; i < n; i++) {
+      parent[i] = open[i] ? i : -1;
+    }
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        int i = index(x, y);
+        if (!open[i])
+          continue;
+        if (x > 0 && open[i - height])
+          union(i, i - height);
+        if (y > 0 && open[i - 1])
+          union(i, i - 1);
+      }
+    }
+  }
+
+  /** Whether a and b are open and joined by open cells. */
+  boolean connected(Coordinate a, Coordinate b) {
+    int ra = find(index(a.getX(), a.getY()));
+    return ra >= 0 && ra == find(index(b.getX(), b.getY()));
+  }
+
+  /** Whether every target is reachable from the source. */
+  boolean allTargetsReachable() {
+    int root = find(source);
+    for (int t : targets) {
+      if (find(t) != root)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Whether blocking (x,y) would leave some target unreachable from the
+   * source. The source and targets themselves count as critical, and if a
+   * target is already unreachable every cell does.
+   */
+  boolean isCritical(int x, int y) {
+    if (!allTargetsReachable())
+      return true;
+    if (critical == null)
+      critical = findCriticalCells();
+    return critical[index(x, y)];
+  }
+
+  private int index(int x, int y) {
+    return x * height + y;
+  }
+
+  private int find(int i) {
+    if (parent[i] < 0)
+      return -1;
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  private void union(int a, int b) {
+    int ra = find(a), rb = find(b);
+    if (ra != rb)
+      parent[Math.max(ra, rb)] = Math.min(ra, rb);
+  }
+
+  /**
+   * Iterative Tarjan DFS from the source. A cell p is critical when some DFS
+   * child v has no back edge above p (low[v] >= disc[p]) and v's subtree,
+   * i.e. the discovery times disc[v]..last[v], holds a target.
+   */
+  private boolean[] findCriticalCells() {
+    int n = open.length;
+    boolean[] result = new boolean[n];
+    int[] disc = new int[n];
+    int[] low = new int[n];
+    int[] last = new int[n];
+    int[] up = new int[n];
+    byte[] nextDir = new byte[n];
+    int[] stack = new int[n];
+    int sp = 0;
+    int time = 0;
+
+    disc[source] = low[source] = ++time;
+    up[source] = -1;
+    stack[sp++] = source;
+    while (sp > 0) {
+      int v = stack[sp - 1];
+      if (nextDir[v] < 4) {
+        int w = neighbour(v, nextDir[v]++);
+        if (w < 0 || !open[w])
+          continue;
+        if (disc[w] == 0) {
+          disc[w] = low[w] = ++time;
+          up[w] = v;
+          stack[sp++] = w;
+        } else if (w != up[v]) {
+          low[v] = Math.min(low[v], disc[w]);
+        }
+        continue;
+      }
+      sp--;
+      last[v] = time;
+      int p = up[v];
+      if (p < 0)
+        continue;
+      low[p] = Math.min(low[p], low[v]);
+      if (p != source && low[v] >= disc[p]) {
+        for (int t : targets) {
+          if (disc[t] >= disc[v] && disc[t] <= last[v]) {
+            result[p] = true;
+            break;
+          }
+        }
+      }
+    }
+
+    result[source] = true;
+    for (int t : targets) {
+      result[t] = true;
+    }
+    return result;
+  }
+
+  // -1 when off the grid; directions are up, down, left, right
+  private int neighbour(int i, int dir) {
+    int x = i / height, y = i % height;
+    switch (dir) {
+      case 0:
+        return y > 0 ? i - 1 : -1;
+      case 1:
+        return y < height - 1 ? i + 1 : -1;
+      case 2:
+        return x > 0 ? i - height : -1;
+      default:
+        return x < width - 1 ? i + height : -1;
+    }
+  }
+}
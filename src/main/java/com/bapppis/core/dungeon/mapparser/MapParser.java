@@ -53,12 +53,12 @@ public class MapParser {
             // Second pass: link neighbors for each tile using bounds-safe lookups
             for (int yy = 0; yy < height; yy++) {
                 for (int xx = 0; xx < width; xx++) {
-                    Tile t = floor.getTile(new Coordinate(xx, yy));
+                    Tile t = floor.getTile(xx, yy);
                     if (t == null) continue; // outside row length
 
                     // Right
                     if (BoundsUtil.inBounds(xx + 1, yy, width, height)) {
-                        Tile right = floor.getTile(new Coordinate(xx + 1, yy));
+                        Tile right = floor.getTile(xx + 1, yy);
                         if (right != null) {
                             t.setRight(right);
                             right.setLeft(t);
@@ -66,7 +66,7 @@ public class MapParser {
                     }
                     // Up
                     if (BoundsUtil.inBounds(xx, yy + 1, width, height)) {
-                        Tile up = floor.getTile(new Coordinate(xx, yy + 1));
+                        Tile up = floor.getTile(xx, yy + 1);
                         if (up != null) {
                             t.setUp(up);
                             up.setDown(t);
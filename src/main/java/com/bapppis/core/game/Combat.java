@@ -6,6 +6,8 @@ import java.util.Scanner;
 import com.bapppis.core.creature.Creature;
 import com.bapppis.core.creature.Enemy;
 import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.Floor;
+import com.bapppis.core.dungeon.Tile;
 import com.bapppis.core.util.DebugLog;
 
 public class Combat {
@@ -73,6 +75,36 @@ public class Combat {
         DebugLog.debug("Combat ends.");
     }
 
+    /**
+     * Everything that follows killing an enemy outside of auto-resolve:
+     * award its XP, then {@link #leaveCorpse leave its corpse}.
+     */
+    public static void defeatEnemy(Creature player, Creature enemy, Floor floor) {
+        handleEnemyDefeated(player, enemy);
+        leaveCorpse(enemy, floor);
+    }
+
+    /**
+     * Take a defeated enemy off the floor, replacing its tile with a corpse
+     * holding its loot (see {@link CorpseFactory}).
+     */
+    public static void leaveCorpse(Creature enemy, Floor floor) {
+        if (!(enemy instanceof Enemy))
+            return;
+        Enemy en = (Enemy) enemy;
+        if (en.getPosition() == null)
+            return;
+        if (floor != null) {
+            Tile tile = floor.getTile(en.getPosition());
+            if (tile != null) {
+                tile.getOccupants().remove(enemy);
+                CorpseFactory.createCorpse(floor, tile, en);
+            }
+        }
+        // Clear the enemy's position to fully disconnect it from the map
+        en.setPosition(floor, null);
+    }
+
     private static void handleEnemyDefeated(Creature player, Creature enemy) {
         if (player instanceof Player && enemy instanceof Enemy) {
             Integer enemyXp = ((Enemy) enemy).getEnemyXp();
@@ -0,0 +1,581 @@
+package com.bapppis.core.game;
+
+import com.bapppis.core.creature.Enemy;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.*;
+import com.bapppis.core.item.Equipment;
+import com.bapppis.core.item.Item;
+import com.bapppis.core.spell.Spell;
+import com.bapppis.core.spell.SpellEngine;
+import com.bapppis.core.spell.SpellLoader;
+import com.bapppis.core.util.DebugLog;
+
+import static com.bapppis.core.util.DebugLog.Category.INTERACT;
+
+/**
+ * Runs {@link GameCommand}s against the game state. Commands arrive already
+ * typed, from the GUI or from {@link CommandParser} for console text, so
+ * nothing is parsed or looked up by name here.
+ */
+public class CommandExecutor {
+    private final MoveCommand move = new MoveCommand();
+    private final InteractCommand interact = new InteractCommand();
+    private final LookCommand look = new LookCommand();
+    private final AttackCommand attack = new AttackCommand();
+    private final MapCommand map = new MapCommand();
+    private final PlayerCommand player = new PlayerCommand();
+    private final WaitCommand waitCommand = new WaitCommand();
+    private final FightCommand fight = new FightCommand();
+    private final ItemCommand items = new ItemCommand();
+    private final UpCommand up;
+    private final DownCommand down;
+
+    public CommandExecutor(Dungeon dungeon, int[] currentFloorRef) {
+        this.up = new UpCommand(dungeon, currentFloorRef);
+        this.down = new DownCommand(dungeon, currentFloorRef);
+    }
+
+    public void execute(GameCommand command) {
+        if (command instanceof GameCommand.Move m) {
+            move.execute(m.direction());
+        } else if (command instanceof GameCommand.Interact i) {
+            interact.execute(i.direction());
+        } else if (command instanceof GameCommand.Wait) {
+            waitCommand.execute();
+        } else if (command instanceof GameCommand.Stairs s) {
+            if (s.up())
+                up.execute();
+            else
+                down.execute();
+        } else if (command instanceof GameCommand.Look l) {
+            look.execute(l.direction());
+        } else if (command instanceof GameCommand.Attack a) {
+            attack.execute(a.target());
+        } else if (command instanceof GameCommand.ShowMap) {
+            map.execute();
+        } else if (command instanceof GameCommand.SelectPlayer p) {
+            player.execute(p.id());
+        } else if (command instanceof GameCommand.Hit) {
+            fight.hit();
+        } else if (command instanceof GameCommand.Cast c) {
+            fight.cast(c.spellId());
+        } else if (command instanceof GameCommand.EnemyTurn) {
+            fight.enemyTurn();
+        } else if (command instanceof GameCommand.Flee) {
+            fight.flee();
+        } else if (command instanceof GameCommand.UseItem u) {
+            items.use(u.itemId());
+        } else if (command instanceof GameCommand.Equip e) {
+            items.equip(e.itemId());
+        } else if (command != null) {
+            System.out.println("Unknown command: " + command);
+        }
+    }
+
+    class UpCommand {
+        private Dungeon dungeon;
+        private int[] currentFloorRef;
+
+        public UpCommand(Dungeon dungeon, int[] currentFloorRef) {
+            this.dungeon = dungeon;
+            this.currentFloorRef = currentFloorRef;
+        }
+
+        public void execute() {
+            Player player = GameState.getPlayer();
+            Floor floor = dungeon.getFloor(currentFloorRef[0]);
+            Tile playerTile = floor.getTile(player.getPosition());
+            if (playerTile != null && playerTile.getSymbol() == '^') {
+                // After floor 0, upstairs can only go up (positive floors)
+                if (currentFloorRef[0] < 0) {
+                    System.out.println("You cannot go up from here. You chose the downward path at floor 0.");
+                    return;
+                }
+                if (currentFloorRef[0] < 10 && dungeon.hasFloor(currentFloorRef[0] + 1)) {
+                    currentFloorRef[0]++;
+                    System.out.println("You ascend to floor " + currentFloorRef[0]);
+                    Floor newFloor = dungeon.getFloor(currentFloorRef[0]);
+                    // Remove player from previous floor occupants before switching floors
+                    Floor oldFloor = GameState.getCurrentFloor();
+                    if (oldFloor != null) {
+                        oldFloor.moveCreature(player, player.getPosition(), null);
+                    }
+                    GameState.setCurrentFloor(newFloor);
+                    dungeon.onEnter(currentFloorRef[0]);
+                    // Move player to downstairs 'v' on new floor (opposite of upstairs used)
+                    Tile stairs = newFloor.findTile(t -> t.getSymbol() == 'v');
+                    Coordinate spawn = stairs != null ? stairs.getCoordinate() : null;
+                    if (spawn != null) {
+                        player.setPosition(spawn);
+                        // Reset all tiles to undiscovered
+                        newFloor.hideAll();
+                        // Reveal tiles around the player
+                        newFloor.revealTilesWithVision(spawn.getX(), spawn.getY(), player.getVisionRange());
+                        MapPrinter.printWithPlayer(newFloor, player);
+                    } else {
+                        System.out.println("No 'v' downstairs found on this floor. Position unchanged.");
+                    }
+                } else {
+                    System.out.println("You can't go higher!");
+                }
+            } else {
+                System.out.println("You must be standing on an up staircase (^) to go up.");
+            }
+        }
+    }
+
+    class DownCommand {
+        private Dungeon dungeon;
+        private int[] currentFloorRef;
+
+        public DownCommand(Dungeon dungeon, int[] currentFloorRef) {
+            this.dungeon = dungeon;
+            this.currentFloorRef = currentFloorRef;
+        }
+
+        public void execute() {
+            Player player = GameState.getPlayer();
+            Floor floor = dungeon.getFloor(currentFloorRef[0]);
+            Tile playerTile = floor.getTile(player.getPosition());
+            if (playerTile != null && playerTile.getSymbol() == 'v') {
+                // After floor 0, downstairs can only go down (negative floors)
+                if (currentFloorRef[0] > 0) {
+                    System.out.println("You cannot go down from here. You chose the upward path at floor 0.");
+                    return;
+                }
+                if (currentFloorRef[0] > -10 && dungeon.hasFloor(currentFloorRef[0] - 1)) {
+                    currentFloorRef[0]--;
+                    System.out.println("You descend to floor " + currentFloorRef[0]);
+                    Floor newFloor = dungeon.getFloor(currentFloorRef[0]);
+                    // Remove player from previous floor occupants before switching floors
+                    Floor oldFloor = GameState.getCurrentFloor();
+                    if (oldFloor != null) {
+                        oldFloor.moveCreature(player, player.getPosition(), null);
+                    }
+                    GameState.setCurrentFloor(newFloor);
+                    dungeon.onEnter(currentFloorRef[0]);
+                    // Move player to upstairs '^' on new floor (opposite of downstairs used)
+                    Tile stairs = newFloor.findTile(t -> t.getSymbol() == '^');
+                    Coordinate spawn = stairs != null ? stairs.getCoordinate() : null;
+                    if (spawn != null) {
+                        player.setPosition(spawn);
+                        // Reset all tiles to undiscovered
+                        newFloor.hideAll();
+                        // Reveal tiles around the player
+                        newFloor.revealTilesWithVision(spawn.getX(), spawn.getY(), player.getVisionRange());
+                        MapPrinter.printWithPlayer(newFloor, player);
+                    } else {
+                        System.out.println("No '^' upstairs found on this floor. Position unchanged.");
+                    }
+                } else {
+                    System.out.println("You can't go lower!");
+                }
+            } else {
+                System.out.println("You must be standing on a down staircase (v) to go down.");
+            }
+        }
+    }
+}
+
+class LookCommand {
+    public void execute(Direction direction) {
+        Floor floor = GameState.getCurrentFloor();
+        var player = GameState.getPlayer();
+        if (floor == null || player.getPosition() == null) {
+            System.out.println("No map or player loaded.");
+            return;
+        }
+        int px = player.getX();
+        int py = player.getY();
+        // Print all directions, or just the one asked for
+        for (Direction d : direction == null ? Direction.values() : new Direction[] { direction }) {
+            Coordinate coord = new Coordinate(px + d.dx, py + d.dy);
+            Tile tile = floor.getTile(coord);
+            String desc = describeTile(tile);
+            System.out.println("To the " + d.word() + " you see " + desc);
+        }
+    }
+
+    private String describeTile(Tile tile) {
+        if (tile == null) {
+            return "nothing";
+        }
+
+        char sym = tile.getSymbol();
+        switch (sym) {
+            case '#':
+                return "a wall";
+            case '<':
+                return "a breakable wall";
+            case '.':
+                return "the floor";
+            case '@':
+                return "a spawn point";
+            case '^':
+                return "an up staircase";
+            case 'v':
+                return "a down staircase";
+            case '!':
+                return "an event";
+            case 'C':
+                // Check if chest has loot
+                if (tile.getLoot() != null) {
+                    return "a treasure chest";
+                } else {
+                    return "an empty chest";
+                }
+            case '%':
+                // Corpse - check if it has loot
+                if (tile.getItems() != null && !tile.getItems().isEmpty()) {
+                    return "a corpse with loot";
+                } else {
+                    return "an empty corpse";
+                }
+            case '*':
+                // Dropped items
+                if (tile.getItems() != null && !tile.getItems().isEmpty()) {
+                    if (tile.getItems().size() == 1) {
+                        return tile.getItems().get(0).getName() + " on the ground";
+                    } else {
+                        return "items on the ground (" + tile.getItems().size() + " items)";
+                    }
+                }
+                return "something on the ground";
+            case '+':
+                return "a pit";
+            case 'M':
+                return "a monster";
+            case 'P':
+                return "a player";
+            default:
+                return "something";
+        }
+    }
+}
+
+class InteractCommand {
+    public void execute(Direction direction) {
+        Floor floor = GameState.getCurrentFloor();
+        var player = GameState.getPlayer();
+        if (floor == null || player.getPosition() == null) {
+            System.out.println("No map or player loaded.");
+            return;
+        }
+
+        int px = player.getX();
+        int py = player.getY();
+        Coordinate coord = new Coordinate(px + direction.dx, py + direction.dy);
+        Tile tile = floor.getTile(coord);
+
+        if (tile == null) {
+            System.out.println("There's nothing to interact with there.");
+            return;
+        }
+
+        char sym = tile.getSymbol();
+
+        // Debug: Show what we're interacting with
+        if (DebugLog.isEnabled(INTERACT, DebugLog.Level.DEBUG)) {
+            DebugLog.debug(INTERACT,
+                    () -> "Interacting with tile at " + coord + ", symbol: '" + sym + "', sprite: " + tile.getSprite());
+            if (tile.getLoot() != null) {
+                DebugLog.debug(INTERACT, () -> "Tile has loot pool: " + tile.getLoot().name);
+            }
+            if (tile.getItems() != null && !tile.getItems().isEmpty()) {
+                DebugLog.debug(INTERACT, () -> "Tile has " + tile.getItems().size() + " items");
+            }
+        }
+
+        // Handle corpses and dropped items
+        if (sym == '%' || sym == '*') {
+            if (tile.getItems() == null || tile.getItems().isEmpty()) {
+                System.out.println("There's nothing to loot here.");
+                return;
+            }
+
+            // Show the loot transfer dialog instead of console interaction
+            GameState.showLootTransferDialog(coord);
+            return;
+        }
+
+        // Handle chests
+        if (sym == 'C') {
+            DebugLog.debug(INTERACT, () -> "Chest detected at " + coord);
+            com.bapppis.core.loot.LootPool lootPool = tile.getLoot();
+            DebugLog.debug(INTERACT,
+                    () -> "Loot pool: " + (lootPool != null ? lootPool.name + " (ID: " + lootPool.id + ")" : "null"));
+            if (lootPool == null) {
+                System.out.println("This chest is empty.");
+                return;
+            }
+
+            // Sample the loot pool and spawn items into the chest tile. Nested pools
+            // resolve through the shared LootPoolRegistry, so nothing is read from disk.
+            DebugLog.debug(INTERACT, () -> "Sampling loot pool: " + lootPool.id);
+            java.util.List<com.bapppis.core.loot.LootManager.Spawn> spawns = new com.bapppis.core.loot.LootManager()
+                    .samplePool(lootPool);
+            DebugLog.debug(INTERACT, () -> "Got " + (spawns != null ? spawns.size() : 0) + " spawns");
+
+            if (spawns == null || spawns.isEmpty()) {
+                System.out.println("The chest is empty.");
+                return;
+            }
+
+            // Add items to the chest tile so the loot dialog can show them
+            int itemsAdded = 0;
+            for (com.bapppis.core.loot.LootManager.Spawn spawn : spawns) {
+                DebugLog.debug(INTERACT, () -> "Spawn: type=" + spawn.type + ", id=" + spawn.id);
+                if ("item".equalsIgnoreCase(spawn.type)) {
+                    com.bapppis.core.item.Item item = spawn.item;
+                    if (item == null && spawn.id != null) {
+                        try {
+                            int itemId = Integer.parseInt(spawn.id);
+                            item = com.bapppis.core.item.ItemLoader.getItemById(itemId);
+                        } catch (NumberFormatException e) {
+                            item = com.bapppis.core.item.ItemLoader.getItemByName(spawn.id);
+                        }
+                    }
+                    if (item != null) {
+                        tile.getItems().add(item);
+                        itemsAdded++;
+                        com.bapppis.core.item.Item added = item;
+                        DebugLog.debug(INTERACT, () -> "Added item: " + added.getName());
+                    } else {
+                        DebugLog.debug(INTERACT, () -> "Failed to load item: " + spawn.id);
+                    }
+                }
+            }
+
+            int totalAdded = itemsAdded;
+            DebugLog.debug(INTERACT, () -> "Total items added to chest: " + totalAdded);
+
+            // Clear the loot pool so it doesn't spawn again
+            tile.spawnTreasureChest(null);
+
+            // Show the loot transfer dialog
+            GameState.showLootTransferDialog(coord);
+            return;
+        }
+
+        // Handle walls
+        if (sym == '#' || sym == '<') {
+            System.out.println("There's nothing to interact with this wall.");
+            return;
+        }
+
+        // Handle floor
+        if (sym == '.' || sym == '@') {
+            System.out.println("There's nothing to interact here.");
+            return;
+        }
+
+        // Handle stairs
+        if (sym == '^' || sym == 'v') {
+            System.out.println("Use 'up' or 'down' commands to use stairs.");
+            return;
+        }
+
+        // Nothing interactive at this tile
+        System.out.println("There's nothing to interact with there.");
+    }
+}
+
+class MoveCommand {
+    public void execute(Direction direction) {
+        Floor floor = GameState.getCurrentFloor();
+        if (floor == null) {
+            System.out.println("No floor loaded. Load a map first.");
+            return;
+        }
+        var player = GameState.getPlayer();
+        if (player.getPosition() == null) {
+            System.out.println("Player is not on the map. Use 'player <id>' or generate a map.");
+            return;
+        }
+
+        // Check if player is over-encumbered
+        if (player.getInventory().isOverEncumbered()) {
+            System.out.println("You are over-encumbered and cannot move! Drop some items to continue.");
+            System.out.println("Current load: " + player.getInventory().getCurrentLoad() + "/"
+                    + player.getInventory().getMaxCapacity());
+            return;
+        }
+
+        int nx = player.getX() + direction.dx;
+        int ny = player.getY() + direction.dy;
+        Coordinate target = new Coordinate(nx, ny);
+        Tile next = floor.getTile(target);
+        if (next == null) {
+            System.out.println("You can't move outside the map.");
+            return;
+        }
+
+        // Check if tile is occupied
+        if (next.isOccupied()) {
+            return;
+        }
+
+        // Check if it's a wall (in case isOccupied isn't set properly)
+        char sym = next.getSymbol();
+        if (sym == '#' || sym == '<') {
+            return;
+        }
+
+        player.setPosition(target);
+        // System.out.println("You move " + direction.word() + " to " + target);
+        // Reveal tiles around the player after moving
+        floor.revealTilesWithVision(target.getX(), target.getY(), player.getVisionRange());
+        // MapPrinter.printWithPlayer(floor, player);
+
+        // Check for adjacent enemies and trigger combat
+        checkForAdjacentEnemies(floor, player);
+
+        // Pass a turn after successful movement
+        Game.passTurn();
+    }
+
+    private void checkForAdjacentEnemies(Floor floor, Player player) {
+        if (player.getPosition() == null)
+            return;
+
+        int[][] directions = { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
+
+        for (int[] dir : directions) {
+            int checkX = player.getX() + dir[0];
+            int checkY = player.getY() + dir[1];
+            Coordinate checkCoord = new Coordinate(checkX, checkY);
+            Tile tile = floor.getTile(checkCoord);
+
+            if (tile != null && !tile.getOccupants().isEmpty()) {
+                for (var occupant : tile.getOccupants()) {
+                    if (occupant instanceof com.bapppis.core.creature.Enemy) {
+                        com.bapppis.core.creature.Enemy enemy = (com.bapppis.core.creature.Enemy) occupant;
+                        GameState.setInCombat(true);
+                        GameState.setCombatEnemy(enemy);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
+
+class AttackCommand {
+    public void execute(String target) {
+        System.out.println("You attack " + (target != null ? target : "something"));
+    }
+}
+
+class MapCommand {
+    public void execute() {
+        Floor floor = GameState.getCurrentFloor();
+        if (floor == null) {
+            System.out.println("No floor loaded. Use: mapgen [floor-file]");
+            return;
+        }
+        MapPrinter.printWithPlayer(floor, GameState.getPlayer());
+    }
+}
+
+class WaitCommand {
+    public void execute() {
+        System.out.println("You wait...");
+        Game.passTurn();
+    }
+}
+
+class PlayerCommand {
+    public void execute(int id) {
+        Game.selectPlayerById(id);
+        System.out.println("Selected player id " + id + ".");
+        // Always use the main respawn logic so vision/fog is correct
+        Game.respawnPlayerOnCurrentFloor(true);
+    }
+}
+
+// The combat screen's actions, against the enemy being fought. A kill is
+// handled here; the fight itself ends when the screen is dismissed.
+class FightCommand {
+    public void hit() {
+        Enemy enemy = opponent();
+        if (enemy == null)
+            return;
+        Player player = GameState.getPlayer();
+        player.attack(enemy);
+        if (enemy.getCurrentHp() <= 0)
+            Combat.defeatEnemy(player, enemy, GameState.getCurrentFloor());
+    }
+
+    public void cast(int spellId) {
+        Enemy enemy = opponent();
+        if (enemy == null)
+            return;
+        Spell spell = SpellLoader.getSpellById(spellId);
+        if (spell == null) {
+            System.out.println("Unknown spell id " + spellId + ".");
+            return;
+        }
+        Player player = GameState.getPlayer();
+        if (!SpellEngine.castSpell(player, spell, enemy)) {
+            System.out.println("You cannot cast " + spell.getName() + " now.");
+            return;
+        }
+        if (enemy.getCurrentHp() <= 0)
+            Combat.defeatEnemy(player, enemy, GameState.getCurrentFloor());
+    }
+
+    public void enemyTurn() {
+        Enemy enemy = opponent();
+        if (enemy != null)
+            enemy.attack(GameState.getPlayer());
+    }
+
+    public void flee() {
+        if (opponent() == null)
+            return;
+        GameState.setInCombat(false);
+        System.out.println("You fled from combat!");
+    }
+
+    // The enemy being fought, or null if there is no fight left to play
+    private static Enemy opponent() {
+        Enemy enemy = GameState.isInCombat() ? GameState.getCombatEnemy() : null;
+        Player player = GameState.getPlayer();
+        if (enemy == null || enemy.getCurrentHp() <= 0 || player == null || player.getCurrentHp() <= 0) {
+            System.out.println("You are not in combat.");
+            return null;
+        }
+        return enemy;
+    }
+}
+
+class ItemCommand {
+    public void use(int itemId) {
+        Player player = GameState.getPlayer();
+        Item item = find(player.getInventory().getConsumables(), itemId);
+        if (item == null) {
+            System.out.println("You have no consumable with id " + itemId + ".");
+            return;
+        }
+        item.onApply(player);
+        player.getInventory().removeItem(item);
+    }
+
+    public void equip(int itemId) {
+        Player player = GameState.getPlayer();
+        Item item = find(player.getInventory().getAllItems(), itemId);
+        if (!(item instanceof Equipment)) {
+            System.out.println("You have nothing to equip with id " + itemId + ".");
+            return;
+        }
+        player.equipItem((Equipment) item);
+    }
+
+    private static Item find(java.util.List<Item> items, int itemId) {
+        for (Item item : items) {
+            if (item.getId() == itemId)
+                return item;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,153 @@
+package com.bapppis.core.game;
+
+import java.util.List;
+
+import com.bapppis.core.creature.Enemy;
+import com.bapppis.core.dungeon.Floor;
+import com.bapppis.core.dungeon.Tile;
+import com.bapppis.core.dungeon.TileType;
+import com.bapppis.core.dungeon.TileTypeLoader;
+import com.bapppis.core.item.Item;
+import com.bapppis.core.item.ItemLoader;
+import com.bapppis.core.loot.LootManager;
+import com.bapppis.core.loot.LootPool;
+import com.bapppis.core.loot.LootPoolLoader;
+import com.bapppis.core.util.DebugLog;
+import com.bapppis.core.util.DebugLog.Category;
+
+/**
+ * Turns defeated enemies into lootable corpse tiles. Shared by the GUI and
+ * {@link GameSession}, so both drop the same loot.
+ */
+public final class CorpseFactory {
+
+    private CorpseFactory() {
+    }
+
+    /**
+     * Creates a corpse tile with loot when an enemy is defeated.
+     * Spawns items from the enemy's loot pool and places them on the tile,
+     * which replaces {@code tile} on {@code floor}.
+     *
+     * @return the corpse tile, or null if the enemy leaves no corpse
+     */
+    public static Tile createCorpse(Floor floor, Tile tile, Enemy enemy) {
+        try {
+            DebugLog.debug(Category.LOOT,
+                    () -> "createCorpseTile called for enemy: " + enemy.getName() + " at " + tile.getCoordinate());
+
+            // Get the death sprite from the enemy (should be "lootable_corpse")
+            String deathSprite = enemy.getDeathSprite();
+            DebugLog.debug(Category.LOOT, () -> "Death sprite: " + deathSprite);
+            if (deathSprite == null || deathSprite.isEmpty()) {
+                DebugLog.debug(Category.LOOT, () -> "No death sprite, skipping corpse creation");
+                return null; // No corpse sprite defined, skip corpse creation
+            }
+
+            // Load the lootable corpse tile type
+            TileType corpseTileType = TileTypeLoader
+                    .getTileTypeByName("lootableCorpse");
+            if (corpseTileType == null) {
+                DebugLog.error(Category.LOOT, "Failed to load lootableCorpse tile type");
+                return null;
+            }
+
+            DebugLog.debug(Category.LOOT, () -> "Loaded corpse tile type successfully");
+
+            // Get the loot pool and sample it
+            String lootPoolId = enemy.getLootPool();
+            DebugLog.debug(Category.LOOT, () -> "Enemy loot pool ID: " + lootPoolId);
+            LootPool lootPool = null;
+            if (lootPoolId != null && !lootPoolId.isEmpty()) {
+                // Try to load pool by ID first, then by name
+                lootPool = LootPoolLoader.getLootPoolById(lootPoolId);
+                if (lootPool == null) {
+                    lootPool = LootPoolLoader.getLootPoolByName(lootPoolId);
+                }
+                if (lootPool != null) {
+                    String poolName = lootPool.name;
+                    DebugLog.debug(Category.LOOT, () -> "Loaded loot pool: " + poolName);
+                } else {
+                    DebugLog.debug(Category.LOOT, () -> "Failed to load loot pool: " + lootPoolId);
+                }
+            } else {
+                DebugLog.debug(Category.LOOT, () -> "Enemy has no loot pool");
+            }
+
+            // Create a new corpse tile at the same coordinate
+            Tile corpseTile = new Tile(tile.getCoordinate(), corpseTileType);
+
+            // Sample and spawn loot if we have a pool
+            if (lootPool != null) {
+                // Nested pools resolve through the shared LootPoolRegistry, so
+                // nothing is read from disk here
+                String poolId = lootPool.id;
+                DebugLog.debug(Category.LOOT, () -> "Sampling loot pool with ID: " + poolId);
+                List<LootManager.Spawn> spawns = new LootManager().samplePool(lootPool);
+                DebugLog.debug(Category.LOOT, () -> "Got " + (spawns != null ? spawns.size() : 0) + " spawns");
+                if (spawns != null && !spawns.isEmpty()) {
+                    // Spawn items from the loot pool
+                    for (LootManager.Spawn spawn : spawns) {
+                        DebugLog.debug(Category.LOOT, () -> "Spawn type: " + spawn.type + ", id: " + spawn.id);
+                        if ("item".equalsIgnoreCase(spawn.type)) {
+                            // Pools resolve their items when compiled; only look
+                            // up ids the pool could not resolve
+                            Item item = spawn.item;
+                            if (item == null && spawn.id != null) {
+                                // Try as integer ID first
+                                try {
+                                    int itemId = Integer.parseInt(spawn.id);
+                                    item = ItemLoader.getItemById(itemId);
+                                } catch (NumberFormatException e) {
+                                    // Not an int, try as name
+                                    item = ItemLoader.getItemByName(spawn.id);
+                                }
+                            }
+                            if (item != null) {
+                                corpseTile.getItems().add(item);
+                                String itemName = item.getName();
+                                DebugLog.debug(Category.LOOT, () -> "Added item to corpse: " + itemName);
+                            } else {
+                                DebugLog.debug(Category.LOOT, () -> "Failed to load item: " + spawn.id);
+                            }
+                        }
+                    }
+                }
+                // Store the loot pool ID on the tile for reference
+                corpseTile.setLootPoolId(lootPoolId);
+            }
+
+            // Copy over any navigation references from the old tile
+            corpseTile.setLeft(tile.getLeft());
+            corpseTile.setRight(tile.getRight());
+            corpseTile.setUp(tile.getUp());
+            corpseTile.setDown(tile.getDown());
+            corpseTile.setDiscovered(tile.isDiscovered());
+
+            // Replace the tile in the floor's tile map
+            if (floor != null) {
+                floor.addTile(tile.getCoordinate(), corpseTile);
+                DebugLog.debug(Category.LOOT, () -> "Replaced tile at " + tile.getCoordinate() + " with corpse tile");
+                DebugLog.debug(Category.LOOT, () -> "Corpse tile has " + corpseTile.getItems().size() + " items");
+
+                // Update navigation references from neighboring tiles
+                if (corpseTile.getLeft() != null) {
+                    corpseTile.getLeft().setRight(corpseTile);
+                }
+                if (corpseTile.getRight() != null) {
+                    corpseTile.getRight().setLeft(corpseTile);
+                }
+                if (corpseTile.getUp() != null) {
+                    corpseTile.getUp().setDown(corpseTile);
+                }
+                if (corpseTile.getDown() != null) {
+                    corpseTile.getDown().setUp(corpseTile);
+                }
+            }
+            return corpseTile;
+        } catch (Exception e) {
+            DebugLog.error(Category.LOOT, "Error creating corpse tile: " + e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bapppis.core.game;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The four directions the player can move, look or interact in. Screen
+ * coordinates: north is {@code y - 1}.
+ */
+public enum Direction {
+    NORTH(0, -1, "n", "up", "u"),
+    EAST(1, 0, "e", "right", "r"),
+    SOUTH(0, 1, "s", "down", "d"),
+    WEST(-1, 0, "w", "left", "l");
+
+    public final int dx;
+    public final int dy;
+    private final String[] aliases;
+
+    private static final Map<String, Direction> WORDS = new HashMap<>();
+
+    static {
+        for (Direction d : values()) {
+            WORDS.put(d.word(), d);
+            for (String alias : d.aliases) {
+                WORDS.put(alias, d);
+            }
+        }
+    }
+
+    Direction(int dx, int dy, String... aliases) {
+        this.dx = dx;
+        this.dy = dy;
+        this.aliases = aliases;
+    }
+
+    /** Lower-case name, as typed on the console. */
+    public String word() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Direction for a console word: the name, its first letter, or
+     * up/down/left/right and their first letters. Case-insensitive.
+     * @return the direction, or null if the word is not one
+     */
+    public static Direction parse(String word) {
+        return word == null ? null : WORDS.get(word.toLowerCase(Locale.ROOT));
+    }
+}
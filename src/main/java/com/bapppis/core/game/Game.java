@@ -1,7 +1,12 @@
 package com.bapppis.core.game;
 
 // import java.io.InputStream; // Commented out - no longer using text file loading
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -14,45 +19,85 @@ import com.bapppis.core.dungeon.MapPrinter;
 import com.bapppis.core.dungeon.Tile;
 // import com.bapppis.core.dungeon.mapparser.MapParser; // Commented out - no longer using text file loading
 import com.bapppis.core.dungeon.Dungeon;
-import com.bapppis.core.dungeon.generator.BSPRoomGenerator;
+import com.bapppis.core.dungeon.LazyDungeon;
+import com.bapppis.core.dungeon.generator.DungeonBuilder;
+import com.bapppis.core.util.DebugLog;
 
 public class Game {
 
+    /** Set to a file path to record the game there for {@link SessionReplayer}. */
+    public static final String RECORD_PROPERTY = "recall.record";
+
     private Dungeon dungeon;
     private int[] currentFloorRef = new int[] { 0 }; // Start at floor 0, use array for mutability
-    private final BlockingQueue<String> commandQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<GameCommand> commandQueue = new LinkedBlockingQueue<>();
+    // Queued by shutdown() to wake the command loop; never executed
+    private static final GameCommand SHUTDOWN = new GameCommand() {
+    };
     private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile SessionRecorder recorder;
+    private volatile CommandExecutor executor;
+    // Held while a command runs and is recorded, so the loop and perform()
+    // take turns and the log has them in the order they ran
+    private final Object turnLock = new Object();
+    private final GameContext context;
+    // Builds floors ahead of the player for every game; daemon threads, so
+    // it never keeps the JVM alive
+    private static final ExecutorService FLOOR_PREFETCH = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1)), r -> {
+                Thread t = new Thread(r, "Floor-Prefetch");
+                t.setDaemon(true);
+                return t;
+            });
 
+    /** A game in the calling thread's current context (the GUI's default one). */
     public Game() {
-        // no-op default constructor
+        this.context = GameContext.current();
     }
 
     public Game(com.bapppis.core.creature.Player player) {
+        this(GameContext.current(), player);
+    }
+
+    /**
+     * A game playing in {@code context}; its command loop runs with the
+     * context bound.
+     */
+    public Game(GameContext context, com.bapppis.core.creature.Player player) {
+        if (context == null)
+            throw new IllegalArgumentException("A game context is required");
+        this.context = context;
         if (player == null)
             return;
-        selectPlayer(player);
+        context.setPlayer(player);
+    }
+
+    public GameContext getContext() {
+        return context;
     }
 
+    @SuppressWarnings("try")
     public void initialize() {
-        loadDungeon();
+        try (GameContext.Scope scope = context.bind()) {
+            if (recorder == null)
+                recorder = recorderFromProperty();
+            if (recorder != null)
+                com.bapppis.core.combat.SessionRandom.reseed(recorder.getSeed());
+            prepare();
+            executor = newExecutor();
+        }
 
         // System.out.println("Game initialized.");
         // Start a background loop to consume commands submitted from GUI
-        // If a player was pre-selected, ensure they are spawned on the current floor
-        if (GameState.getPlayer() != null && GameState.getCurrentFloor() != null) {
-            respawnPlayerOnCurrentFloor(false);
-        }
         if (running.compareAndSet(false, true)) {
-            CommandParser commandParser = new CommandParser(dungeon, currentFloorRef);
             Thread loop = new Thread(() -> {
+                GameContext.Scope scope = context.bind();
                 while (running.get()) {
                     try {
-                        String cmd = commandQueue.take();
-                        if (cmd == null)
-                            continue;
-                        if (cmd.equalsIgnoreCase("__shutdown__"))
+                        GameCommand cmd = commandQueue.take();
+                        if (cmd == SHUTDOWN)
                             break;
-                        commandParser.parseAndExecute(cmd);
+                        runAndRecord(cmd);
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
                         break;
@@ -61,13 +106,128 @@ public class Game {
                     }
                 }
                 running.set(false);
+                closeRecorder();
+                scope.close();
             }, "Game-Command-Loop");
             loop.setDaemon(true);
             loop.start();
         }
     }
 
-    public void submitCommand(String command) {
+    /**
+     * Build the dungeon and spawn the player, without starting the command
+     * loop. {@link GameSession} drives the game from here synchronously.
+     */
+    void prepare() {
+        loadDungeon();
+        // If a player was pre-selected, ensure they are spawned on the current floor
+        if (GameState.getPlayer() != null && GameState.getCurrentFloor() != null) {
+            respawnPlayerOnCurrentFloor(false);
+        }
+    }
+
+    /**
+     * Record every command the loop runs. Must be called before
+     * {@link #initialize()}, which reseeds the session with the recorder's
+     * seed; the recorder is closed when the loop stops. The GUI plays its
+     * fights by hand, so the recorder must be for manual combat.
+     */
+    public void setRecorder(SessionRecorder recorder) {
+        if (recorder != null && !recorder.isManualCombat())
+            throw new IllegalArgumentException("A game recorder must be for manual combat");
+        this.recorder = recorder;
+    }
+
+    /**
+     * Run a command now, on the calling thread, instead of queueing it. The
+     * combat screen plays its actions through here so it can show each result
+     * straight away; the command is recorded in turn with the loop's.
+     * Does nothing before {@link #initialize()}.
+     */
+    @SuppressWarnings("try")
+    public void perform(GameCommand command) {
+        if (command == null || executor == null)
+            return;
+        try (GameContext.Scope scope = context.bind()) {
+            runAndRecord(command);
+        }
+    }
+
+    private void runAndRecord(GameCommand cmd) {
+        synchronized (turnLock) {
+            try {
+                executor.execute(cmd);
+            } finally {
+                // A command that throws may already have changed the
+                // game, so it is logged too; replays run it the same way
+                record(cmd);
+            }
+        }
+    }
+
+    private void record(GameCommand cmd) {
+        SessionRecorder r = recorder;
+        if (r == null)
+            return;
+        try {
+            r.record(cmd, getCurrentFloorIndex());
+        } catch (IOException e) {
+            DebugLog.warn(DebugLog.Category.GENERAL, "Session recording stopped: " + e.getMessage());
+            recorder = null;
+            closeQuietly(r);
+        }
+    }
+
+    private void closeRecorder() {
+        SessionRecorder r = recorder;
+        recorder = null;
+        if (r != null)
+            closeQuietly(r);
+    }
+
+    private static void closeQuietly(SessionRecorder r) {
+        try {
+            r.close();
+        } catch (IOException e) {
+            DebugLog.warn(DebugLog.Category.GENERAL, "Could not close session recording: " + e.getMessage());
+        }
+    }
+
+    // A recorder writing to -Drecall.record, with a fresh seed; null if unset
+    private static SessionRecorder recorderFromProperty() {
+        String path = System.getProperty(RECORD_PROPERTY);
+        Player player = GameState.getPlayer();
+        if (path == null || path.isBlank() || player == null)
+            return null;
+        try {
+            long seed = new java.util.SplittableRandom().nextLong();
+            SessionRecorder r = new SessionRecorder(Files.newOutputStream(Paths.get(path)), seed, player,
+                    SessionRecorder.DEFAULT_HASH_INTERVAL, true);
+            DebugLog.info(DebugLog.Category.GENERAL, "Recording session to " + path);
+            return r;
+        } catch (IOException e) {
+            DebugLog.warn(DebugLog.Category.GENERAL, "Cannot record session to " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    Dungeon getDungeon() {
+        return dungeon;
+    }
+
+    CommandExecutor newExecutor() {
+        return new CommandExecutor(dungeon, currentFloorRef);
+    }
+
+    /** Index of the floor the player is on, 0 at the start. */
+    public int getCurrentFloorIndex() {
+        return currentFloorRef[0];
+    }
+
+    /**
+     * Queue a typed command for the command loop.
+     */
+    public void submit(GameCommand command) {
         if (!running.get())
             return;
         if (command == null)
@@ -75,17 +235,42 @@ public class Game {
         commandQueue.offer(command);
     }
 
+    /**
+     * Queue several commands at once; they run in order, back to back.
+     */
+    public void submitAll(java.util.Collection<? extends GameCommand> commands) {
+        if (!running.get())
+            return;
+        for (GameCommand command : commands) {
+            if (command != null)
+                commandQueue.offer(command);
+        }
+    }
+
+    /**
+     * Queue a console command line. It is parsed here, on the caller's
+     * thread; invalid lines are reported and dropped.
+     */
+    public void submitCommand(String command) {
+        if (!running.get())
+            return;
+        if (command == null)
+            return;
+        if (command.trim().equalsIgnoreCase("__shutdown__")) {
+            shutdown();
+            return;
+        }
+        submit(CommandParser.parse(command));
+    }
+
     public void shutdown() {
         if (!running.get())
             return;
         running.set(false);
-        commandQueue.offer("__shutdown__");
+        commandQueue.offer(SHUTDOWN);
     }
 
     private void loadDungeon() {
-        dungeon = new Dungeon() {
-        }; // Use anonymous subclass since Dungeon is abstract
-
         // Commented out text file loading - now using procedural generation
         /*
          * MapParser parser = new MapParser();
@@ -109,36 +294,16 @@ public class Game {
          * }
          */
 
-        // Procedural generation using BSPRoomGenerator
-        BSPRoomGenerator generator = new BSPRoomGenerator();
-        long baseSeed = System.currentTimeMillis(); // Random seed based on current time
-
-        for (int i = -10; i <= 10; i++) {
-            // Determine floor size based on depth
-            int minSize, maxSize;
-            if (i >= -4 && i <= 4) {
-                // Floors 0 to ±4: 20x20 to 30x30
-                minSize = 20;
-                maxSize = 30;
-            } else {
-                // Floors ±5 to ±10: 30x30 to 40x40
-                minSize = 30;
-                maxSize = 40;
-            }
-
-            // Generate random size within range
-            java.util.Random random = new java.util.Random(baseSeed + i);
-            int width = minSize + random.nextInt(maxSize - minSize + 1);
-            int height = minSize + random.nextInt(maxSize - minSize + 1);
-
-            // Generate floor
-            Floor floor = generator.generate(width, height, i, baseSeed + i);
-            dungeon.addFloor(i, floor);
+        // Procedural generation using BSPRoomGenerator, each floor built when the
+        // player first gets near it. The base seed is drawn from the session's
+        // generation stream, so a seeded session rebuilds the same dungeon
+        long baseSeed = com.bapppis.core.combat.SessionRandom.current().generation().nextLong();
+        LazyDungeon floors = new LazyDungeon(DungeonBuilder.MIN_FLOOR, DungeonBuilder.MAX_FLOOR,
+                i -> DungeonBuilder.generateFloor(baseSeed, i), FLOOR_PREFETCH);
+        dungeon = floors;
 
-            if (i == 0) {
-                GameState.setCurrentFloor(floor); // Start at floor 0
-            }
-        }
+        GameState.setCurrentFloor(floors.getFloor(0)); // Start at floor 0
+        floors.onEnter(0);
     }
 
     // Public helper so commands can select a player by id at runtime
@@ -177,20 +342,20 @@ public class Game {
         }
         Player player = GameState.getPlayer();
         Coordinate spawn = null;
-        for (var entry : floor.getTiles().entrySet()) {
-            Tile t = entry.getValue();
-            if (t.getSymbol() == '@' || t.getSymbol() == '.') {
-                spawn = entry.getKey();
-                if (t.getSymbol() == '@')
-                    break; // prefer '@'
+        search: for (int y = 0; y < floor.getHeight(); y++) {
+            for (int x = 0; x < floor.getWidth(); x++) {
+                Tile t = floor.getTile(x, y);
+                if (t != null && (t.getSymbol() == '@' || t.getSymbol() == '.')) {
+                    spawn = t.getCoordinate();
+                    if (t.getSymbol() == '@')
+                        break search; // prefer '@'
+                }
             }
         }
         if (spawn != null) {
             player.setPosition(spawn);
             // Reset all tiles to undiscovered
-            for (Tile t : floor.getTiles().values()) {
-                t.setDiscovered(false);
-            }
+            floor.hideAll();
             // Reveal tiles around the player before first print
             floor.revealTilesWithVision(spawn.getX(), spawn.getY(), player.getVisionRange());
             if (printAfter) {
@@ -208,51 +373,37 @@ public class Game {
      * Then trigger AI movement for all enemies on the floor.
      */
     public static void passTurn() {
-        Floor floor = GameState.getCurrentFloor();
+        passTurn(GameContext.current());
+    }
+
+    /** {@link #passTurn()} in the given game. */
+    public static void passTurn(GameContext game) {
+        Floor floor = game.getCurrentFloor();
         if (floor == null)
             return;
 
-        Player player = GameState.getPlayer();
+        Player player = game.getPlayer();
         if (player != null) {
             player.tickProperties();
         }
 
-        // Tick properties on all creatures occupying tiles on the current floor
-        // (NPCs, enemies, etc.)
-        if (floor.getTiles() != null) {
-            for (Tile tile : floor.getTiles().values()) {
-                if (tile != null && tile.getOccupants() != null) {
-                    for (Creature occupant : tile.getOccupants()) {
-                        // Skip player since we already ticked them
-                        if (occupant != null && !(occupant instanceof Player)) {
-                            occupant.tickProperties();
-                        }
-                    }
-                }
+        // Tick properties on all other creatures registered on the current floor
+        // (NPCs, enemies, etc.). Work from a snapshot: a creature that dies or
+        // leaves mid-turn drops out of the registry, and is skipped rather than
+        // shifting the others.
+        Creature[] creatures = floor.getCreatures().toArray(new Creature[0]);
+        for (Creature creature : creatures) {
+            // Skip player since we already ticked them
+            if (creature != null && !(creature instanceof Player) && floor.hasCreature(creature)) {
+                creature.tickProperties();
             }
         }
 
-        // AI movement for enemies
-        // Track which enemies have already moved to avoid moving them multiple times
-        // per turn
-        java.util.Set<com.bapppis.core.creature.Enemy> movedEnemies = new java.util.HashSet<>();
-
-        if (floor.getTiles() != null) {
-            for (Tile tile : floor.getTiles().values()) {
-                if (tile != null && tile.getOccupants() != null) {
-                    // Create a copy of occupants list to avoid concurrent modification
-                    java.util.List<Creature> occupants = new java.util.ArrayList<>(tile.getOccupants());
-                    for (Creature occupant : occupants) {
-                        if (occupant instanceof com.bapppis.core.creature.Enemy) {
-                            com.bapppis.core.creature.Enemy enemy = (com.bapppis.core.creature.Enemy) occupant;
-                            // Only move each enemy once per turn
-                            if (!movedEnemies.contains(enemy)) {
-                                enemy.takeAITurn();
-                                movedEnemies.add(enemy);
-                            }
-                        }
-                    }
-                }
+        // AI movement for enemies; the registry holds each creature once, so
+        // every enemy moves exactly once per turn
+        for (Creature creature : creatures) {
+            if (creature instanceof com.bapppis.core.creature.Enemy && floor.hasCreature(creature)) {
+                ((com.bapppis.core.creature.Enemy) creature).takeAITurn(game);
             }
         }
     }
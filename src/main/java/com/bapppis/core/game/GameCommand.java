@@ -0,0 +1,127 @@
+package com.bapppis.core.game;
+
+/**
+ * A player action, already parsed. The GUI submits these directly to
+ * {@link Game#submit(GameCommand)}, and plays its combat screen through
+ * {@link Game#perform(GameCommand)}; {@link CommandParser} turns console text
+ * into them. {@code toString()} gives the console form, which
+ * {@link CommandParser#parse(String)} reads back to an equal command.
+ */
+public interface GameCommand {
+
+    Wait WAIT = new Wait();
+    ShowMap SHOW_MAP = new ShowMap();
+    Hit HIT = new Hit();
+    EnemyTurn ENEMY_TURN = new EnemyTurn();
+    Flee FLEE = new Flee();
+
+    record Move(Direction direction) implements GameCommand {
+        @Override
+        public String toString() {
+            return "move " + direction.word();
+        }
+    }
+
+    record Interact(Direction direction) implements GameCommand {
+        @Override
+        public String toString() {
+            return "interact " + direction.word();
+        }
+    }
+
+    /** Describe one neighbouring tile, or all four when direction is null. */
+    record Look(Direction direction) implements GameCommand {
+        @Override
+        public String toString() {
+            return direction == null ? "look" : "look " + direction.word();
+        }
+    }
+
+    /** Take the staircase under the player. */
+    record Stairs(boolean up) implements GameCommand {
+        @Override
+        public String toString() {
+            return up ? "up" : "down";
+        }
+    }
+
+    record Wait() implements GameCommand {
+        @Override
+        public String toString() {
+            return "wait";
+        }
+    }
+
+    /** Target is free text and may be null. */
+    record Attack(String target) implements GameCommand {
+        @Override
+        public String toString() {
+            return target == null ? "attack" : "attack " + target;
+        }
+    }
+
+    record ShowMap() implements GameCommand {
+        @Override
+        public String toString() {
+            return "map";
+        }
+    }
+
+    record SelectPlayer(int id) implements GameCommand {
+        @Override
+        public String toString() {
+            return "player " + id;
+        }
+    }
+
+    /** Attack the enemy being fought. */
+    record Hit() implements GameCommand {
+        @Override
+        public String toString() {
+            return "hit";
+        }
+    }
+
+    /** Cast a spell at the enemy being fought. */
+    record Cast(int spellId) implements GameCommand {
+        @Override
+        public String toString() {
+            return "cast " + spellId;
+        }
+    }
+
+    /**
+     * The enemy being fought attacks. The combat screen plays it after each
+     * of the player's actions, and for its Wait button.
+     */
+    record EnemyTurn() implements GameCommand {
+        @Override
+        public String toString() {
+            return "enemy";
+        }
+    }
+
+    /** Leave the fight; the enemy stays where it is. */
+    record Flee() implements GameCommand {
+        @Override
+        public String toString() {
+            return "flee";
+        }
+    }
+
+    /** Use the first consumable with this id in the player's inventory. */
+    record UseItem(int itemId) implements GameCommand {
+        @Override
+        public String toString() {
+            return "use " + itemId;
+        }
+    }
+
+    /** Equip the first item with this id in the player's inventory. */
+    record Equip(int itemId) implements GameCommand {
+        @Override
+        public String toString() {
+            return "equip " + itemId;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.bapppis.core.game;
+
+import com.bapppis.core.combat.SessionRandom;
+import com.bapppis.core.creature.Enemy;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.Coordinate;
+import com.bapppis.core.dungeon.Floor;
+
+/**
+ * The mutable state of one game: current floor, player, combat flag, loot
+ * callback and random session. Each {@link Game} and {@link GameSession}
+ * owns one, so several games can run in one JVM, each on its own thread.
+ *
+ * Code that is not handed a context uses {@link #current()}: the context
+ * bound to the calling thread with {@link #bind()}, or the shared
+ * {@link #getDefault() default context} when none is. {@link GameState} is a
+ * static view of the current context, so existing callers work unchanged.
+ * A context is not thread-safe; only the thread it is bound to should
+ * touch it, apart from the default context, which the GUI shares between
+ * its render thread and the command loop as before.
+ */
+public final class GameContext {
+    private static final GameContext DEFAULT = new GameContext(null);
+    private static final ThreadLocal<GameContext> BOUND = new ThreadLocal<>();
+
+    private Floor currentFloor;
+    private Player player;
+    private boolean inCombat;
+    private Enemy combatEnemy;
+    private LootTransferCallback lootTransferCallback;
+    // Null for the default context, which uses the global session
+    private SessionRandom random;
+
+    /** A context with its own random session seeded from {@code seed}. */
+    public GameContext(long seed) {
+        this(new SessionRandom(seed));
+    }
+
+    private GameContext(SessionRandom random) {
+        this.random = random;
+    }
+
+    /** The context bound to this thread, or the default one. */
+    public static GameContext current() {
+        GameContext bound = BOUND.get();
+        return bound != null ? bound : DEFAULT;
+    }
+
+    /** The context the GUI and unbound code share. */
+    public static GameContext getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Make this the current context on the calling thread, and its random
+     * session the current {@link SessionRandom}, until the returned scope is
+     * closed. Scopes nest; closing one restores what was bound before.
+     *
+     * Callers usually only open the scope in a try-with-resources and never
+     * touch it, so they suppress javac's {@code try} lint, which would
+     * otherwise report the unreferenced resource.
+     */
+    public Scope bind() {
+        GameContext previous = BOUND.get();
+        if (previous == this || (previous == null && this == DEFAULT))
+            return new Scope(null, null, true); // already current
+        BOUND.set(this == DEFAULT ? null : this);
+        // The default context runs on the global session
+        SessionRandom previousRandom = SessionRandom.bindThread(random);
+        return new Scope(previous, previousRandom, false);
+    }
+
+    /** Undoes a {@link #bind()}; must be closed on the thread that bound it. */
+    public final class Scope implements AutoCloseable {
+        private final GameContext previous;
+        private final SessionRandom previousRandom;
+        private boolean closed;
+
+        private Scope(GameContext previous, SessionRandom previousRandom, boolean closed) {
+            this.previous = previous;
+            this.previousRandom = previousRandom;
+            this.closed = closed;
+        }
+
+        @Override
+        public void close() {
+            if (closed)
+                return;
+            closed = true;
+            if (random != null) {
+                // Keep a session installed by reseed() while bound
+                random = SessionRandom.current();
+            }
+            SessionRandom.restoreThread(previousRandom);
+            if (previous != null)
+                BOUND.set(previous);
+            else
+                BOUND.remove();
+        }
+    }
+
+    /** This context's random session. */
+    public SessionRandom getRandom() {
+        return random != null ? random : SessionRandom.current();
+    }
+
+    public Floor getCurrentFloor() {
+        return currentFloor;
+    }
+
+    public void setCurrentFloor(Floor floor) {
+        currentFloor = floor;
+    }
+
+    /** The player; a blank one is created if none was set. */
+    public Player getPlayer() {
+        if (player == null) {
+            player = new Player();
+        }
+        return player;
+    }
+
+    public void setPlayer(Player p) {
+        player = p;
+    }
+
+    public boolean isInCombat() {
+        return inCombat;
+    }
+
+    public void setInCombat(boolean combat) {
+        inCombat = combat;
+        if (!combat) {
+            combatEnemy = null;
+        }
+    }
+
+    public Enemy getCombatEnemy() {
+        return combatEnemy;
+    }
+
+    public void setCombatEnemy(Enemy enemy) {
+        combatEnemy = enemy;
+    }
+
+    public void setLootTransferCallback(LootTransferCallback callback) {
+        lootTransferCallback = callback;
+    }
+
+    public void showLootTransferDialog(Coordinate coord) {
+        if (lootTransferCallback != null) {
+            lootTransferCallback.showLootTransferDialog(coord);
+        }
+    }
+}
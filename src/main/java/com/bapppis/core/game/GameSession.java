@@ -0,0 +1,361 @@
+package com.bapppis.core.game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+
+import com.bapppis.core.combat.SessionRandom;
+import com.bapppis.core.combat.SplittableRandomProvider;
+import com.bapppis.core.creature.Enemy;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.DistanceMap;
+import com.bapppis.core.dungeon.Floor;
+import com.bapppis.core.dungeon.Tile;
+
+/**
+ * A complete game run with no GUI, for soak tests, balance runs and
+ * benchmarks on machines without a display.
+ *
+ * Commands come from an {@link InputSource} and run on the calling thread,
+ * one at a time: movement, enemy turns, floor transitions and interaction go
+ * through the same {@link CommandExecutor} as the GUI. Where the GUI would
+ * open the combat screen, the fight is auto-resolved with
+ * {@link Combat#startCombat(com.bapppis.core.creature.Creature, com.bapppis.core.creature.Creature, boolean)}
+ * and a defeated enemy leaves its corpse and loot through
+ * {@link Combat#leaveCorpse}. With {@link #setManualCombat manual combat}
+ * the fight is instead played with combat commands, such as
+ * {@link GameCommand.Hit} and {@link GameCommand.EnemyTurn}, the way the
+ * combat screen plays it. The run ends when the player dies or the input
+ * runs out.
+ *
+ * Each session has its own {@link GameContext} with its own
+ * {@link SessionRandom}, so a seed and a command sequence always replay the
+ * same run, and any number of sessions can run side by side, one thread
+ * each. A session binds its context while it runs; it must not be used from
+ * two threads at once. Game data must be loaded first, e.g. with
+ * {@link com.bapppis.core.AllLoaders#loadAll()}.
+ *
+ * A {@link SessionRecorder} set with {@link #setRecorder} logs the run for
+ * {@link SessionReplayer}.
+ */
+public final class GameSession {
+
+    /** Supplies the next command; null ends the run. */
+    @FunctionalInterface
+    public interface InputSource {
+        GameCommand next(GameSession session);
+    }
+
+    private final GameContext context;
+    private final Game game;
+    private final CommandExecutor executor;
+    private final long seed;
+    private SessionRecorder recorder;
+    private boolean manualCombat;
+    private long commands;
+    private int fights;
+    private int kills;
+    private int deepestFloor;
+    private int highestFloor;
+    private boolean over;
+
+    /**
+     * Start a run for {@code player}, which should be a fresh copy (see
+     * {@link com.bapppis.core.creature.CreatureLoader#spawnCopy}).
+     */
+    @SuppressWarnings("try")
+    public GameSession(Player player, long seed) {
+        if (player == null)
+            throw new IllegalArgumentException("A player is required");
+        this.seed = seed;
+        this.context = new GameContext(seed);
+        this.game = new Game(context, player);
+        try (GameContext.Scope scope = context.bind()) {
+            game.prepare();
+            this.executor = game.newExecutor();
+        }
+    }
+
+    /**
+     * Run one command, then auto-resolve any fight it started, or with manual
+     * combat end a fight that is won or lost. If the
+     * command throws, the turn is still finished, as a replay would, before
+     * the exception is rethrown.
+     * @return false once the run is over
+     */
+    @SuppressWarnings("try")
+    public boolean step(GameCommand command) {
+        if (over)
+            return false;
+        try (GameContext.Scope scope = context.bind()) {
+            try {
+                if (command != null)
+                    execute(command);
+            } catch (RuntimeException e) {
+                finishTurn();
+                throw e;
+            }
+            return finishTurn();
+        }
+    }
+
+    /**
+     * Record each command from now on; the recorder must have been created
+     * with this session's seed before the first command. Null stops
+     * recording. The caller still owns the recorder and closes it.
+     */
+    public void setRecorder(SessionRecorder recorder) {
+        if (recorder != null && recorder.getSeed() != seed)
+            throw new IllegalArgumentException("Recorder seed " + recorder.getSeed() + " is not the session seed " + seed);
+        if (recorder != null && recorder.isManualCombat() != manualCombat)
+            throw new IllegalArgumentException("Recorder and session disagree on manual combat");
+        this.recorder = recorder;
+    }
+
+    /**
+     * Play fights with combat commands instead of auto-resolving them. A
+     * fight then stays open, with the enemy's AI held, until the enemy or the
+     * player dies or a {@link GameCommand.Flee} ends it. Set it before the
+     * first command.
+     */
+    public void setManualCombat(boolean manualCombat) {
+        this.manualCombat = manualCombat;
+    }
+
+    public boolean isManualCombat() {
+        return manualCombat;
+    }
+
+    // The first half of a step: run the command but leave any fight it
+    // started unresolved, which is where the replayer checks state hashes.
+    // A command that throws still counts and is still recorded, since it may
+    // have changed the game before failing; its exception is rethrown after.
+    // The caller binds the context
+    void execute(GameCommand command) {
+        RuntimeException failure = null;
+        try {
+            executor.execute(command);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        commands++;
+        if (recorder != null) {
+            try {
+                recorder.record(command, game.getCurrentFloorIndex());
+            } catch (IOException e) {
+                UncheckedIOException unrecorded = new UncheckedIOException(e);
+                if (failure != null)
+                    unrecorded.addSuppressed(failure);
+                throw unrecorded;
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    // The second half: resolve the fight, if any, and track floors
+    boolean finishTurn() {
+        if (manualCombat)
+            endFinishedFight();
+        else
+            resolveCombat();
+        int floor = game.getCurrentFloorIndex();
+        deepestFloor = Math.min(deepestFloor, floor);
+        highestFloor = Math.max(highestFloor, floor);
+        return !over;
+    }
+
+    /**
+     * Feed commands from {@code input} until it returns null, the player dies
+     * or {@code maxCommands} have run.
+     */
+    @SuppressWarnings("try")
+    public Result run(InputSource input, long maxCommands) {
+        long start = System.nanoTime();
+        long before = commands;
+        try (GameContext.Scope scope = context.bind()) {
+            while (!over && commands - before < maxCommands) {
+                GameCommand next = input.next(this);
+                if (next == null)
+                    break;
+                step(next);
+            }
+        }
+        return new Result(this, commands - before, System.nanoTime() - start);
+    }
+
+    private void resolveCombat() {
+        if (!context.isInCombat())
+            return;
+        Enemy enemy = context.getCombatEnemy();
+        Player player = getPlayer();
+        if (enemy != null && enemy.getCurrentHp() > 0 && player.getCurrentHp() > 0) {
+            fights++;
+            Combat.startCombat(player, enemy, true);
+            if (enemy.getCurrentHp() <= 0) {
+                kills++;
+                Combat.leaveCorpse(enemy, context.getCurrentFloor());
+            }
+        }
+        context.setInCombat(false);
+        if (player.getCurrentHp() <= 0)
+            over = true;
+    }
+
+    // Manual combat: the combat commands have played the fight, and the GUI
+    // would end it once its result is dismissed, before the next command
+    private void endFinishedFight() {
+        if (!context.isInCombat())
+            return;
+        Enemy enemy = context.getCombatEnemy();
+        Player player = getPlayer();
+        if (enemy != null && enemy.getCurrentHp() > 0 && player.getCurrentHp() > 0)
+            return;
+        fights++;
+        if (enemy != null && enemy.getCurrentHp() <= 0)
+            kills++;
+        context.setInCombat(false);
+        if (player.getCurrentHp() <= 0)
+            over = true;
+    }
+
+    public Player getPlayer() {
+        return context.getPlayer();
+    }
+
+    public Floor getCurrentFloor() {
+        return context.getCurrentFloor();
+    }
+
+    Game getGame() {
+        return game;
+    }
+
+    /** The context this session plays in; bind it to inspect the game through {@link GameState}. */
+    public GameContext getContext() {
+        return context;
+    }
+
+    public int getCurrentFloorIndex() {
+        return game.getCurrentFloorIndex();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getCommands() {
+        return commands;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    /** Plays the given commands in order, then ends the run. */
+    public static InputSource script(List<GameCommand> commands) {
+        Iterator<GameCommand> it = commands.iterator();
+        return session -> it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * A bot that heads for the stairs and takes them, downward or upward,
+     * with some random wandering so it does not get stuck behind enemies.
+     * Where the stairs lead nowhere it just wanders. It rolls with its own
+     * random stream, not the session's.
+     */
+    public static InputSource explorer(long botSeed, boolean descend) {
+        return new Explorer(botSeed, descend);
+    }
+
+    private static final class Explorer implements InputSource {
+        private final SplittableRandomProvider rng;
+        private final boolean descend;
+        private final char stairs;
+        private Floor fieldFloor;
+        private DistanceMap field;
+        private Tile target;
+        private boolean tookStairs;
+
+        Explorer(long seed, boolean descend) {
+            this.rng = new SplittableRandomProvider(seed);
+            this.descend = descend;
+            this.stairs = descend ? 'v' : '^';
+        }
+
+        @Override
+        public GameCommand next(GameSession session) {
+            Floor floor = session.getCurrentFloor();
+            Player player = session.getPlayer();
+            if (floor == null || player.getPosition() == null)
+                return null;
+            if (floor != fieldFloor) {
+                fieldFloor = floor;
+                field = new DistanceMap(floor);
+                target = floor.findTile(t -> t.getSymbol() == stairs);
+            } else if (tookStairs) {
+                target = null; // the stairs did not take us anywhere
+            }
+            tookStairs = false;
+            int px = player.getX();
+            int py = player.getY();
+            if (target != null && target.getCoordinate().getX() == px && target.getCoordinate().getY() == py) {
+                tookStairs = true;
+                return new GameCommand.Stairs(!descend);
+            }
+            if (target != null && rng.nextInt(10) > 0) {
+                field.update(target.getCoordinate().getX(), target.getCoordinate().getY());
+                int next = field.nextStep(px, py);
+                if (next >= 0) {
+                    int nx = next % floor.getWidth();
+                    int ny = next / floor.getWidth();
+                    for (Direction d : Direction.values()) {
+                        if (px + d.dx == nx && py + d.dy == ny)
+                            return new GameCommand.Move(d);
+                    }
+                }
+            }
+            return new GameCommand.Move(Direction.values()[rng.nextInt(4)]);
+        }
+    }
+
+    /** What a {@link #run} did. */
+    public static final class Result {
+        public final long seed;
+        public final long commands;
+        public final long elapsedNanos;
+        public final int fights;
+        public final int kills;
+        public final int finalFloor;
+        public final int deepestFloor;
+        public final int highestFloor;
+        public final boolean playerAlive;
+        public final int playerLevel;
+
+        private Result(GameSession session, long commands, long elapsedNanos) {
+            this.seed = session.seed;
+            this.commands = commands;
+            this.elapsedNanos = elapsedNanos;
+            this.fights = session.fights;
+            this.kills = session.kills;
+            this.finalFloor = session.getCurrentFloorIndex();
+            this.deepestFloor = session.deepestFloor;
+            this.highestFloor = session.highestFloor;
+            this.playerAlive = session.getPlayer().getCurrentHp() > 0;
+            this.playerLevel = session.getPlayer().getLevel();
+        }
+
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : commands * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "seed %d: %d commands in %.1f ms (%.0f/s), %d fights, %d kills, floor %d (range %d..%d), %s, level %d",
+                    seed, commands, elapsedNanos / 1e6, getCommandsPerSecond(), fights, kills, finalFloor,
+                    deepestFloor, highestFloor, playerAlive ? "alive" : "dead", playerLevel);
+        }
+    }
+}
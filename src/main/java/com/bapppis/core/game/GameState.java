@@ -5,60 +5,52 @@ import com.bapppis.core.creature.Player;
 import com.bapppis.core.dungeon.Floor;
 import com.bapppis.core.dungeon.Coordinate;
 
+/**
+ * Static access to the {@link GameContext#current() current} game context:
+ * the one bound to the calling thread, otherwise the default context the
+ * GUI uses.
+ */
 public final class GameState {
-    private static Floor currentFloor;
-    private static Player player;
-    private static boolean inCombat = false;
-    private static Enemy combatEnemy = null;
-    private static LootTransferCallback lootTransferCallback = null;
 
     private GameState() {}
 
     public static Floor getCurrentFloor() {
-        return currentFloor;
+        return GameContext.current().getCurrentFloor();
     }
 
     public static void setCurrentFloor(Floor floor) {
-        currentFloor = floor;
+        GameContext.current().setCurrentFloor(floor);
     }
 
     public static Player getPlayer() {
-        if (player == null) {
-            player = new Player();
-        }
-        return player;
+        return GameContext.current().getPlayer();
     }
 
     public static void setPlayer(Player p) {
-        player = p;
+        GameContext.current().setPlayer(p);
     }
 
     public static boolean isInCombat() {
-        return inCombat;
+        return GameContext.current().isInCombat();
     }
 
     public static void setInCombat(boolean combat) {
-        inCombat = combat;
-        if (!combat) {
-            combatEnemy = null;
-        }
+        GameContext.current().setInCombat(combat);
     }
 
     public static Enemy getCombatEnemy() {
-        return combatEnemy;
+        return GameContext.current().getCombatEnemy();
     }
 
     public static void setCombatEnemy(Enemy enemy) {
-        combatEnemy = enemy;
+        GameContext.current().setCombatEnemy(enemy);
     }
     
     public static void setLootTransferCallback(LootTransferCallback callback) {
-        lootTransferCallback = callback;
+        GameContext.current().setLootTransferCallback(callback);
     }
     
     public static void showLootTransferDialog(Coordinate coord) {
-        if (lootTransferCallback != null) {
-            lootTransferCallback.showLootTransferDialog(coord);
-        }
+        GameContext.current().showLootTransferDialog(coord);
     }
 }
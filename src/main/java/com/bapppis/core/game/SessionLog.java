@@ -0,0 +1,194 @@
+package com.bapppis.core.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Set;
+
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.Enemy;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.Floor;
+
+/**
+ * Format shared by {@link SessionRecorder} and {@link SessionReplayer}.
+ *
+ * A log starts with a header: magic {@code RRL1}, version, base seed, player
+ * id, player class id (0 for none), hash interval and a flags byte. The one
+ * flag, {@link #MANUAL_COMBAT}, marks a game whose fights were played with
+ * combat commands, as on the GUI's combat screen, rather than auto-resolved;
+ * version 2 logs have no flags byte and always auto-resolve. Records follow, each
+ * starting with one tag byte. A command is its tag plus at most one byte for
+ * most kinds, so a typical move costs two bytes. A hash record holds the
+ * number of commands run so far and the {@link #stateHash} at that point.
+ * A closed log ends with an end record: the command count and the hash once
+ * the last command's turn (fights included) is over.
+ * Records are only ever appended, so a log cut short by a crash is still
+ * readable up to the crash.
+ */
+final class SessionLog {
+    static final int MAGIC = 0x52524C31; // "RRL1"
+    static final int VERSION = 3;
+    static final int MANUAL_COMBAT = 1;
+
+    static final int TAG_MOVE = 1;
+    static final int TAG_INTERACT = 2;
+    static final int TAG_LOOK = 3;
+    static final int TAG_STAIRS = 4;
+    static final int TAG_WAIT = 5;
+    static final int TAG_ATTACK = 6;
+    static final int TAG_SHOW_MAP = 7;
+    static final int TAG_SELECT_PLAYER = 8;
+    static final int TAG_HIT = 9;
+    static final int TAG_CAST = 10;
+    static final int TAG_ENEMY_TURN = 11;
+    static final int TAG_FLEE = 12;
+    static final int TAG_USE_ITEM = 13;
+    static final int TAG_EQUIP = 14;
+    static final int TAG_HASH = 0x40;
+    static final int TAG_END = 0x41;
+
+    private static final int NO_DIRECTION = 0xFF;
+
+    private SessionLog() {
+    }
+
+    static void writeCommand(DataOutput out, GameCommand command) throws IOException {
+        if (command instanceof GameCommand.Move m) {
+            out.writeByte(TAG_MOVE);
+            out.writeByte(m.direction().ordinal());
+        } else if (command instanceof GameCommand.Interact i) {
+            out.writeByte(TAG_INTERACT);
+            out.writeByte(i.direction().ordinal());
+        } else if (command instanceof GameCommand.Look l) {
+            out.writeByte(TAG_LOOK);
+            out.writeByte(l.direction() == null ? NO_DIRECTION : l.direction().ordinal());
+        } else if (command instanceof GameCommand.Stairs s) {
+            out.writeByte(TAG_STAIRS);
+            out.writeBoolean(s.up());
+        } else if (command instanceof GameCommand.Wait) {
+            out.writeByte(TAG_WAIT);
+        } else if (command instanceof GameCommand.Attack a) {
+            out.writeByte(TAG_ATTACK);
+            out.writeBoolean(a.target() != null);
+            if (a.target() != null)
+                out.writeUTF(a.target());
+        } else if (command instanceof GameCommand.ShowMap) {
+            out.writeByte(TAG_SHOW_MAP);
+        } else if (command instanceof GameCommand.SelectPlayer p) {
+            out.writeByte(TAG_SELECT_PLAYER);
+            out.writeInt(p.id());
+        } else if (command instanceof GameCommand.Hit) {
+            out.writeByte(TAG_HIT);
+        } else if (command instanceof GameCommand.Cast c) {
+            out.writeByte(TAG_CAST);
+            out.writeInt(c.spellId());
+        } else if (command instanceof GameCommand.EnemyTurn) {
+            out.writeByte(TAG_ENEMY_TURN);
+        } else if (command instanceof GameCommand.Flee) {
+            out.writeByte(TAG_FLEE);
+        } else if (command instanceof GameCommand.UseItem u) {
+            out.writeByte(TAG_USE_ITEM);
+            out.writeInt(u.itemId());
+        } else if (command instanceof GameCommand.Equip e) {
+            out.writeByte(TAG_EQUIP);
+            out.writeInt(e.itemId());
+        } else {
+            throw new IllegalArgumentException("Cannot record command: " + command);
+        }
+    }
+
+    /**
+     * Read the command that follows {@code tag}.
+     * @throws IOException if the tag is not a command
+     */
+    static GameCommand readCommand(int tag, DataInput in) throws IOException {
+        switch (tag) {
+            case TAG_MOVE:
+                return new GameCommand.Move(direction(in.readUnsignedByte()));
+            case TAG_INTERACT:
+                return new GameCommand.Interact(direction(in.readUnsignedByte()));
+            case TAG_LOOK: {
+                int d = in.readUnsignedByte();
+                return new GameCommand.Look(d == NO_DIRECTION ? null : direction(d));
+            }
+            case TAG_STAIRS:
+                return new GameCommand.Stairs(in.readBoolean());
+            case TAG_WAIT:
+                return GameCommand.WAIT;
+            case TAG_ATTACK:
+                return new GameCommand.Attack(in.readBoolean() ? in.readUTF() : null);
+            case TAG_SHOW_MAP:
+                return GameCommand.SHOW_MAP;
+            case TAG_SELECT_PLAYER:
+                return new GameCommand.SelectPlayer(in.readInt());
+            case TAG_HIT:
+                return GameCommand.HIT;
+            case TAG_CAST:
+                return new GameCommand.Cast(in.readInt());
+            case TAG_ENEMY_TURN:
+                return GameCommand.ENEMY_TURN;
+            case TAG_FLEE:
+                return GameCommand.FLEE;
+            case TAG_USE_ITEM:
+                return new GameCommand.UseItem(in.readInt());
+            case TAG_EQUIP:
+                return new GameCommand.Equip(in.readInt());
+            default:
+                throw new IOException("Unknown session log record: " + tag);
+        }
+    }
+
+    private static Direction direction(int ordinal) throws IOException {
+        Direction[] all = Direction.values();
+        if (ordinal >= all.length)
+            throw new IOException("Bad direction in session log: " + ordinal);
+        return all[ordinal];
+    }
+
+    /**
+     * Hash of the state a replay has to reproduce: floor, player position and
+     * resources, and every creature on the current floor. Taken right after a
+     * command runs, before any fight it starts is resolved.
+     */
+    static long stateHash(int floorIndex) {
+        long h = mix(0x9E3779B97F4A7C15L, floorIndex);
+        Player player = GameState.getPlayer();
+        if (player != null) {
+            h = mix(h, player.getX());
+            h = mix(h, player.getY());
+            h = mix(h, player.getCurrentHp());
+            h = mix(h, player.getCurrentMana());
+            h = mix(h, player.getCurrentStamina());
+            h = mix(h, player.getXp());
+            h = mix(h, player.getLevel());
+            h = mix(h, player.getInventory().getCurrentLoad());
+        }
+        Floor floor = GameState.getCurrentFloor();
+        if (floor != null) {
+            h = mix(h, floor.getLayoutVersion());
+            Set<Creature> creatures = floor.getCreatures();
+            h = mix(h, creatures.size());
+            for (Creature c : creatures) {
+                if (c instanceof Player)
+                    continue;
+                h = mix(h, c.getId());
+                h = mix(h, c.getCurrentHp());
+                if (c instanceof Enemy e) {
+                    h = mix(h, e.getX());
+                    h = mix(h, e.getY());
+                    h = mix(h, e.getAIState().ordinal());
+                }
+            }
+        }
+        return h;
+    }
+
+    // splitmix64 finaliser over the running hash and the next value
+    private static long mix(long h, long v) {
+        long z = h ^ (v + 0x9E3779B97F4A7C15L + (h << 6) + (h >>> 2));
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
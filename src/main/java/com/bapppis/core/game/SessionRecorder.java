@@ -0,0 +1,135 @@
+package com.bapppis.core.game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.bapppis.core.creature.Player;
+
+/**
+ * Appends a game's commands to a {@link SessionLog}, so the run can be
+ * replayed later with {@link SessionReplayer}. The header records the seed
+ * and the player; every {@code hashInterval} commands a state hash is
+ * written as a checkpoint, and {@link #close()} writes a last one. Each
+ * record is flushed as it is written, so the log survives a crash up to the
+ * last command.
+ *
+ * The seed has to be the one the session was started with (see
+ * {@link GameSession#GameSession(Player, long)} and
+ * {@link Game#setRecorder}), and the player must not have been changed
+ * since it was copied from its template apart from applying its class.
+ * A recorder for the GUI, or for a session with
+ * {@link GameSession#setManualCombat manual combat}, is created with
+ * {@code manualCombat} set, so the replay plays fights from the log too.
+ */
+public final class SessionRecorder implements Closeable {
+    public static final int DEFAULT_HASH_INTERVAL = 64;
+
+    private final DataOutputStream out;
+    private final long seed;
+    private final int hashInterval;
+    private final boolean manualCombat;
+    private long commands;
+    private int lastFloor;
+    private GameContext context;
+    private boolean closed;
+
+    public SessionRecorder(OutputStream out, long seed, Player player) throws IOException {
+        this(out, seed, player, DEFAULT_HASH_INTERVAL);
+    }
+
+    /**
+     * @param hashInterval commands between state hashes; 0 writes only the
+     *                     one at the end
+     */
+    public SessionRecorder(OutputStream out, long seed, Player player, int hashInterval) throws IOException {
+        this(out, seed, player, hashInterval, false);
+    }
+
+    /**
+     * @param hashInterval commands between state hashes; 0 writes only the
+     *                     one at the end
+     * @param manualCombat whether fights are played with combat commands
+     *                     rather than auto-resolved
+     */
+    public SessionRecorder(OutputStream out, long seed, Player player, int hashInterval, boolean manualCombat)
+            throws IOException {
+        if (player == null)
+            throw new IllegalArgumentException("A player is required");
+        if (hashInterval < 0)
+            throw new IllegalArgumentException("hashInterval must not be negative: " + hashInterval);
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.seed = seed;
+        this.hashInterval = hashInterval;
+        this.manualCombat = manualCombat;
+        Integer classId = player.getPlayerClassId();
+        this.out.writeInt(SessionLog.MAGIC);
+        this.out.writeByte(SessionLog.VERSION);
+        this.out.writeLong(seed);
+        this.out.writeInt(player.getId());
+        this.out.writeInt(classId != null ? classId : 0);
+        this.out.writeInt(hashInterval);
+        this.out.writeByte(manualCombat ? SessionLog.MANUAL_COMBAT : 0);
+        this.out.flush();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isManualCombat() {
+        return manualCombat;
+    }
+
+    public synchronized long getCommands() {
+        return commands;
+    }
+
+    /**
+     * Append {@code command}, which has just been executed on floor
+     * {@code floorIndex}, and a state hash if one is due. Commands that
+     * threw are recorded too, since they may have changed the game first.
+     */
+    public synchronized void record(GameCommand command, int floorIndex) throws IOException {
+        if (closed)
+            throw new IOException("Session recorder is closed");
+        SessionLog.writeCommand(out, command);
+        commands++;
+        lastFloor = floorIndex;
+        context = GameContext.current();
+        if (hashInterval > 0 && commands % hashInterval == 0)
+            writeHash(floorIndex);
+        out.flush();
+    }
+
+    /**
+     * Write the end record, hashing the state as it is now, and close the
+     * stream. Call it once the last command's turn is over.
+     */
+    @Override
+    @SuppressWarnings("try")
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        // Hash the game the commands were played in, whichever thread closes
+        try (GameContext.Scope scope = context != null ? context.bind() : null) {
+            writeHash(SessionLog.TAG_END, lastFloor);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeHash(int floorIndex) throws IOException {
+        writeHash(SessionLog.TAG_HASH, floorIndex);
+    }
+
+    private void writeHash(int tag, int floorIndex) throws IOException {
+        out.writeByte(tag);
+        out.writeLong(commands);
+        out.writeLong(SessionLog.stateHash(floorIndex));
+    }
+}
@@ -0,0 +1,253 @@
+package com.bapppis.core.game;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.creature.playerClass.PlayerClassService;
+
+/**
+ * Replays a {@link SessionLog} as fast as it can on a headless
+ * {@link GameSession}: same seed, same player and class, same commands.
+ * At every hash record the state is hashed again and compared; the replay
+ * stops at the first mismatch, which points to nondeterminism between the
+ * recorded command and the checkpoint before it. Each command is timed, so
+ * a replay doubles as a profile of the slowest turns.
+ *
+ * A command that threw when it was recorded throws again here; the replay
+ * counts it and carries on, as the recorded game did.
+ *
+ * A log flagged for manual combat, which is every log the GUI records, is
+ * replayed with {@link GameSession#setManualCombat manual combat}: the
+ * combat screen's actions are in the log like any other command, and each
+ * fight is played from them. Other logs auto-resolve fights as any
+ * {@link GameSession} does. Game data must be loaded first.
+ */
+public final class SessionReplayer {
+    /** How many of the slowest commands a {@link Result} keeps. */
+    public static final int SLOWEST_KEPT = 10;
+
+    private SessionReplayer() {
+    }
+
+    /**
+     * Replay the log in {@code in} to its end or its first divergence.
+     * @throws IOException if the log is not a session log or cannot be read;
+     *                     a log cut off mid-record is replayed up to the cut
+     */
+    @SuppressWarnings("try")
+    public static Result replay(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != SessionLog.MAGIC)
+            throw new IOException("Not a session log");
+        int version = data.readUnsignedByte();
+        if (version != SessionLog.VERSION && version != 2)
+            throw new IOException("Unsupported session log version " + version);
+        long seed = data.readLong();
+        int playerId = data.readInt();
+        int classId = data.readInt();
+        data.readInt(); // hash interval, implied by the hash records
+        int flags = version == 2 ? 0 : data.readUnsignedByte();
+
+        Player player = newPlayer(playerId, classId);
+        GameSession session = new GameSession(player, seed);
+        session.setManualCombat((flags & SessionLog.MANUAL_COMBAT) != 0);
+        Result result = new Result(seed, playerId, classId);
+        PriorityQueue<Timing> slowest = new PriorityQueue<>(Comparator.comparingLong(t -> t.nanos));
+        boolean turnOpen = false;
+        long start = System.nanoTime();
+        try (GameContext.Scope scope = session.getContext().bind()) {
+            while (true) {
+                int tag;
+                try {
+                    tag = data.readUnsignedByte();
+                } catch (EOFException end) {
+                    break;
+                }
+                if (tag == SessionLog.TAG_HASH || tag == SessionLog.TAG_END) {
+                    long at = data.readLong();
+                    long expected = data.readLong();
+                    if (tag == SessionLog.TAG_END && turnOpen) {
+                        session.finishTurn();
+                        turnOpen = false;
+                    }
+                    long actual = SessionLog.stateHash(session.getCurrentFloorIndex());
+                    result.hashesChecked++;
+                    if (at != result.commands || actual != expected) {
+                        result.divergedAt = at;
+                        result.expectedHash = expected;
+                        result.actualHash = actual;
+                        break;
+                    }
+                    if (tag == SessionLog.TAG_END) {
+                        result.complete = true;
+                        break;
+                    }
+                    continue;
+                }
+                GameCommand command = SessionLog.readCommand(tag, data);
+                if (turnOpen)
+                    session.finishTurn();
+                long t0 = System.nanoTime();
+                try {
+                    session.execute(command);
+                } catch (RuntimeException e) {
+                    // The recorded game carried on past this failure too
+                    result.failedCommands++;
+                }
+                long nanos = System.nanoTime() - t0;
+                turnOpen = true;
+                result.commands++;
+                slowest.add(new Timing(result.commands, command, nanos));
+                if (slowest.size() > SLOWEST_KEPT)
+                    slowest.poll();
+            }
+        } catch (EOFException cut) {
+            // Truncated mid-record: keep what was replayed
+        }
+        if (turnOpen && !result.diverged()) {
+            try (GameContext.Scope scope = session.getContext().bind()) {
+                session.finishTurn();
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        result.finalFloor = session.getCurrentFloorIndex();
+        List<Timing> kept = new ArrayList<>(slowest);
+        kept.sort(Comparator.comparingLong((Timing t) -> t.nanos).reversed());
+        result.slowest = List.copyOf(kept);
+        return result;
+    }
+
+    private static Player newPlayer(int playerId, int classId) throws IOException {
+        Creature copy = CreatureLoader.spawnCopy(CreatureLoader.getPlayerById(playerId));
+        if (!(copy instanceof Player))
+            throw new IOException("Session log player " + playerId + " is not loaded");
+        Player player = (Player) copy;
+        if (classId != 0 && !new PlayerClassService(AllLoaders.getPlayerClassLoader()).applyClassById(player, classId))
+            throw new IOException("Session log player class " + classId + " is not loaded");
+        return player;
+    }
+
+    /** One replayed command and how long it took to execute. */
+    public static final class Timing {
+        /** 1-based position of the command in the log. */
+        public final long index;
+        public final GameCommand command;
+        public final long nanos;
+
+        Timing(long index, GameCommand command, long nanos) {
+            this.index = index;
+            this.command = command;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d %s: %.3f ms", index, command, nanos / 1e6);
+        }
+    }
+
+    /** What a {@link #replay} found. */
+    public static final class Result {
+        public final long seed;
+        public final int playerId;
+        public final int classId;
+        private long commands;
+        private long failedCommands;
+        private long elapsedNanos;
+        private int hashesChecked;
+        private long divergedAt = -1;
+        private long expectedHash;
+        private long actualHash;
+        private boolean complete;
+        private int finalFloor;
+        private List<Timing> slowest = List.of();
+
+        private Result(long seed, int playerId, int classId) {
+            this.seed = seed;
+            this.playerId = playerId;
+            this.classId = classId;
+        }
+
+        public long getCommands() {
+            return commands;
+        }
+
+        /** Commands that threw, as they did when the game was recorded. */
+        public long getFailedCommands() {
+            return failedCommands;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : commands * 1e9 / elapsedNanos;
+        }
+
+        public int getHashesChecked() {
+            return hashesChecked;
+        }
+
+        public boolean diverged() {
+            return divergedAt >= 0;
+        }
+
+        /** Command count at the first failed check, or -1. */
+        public long getDivergedAt() {
+            return divergedAt;
+        }
+
+        public long getExpectedHash() {
+            return expectedHash;
+        }
+
+        public long getActualHash() {
+            return actualHash;
+        }
+
+        /** Whether the log was read through to its end record. */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public int getFinalFloor() {
+            return finalFloor;
+        }
+
+        /** The slowest commands, slowest first. */
+        public List<Timing> getSlowest() {
+            return slowest;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("seed %d, player %d, class %d: %d commands in %.1f ms (%.0f/s), %d hashes checked, floor %d%n",
+                    seed, playerId, classId, commands, elapsedNanos / 1e6, getCommandsPerSecond(), hashesChecked,
+                    finalFloor));
+            if (failedCommands > 0)
+                sb.append(String.format("%d commands threw, as they did when recorded%n", failedCommands));
+            if (diverged())
+                sb.append(String.format("DIVERGED at command %d: expected %016x, got %016x%n", divergedAt,
+                        expectedHash, actualHash));
+            else if (!complete)
+                sb.append(String.format("log ends without an end record (truncated?)%n"));
+            for (Timing t : slowest) {
+                sb.append("  ").append(t).append(String.format("%n"));
+            }
+            return sb.toString();
+        }
+    }
+}
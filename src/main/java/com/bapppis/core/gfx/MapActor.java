@@ -8,7 +8,6 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.bapppis.core.creature.Player;
 import com.bapppis.core.dungeon.Floor;
 import com.bapppis.core.dungeon.Tile;
-import com.bapppis.core.dungeon.Coordinate;
 import com.bapppis.core.game.GameState;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 
@@ -78,16 +77,8 @@ public class MapActor extends Actor {
             return;
         }
 
-        int maxY = 0;
-        int maxX = 0;
-        for (Coordinate c : floor.getTiles().keySet()) {
-            if (c.getY() > maxY)
-                maxY = c.getY();
-            if (c.getX() > maxX)
-                maxX = c.getX();
-        }
-        height = maxY + 1;
-        width = maxX + 1;
+        height = floor.getHeight();
+        width = floor.getWidth();
         setSize(width * cellWidth, height * lineHeight);
     }
 
@@ -127,7 +118,7 @@ public class MapActor extends Actor {
                 float drawX = startX + x * cellWidth;
                 float drawY = startY - y * lineHeight;
 
-                Tile tile = floor.getTile(new Coordinate(x, y));
+                Tile tile = floor.getTile(x, y);
                 String tileSpr = null;
                 char tileSymbol = '.';
 
@@ -482,27 +482,27 @@ public class RecallDungeon extends ApplicationAdapter {
                     return false;
                 }
                 Game g = (Game) userObj;
-                String cmd = null;
+                com.bapppis.core.game.GameCommand cmd = null;
 
                 // Handle interaction mode
                 if (awaitingInteractionDirection) {
-                    String direction = null;
+                    com.bapppis.core.game.Direction direction = null;
                     switch (keycode) {
                         case com.badlogic.gdx.Input.Keys.W:
                         case com.badlogic.gdx.Input.Keys.UP:
-                            direction = "north";
+                            direction = com.bapppis.core.game.Direction.NORTH;
                             break;
                         case com.badlogic.gdx.Input.Keys.S:
                         case com.badlogic.gdx.Input.Keys.DOWN:
-                            direction = "south";
+                            direction = com.bapppis.core.game.Direction.SOUTH;
                             break;
                         case com.badlogic.gdx.Input.Keys.A:
                         case com.badlogic.gdx.Input.Keys.LEFT:
-                            direction = "west";
+                            direction = com.bapppis.core.game.Direction.WEST;
                             break;
                         case com.badlogic.gdx.Input.Keys.D:
                         case com.badlogic.gdx.Input.Keys.RIGHT:
-                            direction = "east";
+                            direction = com.bapppis.core.game.Direction.EAST;
                             break;
                         case com.badlogic.gdx.Input.Keys.ESCAPE:
                             // Cancel interaction mode
@@ -518,8 +518,8 @@ public class RecallDungeon extends ApplicationAdapter {
                         if (interactionPromptLabel != null) {
                             interactionPromptLabel.setText("");
                         }
-                        cmd = "interact " + direction;
-                        g.submitCommand(cmd);
+                        cmd = new com.bapppis.core.game.GameCommand.Interact(direction);
+                        g.submit(cmd);
                         refreshMapDisplay();
                         com.badlogic.gdx.utils.Timer.schedule(new com.badlogic.gdx.utils.Timer.Task() {
                             @Override
@@ -551,31 +551,31 @@ public class RecallDungeon extends ApplicationAdapter {
                         return true;
                     case com.badlogic.gdx.Input.Keys.W:
                     case com.badlogic.gdx.Input.Keys.UP:
-                        cmd = "move north";
+                        cmd = new com.bapppis.core.game.GameCommand.Move(com.bapppis.core.game.Direction.NORTH);
                         break;
                     case com.badlogic.gdx.Input.Keys.S:
                     case com.badlogic.gdx.Input.Keys.DOWN:
-                        cmd = "move south";
+                        cmd = new com.bapppis.core.game.GameCommand.Move(com.bapppis.core.game.Direction.SOUTH);
                         break;
                     case com.badlogic.gdx.Input.Keys.A:
                     case com.badlogic.gdx.Input.Keys.LEFT:
-                        cmd = "move west";
+                        cmd = new com.bapppis.core.game.GameCommand.Move(com.bapppis.core.game.Direction.WEST);
                         break;
                     case com.badlogic.gdx.Input.Keys.D:
                     case com.badlogic.gdx.Input.Keys.RIGHT:
-                        cmd = "move east";
+                        cmd = new com.bapppis.core.game.GameCommand.Move(com.bapppis.core.game.Direction.EAST);
                         break;
                     case com.badlogic.gdx.Input.Keys.COMMA:
-                        cmd = "down";
+                        cmd = new com.bapppis.core.game.GameCommand.Stairs(false);
                         break;
                     case com.badlogic.gdx.Input.Keys.PERIOD:
-                        cmd = "up";
+                        cmd = new com.bapppis.core.game.GameCommand.Stairs(true);
                         break;
                     case com.badlogic.gdx.Input.Keys.L:
-                        cmd = "look";
+                        cmd = new com.bapppis.core.game.GameCommand.Look(null);
                         break;
                     case com.badlogic.gdx.Input.Keys.SPACE:
-                        cmd = "wait";
+                        cmd = com.bapppis.core.game.GameCommand.WAIT;
                         break;
                     case com.badlogic.gdx.Input.Keys.R:
                         // Reveal entire floor
@@ -621,7 +621,7 @@ public class RecallDungeon extends ApplicationAdapter {
                         break;
                 }
                 if (cmd != null) {
-                    g.submitCommand(cmd);
+                    g.submit(cmd);
                     refreshMapDisplay();
                     com.badlogic.gdx.utils.Timer.schedule(new com.badlogic.gdx.utils.Timer.Task() {
                         @Override
@@ -881,6 +881,13 @@ public class RecallDungeon extends ApplicationAdapter {
         left.add(backBtn).width(140).row();
     }
 
+    // Plays a combat-screen action through the game, so it is recorded and
+    // replayed like a typed command
+    private void perform(com.bapppis.core.game.GameCommand command) {
+        if (currentGame != null)
+            currentGame.perform(command);
+    }
+
     public void showCombatView(com.bapppis.core.creature.Creature enemy) {
         // No need to preserve from stage - use instance variable
 
@@ -1102,7 +1109,7 @@ public class RecallDungeon extends ApplicationAdapter {
                         }
                     };
 
-                    pp.attack(enemy);
+                    perform(com.bapppis.core.game.GameCommand.HIT);
 
                     // Use the combat message from the report
                     if (combatDetails.length() > 0) {
@@ -1117,32 +1124,7 @@ public class RecallDungeon extends ApplicationAdapter {
                     refreshLabels.run();
 
                     if (enemy.getCurrentHp() <= 0) {
-                        // Handle enemy defeat: award XP if applicable
-                        if (pp instanceof com.bapppis.core.creature.Player
-                                && enemy instanceof com.bapppis.core.creature.Enemy) {
-                            Integer enemyXp = ((com.bapppis.core.creature.Enemy) enemy).getEnemyXp();
-                            if (enemyXp != null && enemyXp > 0) {
-                                ((com.bapppis.core.creature.Player) pp).addXp(enemyXp);
-                            }
-                        }
-                        // Remove enemy from tile, create corpse, and clear its position
-                        if (enemy instanceof com.bapppis.core.creature.Enemy) {
-                            com.bapppis.core.creature.Enemy en = (com.bapppis.core.creature.Enemy) enemy;
-                            if (en.getPosition() != null) {
-                                com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState
-                                        .getCurrentFloor();
-                                if (floor != null) {
-                                    com.bapppis.core.dungeon.Tile tile = floor.getTile(en.getPosition());
-                                    if (tile != null) {
-                                        tile.getOccupants().remove(enemy);
-                                        // Create corpse tile with loot
-                                        createCorpseTile(tile, en);
-                                    }
-                                }
-                                // Clear the enemy's position to fully disconnect it from the map
-                                en.setPosition((com.bapppis.core.dungeon.Coordinate) null);
-                            }
-                        }
+                        // The hit has awarded XP and left the corpse with its loot.
                         // Show victory dialog and exit combat when dismissed
                         com.kotcrab.vis.ui.widget.VisDialog dlg = new com.kotcrab.vis.ui.widget.VisDialog("Victory");
                         dlg.text(enemy.getName() + " defeated!");
@@ -1193,7 +1175,7 @@ public class RecallDungeon extends ApplicationAdapter {
                                                 }
                                             }
                                         };
-                                        enemy.attack(pp);
+                                        perform(com.bapppis.core.game.GameCommand.ENEMY_TURN);
                                         com.bapppis.core.combat.AttackEngine.attackListener = null;
                                         if (enemyCombat.length() > 0) {
                                             combatMsg.setText(enemyCombat.toString());
@@ -1281,7 +1263,7 @@ public class RecallDungeon extends ApplicationAdapter {
                                                 }
                                             }
                                         };
-                                        enemy.attack(pp);
+                                        perform(com.bapppis.core.game.GameCommand.ENEMY_TURN);
                                         com.bapppis.core.combat.AttackEngine.attackListener = null;
                                         if (enemyCombat.length() > 0) {
                                             combatMsg.setText(enemyCombat.toString());
@@ -1321,7 +1303,7 @@ public class RecallDungeon extends ApplicationAdapter {
         fleeBtn.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                com.bapppis.core.game.GameState.setInCombat(false);
+                perform(com.bapppis.core.game.GameCommand.FLEE);
                 com.kotcrab.vis.ui.widget.VisDialog dlg = new com.kotcrab.vis.ui.widget.VisDialog("Flee");
                 dlg.text("You fled from combat.");
                 dlg.button("OK", true);
@@ -1372,7 +1354,7 @@ public class RecallDungeon extends ApplicationAdapter {
                             public void clicked(InputEvent event, float x, float y) {
                                 try {
                                     if (item instanceof com.bapppis.core.item.Equipment) {
-                                        pp.equipItem((com.bapppis.core.item.Equipment) item);
+                                        perform(new com.bapppis.core.game.GameCommand.Equip(item.getId()));
                                         refreshLabels.run();
                                         dlg.hide();
                                         com.kotcrab.vis.ui.widget.VisDialog msg = new com.kotcrab.vis.ui.widget.VisDialog(
@@ -1451,36 +1433,13 @@ public class RecallDungeon extends ApplicationAdapter {
                                 waitBtn.setDisabled(true);
                                 fleeBtn.setDisabled(true);
 
-                                com.bapppis.core.spell.SpellEngine.castSpell(pp, spell, enemy);
+                                perform(new com.bapppis.core.game.GameCommand.Cast(spell.getId()));
                                 refreshLabels.run();
                                 dlg.hide();
                                 combatMsg.setText("You cast " + spell.getName() + "!");
 
                                 if (enemy.getCurrentHp() <= 0) {
-                                    // Handle enemy defeat: award XP if applicable
-                                    if (pp instanceof com.bapppis.core.creature.Player
-                                            && enemy instanceof com.bapppis.core.creature.Enemy) {
-                                        Integer enemyXp = ((com.bapppis.core.creature.Enemy) enemy).getEnemyXp();
-                                        if (enemyXp != null && enemyXp > 0) {
-                                            ((com.bapppis.core.creature.Player) pp).addXp(enemyXp);
-                                        }
-                                    }
-                                    // Remove enemy from tile and clear its position
-                                    if (enemy instanceof com.bapppis.core.creature.Enemy) {
-                                        com.bapppis.core.creature.Enemy en = (com.bapppis.core.creature.Enemy) enemy;
-                                        if (en.getPosition() != null) {
-                                            com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState
-                                                    .getCurrentFloor();
-                                            if (floor != null) {
-                                                com.bapppis.core.dungeon.Tile tile = floor.getTile(en.getPosition());
-                                                if (tile != null) {
-                                                    tile.getOccupants().remove(enemy);
-                                                }
-                                            }
-                                            // Clear the enemy's position to fully disconnect it from the map
-                                            en.setPosition((com.bapppis.core.dungeon.Coordinate) null);
-                                        }
-                                    }
+                                    // The spell has awarded XP and left the corpse with its loot.
                                     // Show victory dialog and exit combat when dismissed
                                     com.kotcrab.vis.ui.widget.VisDialog victoryDlg = new com.kotcrab.vis.ui.widget.VisDialog(
                                             "Victory");
@@ -1533,7 +1492,7 @@ public class RecallDungeon extends ApplicationAdapter {
                                                             }
                                                         }
                                                     };
-                                                    enemy.attack(pp);
+                                                    perform(com.bapppis.core.game.GameCommand.ENEMY_TURN);
                                                     com.bapppis.core.combat.AttackEngine.attackListener = null;
                                                     if (enemyCombat.length() > 0) {
                                                         combatMsg.setText(enemyCombat.toString());
@@ -1610,8 +1569,7 @@ public class RecallDungeon extends ApplicationAdapter {
                         @Override
                         public void clicked(InputEvent event, float x, float y) {
                             try {
-                                item.onApply(pp);
-                                pp.getInventory().removeItem(item);
+                                perform(new com.bapppis.core.game.GameCommand.UseItem(item.getId()));
                                 refreshLabels.run();
                                 dlg.hide();
                                 if (enemy != null && pp.getCurrentHp() > 0) {
@@ -1640,7 +1598,7 @@ public class RecallDungeon extends ApplicationAdapter {
                                             }
                                         }
                                     };
-                                    enemy.attack(pp);
+                                    perform(com.bapppis.core.game.GameCommand.ENEMY_TURN);
                                     com.bapppis.core.combat.AttackEngine.attackListener = null;
                                     if (enemyCombat.length() > 0) {
                                         combatMsg.setText(enemyCombat.toString());
@@ -1680,131 +1638,6 @@ public class RecallDungeon extends ApplicationAdapter {
         table.add(rightCombatScroll).width(320).fillY().top().pad(8);
     }
 
-    /**
-     * Creates a corpse tile with loot when an enemy is defeated.
-     * Spawns items from the enemy's loot pool and places them on the tile.
-     */
-    private void createCorpseTile(com.bapppis.core.dungeon.Tile tile, com.bapppis.core.creature.Enemy enemy) {
-        try {
-            Gdx.app.log("RecallDungeon",
-                    "createCorpseTile called for enemy: " + enemy.getName() + " at " + tile.getCoordinate());
-
-            // Get the death sprite from the enemy (should be "lootable_corpse")
-            String deathSprite = enemy.getDeathSprite();
-            Gdx.app.log("RecallDungeon", "Death sprite: " + deathSprite);
-            if (deathSprite == null || deathSprite.isEmpty()) {
-                Gdx.app.log("RecallDungeon", "No death sprite, skipping corpse creation");
-                return; // No corpse sprite defined, skip corpse creation
-            }
-
-            // Load the lootable corpse tile type
-            com.bapppis.core.dungeon.TileType corpseTileType = com.bapppis.core.dungeon.TileTypeLoader
-                    .getTileTypeByName("lootableCorpse");
-            if (corpseTileType == null) {
-                Gdx.app.error("RecallDungeon", "Failed to load lootableCorpse tile type");
-                return;
-            }
-
-            Gdx.app.log("RecallDungeon", "Loaded corpse tile type successfully");
-
-            // Get the loot pool and sample it
-            String lootPoolId = enemy.getLootPool();
-            Gdx.app.log("RecallDungeon", "Enemy loot pool ID: " + lootPoolId);
-            com.bapppis.core.loot.LootPool lootPool = null;
-            if (lootPoolId != null && !lootPoolId.isEmpty()) {
-                // Try to load pool by ID first, then by name
-                lootPool = com.bapppis.core.loot.LootPoolLoader.getLootPoolById(lootPoolId);
-                if (lootPool == null) {
-                    lootPool = com.bapppis.core.loot.LootPoolLoader.getLootPoolByName(lootPoolId);
-                }
-                if (lootPool != null) {
-                    Gdx.app.log("RecallDungeon", "Loaded loot pool: " + lootPool.name);
-                } else {
-                    Gdx.app.log("RecallDungeon", "Failed to load loot pool: " + lootPoolId);
-                }
-            } else {
-                Gdx.app.log("RecallDungeon", "Enemy has no loot pool");
-            }
-
-            // Create a new corpse tile at the same coordinate
-            com.bapppis.core.dungeon.Tile corpseTile = new com.bapppis.core.dungeon.Tile(
-                    tile.getCoordinate(), corpseTileType);
-
-            // Sample and spawn loot if we have a pool
-            if (lootPool != null) {
-                // Create a temporary LootManager to sample the pool
-                com.bapppis.core.loot.LootManager tempManager = new com.bapppis.core.loot.LootManager();
-                tempManager.loadDefaults();
-                tempManager.registerPool(lootPool);
-
-                // Sample using the pool's actual ID, not the reference name
-                String poolIdToSample = lootPool.id;
-                Gdx.app.log("RecallDungeon", "Sampling loot pool with ID: " + poolIdToSample);
-                java.util.List<com.bapppis.core.loot.LootManager.Spawn> spawns = tempManager
-                        .samplePool(poolIdToSample);
-                Gdx.app.log("RecallDungeon", "Got " + (spawns != null ? spawns.size() : 0) + " spawns");
-                if (spawns != null && !spawns.isEmpty()) {
-                    // Spawn items from the loot pool
-                    for (com.bapppis.core.loot.LootManager.Spawn spawn : spawns) {
-                        Gdx.app.log("RecallDungeon", "Spawn type: " + spawn.type + ", id: " + spawn.id);
-                        if ("item".equalsIgnoreCase(spawn.type)) {
-                            com.bapppis.core.item.Item item = null;
-                            if (spawn.id != null) {
-                                // Try as integer ID first
-                                try {
-                                    int itemId = Integer.parseInt(spawn.id);
-                                    item = com.bapppis.core.item.ItemLoader.getItemById(itemId);
-                                } catch (NumberFormatException e) {
-                                    // Not an int, try as name
-                                    item = com.bapppis.core.item.ItemLoader.getItemByName(spawn.id);
-                                }
-                            }
-                            if (item != null) {
-                                corpseTile.getItems().add(item);
-                                Gdx.app.log("RecallDungeon", "Added item to corpse: " + item.getName());
-                            } else {
-                                Gdx.app.log("RecallDungeon", "Failed to load item: " + spawn.id);
-                            }
-                        }
-                    }
-                }
-                // Store the loot pool ID on the tile for reference
-                corpseTile.setLootPoolId(lootPoolId);
-            }
-
-            // Copy over any navigation references from the old tile
-            corpseTile.setLeft(tile.getLeft());
-            corpseTile.setRight(tile.getRight());
-            corpseTile.setUp(tile.getUp());
-            corpseTile.setDown(tile.getDown());
-            corpseTile.setDiscovered(tile.isDiscovered());
-
-            // Replace the tile in the floor's tile map
-            com.bapppis.core.dungeon.Floor floor = com.bapppis.core.game.GameState.getCurrentFloor();
-            if (floor != null) {
-                floor.addTile(tile.getCoordinate(), corpseTile);
-                Gdx.app.log("RecallDungeon", "Replaced tile at " + tile.getCoordinate() + " with corpse tile");
-                Gdx.app.log("RecallDungeon", "Corpse tile has " + corpseTile.getItems().size() + " items");
-
-                // Update navigation references from neighboring tiles
-                if (corpseTile.getLeft() != null) {
-                    corpseTile.getLeft().setRight(corpseTile);
-                }
-                if (corpseTile.getRight() != null) {
-                    corpseTile.getRight().setLeft(corpseTile);
-                }
-                if (corpseTile.getUp() != null) {
-                    corpseTile.getUp().setDown(corpseTile);
-                }
-                if (corpseTile.getDown() != null) {
-                    corpseTile.getDown().setUp(corpseTile);
-                }
-            }
-
-        } catch (Exception e) {
-            Gdx.app.error("RecallDungeon", "Error creating corpse tile", e);
-        }
-    }
 
     @Override
     public void dispose() {
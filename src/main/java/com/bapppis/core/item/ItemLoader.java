@@ -1,23 +1,21 @@
 package com.bapppis.core.item;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.Resource;
-import io.github.classgraph.ScanResult;
-
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.HashMap;
 import java.util.List;
 
 import com.bapppis.core.item.itemEnums.ItemType;
+import com.bapppis.core.util.ResourceIndex;
 import com.bapppis.core.item.itemEnums.WeaponType;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 public class ItemLoader {
     private static final HashMap<Integer, Item> itemIdMap = new HashMap<>();
     private static final HashMap<String, Item> itemNameMap = new HashMap<>();
     private static boolean loaded = false;
+    private static final String[] ITEM_DIRS = { "data/items" }; // all item folders
 
     public static void loadItems() {
         if (loaded)
@@ -44,12 +42,11 @@ public class ItemLoader {
                 .registerTypeAdapter(com.bapppis.core.Resistances.class,
                         new com.bapppis.core.util.ResistancesDeserializer())
                 .create();
-        try (ScanResult scanResult = new ClassGraph()
-                .acceptPaths("data/items") // Scan all item folders
-                .scan()) {
-            for (Resource resource : scanResult.getAllResources()) {
+        ResourceIndex index = ResourceIndex.get();
+        for (String dir : ITEM_DIRS) {
+            for (ResourceIndex.Entry resource : index.list(dir)) {
                 if (resource.getPath().endsWith(".json")) {
-                    try (Reader reader = new InputStreamReader(resource.open())) {
+                    try (Reader reader = resource.openReader()) {
                         // First, parse as a generic map to get the itemType
                         com.google.gson.JsonObject jsonObj = gson.fromJson(reader, com.google.gson.JsonObject.class);
                         ItemType type = ItemType.EQUIPMENT;
@@ -159,6 +156,8 @@ public class ItemLoader {
             // Debug prints removed
         }
         loaded = true;
+        // Loot tables hold the item templates they were compiled against
+        com.bapppis.core.loot.LootPoolRegistry.invalidate();
     }
 
     public static Item getItemById(int id) {
@@ -185,4 +184,26 @@ public class ItemLoader {
         java.util.Collections.sort(names);
         return names;
     }
+
+    /**
+     * The registry maps, in the order {@link #installRegistries(List)} takes
+     * them. Used to write a data bundle.
+     */
+    public static List<Map<?, ?>> getRegistries() {
+        return List.of(itemIdMap, itemNameMap);
+    }
+
+    /**
+     * Replace the registries with maps read back from a data bundle and mark
+     * items as loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public static void installRegistries(List<Map<?, ?>> maps) {
+        itemIdMap.clear();
+        itemIdMap.putAll((Map<Integer, Item>) maps.get(0));
+        itemNameMap.clear();
+        itemNameMap.putAll((Map<String, Item>) maps.get(1));
+        loaded = true;
+        com.bapppis.core.loot.LootPoolRegistry.invalidate();
+    }
 }
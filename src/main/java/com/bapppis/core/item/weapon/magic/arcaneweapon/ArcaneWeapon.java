@@ -9,6 +9,9 @@ public class ArcaneWeapon extends MagicWeapon {
     private Stats primaryStat;
     private Resistances elementalDamageType;
     private Resistances secondaryDamageType;
+    // For Gson and GraphCodec, which fill the fields in themselves
+    private ArcaneWeapon() {
+    }
     public ArcaneWeapon(Stats primaryStat, Resistances elementalDamageType, Resistances secondaryDamageType) {
         this.primaryStat = primaryStat;
         this.elementalDamageType = elementalDamageType;
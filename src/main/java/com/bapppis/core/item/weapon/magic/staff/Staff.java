@@ -7,6 +7,9 @@ import com.bapppis.core.item.weapon.magic.MagicWeapon;
 public class Staff extends MagicWeapon {
     private Stats primaryStat;
     private Resistances elementalDamageType;
+    // For Gson and GraphCodec, which fill the fields in themselves
+    private Staff() {
+    }
     public Staff(Stats primaryStat, Resistances elementalDamageType) {
         this.primaryStat = primaryStat;
         this.elementalDamageType = elementalDamageType;
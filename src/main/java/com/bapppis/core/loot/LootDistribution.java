@@ -0,0 +1,62 @@
+package com.bapppis.core.loot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact drop statistics for one sample of a pool, from
+ * {@link LootManager#exactDistribution(String)}. Keys are the same as
+ * {@link LootHistogram}'s, so the two can be compared directly.
+ */
+public final class LootDistribution {
+    private final Map<String, Drop> drops;
+
+    LootDistribution(Map<String, double[]> analysed) {
+        Map<String, Drop> m = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> e : analysed.entrySet()) {
+            m.put(e.getKey(), new Drop(e.getKey(), e.getValue()[0], 1.0 - e.getValue()[1]));
+        }
+        this.drops = Collections.unmodifiableMap(m);
+    }
+
+    /** Everything the pool can drop, in key order. */
+    public List<Drop> getDrops() {
+        return new ArrayList<>(drops.values());
+    }
+
+    /** Expected number of {@code key} per sample; 0 if it never drops. */
+    public double getExpected(String key) {
+        Drop d = drops.get(key);
+        return d == null ? 0.0 : d.expected;
+    }
+
+    /** Probability that one sample drops at least one {@code key}. */
+    public double getProbability(String key) {
+        Drop d = drops.get(key);
+        return d == null ? 0.0 : d.probability;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Drop d : drops.values()) {
+            sb.append(String.format("  %-24s mean %.4f  rate %.2f%%%n", d.key, d.expected, 100.0 * d.probability));
+        }
+        return sb.toString();
+    }
+
+    public static final class Drop {
+        public final String key;
+        public final double expected;
+        public final double probability;
+
+        Drop(String key, double expected, double probability) {
+            this.key = key;
+            this.expected = expected;
+            this.probability = probability;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.bapppis.core.loot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Drop tallies from many samples of one pool, filled by
+ * {@link LootManager#sampleMany}. Drops are keyed by {@link #key(LootManager.Spawn)},
+ * e.g. {@code item:40001}. A histogram can be passed back in to be cleared
+ * and refilled.
+ */
+public final class LootHistogram {
+    private final Map<String, long[]> counts = new TreeMap<>();
+    private long samples;
+
+    /** Histogram key of a spawn: its type and id. */
+    public static String key(LootManager.Spawn spawn) {
+        return key(spawn.type, spawn.id);
+    }
+
+    public static String key(String type, String id) {
+        return type + ":" + id;
+    }
+
+    public synchronized void clear() {
+        counts.clear();
+        samples = 0;
+    }
+
+    // Merges one leaf task's tallies: per key, total dropped and samples with any
+    synchronized void add(long leafSamples, Map<String, long[]> leafCounts) {
+        samples += leafSamples;
+        for (Map.Entry<String, long[]> e : leafCounts.entrySet()) {
+            long[] c = counts.computeIfAbsent(e.getKey(), k -> new long[2]);
+            c[0] += e.getValue()[0];
+            c[1] += e.getValue()[1];
+        }
+    }
+
+    /** Number of times the pool was sampled. */
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    /** Every key that dropped at least once, in key order. */
+    public synchronized List<String> keys() {
+        return new ArrayList<>(counts.keySet());
+    }
+
+    /** Total number of {@code key} dropped over all samples. */
+    public synchronized long getTotal(String key) {
+        long[] c = counts.get(key);
+        return c == null ? 0 : c[0];
+    }
+
+    /** Number of samples that dropped {@code key} at least once. */
+    public synchronized long getSamplesWith(String key) {
+        long[] c = counts.get(key);
+        return c == null ? 0 : c[1];
+    }
+
+    /** Mean number of {@code key} per sample. */
+    public synchronized double getMean(String key) {
+        return samples == 0 ? 0.0 : getTotal(key) / (double) samples;
+    }
+
+    /** Fraction of samples that dropped {@code key} at least once. */
+    public synchronized double getDropRate(String key) {
+        return samples == 0 ? 0.0 : getSamplesWith(key) / (double) samples;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d samples%n", samples));
+        for (Map.Entry<String, long[]> e : counts.entrySet()) {
+            sb.append(String.format("  %-24s mean %.4f  rate %.2f%%%n", e.getKey(),
+                    e.getValue()[0] / (double) samples, 100.0 * e.getValue()[1] / samples));
+        }
+        return sb.toString();
+    }
+}
@@ -2,23 +2,67 @@ package com.bapppis.core.loot;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import com.bapppis.core.combat.RandomProvider;
+import com.bapppis.core.combat.SessionRandom;
+import com.bapppis.core.combat.SplittableRandomProvider;
+import com.bapppis.core.util.DebugLog;
+import com.bapppis.core.util.DebugLog.Category;
+
+/**
+ * Rolls loot pools. Every pool in the shared {@link LootPoolRegistry} can be
+ * sampled; pools registered on a manager are added to (or override) those
+ * for that manager only. Managers are cheap to create.
+ *
+ * Pools are sampled through their compiled {@link LootTable}s, which the
+ * registry builds once for its own pools.
+ *
+ * For balancing, {@link #sampleMany} rolls a pool many times in parallel into
+ * a {@link LootHistogram}, and {@link #exactDistribution} works the same
+ * numbers out analytically.
+ */
 public class LootManager {
+    /** Samples rolled sequentially by one leaf task before it stops splitting. */
+    private static final int LEAF_SAMPLES = 4096;
+
     private final Map<String, LootPool> pools = new HashMap<>();
-    private final Random rng = new Random();
+    private final RandomProvider fixedRng;
+    private LootTable.Compiler localTables;
+
+    /**
+     * Create a manager that rolls with the current session's loot stream.
+     */
+    public LootManager() {
+        this(null);
+    }
+
+    /**
+     * Create a manager that rolls with the given random source.
+     */
+    public LootManager(RandomProvider rng) {
+        this.fixedRng = rng;
+    }
+
+    private RandomProvider rng() {
+        return fixedRng != null ? fixedRng : SessionRandom.current().loot();
+    }
 
     public void registerPool(LootPool pool) {
         if (pool == null) return;
+        localTables = null;
         if (pool.id != null) {
-            System.out.println("[DEBUG] Registering pool by id: " + pool.id + " (" + pool.name + ")");
+            DebugLog.debug(Category.LOOT, () -> "Registering pool by id: " + pool.id + " (" + pool.name + ")");
             pools.put(pool.id, pool);
         }
         if (pool.name != null && !pool.name.isEmpty()) {
             String lowerName = pool.name.toLowerCase();
-            System.out.println("[DEBUG] Registering pool by name: " + lowerName + " (original: " + pool.name + ")");
+            DebugLog.debug(Category.LOOT,
+                    () -> "Registering pool by name: " + lowerName + " (original: " + pool.name + ")");
             pools.put(lowerName, pool);
         }
     }
@@ -27,61 +71,58 @@ public class LootManager {
         for (LootPool p : list) registerPool(p);
     }
 
+    /**
+     * @deprecated the default loot and monster pools are always available
+     *             through {@link LootPoolRegistry}; this only makes sure the
+     *             registry is built.
+     */
+    @Deprecated
     public void loadDefaults() {
-        registerAll(LootPoolLoader.loadPoolsFromResources("loot_pools"));
-        // monster pools may also be loaded into the same manager
-        registerAll(LootPoolLoader.loadPoolsFromResources("monster_pools"));
+        LootPoolRegistry.get();
+    }
+
+    private LootPool findPool(String key) {
+        LootPool pool = pools.get(key);
+        return pool != null ? pool : LootPoolRegistry.get().find(key);
+    }
+
+    // Pools registered here may shadow registry pools that other pools nest,
+    // so they get tables of their own; otherwise the registry's are used.
+    private LootTable tableFor(LootPool pool) {
+        if (pools.isEmpty())
+            return LootPoolRegistry.get().table(pool);
+        if (localTables == null)
+            localTables = new LootTable.Compiler(this::findPool, Map.of());
+        return localTables.compile(pool);
     }
 
     public List<Spawn> samplePool(String poolId) {
-        LootPool pool = pools.get(poolId);
-        List<Spawn> out = new ArrayList<>();
+        LootPool pool = findPool(poolId);
         if (pool == null) {
-            System.out.println("[DEBUG] samplePool: pool '" + poolId + "' not found");
-            return out;
-        }
-        System.out.println("[DEBUG] samplePool: found pool '" + pool.name + "' with " + pool.entries.size() + " entries");
-        // New strategy supporting guaranteed entries and independent chance entries.
-        // 1) Process guaranteed entries first (always included unless chance is present and fails)
-        for (LootPool.Entry e : pool.entries) {
-            if (Boolean.TRUE.equals(e.guaranteed)) {
-                // include this entry
-                System.out.println("[DEBUG] Processing guaranteed entry: type=" + e.type + ", id=" + e.id);
-                handleEntrySpawn(out, e);
-            }
-        }
-
-        // 2) Independently evaluate entries that have a 'chance' (0.0 - 1.0)
-        for (LootPool.Entry e : pool.entries) {
-            if (e.chance != null && e.chance > 0.0 && e.chance <= 1.0) {
-                if (rng.nextDouble() < e.chance) {
-                    handleEntrySpawn(out, e);
-                }
-            }
+            DebugLog.debug(Category.LOOT, () -> "samplePool: pool '" + poolId + "' not found");
+            return new ArrayList<>();
         }
+        return samplePool(pool);
+    }
 
-        // 3) Do a single weighted pick among non-guaranteed entries that do not have chance set
-        List<LootPool.Entry> weightedCandidates = new ArrayList<>();
-        for (LootPool.Entry e : pool.entries) {
-            if (Boolean.TRUE.equals(e.guaranteed)) continue;
-            if (e.chance != null && e.chance > 0.0 && e.chance <= 1.0) continue;
-            weightedCandidates.add(e);
+    /**
+     * Sample a pool object directly, for example a chest tile's pool. Nested
+     * pool entries are resolved as for {@link #samplePool(String)}.
+     * A pool that nests itself is reported and drops nothing.
+     */
+    public List<Spawn> samplePool(LootPool pool) {
+        List<Spawn> out = new ArrayList<>();
+        if (pool == null) {
+            return out;
         }
-
-        int total = 0;
-        for (LootPool.Entry e : weightedCandidates) total += effectiveWeight(e);
-        if (total <= 0) return out;
-
-        int pick = rng.nextInt(total);
-        LootPool.Entry chosen = null;
-        for (LootPool.Entry e : weightedCandidates) {
-            pick -= effectiveWeight(e);
-            if (pick < 0) { chosen = e; break; }
+        LootTable table;
+        try {
+            table = tableFor(pool);
+        } catch (IllegalStateException e) {
+            DebugLog.warn(Category.LOOT, "Warning: " + e.getMessage());
+            return out;
         }
-        if (chosen == null) return out;
-
-        handleEntrySpawn(out, chosen);
-
+        table.sample(rng(), out);
         return out;
     }
 
@@ -94,95 +135,134 @@ public class LootManager {
         return samplePool(poolName.toLowerCase());
     }
 
-    // Helper to append spawn(s) for an entry to the output list
-    private void handleEntrySpawn(List<Spawn> out, LootPool.Entry chosen) {
-        int min = chosen.countMin != null ? chosen.countMin : 1;
-        int max = chosen.countMax != null ? chosen.countMax : min;
-        int count = min + (max > min ? rng.nextInt(max - min + 1) : 0);
-
-        if ("item".equalsIgnoreCase(chosen.type)) {
-            // Try to resolve by id, then by name
-            String ref = null;
-            if (chosen.id != null) {
-                ref = chosen.id;
-                System.out.println("[DEBUG] handleEntrySpawn: item entry, id=" + ref);
-                // Try to resolve as int id, fallback to name
-                try {
-                    int itemId = Integer.parseInt(ref);
-                    if (com.bapppis.core.item.ItemLoader.getItemById(itemId) == null && chosen.name != null) {
-                        System.out.println("[DEBUG] Item not found by id, trying name: " + chosen.name);
-                        ref = chosen.name;
-                    }
-                } catch (NumberFormatException nfe) {
-                    System.out.println("[DEBUG] Item id not numeric, trying as name: " + ref);
-                    // Not an int, try as name
-                    if (com.bapppis.core.item.ItemLoader.getItemByName(ref) == null && chosen.name != null) {
-                        System.out.println("[DEBUG] Item not found by id, trying name: " + chosen.name);
-                        ref = chosen.name;
-                    }
-                }
-            } else if (chosen.name != null) {
-                ref = chosen.name;
-                System.out.println("[DEBUG] handleEntrySpawn: item entry, name=" + ref);
+    /**
+     * Sample a pool {@code n} times on the common fork-join pool.
+     * @see #sampleMany(String, int, SplittableRandomProvider, LootHistogram, ForkJoinPool)
+     */
+    public LootHistogram sampleMany(String poolId, int n, SplittableRandomProvider rng) {
+        return sampleMany(poolId, n, rng, new LootHistogram(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sample a pool {@code n} times on the common fork-join pool, clearing and
+     * refilling {@code into}.
+     */
+    public LootHistogram sampleMany(String poolId, int n, SplittableRandomProvider rng, LootHistogram into) {
+        return sampleMany(poolId, n, rng, into, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sample a pool {@code n} times on the given fork-join pool, clearing and
+     * refilling {@code into}. Samples are split across leaf tasks the way
+     * {@link com.bapppis.core.combat.CombatSimulator} splits trials, so the
+     * same seed gives the same histogram however many threads run it. The
+     * session's loot stream is not touched.
+     * @throws IllegalArgumentException if the pool is unknown or n is negative
+     * @throws IllegalStateException if the pool nests itself
+     */
+    public LootHistogram sampleMany(String poolId, int n, SplittableRandomProvider rng, LootHistogram into,
+            ForkJoinPool forkJoinPool) {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        LootTable table = tableFor(requirePool(poolId));
+        into.clear();
+        if (n > 0)
+            forkJoinPool.invoke(new SampleTask(table, into, 0, n, rng));
+        return into;
+    }
+
+    /**
+     * Exact per-sample expected count and drop chance of everything a pool
+     * can drop, without sampling.
+     * @throws IllegalArgumentException if the pool is unknown
+     * @throws IllegalStateException if the pool nests itself
+     */
+    public LootDistribution exactDistribution(String poolId) {
+        return tableFor(requirePool(poolId)).exactDistribution();
+    }
+
+    private LootPool requirePool(String poolId) {
+        LootPool pool = findPool(poolId);
+        if (pool == null && poolId != null)
+            pool = findPool(poolId.toLowerCase());
+        if (pool == null)
+            throw new IllegalArgumentException("Unknown loot pool: " + poolId);
+        return pool;
+    }
+
+    /**
+     * Splits the sample range in halves until it is small enough to run. The
+     * right half always takes a {@code split()} of the left half's stream.
+     */
+    @SuppressWarnings("serial")
+    private static final class SampleTask extends RecursiveAction {
+        private final LootTable table;
+        private final LootHistogram out;
+        private final int from;
+        private final int to;
+        private final SplittableRandomProvider rng;
+
+        SampleTask(LootTable table, LootHistogram out, int from, int to, SplittableRandomProvider rng) {
+            this.table = table;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.rng = rng;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SAMPLES) {
+                runLeaf();
+                return;
             }
-            System.out.println("[DEBUG] Adding " + count + " x '" + ref + "' to spawns");
-            for (int i=0;i<count;i++) out.add(new Spawn("item", ref));
-        } else if ("monster".equalsIgnoreCase(chosen.type)) {
-            // Try to resolve by id, then by name
-            String ref = null;
-            if (chosen.id != null) {
-                ref = chosen.id;
-                try {
-                    int creatureId = Integer.parseInt(ref);
-                    if (com.bapppis.core.creature.CreatureLoader.getCreatureById(creatureId) == null && chosen.name != null) {
-                        ref = chosen.name;
+            int mid = (from + to) >>> 1;
+            SampleTask right = new SampleTask(table, out, mid, to, rng.split());
+            SampleTask left = new SampleTask(table, out, from, mid, rng);
+            right.fork();
+            left.compute();
+            right.join();
+        }
+
+        // Tallies per spawn object, sharing one counter {total, samples with,
+        // last sample seen} between spawns with the same key, and only builds
+        // key strings once per leaf
+        private void runLeaf() {
+            Map<Spawn, long[]> bySpawn = new IdentityHashMap<>();
+            Map<String, long[]> byKey = new HashMap<>();
+            List<Spawn> drops = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                drops.clear();
+                table.sample(rng, drops);
+                for (Spawn s : drops) {
+                    long[] c = bySpawn.get(s);
+                    if (c == null) {
+                        c = byKey.computeIfAbsent(LootHistogram.key(s), k -> new long[] { 0, 0, -1 });
+                        bySpawn.put(s, c);
                     }
-                } catch (NumberFormatException nfe) {
-                    if (com.bapppis.core.creature.CreatureLoader.getCreature(ref) == null && chosen.name != null) {
-                        ref = chosen.name;
+                    c[0]++;
+                    if (c[2] != i) {
+                        c[1]++;
+                        c[2] = i;
                     }
                 }
-            } else if (chosen.name != null) {
-                ref = chosen.name;
-            }
-            int groupMin = chosen.minGroup != null ? chosen.minGroup : 1;
-            int groupMax = chosen.maxGroup != null ? chosen.maxGroup : groupMin;
-            int group = groupMin + (groupMax > groupMin ? rng.nextInt(groupMax - groupMin + 1) : 0);
-            for (int i=0;i<group;i++) out.add(new Spawn("monster", ref));
-        } else if ("pool".equalsIgnoreCase(chosen.type)) {
-            // Try to resolve pool by id, then by name
-            String poolRef = null;
-            if (chosen.id != null) {
-                poolRef = chosen.id;
-                // Check if pool exists with this id
-                System.out.println("[DEBUG] Looking for nested pool with id: " + poolRef);
-                if (pools.get(poolRef) == null && chosen.name != null) {
-                    // Try name as fallback
-                    poolRef = chosen.name.toLowerCase();
-                    System.out.println("[DEBUG] Pool not found by id, trying name: " + poolRef);
-                }
-            } else if (chosen.name != null) {
-                poolRef = chosen.name.toLowerCase();
-                System.out.println("[DEBUG] Using pool name: " + poolRef);
-            }
-            if (poolRef != null) {
-                System.out.println("[DEBUG] Sampling nested pool: " + poolRef);
-                List<Spawn> poolSpawns = samplePool(poolRef);
-                System.out.println("[DEBUG] Nested pool returned " + poolSpawns.size() + " spawns");
-                out.addAll(poolSpawns);
             }
+            out.add(to - from, byKey);
         }
     }
 
-    private int effectiveWeight(LootPool.Entry e) {
-        if (e == null) return 0;
-        if (e.weight != null) return Math.max(0, e.weight);
-        return 1; // default minimal weight
-    }
-
     public static class Spawn {
         public final String type;
         public final String id;
-        public Spawn(String type, String id) { this.type = type; this.id = id; }
+        // Template the id was resolved to when the pool was compiled, if any
+        public final com.bapppis.core.item.Item item;
+        public final com.bapppis.core.creature.Creature creature;
+        public Spawn(String type, String id) { this(type, id, null, null); }
+        public Spawn(String type, String id, com.bapppis.core.item.Item item, com.bapppis.core.creature.Creature creature) {
+            this.type = type;
+            this.id = id;
+            this.item = item;
+            this.creature = creature;
+        }
     }
 }
@@ -1,67 +1,99 @@
 package com.bapppis.core.loot;
 
+import com.bapppis.core.util.ResourceIndex;
 import com.google.gson.stream.JsonReader;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class LootPoolLoader {
-    private static final com.google.gson.Gson GSON = new com.google.gson.GsonBuilder()
-        .registerTypeAdapter(com.bapppis.core.Resistances.class,
-            new com.bapppis.core.util.ResistancesDeserializer())
-        .create();
+    // Both maps are replaced together after a load and never modified once
+    // published, so lookups from other threads need no locking
+    private static volatile Registry registry = new Registry(new HashMap<>(), new HashMap<>());
 
-    private static Map<String, LootPool> lootPoolsById = new HashMap<>();
-    private static Map<String, LootPool> lootPoolsByName = new HashMap<>();
+    private static final class Registry {
+        final Map<String, LootPool> byId;
+        final Map<String, LootPool> byName;
 
-    public static List<LootPool> loadPoolsFromResources(String resourceDir) {
+        Registry(Map<String, LootPool> byId, Map<String, LootPool> byName) {
+            this.byId = byId;
+            this.byName = byName;
+        }
+    }
+
+    /**
+     * Load the pools in {@code data/<resourceDir>}, adding them to those
+     * already loaded.
+     */
+    public static synchronized List<LootPool> loadPoolsFromResources(String resourceDir) {
         List<LootPool> result = new ArrayList<>();
-        try {
-            // Try to load from classpath resources under /data/<resourceDir>/
-            String prefix = "/data/" + resourceDir + "/";
-            InputStream idx = LootPoolLoader.class.getResourceAsStream(prefix);
-            // Classpath listing is not reliable cross-platform; instead read from file system relative to project when available
-            File fsDir = new File("src/main/resources/data/" + resourceDir);
-            if (fsDir.exists() && fsDir.isDirectory()) {
-                File[] files = fsDir.listFiles((d, name) -> name.endsWith(".json"));
-                if (files != null) {
-                    for (File f : files) {
-                        try (JsonReader jr = new JsonReader(new FileReader(f))) {
-                            LootPool p = GSON.fromJson(jr, LootPool.class);
-                            if (p != null) {
-                                result.add(p);
-                                if (p.id != null) {
-                                    lootPoolsById.put(p.id, p);
-                                }
-                                if (p.name != null) {
-                                    lootPoolsByName.put(p.name.toLowerCase().replaceAll("\\s+", ""), p);
-                                }
-                            }
-                        }
+        Map<String, LootPool> lootPoolsById = new HashMap<>(registry.byId);
+        Map<String, LootPool> lootPoolsByName = new HashMap<>(registry.byName);
+        com.google.gson.Gson gson = new com.google.gson.GsonBuilder()
+            .registerTypeAdapter(com.bapppis.core.Resistances.class,
+                new com.bapppis.core.util.ResistancesDeserializer())
+            .create();
+        for (ResourceIndex.Entry entry : ResourceIndex.get().list("data/" + resourceDir, ".json")) {
+            try (JsonReader jr = new JsonReader(entry.openReader())) {
+                LootPool p = gson.fromJson(jr, LootPool.class);
+                if (p != null) {
+                    result.add(p);
+                    if (p.id != null) {
+                        lootPoolsById.put(p.id, p);
+                    }
+                    if (p.name != null) {
+                        lootPoolsByName.put(p.name.toLowerCase().replaceAll("\\s+", ""), p);
                     }
                 }
-            } else if (idx != null) {
-                // Fallback: try to load single known resources; not implemented here.
+            } catch (Exception ex) {
+                System.err.println("Error loading loot pool from " + entry.getPath() + ": " + ex.getMessage());
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
+        registry = new Registry(lootPoolsById, lootPoolsByName);
+        LootPoolRegistry.invalidate();
         return result;
     }
 
     public static LootPool getLootPoolById(String id) {
-        return lootPoolsById.get(id);
+        return registry.byId.get(id);
+    }
+
+    /**
+     * Every loaded pool once, in a stable order.
+     */
+    public static List<LootPool> getAllPools() {
+        Registry r = registry;
+        Set<LootPool> pools = new LinkedHashSet<>(new TreeMap<>(r.byId).values());
+        pools.addAll(new TreeMap<>(r.byName).values());
+        return new ArrayList<>(pools);
     }
 
     public static LootPool getLootPoolByName(String name) {
         if (name == null) return null;
-        return lootPoolsByName.get(name.toLowerCase().replaceAll("\\s+", ""));
+        return registry.byName.get(name.toLowerCase().replaceAll("\\s+", ""));
+    }
+
+    /**
+     * The registry maps, in the order {@link #installRegistries(List)} takes
+     * them. Used to write a data bundle.
+     */
+    public static List<Map<?, ?>> getRegistries() {
+        Registry r = registry;
+        return List.of(r.byId, r.byName);
+    }
+
+    /**
+     * Replace the registries with maps read back from a data bundle.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized void installRegistries(List<Map<?, ?>> maps) {
+        registry = new Registry(new HashMap<>((Map<String, LootPool>) maps.get(0)),
+                new HashMap<>((Map<String, LootPool>) maps.get(1)));
+        LootPoolRegistry.invalidate();
     }
 }
@@ -1,54 +1,157 @@
 package com.bapppis.core.loot;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Static registry for loot pools so tests and code can access pools by id or name
- * similar to ItemLoader.getItemById/getItemByName.
+ * Process-wide, read-only registry of every loaded loot pool, looked up by id
+ * or by name like ItemLoader.getItemById/getItemByName.
+ *
+ * It is built once from the pools {@link LootPoolLoader} already holds and is
+ * shared by every {@link LootManager}, so opening a chest or looting a corpse
+ * never re-reads pool files. Each pool is compiled into a {@link LootTable}
+ * the first time it is sampled, so its item and monster references resolve
+ * against the templates loaded by then rather than when the registry was
+ * built. Reloading pools through the loader invalidates it; the next lookup
+ * rebuilds it.
  */
-public class LootPoolRegistry {
-    private static final Map<String, LootPool> poolById = new HashMap<>();
-    private static final Map<String, LootPool> poolByName = new HashMap<>();
+public final class LootPoolRegistry {
+    private static volatile LootPoolRegistry shared;
 
-    public static void loadPools() {
-        poolById.clear();
-        poolByName.clear();
-        try {
-            List<LootPool> list = LootPoolLoader.loadPoolsFromResources("loot_pools");
-            for (LootPool p : list) {
-                if (p == null) continue;
-                if (p.id != null) poolById.put(p.id, p);
-                if (p.name != null) {
-                    String key = p.name.toLowerCase();
-                    String keyNoSpace = key.replaceAll("\\s+", "");
-                    poolByName.put(key, p);
-                    if (!poolByName.containsKey(keyNoSpace)) {
-                        poolByName.put(keyNoSpace, p);
+    // Keys are ids and lower-case names, the keys LootManager has always used
+    private final Map<String, LootPool> byKey;
+    private final Map<String, LootPool> byId;
+    private final Map<String, LootPool> byName;
+    private final List<LootPool> pools;
+    private final Set<LootPool> registered;
+    // Compiles registry pools on demand; guarded by itself. Every table it
+    // has compiled is also published in tables, which is read without locking.
+    private final LootTable.Compiler compiler;
+    private volatile Map<LootPool, LootTable> tables = Map.of();
+
+    private LootPoolRegistry(List<LootPool> pools) {
+        Map<String, LootPool> keys = new HashMap<>();
+        Map<String, LootPool> ids = new HashMap<>();
+        Map<String, LootPool> names = new HashMap<>();
+        for (LootPool p : pools) {
+            if (p.id != null) {
+                keys.put(p.id, p);
+                ids.put(p.id, p);
+            }
+            if (p.name != null && !p.name.isEmpty()) {
+                String key = p.name.toLowerCase();
+                keys.put(key, p);
+                names.put(key, p);
+                names.putIfAbsent(key.replaceAll("\\s+", ""), p);
+            }
+        }
+        this.byKey = Map.copyOf(keys);
+        this.byId = Map.copyOf(ids);
+        this.byName = Map.copyOf(names);
+        this.pools = List.copyOf(pools);
+        this.registered = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.registered.addAll(pools);
+        this.compiler = new LootTable.Compiler(byKey::get, Map.of());
+    }
+
+    /**
+     * The shared registry, built on first use. Loads the loot and monster
+     * pools if nothing has loaded them yet.
+     *
+     * Pools can be looked up before items and creatures are loaded, but
+     * should not be sampled until they are: a pool's table is compiled on its
+     * first sample and keeps the templates it resolved then. Reloading items
+     * or creatures invalidates the registry, so those tables are dropped.
+     */
+    public static LootPoolRegistry get() {
+        LootPoolRegistry r = shared;
+        if (r == null) {
+            synchronized (LootPoolRegistry.class) {
+                r = shared;
+                if (r == null) {
+                    List<LootPool> pools = LootPoolLoader.getAllPools();
+                    if (pools.isEmpty()) {
+                        pools = new ArrayList<>(LootPoolLoader.loadPoolsFromResources("loot_pools"));
+                        pools.addAll(LootPoolLoader.loadPoolsFromResources("monster_pools"));
                     }
+                    r = new LootPoolRegistry(pools);
+                    shared = r;
                 }
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        }
+        return r;
+    }
+
+    /**
+     * Drop the shared registry so the next {@link #get()} rebuilds it from
+     * the loader. Called whenever the loader's pools change, and whenever
+     * items or creatures are reloaded so no table keeps the old templates.
+     */
+    public static void invalidate() {
+        synchronized (LootPoolRegistry.class) {
+            shared = null;
+        }
+    }
+
+    /**
+     * Rebuild the shared registry from the pool files.
+     */
+    public static void loadPools() {
+        invalidate();
+        LootPoolLoader.loadPoolsFromResources("loot_pools");
+        LootPoolLoader.loadPoolsFromResources("monster_pools");
+        get();
+    }
+
+    /**
+     * Pool whose id or lower-case name is exactly {@code key}, or null.
+     */
+    public LootPool find(String key) {
+        return key == null ? null : byKey.get(key);
+    }
+
+    /**
+     * Compiled table for a pool, compiling it (and the pools it nests) on
+     * first use. Pools not in the registry, such as ones built in code, are
+     * compiled on every call against the registry's pools and not kept.
+     * @throws IllegalStateException if the pool nests itself
+     */
+    public LootTable table(LootPool pool) {
+        LootTable table = tables.get(pool);
+        if (table != null)
+            return table;
+        if (!registered.contains(pool))
+            return new LootTable.Compiler(byKey::get, tables).compile(pool);
+        synchronized (compiler) {
+            try {
+                return compiler.compile(pool);
+            } finally {
+                tables = Collections.unmodifiableMap(new IdentityHashMap<>(compiler.tables()));
+            }
         }
     }
 
     public static LootPool getPoolById(String id) {
-        return id == null ? null : poolById.get(id);
+        return id == null ? null : get().byId.get(id);
     }
 
     public static LootPool getPoolByName(String name) {
         if (name == null) return null;
+        Map<String, LootPool> names = get().byName;
         String key = name.trim().toLowerCase();
-        LootPool p = poolByName.get(key);
+        LootPool p = names.get(key);
         if (p != null) return p;
         // Try space-free variant
         String keyNoSpace = key.replaceAll("\\s+", "");
-        return poolByName.get(keyNoSpace);
+        return names.get(keyNoSpace);
     }
 
     public static List<LootPool> getAllPools() {
-        return List.copyOf(poolById.values());
+        return get().pools;
     }
 }
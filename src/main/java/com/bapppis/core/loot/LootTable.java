@@ -0,0 +1,359 @@
+package com.bapppis.core.loot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import com.bapppis.core.combat.RandomProvider;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.item.Item;
+import com.bapppis.core.item.ItemLoader;
+
+/**
+ * A {@link LootPool} compiled for sampling.
+ *
+ * Entries are split once into guaranteed rolls, independent-chance rolls and
+ * a weighted pick, the weighted pick backed by a Vose alias table so it costs
+ * one int and one double draw however many entries there are. Item and
+ * monster references are resolved to their templates when compiling, and
+ * nested pools are linked to their own tables, so sampling does no lookups.
+ * Tables are immutable and can be sampled from any thread.
+ *
+ * Sampling follows {@link LootManager}'s rules: every guaranteed entry, then
+ * each entry with a chance in (0, 1] independently (guaranteed or not), then
+ * one weighted pick among the remaining entries.
+ */
+public final class LootTable {
+    private final LootPool pool;
+    private final Roll[] guaranteed;
+    private final Roll[] chance;
+    private final Roll[] weighted;
+    private final int[] weights;
+    private final double[] aliasProb;
+    private final int[] alias;
+    private volatile LootDistribution distribution;
+
+    private LootTable(LootPool pool, List<Roll> guaranteed, List<Roll> chance, List<Roll> weighted,
+            List<Integer> weights) {
+        this.pool = pool;
+        this.guaranteed = guaranteed.toArray(new Roll[0]);
+        this.chance = chance.toArray(new Roll[0]);
+        this.weighted = weighted.toArray(new Roll[0]);
+        this.weights = weights.stream().mapToInt(Integer::intValue).toArray();
+        this.aliasProb = new double[this.weighted.length];
+        this.alias = new int[this.weighted.length];
+        buildAlias(weights);
+    }
+
+    public LootPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Roll the table once, appending what it drops to {@code out}.
+     */
+    public void sample(RandomProvider rng, List<LootManager.Spawn> out) {
+        for (Roll r : guaranteed) {
+            r.spawn(rng, out);
+        }
+        for (Roll r : chance) {
+            if (rng.nextDouble() < r.chance) {
+                r.spawn(rng, out);
+            }
+        }
+        if (weighted.length > 0) {
+            int i = rng.nextInt(weighted.length);
+            weighted[rng.nextDouble() < aliasProb[i] ? i : alias[i]].spawn(rng, out);
+        }
+    }
+
+    /**
+     * Exact expected count and drop chance of everything one sample of this
+     * table can drop, worked out through nested pools, count ranges, chance
+     * entries and weights rather than by sampling. Computed once per table.
+     */
+    public LootDistribution exactDistribution() {
+        LootDistribution d = distribution;
+        if (d == null) {
+            d = new LootDistribution(analyse(new IdentityHashMap<>()));
+            distribution = d;
+        }
+        return d;
+    }
+
+    // Per key: {expected count, probability of dropping none}. Rolls are
+    // independent of each other, so chances of "none" multiply; the weighted
+    // pick is one choice, so its entries mix by weight instead.
+    private Map<String, double[]> analyse(Map<LootTable, Map<String, double[]>> memo) {
+        Map<String, double[]> done = memo.get(this);
+        if (done != null)
+            return done;
+        Map<String, double[]> out = new TreeMap<>();
+        for (Roll r : guaranteed) {
+            mergeIndependent(out, r.analyse(memo), 1.0);
+        }
+        for (Roll r : chance) {
+            mergeIndependent(out, r.analyse(memo), r.chance);
+        }
+        if (weighted.length > 0) {
+            long total = 0;
+            for (int w : weights) {
+                total += w;
+            }
+            Map<String, double[]> pick = new HashMap<>(); // {expected, probability of some}
+            for (int i = 0; i < weighted.length; i++) {
+                double q = weights[i] / (double) total;
+                for (Map.Entry<String, double[]> e : weighted[i].analyse(memo).entrySet()) {
+                    double[] acc = pick.computeIfAbsent(e.getKey(), k -> new double[2]);
+                    acc[0] += q * e.getValue()[0];
+                    acc[1] += q * (1.0 - e.getValue()[1]);
+                }
+            }
+            for (Map.Entry<String, double[]> e : pick.entrySet()) {
+                double[] o = out.computeIfAbsent(e.getKey(), k -> new double[] { 0.0, 1.0 });
+                o[0] += e.getValue()[0];
+                o[1] *= 1.0 - e.getValue()[1];
+            }
+        }
+        memo.put(this, out);
+        return out;
+    }
+
+    private static void mergeIndependent(Map<String, double[]> out, Map<String, double[]> roll, double p) {
+        for (Map.Entry<String, double[]> e : roll.entrySet()) {
+            double[] o = out.computeIfAbsent(e.getKey(), k -> new double[] { 0.0, 1.0 });
+            o[0] += p * e.getValue()[0];
+            o[1] *= 1.0 - p * (1.0 - e.getValue()[1]);
+        }
+    }
+
+    // Vose's alias method: split columns into under- and over-full ones and
+    // top each small column up from a large one
+    private void buildAlias(List<Integer> weights) {
+        int n = weights.size();
+        if (n == 0)
+            return;
+        long total = 0;
+        for (int w : weights) {
+            total += w;
+        }
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) weights.get(i) * n / total;
+            if (scaled[i] < 1.0)
+                small.push(i);
+            else
+                large.push(i);
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int s = small.pop();
+            int l = large.pop();
+            aliasProb[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0)
+                small.push(l);
+            else
+                large.push(l);
+        }
+        // Whatever is left is full up to rounding error
+        while (!large.isEmpty()) {
+            int l = large.pop();
+            aliasProb[l] = 1.0;
+            alias[l] = l;
+        }
+        while (!small.isEmpty()) {
+            int s = small.pop();
+            aliasProb[s] = 1.0;
+            alias[s] = s;
+        }
+    }
+
+    /**
+     * Compiles pools, linking nested pools to their tables. Each pool is
+     * compiled once per compiler; a pool that (indirectly) nests itself is
+     * rejected.
+     */
+    static final class Compiler {
+        private final Function<String, LootPool> resolver;
+        private final Map<LootPool, LootTable> tables;
+        private final Deque<LootPool> inProgress = new ArrayDeque<>();
+
+        /**
+         * @param resolver looks up a nested pool by id or lower-case name
+         * @param known    tables already compiled against the same resolver, reused
+         */
+        Compiler(Function<String, LootPool> resolver, Map<LootPool, LootTable> known) {
+            this.resolver = resolver;
+            this.tables = new IdentityHashMap<>(known);
+        }
+
+        Map<LootPool, LootTable> tables() {
+            return tables;
+        }
+
+        /**
+         * @throws IllegalStateException if the pool nests itself, naming the cycle
+         */
+        LootTable compile(LootPool pool) {
+            LootTable done = tables.get(pool);
+            if (done != null)
+                return done;
+            if (inProgress.contains(pool)) {
+                StringBuilder cycle = new StringBuilder();
+                boolean started = false;
+                for (Iterator<LootPool> it = inProgress.descendingIterator(); it.hasNext();) {
+                    LootPool p = it.next();
+                    started |= p == pool;
+                    if (started)
+                        cycle.append(label(p)).append(" -> ");
+                }
+                throw new IllegalStateException("Loot pool cycle: " + cycle.append(label(pool)));
+            }
+            inProgress.push(pool);
+            try {
+                List<Roll> guaranteed = new ArrayList<>();
+                List<Roll> chance = new ArrayList<>();
+                List<Roll> weighted = new ArrayList<>();
+                List<Integer> weights = new ArrayList<>();
+                if (pool.entries != null) {
+                    for (LootPool.Entry e : pool.entries) {
+                        if (e == null)
+                            continue;
+                        Roll roll = compileEntry(e);
+                        boolean hasChance = e.chance != null && e.chance > 0.0 && e.chance <= 1.0;
+                        if (Boolean.TRUE.equals(e.guaranteed))
+                            guaranteed.add(roll);
+                        if (hasChance)
+                            chance.add(roll);
+                        if (!Boolean.TRUE.equals(e.guaranteed) && !hasChance) {
+                            int w = e.weight != null ? Math.max(0, e.weight) : 1;
+                            if (w > 0) {
+                                weighted.add(roll);
+                                weights.add(w);
+                            }
+                        }
+                    }
+                }
+                LootTable table = new LootTable(pool, guaranteed, chance, weighted, weights);
+                tables.put(pool, table);
+                return table;
+            } finally {
+                inProgress.pop();
+            }
+        }
+
+        private Roll compileEntry(LootPool.Entry e) {
+            double chance = e.chance != null ? e.chance : 0.0;
+            if ("item".equalsIgnoreCase(e.type)) {
+                String ref = e.id != null ? e.id : e.name;
+                Item item = null;
+                if (e.id != null) {
+                    try {
+                        item = ItemLoader.getItemById(Integer.parseInt(e.id));
+                    } catch (NumberFormatException nfe) {
+                        item = ItemLoader.getItemByName(e.id);
+                    }
+                    if (item == null && e.name != null)
+                        ref = e.name;
+                }
+                if (item == null && ref != null)
+                    item = ItemLoader.getItemByName(ref);
+                int min = e.countMin != null ? e.countMin : 1;
+                int max = e.countMax != null ? e.countMax : min;
+                return new Roll(new LootManager.Spawn("item", ref, item, null), min, max, chance, null);
+            }
+            if ("monster".equalsIgnoreCase(e.type)) {
+                String ref = e.id != null ? e.id : e.name;
+                Creature creature = null;
+                if (e.id != null) {
+                    try {
+                        creature = CreatureLoader.getCreatureById(Integer.parseInt(e.id));
+                    } catch (NumberFormatException nfe) {
+                        creature = CreatureLoader.getCreature(e.id);
+                    }
+                    if (creature == null && e.name != null)
+                        ref = e.name;
+                }
+                if (creature == null && ref != null)
+                    creature = CreatureLoader.getCreature(ref);
+                int min = e.minGroup != null ? e.minGroup : 1;
+                int max = e.maxGroup != null ? e.maxGroup : min;
+                return new Roll(new LootManager.Spawn("monster", ref, null, creature), min, max, chance, null);
+            }
+            if ("pool".equalsIgnoreCase(e.type)) {
+                LootPool nested = null;
+                if (e.id != null)
+                    nested = resolver.apply(e.id);
+                if (nested == null && e.name != null)
+                    nested = resolver.apply(e.name.toLowerCase());
+                return new Roll(null, 1, 1, chance, nested != null ? compile(nested) : null);
+            }
+            // Unknown entry types drop nothing but still take part in the rolls
+            return new Roll(null, 0, 0, chance, null);
+        }
+
+        private static String label(LootPool p) {
+            return p.name != null ? p.name : String.valueOf(p.id);
+        }
+    }
+
+    private static final class Roll {
+        final LootManager.Spawn spawn;
+        final int min;
+        final int max;
+        final double chance;
+        final LootTable nested;
+
+        Roll(LootManager.Spawn spawn, int min, int max, double chance, LootTable nested) {
+            this.spawn = spawn;
+            this.min = min;
+            this.max = max;
+            this.chance = chance;
+            this.nested = nested;
+        }
+
+        Map<String, double[]> analyse(Map<LootTable, Map<String, double[]>> memo) {
+            if (nested != null)
+                return nested.analyse(memo);
+            if (spawn == null)
+                return Map.of();
+            // Counts are uniform over min..max (just min if max <= min); a
+            // count of zero or less drops nothing
+            int hi = max > min ? max : min;
+            double sum = 0;
+            int none = 0;
+            for (int c = min; c <= hi; c++) {
+                if (c > 0)
+                    sum += c;
+                else
+                    none++;
+            }
+            int n = hi - min + 1;
+            return Map.of(LootHistogram.key(spawn), new double[] { sum / n, none / (double) n });
+        }
+
+        void spawn(RandomProvider rng, List<LootManager.Spawn> out) {
+            if (nested != null) {
+                nested.sample(rng, out);
+                return;
+            }
+            if (spawn == null)
+                return;
+            int count = min + (max > min ? rng.nextInt(max - min + 1) : 0);
+            for (int i = 0; i < count; i++) {
+                out.add(spawn);
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.bapppis.core.ResBuildUp;
 import com.bapppis.core.creature.Creature;
 import com.bapppis.core.creature.creatureEnums.Stats;
 import com.bapppis.core.util.Dice;
+import com.bapppis.core.util.DiceExpression;
 import com.bapppis.core.util.ResistanceUtil;
 import com.google.gson.annotations.SerializedName;
 import java.util.Map;
@@ -25,6 +26,7 @@ public class Property {
     private Integer duration;
     private Resistances damageType;
     private String damageDice;
+    private transient DiceExpression compiledDamageDice;
     private Integer hpRegen;
     private Integer manaRegen;
     private Integer staminaRegen;
@@ -59,6 +61,7 @@ public class Property {
         this.description = other.description;
         this.damageType = other.damageType;
         this.damageDice = other.damageDice;
+        this.compiledDamageDice = other.compiledDamageDice;
         this.statModifiers = other.statModifiers;
         this.resistanceModifiers = other.resistanceModifiers;
         this.resBuildUpModifiers = other.resBuildUpModifiers;
@@ -89,6 +92,21 @@ public class Property {
         return new Property(this);
     }
 
+    /**
+     * Copy of a property that is already applied to a creature, keeping the
+     * deltas recorded by {@link #onApply} so that removing it from the
+     * copied creature reverts exactly what the original applied.
+     */
+    public Property copyWithAppliedState() {
+        Property c = copy();
+        c.appliedMaxHpDelta = this.appliedMaxHpDelta;
+        c.appliedMaxStaminaDelta = this.appliedMaxStaminaDelta;
+        c.appliedMaxManaDelta = this.appliedMaxManaDelta;
+        c.appliedResBuildUpPrev = this.appliedResBuildUpPrev == null ? null
+                : new java.util.EnumMap<>(this.appliedResBuildUpPrev);
+        return c;
+    }
+
     public String getName() {
         return name;
     }
@@ -125,12 +143,23 @@ public class Property {
         this.damageType = damageType;
     }
 
+    /**
+     * Compiled form of {@link #getDamageDice()}, parsed on first use.
+     */
+    public DiceExpression getCompiledDamageDice() {
+        if (compiledDamageDice == null) {
+            compiledDamageDice = Dice.compile(damageDice);
+        }
+        return compiledDamageDice;
+    }
+
     public String getDamageDice() {
         return damageDice;
     }
 
     public void setDamageDice(String damageDice) {
         this.damageDice = damageDice;
+        this.compiledDamageDice = null;
     }
 
     public Integer getHpRegen() {
@@ -511,7 +540,7 @@ public class Property {
     public void onTick(Creature creature) {
         if (damageDice != null && !damageDice.isBlank()) {
             try {
-                int raw = Dice.roll(damageDice); // adjust if Dice API differs
+                int raw = getCompiledDamageDice().roll();
                 int after = ResistanceUtil.getDamageAfterResistance(creature, raw, damageType);
                 if (after > 0) {
                     creature.modifyHp(-after);
@@ -4,10 +4,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.Resource;
-import io.github.classgraph.ScanResult;
+import com.bapppis.core.util.ResourceIndex;
 
 import com.google.gson.reflect.TypeToken;
 
@@ -15,6 +14,8 @@ public class PropertyLoader {
     private static final HashMap<Integer, Property> propertyMap = new HashMap<>();
     private static final HashMap<String, Property> propertyNameMap = new HashMap<>();
     private static boolean loaded = false;
+    private static final String[] PROPERTY_DIRS = { "data/properties/buff", "data/properties/debuff",
+            "data/properties/trait" };
 
     public static void loadProperties() {
         if (loaded)
@@ -31,19 +32,12 @@ public class PropertyLoader {
                 .registerTypeAdapter(com.bapppis.core.Resistances.class,
                         new com.bapppis.core.util.ResistancesDeserializer())
                 .create();
-        try (ScanResult scanResult = new ClassGraph()
-                .acceptPaths("data/properties/buff", "data/properties/debuff", "data/properties/trait")
-                .scan()) {
-            for (Resource resource : scanResult.getAllResources()) {
+        ResourceIndex index = ResourceIndex.get();
+        for (String dir : PROPERTY_DIRS) {
+            for (ResourceIndex.Entry resource : index.list(dir)) {
                 if (resource.getPath().endsWith(".json")) {
                     try {
-                        String json;
-                        try (java.io.InputStream is = resource.open();
-                                java.util.Scanner s = new java.util.Scanner(is,
-                                        java.nio.charset.StandardCharsets.UTF_8.name())) {
-                            s.useDelimiter("\\A");
-                            json = s.hasNext() ? s.next() : "";
-                        }
+                        String json = resource.readString();
 
                         java.util.Map<String, Object> temp = gson.fromJson(json,
                                 new TypeToken<java.util.Map<String, Object>>() {
@@ -80,6 +74,7 @@ public class PropertyLoader {
                                 } catch (Exception ignored) {
                                 }
                             }
+                            propInstance.getCompiledDamageDice(); // parse dice once, copies share it
                             propertyMap.put(propInstance.getId(), propInstance);
                             // normalized name map (trim + lowercase)
                             try {
@@ -139,4 +134,25 @@ public class PropertyLoader {
         }
         return properties;
     }
+
+    /**
+     * The registry maps, in the order {@link #installRegistries(List)} takes
+     * them. Used to write a data bundle.
+     */
+    public static List<Map<?, ?>> getRegistries() {
+        return List.of(propertyMap, propertyNameMap);
+    }
+
+    /**
+     * Replace the registries with maps read back from a data bundle and mark
+     * properties as loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public static void installRegistries(List<Map<?, ?>> maps) {
+        propertyMap.clear();
+        propertyMap.putAll((Map<Integer, Property>) maps.get(0));
+        propertyNameMap.clear();
+        propertyNameMap.putAll((Map<String, Property>) maps.get(1));
+        loaded = true;
+    }
 }
@@ -5,6 +5,8 @@ import java.util.List;
 import com.bapppis.core.Resistances;
 import com.bapppis.core.creature.Creature;
 import com.bapppis.core.creature.creatureEnums.Stats;
+import com.bapppis.core.util.Dice;
+import com.bapppis.core.util.DiceExpression;
 
 /**
  * Represents a spell that can be cast by creatures.
@@ -43,6 +45,10 @@ public class Spell {
     public Float buildUpMod3;
     public Float buildUpMod4;
 
+    // Compiled damage dice per component, recompiled only if the string field is reassigned
+    private transient DiceExpression[] compiledDice;
+    private transient String[] compiledDiceSource;
+
     public Spell() {
 
     }
@@ -113,6 +119,32 @@ public class Spell {
         return buildUpMod4 == null ? (1.0f / getTimes()) : buildUpMod4;
     }
 
+    /**
+     * Compiled dice for damage component 1-4 ({@code damageDice} ..
+     * {@code damageDice4}). Missing components compile to
+     * {@link DiceExpression#ZERO}.
+     */
+    public DiceExpression getCompiledDamageDice(int component) {
+        String text;
+        switch (component) {
+            case 1: text = damageDice; break;
+            case 2: text = damageDice2; break;
+            case 3: text = damageDice3; break;
+            case 4: text = damageDice4; break;
+            default: throw new IllegalArgumentException("Spell damage component must be 1-4, got " + component);
+        }
+        if (compiledDice == null) {
+            compiledDice = new DiceExpression[4];
+            compiledDiceSource = new String[4];
+        }
+        int i = component - 1;
+        if (compiledDice[i] == null || compiledDiceSource[i] != text) {
+            compiledDice[i] = Dice.compile(text);
+            compiledDiceSource[i] = text;
+        }
+        return compiledDice[i];
+    }
+
     /**
      * Determine the best stat bonus from the statBonuses list.
      * Returns the highest stat value among the specified stats.
@@ -1,12 +1,12 @@
 package com.bapppis.core.spell;
 
 import com.bapppis.core.Resistances;
+import com.bapppis.core.combat.RandomProvider;
+import com.bapppis.core.combat.SessionRandom;
 import com.bapppis.core.creature.Creature;
-import com.bapppis.core.util.Dice;
+import com.bapppis.core.util.DiceExpression;
 import com.bapppis.core.util.ResistanceUtil;
 
-import java.util.Random;
-
 /**
  * Handles spell casting mechanics, including damage calculation, property
  * application,
@@ -14,7 +14,6 @@ import java.util.Random;
  * magic attacks.
  */
 public class SpellEngine {
-  private static final Random rng = new Random();
 
   /**
    * Cast a spell from caster to target.
@@ -27,6 +26,15 @@ public class SpellEngine {
    * @return true if spell was successfully cast
    */
   public static boolean castSpell(Creature caster, Spell spell, Creature target) {
+    return castSpell(caster, spell, target, SessionRandom.current().combat());
+  }
+
+  /**
+   * Cast a spell drawing all rolls from the given random source.
+   *
+   * @see #castSpell(Creature, Spell, Creature)
+   */
+  public static boolean castSpell(Creature caster, Spell spell, Creature target, RandomProvider rng) {
     if (spell == null || caster == null) {
       return false;
     }
@@ -69,8 +77,8 @@ public class SpellEngine {
 
     // Process up to 4 damage components
     if (spell.damageDice != null && !spell.damageDice.isBlank() && spell.damageType != null) {
-      int damage = rollAndApplySpellDamage(caster, spell, target, spell.damageDice, spell.damageType,
-          statBonus, spell.getBuildUpMod(), 1);
+      int damage = rollAndApplySpellDamage(caster, spell, target, spell.getCompiledDamageDice(1), spell.damageType,
+          statBonus, spell.getBuildUpMod(), 1, rng);
       if (damage > 0) {
         anyDamageHit = true;
         totalDamage += damage;
@@ -78,8 +86,8 @@ public class SpellEngine {
     }
 
     if (spell.damageDice2 != null && !spell.damageDice2.isBlank() && spell.damageType2 != null) {
-      int damage = rollAndApplySpellDamage(caster, spell, target, spell.damageDice2, spell.damageType2,
-          statBonus, spell.getBuildUpMod2(), 2);
+      int damage = rollAndApplySpellDamage(caster, spell, target, spell.getCompiledDamageDice(2), spell.damageType2,
+          statBonus, spell.getBuildUpMod2(), 2, rng);
       if (damage > 0) {
         anyDamageHit = true;
         totalDamage += damage;
@@ -87,8 +95,8 @@ public class SpellEngine {
     }
 
     if (spell.damageDice3 != null && !spell.damageDice3.isBlank() && spell.damageType3 != null) {
-      int damage = rollAndApplySpellDamage(caster, spell, target, spell.damageDice3, spell.damageType3,
-          statBonus, spell.getBuildUpMod3(), 3);
+      int damage = rollAndApplySpellDamage(caster, spell, target, spell.getCompiledDamageDice(3), spell.damageType3,
+          statBonus, spell.getBuildUpMod3(), 3, rng);
       if (damage > 0) {
         anyDamageHit = true;
         totalDamage += damage;
@@ -96,8 +104,8 @@ public class SpellEngine {
     }
 
     if (spell.damageDice4 != null && !spell.damageDice4.isBlank() && spell.damageType4 != null) {
-      int damage = rollAndApplySpellDamage(caster, spell, target, spell.damageDice4, spell.damageType4,
-          statBonus, spell.getBuildUpMod4(), 4);
+      int damage = rollAndApplySpellDamage(caster, spell, target, spell.getCompiledDamageDice(4), spell.damageType4,
+          statBonus, spell.getBuildUpMod4(), 4, rng);
       if (damage > 0) {
         anyDamageHit = true;
         totalDamage += damage;
@@ -136,8 +144,8 @@ public class SpellEngine {
    * Rolls against dodge and magic resist like magic attacks.
    */
   private static int rollAndApplySpellDamage(Creature caster, Spell spell, Creature target,
-      String damageDice, Resistances damageType,
-      int statBonus, float buildUpMod, int componentIndex) {
+      DiceExpression damageDice, Resistances damageType,
+      int statBonus, float buildUpMod, int componentIndex, RandomProvider rng) {
     int totalDamage = 0;
     int times = spell.getTimes();
     float damageMult = spell.getDamageMult();
@@ -167,7 +175,7 @@ public class SpellEngine {
 
       if (hit) {
         // Roll damage - Option 2: Scale dice by 5
-        int baseDamage = Dice.roll(damageDice) * 5;
+        int baseDamage = damageDice.roll(rng) * 5;
         int damageWithStat = Math.round((baseDamage + (statBonus * 5)) * damageMult);
 
         // Check for crit
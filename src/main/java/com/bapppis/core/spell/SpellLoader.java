@@ -2,14 +2,12 @@ package com.bapppis.core.spell;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.Resource;
-import io.github.classgraph.ScanResult;
+import com.bapppis.core.util.ResourceIndex;
 
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.List;
 
 /**
  * Loads spell data from JSON files in the resources/data/spells directory.
@@ -18,6 +16,7 @@ public class SpellLoader {
     private static Map<Integer, Spell> spellIdMap = new HashMap<>();
     private static Map<String, Spell> spellNameMap = new HashMap<>();
     private static boolean loaded = false;
+    private static final String[] SPELL_DIRS = { "data/spells" };
 
     /**
      * Load all spell JSON files from resources/data/spells.
@@ -70,22 +69,20 @@ public class SpellLoader {
         .registerTypeAdapter(Spell.class, spellDeserializer)
         .create();
 
-        try (ScanResult scanResult = new ClassGraph()
-                .acceptPaths("data/spells")
-                .scan()) {
-            java.util.Set<String> processedResourcePaths = new java.util.HashSet<>();
-            for (Resource resource : scanResult.getAllResources()) {
+        ResourceIndex index = ResourceIndex.get();
+        for (String dir : SPELL_DIRS) {
+            for (ResourceIndex.Entry resource : index.list(dir)) {
                 String relPath = resource.getPath();
-                if (processedResourcePaths.contains(relPath))
-                    continue;
-                processedResourcePaths.add(relPath);
                 if (relPath.endsWith(".json")) {
-                    try (Reader reader = new InputStreamReader(resource.open())) {
+                    try (Reader reader = resource.openReader()) {
                         Spell spell = gson.fromJson(reader, Spell.class);
                         if (spell == null) {
                             System.err.println("Warning: failed to parse spell JSON from " + relPath);
                             continue;
                         }
+                        for (int c = 1; c <= 4; c++) {
+                            spell.getCompiledDamageDice(c); // parse dice once at load
+                        }
                         if (spellIdMap.containsKey(spell.getId())) {
                             System.err.println("Warning: duplicate spell id " + spell.getId()
                                     + " in " + relPath + " (already loaded from another file)");
@@ -144,4 +141,25 @@ public class SpellLoader {
         }
         return new HashMap<>(spellIdMap);
     }
+
+    /**
+     * The registry maps, in the order {@link #installRegistries(List)} takes
+     * them. Used to write a data bundle.
+     */
+    public static List<Map<?, ?>> getRegistries() {
+        return List.of(spellIdMap, spellNameMap);
+    }
+
+    /**
+     * Replace the registries with maps read back from a data bundle and mark
+     * spells as loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public static void installRegistries(List<Map<?, ?>> maps) {
+        spellIdMap.clear();
+        spellIdMap.putAll((Map<Integer, Spell>) maps.get(0));
+        spellNameMap.clear();
+        spellNameMap.putAll((Map<String, Spell>) maps.get(1));
+        loaded = true;
+    }
 }
@@ -16,6 +16,11 @@ public class SpellReference {
         this.weight = weight;
     }
 
+    public SpellReference(SpellReference other) {
+        this.name = other.name;
+        this.weight = other.weight;
+    }
+
     public String getName() {
         return name;
     }
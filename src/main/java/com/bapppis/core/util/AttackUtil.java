@@ -1,17 +1,23 @@
 package com.bapppis.core.util;
 
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+
+import com.bapppis.core.combat.RandomProvider;
+import com.bapppis.core.combat.SessionRandom;
 import com.bapppis.core.creature.Attack;
 
 public final class AttackUtil {
     private AttackUtil() {}
 
     public static Attack chooseAttackFromList(List<Attack> list) {
+        return chooseAttackFromList(list, SessionRandom.current().combat());
+    }
+
+    public static Attack chooseAttackFromList(List<Attack> list, RandomProvider rng) {
         if (list == null || list.isEmpty()) return null;
         int total = 0;
         for (Attack a : list) total += a.getWeight();
-        int pick = ThreadLocalRandom.current().nextInt(Math.max(1, total));
+        int pick = rng.nextInt(Math.max(1, total));
         for (Attack a : list) {
             pick -= a.getWeight();
             if (pick < 0) return a;
@@ -0,0 +1,182 @@
+package com.bapppis.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Precompiled snapshot of the game data.
+ *
+ * A release build loads everything from JSON once and writes the result to
+ * {@value #RESOURCE} (see {@code com.bapppis.core.DataBundleTool}). The
+ * bundle holds two sections: every file under {@code data/}, so
+ * {@link ResourceIndex} can be filled without scanning the classpath, and the
+ * loaders' registries encoded with {@link GraphCodec}, so startup can skip
+ * JSON parsing altogether. At runtime the bundle is read with a single read
+ * of the classpath resource, or memory-mapped from the file named by the
+ * {@value #PATH_PROPERTY} system property. Without a bundle, as in
+ * development, everything is loaded from JSON as before.
+ *
+ * Layout: magic, format version, file count, then per file its UTF-8 path
+ * (length-prefixed), byte length and contents in path order; then the length
+ * of the registry section (0 if absent) and its bytes.
+ */
+public final class DataBundle {
+    public static final String RESOURCE = "data.bundle";
+    public static final String PATH_PROPERTY = "recall.dataBundle";
+
+    static final int MAGIC = 0x52444231; // "RDB1"
+    static final int VERSION = 1;
+
+    private static final Object LOCK = new Object();
+    private static volatile boolean disabled = false;
+    private static volatile boolean opened = false;
+    private static DataBundle defaultBundle;
+
+    private final NavigableMap<String, byte[]> files;
+    private final ByteBuffer registries;
+
+    private DataBundle(NavigableMap<String, byte[]> files, ByteBuffer registries) {
+        this.files = Collections.unmodifiableNavigableMap(files);
+        this.registries = registries;
+    }
+
+    /**
+     * The bundle named by {@value #PATH_PROPERTY}, else the {@value #RESOURCE}
+     * classpath resource, read on first use.
+     * @return the bundle, or null if there is none, it is unreadable, or
+     *         bundles have been {@linkplain #disable() disabled}
+     */
+    public static DataBundle open() {
+        if (!opened) {
+            synchronized (LOCK) {
+                if (!opened) {
+                    defaultBundle = disabled ? null : loadDefault();
+                    opened = true;
+                }
+            }
+        }
+        return defaultBundle;
+    }
+
+    /**
+     * Ignore any bundle from now on. Used by the build step, which must read
+     * the JSON sources rather than a previous bundle.
+     */
+    public static void disable() {
+        synchronized (LOCK) {
+            disabled = true;
+            defaultBundle = null;
+            opened = true;
+        }
+    }
+
+    private static DataBundle loadDefault() {
+        String file = System.getProperty(PATH_PROPERTY);
+        try {
+            if (file != null && !file.isEmpty()) {
+                try (FileChannel ch = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+                    return read(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+                }
+            }
+            try (InputStream in = DataBundle.class.getResourceAsStream("/" + RESOURCE)) {
+                if (in == null)
+                    return null;
+                return read(ByteBuffer.wrap(in.readAllBytes()));
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring data bundle: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write every file under {@code data/} in the index, and the registries
+     * if not null, to {@code out}.
+     */
+    public static void write(ResourceIndex index, Object registries, OutputStream out) throws IOException {
+        byte[] compiled = registries != null ? GraphCodec.encode(registries) : new byte[0];
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        List<ResourceIndex.Entry> entries = index.list(ResourceIndex.ROOT);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(entries.size());
+        for (ResourceIndex.Entry e : entries) {
+            byte[] path = e.getPath().getBytes(StandardCharsets.UTF_8);
+            data.writeShort(path.length);
+            data.write(path);
+            data.writeInt(e.getBytes().length);
+            data.write(e.getBytes());
+        }
+        data.writeInt(compiled.length);
+        data.write(compiled);
+        data.flush();
+    }
+
+    /**
+     * Parse a bundle. The registry section is only located here; it is
+     * decoded by {@link #readRegistries()}.
+     * @throws IOException if the buffer is not a bundle of this version or is truncated
+     */
+    public static DataBundle read(ByteBuffer buf) throws IOException {
+        try {
+            if (buf.getInt() != MAGIC)
+                throw new IOException("Not a data bundle");
+            int version = buf.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported data bundle version " + version);
+            int count = buf.getInt();
+            NavigableMap<String, byte[]> files = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                byte[] pathBytes = new byte[Short.toUnsignedInt(buf.getShort())];
+                buf.get(pathBytes);
+                byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                files.put(new String(pathBytes, StandardCharsets.UTF_8), bytes);
+            }
+            int compiledLength = buf.getInt();
+            if (compiledLength > buf.remaining())
+                throw new IOException("Truncated data bundle");
+            ByteBuffer registries = null;
+            if (compiledLength > 0) {
+                registries = buf.slice();
+                registries.limit(compiledLength);
+            }
+            return new DataBundle(files, registries);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Truncated data bundle", e);
+        }
+    }
+
+    /** Bundled files by classpath-relative path. Callers must not modify the arrays. */
+    public NavigableMap<String, byte[]> getFiles() {
+        return files;
+    }
+
+    public boolean hasRegistries() {
+        return registries != null;
+    }
+
+    /**
+     * Decode the registry section into a fresh object graph.
+     * @throws IOException if there is no registry section, or it no longer
+     *                     matches the running code
+     */
+    public Object readRegistries() throws IOException {
+        if (registries == null)
+            throw new IOException("Data bundle has no registries");
+        return GraphCodec.decode(registries.duplicate());
+    }
+}
@@ -1,13 +1,286 @@
 package com.bapppis.core.util;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Console logging with levels and per-category switches.
+ *
+ * Each {@link Category} has its own threshold, {@link Level#INFO} by default.
+ * Messages below it are dropped before they are built: pass a
+ * {@link Supplier} (or guard with {@link #isEnabled}) and a disabled message
+ * costs one array read, so hot paths such as enemy turns can log freely.
+ * Thresholds can be set in code or with {@code -Drecall.log=debug} (every
+ * category) or {@code -Drecall.log=ai=trace,loot=debug}.
+ *
+ * Messages go to a {@link Sink}, the console by default (warnings and errors
+ * on stderr). {@link AsyncSink} moves the console I/O onto a background
+ * thread.
+ *
+ * The old {@link #DEBUG} flag and {@link #debug(String)} still work as before.
+ */
 public final class DebugLog {
     public static boolean DEBUG = false;
 
+    public static final String LEVELS_PROPERTY = "recall.log";
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    public enum Category {
+        GENERAL, AI, COMBAT, LOOT, INTERACT, LOADER, DUNGEON
+    }
+
+    /** Where enabled messages are written. */
+    @FunctionalInterface
+    public interface Sink {
+        void write(Category category, Level level, String message);
+    }
+
+    private static final Sink CONSOLE = (category, level, message) -> {
+        if (level.compareTo(Level.WARN) >= 0)
+            System.err.println(message);
+        else
+            System.out.println(message);
+    };
+
+    // Threshold ordinal per category ordinal; replaced, never mutated
+    private static volatile int[] thresholds = defaultThresholds();
+    private static volatile Sink sink = CONSOLE;
+
     private DebugLog() {}
 
     public static void debug(String msg) {
         if (DEBUG) {
-            System.out.println(msg);
+            sink.write(Category.GENERAL, Level.DEBUG, msg);
+        }
+    }
+
+    public static boolean isEnabled(Category category, Level level) {
+        return level.ordinal() >= thresholds[category.ordinal()];
+    }
+
+    public static void log(Category category, Level level, Supplier<String> message) {
+        if (level.ordinal() >= thresholds[category.ordinal()] && level != Level.OFF) {
+            sink.write(category, level, message.get());
+        }
+    }
+
+    public static void log(Category category, Level level, String message) {
+        if (level.ordinal() >= thresholds[category.ordinal()] && level != Level.OFF) {
+            sink.write(category, level, message);
+        }
+    }
+
+    public static void trace(Category category, Supplier<String> message) {
+        log(category, Level.TRACE, message);
+    }
+
+    public static void debug(Category category, Supplier<String> message) {
+        log(category, Level.DEBUG, message);
+    }
+
+    public static void info(Category category, Supplier<String> message) {
+        log(category, Level.INFO, message);
+    }
+
+    public static void info(Category category, String message) {
+        log(category, Level.INFO, message);
+    }
+
+    public static void warn(Category category, String message) {
+        log(category, Level.WARN, message);
+    }
+
+    public static void error(Category category, String message) {
+        log(category, Level.ERROR, message);
+    }
+
+    public static Level getLevel(Category category) {
+        return Level.values()[thresholds[category.ordinal()]];
+    }
+
+    /** Log {@code category} at {@code level} and above. */
+    public static synchronized void setLevel(Category category, Level level) {
+        int[] next = thresholds.clone();
+        next[category.ordinal()] = level.ordinal();
+        thresholds = next;
+    }
+
+    /** Log every category at {@code level} and above. */
+    public static synchronized void setLevel(Level level) {
+        int[] next = new int[Category.values().length];
+        Arrays.fill(next, level.ordinal());
+        thresholds = next;
+    }
+
+    /** Back to the defaults, including {@code -Drecall.log}. */
+    public static synchronized void resetLevels() {
+        thresholds = defaultThresholds();
+    }
+
+    public static Sink getSink() {
+        return sink;
+    }
+
+    /** Route messages to {@code next}; null restores the console. */
+    public static void setSink(Sink next) {
+        sink = next != null ? next : CONSOLE;
+    }
+
+    /** The synchronous console sink. */
+    public static Sink console() {
+        return CONSOLE;
+    }
+
+    private static int[] defaultThresholds() {
+        Map<Category, Level> levels = new EnumMap<>(Category.class);
+        String spec = System.getProperty(LEVELS_PROPERTY);
+        Level all = Level.INFO;
+        if (spec != null && !spec.isBlank()) {
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split("=", 2);
+                try {
+                    if (kv.length == 1) {
+                        all = Level.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+                    } else {
+                        levels.put(Category.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)),
+                                Level.valueOf(kv[1].trim().toUpperCase(Locale.ROOT)));
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Warning: ignoring log setting '" + part.trim() + "' in -D"
+                            + LEVELS_PROPERTY);
+                }
+            }
+        }
+        int[] out = new int[Category.values().length];
+        for (Category c : Category.values()) {
+            out[c.ordinal()] = levels.getOrDefault(c, all).ordinal();
+        }
+        return out;
+    }
+
+    /**
+     * Hands messages to a daemon thread through a fixed-size ring buffer, so
+     * the caller never waits on I/O. When the buffer is full the oldest
+     * message is overwritten and counted in {@link #getDropped()}.
+     */
+    public static final class AsyncSink implements Sink, AutoCloseable {
+        private final Sink target;
+        private final Category[] categories;
+        private final Level[] levels;
+        private final String[] messages;
+        private final Thread writer;
+        private int head;
+        private int size;
+        private long dropped;
+        private long written;
+        private long accepted;
+        private boolean closed;
+
+        public AsyncSink(Sink target, int capacity) {
+            if (capacity <= 0)
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            this.target = target;
+            this.categories = new Category[capacity];
+            this.levels = new Level[capacity];
+            this.messages = new String[capacity];
+            this.writer = new Thread(this::drain, "debug-log-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        @Override
+        public synchronized void write(Category category, Level level, String message) {
+            if (closed)
+                return;
+            int cap = messages.length;
+            if (size == cap) {
+                head = (head + 1) % cap;
+                size--;
+                dropped++;
+                written++; // the overwritten message will never be written
+            }
+            int tail = (head + size) % cap;
+            categories[tail] = category;
+            levels[tail] = level;
+            messages[tail] = message;
+            size++;
+            accepted++;
+            notifyAll();
+        }
+
+        public synchronized long getDropped() {
+            return dropped;
+        }
+
+        /** Wait until everything written so far has reached the target. */
+        public synchronized void flush() throws InterruptedException {
+            long target = accepted;
+            while (written < target && writer.isAlive()) {
+                wait(100);
+            }
+        }
+
+        /**
+         * Flush and stop the writer thread. If the caller is interrupted it
+         * stops waiting, leaving the interrupt flag set and any unwritten
+         * messages behind.
+         */
+        @Override
+        public void close() {
+            try {
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Category category;
+                Level level;
+                String message;
+                synchronized (this) {
+                    while (size == 0 && !closed) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (size == 0)
+                        return;
+                    category = categories[head];
+                    level = levels[head];
+                    message = messages[head];
+                    messages[head] = null;
+                    head = (head + 1) % messages.length;
+                    size--;
+                }
+                try {
+                    target.write(category, level, message);
+                } catch (RuntimeException e) {
+                    // A failing sink must not kill the writer
+                }
+                synchronized (this) {
+                    written++;
+                    notifyAll();
+                }
+            }
         }
     }
 }
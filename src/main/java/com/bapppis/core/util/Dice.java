@@ -1,26 +1,37 @@
 package com.bapppis.core.util;
 
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.bapppis.core.combat.RandomProvider;
+
+/**
+ * String façade over {@link DiceExpression}. Each distinct dice string is
+ * parsed once and cached; hot paths should hold on to the compiled
+ * expression instead of calling {@link #roll(String)}.
+ */
 public final class Dice {
+    private static final Map<String, DiceExpression> CACHE = new ConcurrentHashMap<>();
+
     private Dice() {}
 
+    /**
+     * Parsed (and cached) form of a dice string. Null, blank and malformed
+     * strings compile to {@link DiceExpression#ZERO}.
+     */
+    public static DiceExpression compile(String dice) {
+        if (dice == null) return DiceExpression.ZERO;
+        return CACHE.computeIfAbsent(dice, DiceExpression::parse);
+    }
+
+    /**
+     * Roll with the current session's combat stream.
+     */
     public static int roll(String dice) {
-        if (dice == null) return 0;
-        Pattern p = Pattern.compile("^(\\d+)d(\\d+)([+-]\\d+)?$");
-        Matcher m = p.matcher(dice.trim());
-        if (!m.matches()) return 0;
-        int num = Integer.parseInt(m.group(1));
-        int sides = Integer.parseInt(m.group(2));
-        int modifier = 0;
-        if (m.group(3) != null) modifier = Integer.parseInt(m.group(3));
-        if (num <= 0 || sides <= 0) return 0;
-        int total = 0;
-        for (int i = 0; i < num; i++) {
-            total += ThreadLocalRandom.current().nextInt(1, sides + 1);
-        }
-        return total + modifier;
+        return compile(dice).roll();
+    }
+
+    public static int roll(String dice, RandomProvider rng) {
+        return compile(dice).roll(rng);
     }
 }
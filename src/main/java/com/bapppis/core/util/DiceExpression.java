@@ -0,0 +1,145 @@
+package com.bapppis.core.util;
+
+import com.bapppis.core.combat.RandomProvider;
+import com.bapppis.core.combat.SessionRandom;
+
+/**
+ * A parsed dice expression of the form {@code NdS}, {@code NdS+M} or
+ * {@code NdS-M}.
+ *
+ * Expressions are immutable and are parsed once (see {@link Dice#compile});
+ * rolling one is a loop over {@code count} random ints with no allocation.
+ * Text that does not parse compiles to {@link #ZERO}, which always rolls 0,
+ * matching what {@link Dice#roll(String)} has always returned for bad input.
+ */
+public final class DiceExpression {
+    public static final DiceExpression ZERO = new DiceExpression("", 0, 0, 0);
+
+    private final String text;
+    private final int count;
+    private final int sides;
+    private final int modifier;
+
+    private DiceExpression(String text, int count, int sides, int modifier) {
+        this.text = text;
+        this.count = count;
+        this.sides = sides;
+        this.modifier = modifier;
+    }
+
+    // For GraphCodec, which fills the fields in from a data bundle
+    private DiceExpression() {
+        this("", 0, 0, 0);
+    }
+
+    /**
+     * Parse dice text.
+     * @return the parsed expression, or {@link #ZERO} if the text is null,
+     *         malformed, or has a non-positive count or side number
+     */
+    public static DiceExpression parse(String dice) {
+        if (dice == null) return ZERO;
+        String s = dice.trim();
+        int d = s.indexOf('d');
+        if (d <= 0) return ZERO;
+        int signAt = -1;
+        for (int i = d + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '+' || c == '-') {
+                signAt = i;
+                break;
+            }
+        }
+        int end = signAt < 0 ? s.length() : signAt;
+        int count = parseDigits(s, 0, d);
+        int sides = parseDigits(s, d + 1, end);
+        int modifier = 0;
+        if (signAt >= 0) {
+            int magnitude = parseDigits(s, signAt + 1, s.length());
+            if (magnitude < 0) return ZERO;
+            modifier = s.charAt(signAt) == '-' ? -magnitude : magnitude;
+        }
+        if (count <= 0 || sides <= 0) return ZERO;
+        return new DiceExpression(s, count, sides, modifier);
+    }
+
+    /**
+     * Parse a run of ASCII digits.
+     * @return the value, or -1 if the run is empty, has a non-digit, or overflows
+     */
+    private static int parseDigits(String s, int from, int to) {
+        if (from >= to) return -1;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Roll using the given random source.
+     */
+    public int roll(RandomProvider rng) {
+        int total = modifier;
+        for (int i = 0; i < count; i++) {
+            total += 1 + rng.nextInt(sides);
+        }
+        return count == 0 ? 0 : total;
+    }
+
+    /**
+     * Roll using the current session's combat stream.
+     */
+    public int roll() {
+        return roll(SessionRandom.current().combat());
+    }
+
+    public int min() {
+        return count == 0 ? 0 : count + modifier;
+    }
+
+    public int max() {
+        return count == 0 ? 0 : count * sides + modifier;
+    }
+
+    public double mean() {
+        return count == 0 ? 0.0 : count * (sides + 1) / 2.0 + modifier;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getSides() {
+        return sides;
+    }
+
+    public int getModifier() {
+        return modifier;
+    }
+
+    public boolean isZero() {
+        return count == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DiceExpression)) return false;
+        DiceExpression other = (DiceExpression) o;
+        return count == other.count && sides == other.sides && modifier == other.modifier;
+    }
+
+    @Override
+    public int hashCode() {
+        return (count * 31 + sides) * 31 + modifier;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,545 @@
+package com.bapppis.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compact binary encoding of an object graph, used for the compiled section
+ * of a {@link DataBundle}.
+ *
+ * Objects are written field by field: every non-static field up the class
+ * hierarchy, transient ones included, so state resolved after parsing
+ * (equipment properties, compiled dice) survives. Shared and cyclic
+ * references are written once and then referred back to, so the decoded
+ * graph has the same shape as the original. Each class is described once by
+ * name and field signature, and decoding fails if a class no longer matches;
+ * a stale bundle is rejected rather than producing half-filled objects.
+ *
+ * Supported values are primitives and their wrappers, strings, enums, arrays,
+ * lists, sets and maps, and objects of classes that have a no-arg
+ * constructor (private is fine) and do not extend JDK classes. Anything else
+ * fails at encode time, naming the class.
+ */
+public final class GraphCodec {
+    private static final byte NULL = 0;
+    private static final byte REF = 1;
+    private static final byte STRING = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte BOOLEAN = 7;
+    private static final byte CHAR = 8;
+    private static final byte BYTE = 9;
+    private static final byte SHORT = 10;
+    private static final byte ENUM = 11;
+    private static final byte ARRAY = 12;
+    private static final byte COLLECTION = 13;
+    private static final byte MAP = 14;
+    private static final byte ENUM_SET = 15;
+    private static final byte ENUM_MAP = 16;
+    private static final byte OBJECT = 17;
+
+    // Collection and map classes rebuilt as themselves. Other lists, sets and
+    // maps (immutable ones, Gson's LinkedTreeMap...) come back as ArrayList,
+    // LinkedHashSet or LinkedHashMap with the same contents and iteration order.
+    private static final Set<Class<?>> CONTAINERS = Set.of(
+            ArrayList.class, LinkedList.class, ArrayDeque.class,
+            HashSet.class, LinkedHashSet.class, TreeSet.class,
+            HashMap.class, LinkedHashMap.class, TreeMap.class);
+
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+            "int", int.class, "long", long.class, "double", double.class, "float", float.class,
+            "boolean", boolean.class, "char", char.class, "byte", byte.class, "short", short.class);
+
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Class<?>> chain = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                chain.add(0, c);
+            }
+            List<Field> out = new ArrayList<>();
+            for (Class<?> c : chain) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(f.getModifiers()))
+                        continue;
+                    f.setAccessible(true);
+                    out.add(f);
+                }
+            }
+            return out.toArray(new Field[0]);
+        }
+    };
+
+    private GraphCodec() {}
+
+    public static byte[] encode(Object root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        new Writer(out).writeValue(root, null);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the data is malformed or refers to classes or
+     *                     fields that no longer match the running code
+     */
+    public static Object decode(ByteBuffer buf) throws IOException {
+        try {
+            return new Reader(buf).readValue();
+        } catch (BufferUnderflowException | NegativeArraySizeException | ClassCastException
+                | IllegalArgumentException e) {
+            throw new IOException("Malformed object graph", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot rebuild object graph: " + e, e);
+        }
+    }
+
+    private static String signature(Field f) {
+        return f.getName() + ':' + f.getType().getName();
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final IdentityHashMap<Object, Integer> handles = new IdentityHashMap<>();
+        private final Map<Class<?>, Integer> classes = new HashMap<>();
+        private final Set<Class<?>> describedClasses = new HashSet<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        // declared is the field's generic type when known, used to recover the
+        // element type of an empty EnumSet or EnumMap
+        void writeValue(Object v, Type declared) throws IOException {
+            if (v == null) {
+                out.writeByte(NULL);
+                return;
+            }
+            Class<?> c = v.getClass();
+            if (c == Integer.class) {
+                out.writeByte(INT);
+                out.writeInt((Integer) v);
+            } else if (c == Long.class) {
+                out.writeByte(LONG);
+                out.writeLong((Long) v);
+            } else if (c == Double.class) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) v);
+            } else if (c == Float.class) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) v);
+            } else if (c == Boolean.class) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) v);
+            } else if (c == Character.class) {
+                out.writeByte(CHAR);
+                out.writeChar((Character) v);
+            } else if (c == Byte.class) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) v);
+            } else if (c == Short.class) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) v);
+            } else if (v instanceof Enum) {
+                out.writeByte(ENUM);
+                writeClass(((Enum<?>) v).getDeclaringClass());
+                out.writeUTF(((Enum<?>) v).name());
+            } else {
+                Integer handle = handles.get(v);
+                if (handle != null) {
+                    out.writeByte(REF);
+                    out.writeInt(handle);
+                    return;
+                }
+                handles.put(v, handles.size());
+                writeReference(v, c, declared);
+            }
+        }
+
+        private void writeReference(Object v, Class<?> c, Type declared) throws IOException {
+            if (c == String.class) {
+                out.writeByte(STRING);
+                byte[] utf8 = ((String) v).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            } else if (c.isArray()) {
+                Class<?> component = c.getComponentType();
+                int n = Array.getLength(v);
+                out.writeByte(ARRAY);
+                writeClass(component);
+                out.writeInt(n);
+                for (int i = 0; i < n; i++) {
+                    if (component.isPrimitive())
+                        writePrimitive(component, Array.get(v, i));
+                    else
+                        writeValue(Array.get(v, i), null);
+                }
+            } else if (v instanceof EnumSet) {
+                EnumSet<?> set = (EnumSet<?>) v;
+                out.writeByte(ENUM_SET);
+                writeClass(enumType(set.isEmpty() ? null : set.iterator().next(), declared, 0, c));
+                out.writeInt(set.size());
+                for (Object e : set) {
+                    out.writeUTF(((Enum<?>) e).name());
+                }
+            } else if (v instanceof EnumMap) {
+                EnumMap<?, ?> map = (EnumMap<?, ?>) v;
+                out.writeByte(ENUM_MAP);
+                writeClass(enumType(map.isEmpty() ? null : map.keySet().iterator().next(), declared, 0, c));
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> e : map.entrySet()) {
+                    out.writeUTF(((Enum<?>) e.getKey()).name());
+                    writeValue(e.getValue(), null);
+                }
+            } else if (v instanceof Collection) {
+                if (v instanceof SortedSet && ((SortedSet<?>) v).comparator() != null)
+                    throw new IOException("Cannot encode a TreeSet with a comparator");
+                Collection<?> coll = (Collection<?>) v;
+                out.writeByte(COLLECTION);
+                writeClass(CONTAINERS.contains(c) ? c : v instanceof Set ? LinkedHashSet.class : ArrayList.class);
+                out.writeInt(coll.size());
+                for (Object e : coll) {
+                    writeValue(e, null);
+                }
+            } else if (v instanceof Map) {
+                if (v instanceof SortedMap && ((SortedMap<?, ?>) v).comparator() != null)
+                    throw new IOException("Cannot encode a TreeMap with a comparator");
+                Map<?, ?> map = (Map<?, ?>) v;
+                out.writeByte(MAP);
+                writeClass(CONTAINERS.contains(c) ? c : LinkedHashMap.class);
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> e : map.entrySet()) {
+                    writeValue(e.getKey(), null);
+                    writeValue(e.getValue(), null);
+                }
+            } else {
+                writeObject(v, c);
+            }
+        }
+
+        private void writeObject(Object v, Class<?> c) throws IOException {
+            for (Class<?> k = c; k != Object.class; k = k.getSuperclass()) {
+                if (k.getName().startsWith("java.") || k.isSynthetic() || k.isAnonymousClass())
+                    throw new IOException("Cannot encode instance of " + c.getName());
+            }
+            Field[] fields = FIELDS.get(c);
+            if (!describedClasses.contains(c)) {
+                try {
+                    c.getDeclaredConstructor();
+                } catch (NoSuchMethodException e) {
+                    throw new IOException("Cannot encode " + c.getName() + ": it has no no-arg constructor");
+                }
+            }
+            out.writeByte(OBJECT);
+            writeClass(c);
+            if (describedClasses.add(c)) {
+                out.writeShort(fields.length);
+                for (Field f : fields) {
+                    out.writeUTF(signature(f));
+                }
+            }
+            try {
+                for (Field f : fields) {
+                    if (f.getType().isPrimitive())
+                        writePrimitive(f.getType(), f.get(v));
+                    else
+                        writeValue(f.get(v), f.getGenericType());
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException("Cannot read " + c.getName(), e);
+            }
+        }
+
+        private void writePrimitive(Class<?> type, Object v) throws IOException {
+            if (type == int.class)
+                out.writeInt((Integer) v);
+            else if (type == long.class)
+                out.writeLong((Long) v);
+            else if (type == double.class)
+                out.writeDouble((Double) v);
+            else if (type == float.class)
+                out.writeFloat((Float) v);
+            else if (type == boolean.class)
+                out.writeBoolean((Boolean) v);
+            else if (type == char.class)
+                out.writeChar((Character) v);
+            else if (type == byte.class)
+                out.writeByte((Byte) v);
+            else
+                out.writeShort((Short) v);
+        }
+
+        private void writeClass(Class<?> c) throws IOException {
+            Integer idx = classes.get(c);
+            if (idx != null) {
+                out.writeShort(idx);
+                return;
+            }
+            idx = classes.size();
+            classes.put(c, idx);
+            out.writeShort(idx);
+            out.writeUTF(c.getName());
+        }
+
+        private static Class<?> enumType(Object sample, Type declared, int arg, Class<?> container)
+                throws IOException {
+            if (sample != null)
+                return ((Enum<?>) sample).getDeclaringClass();
+            if (declared instanceof ParameterizedType) {
+                Type t = ((ParameterizedType) declared).getActualTypeArguments()[arg];
+                if (t instanceof Class && ((Class<?>) t).isEnum())
+                    return (Class<?>) t;
+            }
+            throw new IOException("Cannot tell the element type of an empty " + container.getSimpleName());
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer in;
+        private final List<Object> handles = new ArrayList<>();
+        private final List<Class<?>> classes = new ArrayList<>();
+        private final Map<Class<?>, Field[]> layouts = new HashMap<>();
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        Object readValue() throws IOException, ReflectiveOperationException {
+            byte tag = in.get();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case REF:
+                    return handles.get(in.getInt());
+                case INT:
+                    return in.getInt();
+                case LONG:
+                    return in.getLong();
+                case DOUBLE:
+                    return in.getDouble();
+                case FLOAT:
+                    return in.getFloat();
+                case BOOLEAN:
+                    return in.get() != 0;
+                case CHAR:
+                    return in.getChar();
+                case BYTE:
+                    return in.get();
+                case SHORT:
+                    return in.getShort();
+                case ENUM:
+                    return enumConstant(readClass(), readUTF());
+                case STRING: {
+                    byte[] utf8 = new byte[in.getInt()];
+                    in.get(utf8);
+                    String s = new String(utf8, StandardCharsets.UTF_8);
+                    handles.add(s);
+                    return s;
+                }
+                case ARRAY: {
+                    Class<?> component = readClass();
+                    int n = in.getInt();
+                    Object array = Array.newInstance(component, n);
+                    handles.add(array);
+                    for (int i = 0; i < n; i++) {
+                        Array.set(array, i, component.isPrimitive() ? readPrimitive(component) : readValue());
+                    }
+                    return array;
+                }
+                case ENUM_SET:
+                    return readEnumSet(readClass());
+                case ENUM_MAP:
+                    return readEnumMap(readClass());
+                case COLLECTION: {
+                    @SuppressWarnings("unchecked")
+                    Collection<Object> coll = (Collection<Object>) newContainer(readClass());
+                    handles.add(coll);
+                    int n = in.getInt();
+                    for (int i = 0; i < n; i++) {
+                        coll.add(readValue());
+                    }
+                    return coll;
+                }
+                case MAP: {
+                    @SuppressWarnings("unchecked")
+                    Map<Object, Object> map = (Map<Object, Object>) newContainer(readClass());
+                    handles.add(map);
+                    int n = in.getInt();
+                    for (int i = 0; i < n; i++) {
+                        Object key = readValue();
+                        map.put(key, readValue());
+                    }
+                    return map;
+                }
+                case OBJECT:
+                    return readObject(readClass());
+                default:
+                    throw new IOException("Unknown tag " + tag);
+            }
+        }
+
+        private <E extends Enum<E>> EnumSet<E> readEnumSet(Class<?> raw) throws IOException {
+            @SuppressWarnings("unchecked")
+            Class<E> type = (Class<E>) raw;
+            EnumSet<E> set = EnumSet.noneOf(type);
+            handles.add(set);
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                set.add(type.cast(enumConstant(type, readUTF())));
+            }
+            return set;
+        }
+
+        private <E extends Enum<E>> EnumMap<E, Object> readEnumMap(Class<?> raw)
+                throws IOException, ReflectiveOperationException {
+            @SuppressWarnings("unchecked")
+            Class<E> type = (Class<E>) raw;
+            EnumMap<E, Object> map = new EnumMap<>(type);
+            handles.add(map);
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                E key = type.cast(enumConstant(type, readUTF()));
+                map.put(key, readValue());
+            }
+            return map;
+        }
+
+        private Object readObject(Class<?> c) throws IOException, ReflectiveOperationException {
+            Field[] layout = layouts.get(c);
+            if (layout == null) {
+                layout = readLayout(c);
+                layouts.put(c, layout);
+            }
+            Object obj = newInstance(c);
+            handles.add(obj);
+            for (Field f : layout) {
+                f.set(obj, f.getType().isPrimitive() ? readPrimitive(f.getType()) : readValue());
+            }
+            return obj;
+        }
+
+        // Every field is overwritten, so the constructor only has to be cheap.
+        // Each bundled class needs a no-arg one; it may be private.
+        private static Object newInstance(Class<?> c) throws IOException, ReflectiveOperationException {
+            Constructor<?> ctor;
+            try {
+                ctor = c.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new IOException(c.getName() + " has no no-arg constructor", e);
+            }
+            ctor.setAccessible(true);
+            return ctor.newInstance();
+        }
+
+        // Match the recorded field signatures against the class as it is now
+        private Field[] readLayout(Class<?> c) throws IOException {
+            Field[] current = FIELDS.get(c);
+            Map<String, Field> bySignature = new HashMap<>();
+            for (Field f : current) {
+                bySignature.put(signature(f), f);
+            }
+            int n = Short.toUnsignedInt(in.getShort());
+            if (n != current.length)
+                throw new IOException(c.getName() + " has changed since the bundle was written");
+            Field[] layout = new Field[n];
+            for (int i = 0; i < n; i++) {
+                String sig = readUTF();
+                layout[i] = bySignature.get(sig);
+                if (layout[i] == null)
+                    throw new IOException(c.getName() + " no longer has field " + sig);
+            }
+            return layout;
+        }
+
+        private Object readPrimitive(Class<?> type) {
+            if (type == int.class)
+                return in.getInt();
+            if (type == long.class)
+                return in.getLong();
+            if (type == double.class)
+                return in.getDouble();
+            if (type == float.class)
+                return in.getFloat();
+            if (type == boolean.class)
+                return in.get() != 0;
+            if (type == char.class)
+                return in.getChar();
+            if (type == byte.class)
+                return in.get();
+            return in.getShort();
+        }
+
+        private Class<?> readClass() throws IOException {
+            int idx = Short.toUnsignedInt(in.getShort());
+            if (idx < classes.size())
+                return classes.get(idx);
+            if (idx != classes.size())
+                throw new IOException("Bad class index " + idx);
+            String name = readUTF();
+            Class<?> c = PRIMITIVES.get(name);
+            if (c == null) {
+                try {
+                    c = Class.forName(name, false, GraphCodec.class.getClassLoader());
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Class " + name + " no longer exists", e);
+                }
+            }
+            classes.add(c);
+            return c;
+        }
+
+        private Object newContainer(Class<?> c) throws IOException, ReflectiveOperationException {
+            if (!CONTAINERS.contains(c))
+                throw new IOException("Unexpected container " + c.getName());
+            return c.getDeclaredConstructor().newInstance();
+        }
+
+        private Object enumConstant(Class<?> type, String name) throws IOException {
+            if (!type.isEnum())
+                throw new IOException(type.getName() + " is not an enum");
+            for (Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(name))
+                    return constant;
+            }
+            throw new IOException(type.getName() + " no longer has constant " + name);
+        }
+
+        // Same encoding as DataOutputStream.writeUTF for the ASCII names written here
+        private String readUTF() {
+            byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
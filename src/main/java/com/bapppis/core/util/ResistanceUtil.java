@@ -8,6 +8,9 @@ public final class ResistanceUtil {
 
     public static final int BASE_BUILD_UP = 20;
 
+    // values() clones its array on every call; these run once per hit/tick
+    private static final com.bapppis.core.ResBuildUp[] RES_BUILD_UPS = com.bapppis.core.ResBuildUp.values();
+
     public enum Kind {
         MAGICAL,
         PHYSICAL,
@@ -217,7 +220,7 @@ public final class ResistanceUtil {
     public static void printResBuildUps(Creature c) {
         if (c == null)
             return;
-        for (com.bapppis.core.ResBuildUp rb : com.bapppis.core.ResBuildUp.values()) {
+        for (com.bapppis.core.ResBuildUp rb : RES_BUILD_UPS) {
             int v = c.getResBuildUp(rb);
             String label = rb.name().toLowerCase();
             label = Character.toUpperCase(label.charAt(0)) + label.substring(1);
@@ -243,7 +246,7 @@ public final class ResistanceUtil {
         if (c == null)
             return false;
         boolean triggered = false;
-        for (com.bapppis.core.ResBuildUp rb : com.bapppis.core.ResBuildUp.values()) {
+        for (com.bapppis.core.ResBuildUp rb : RES_BUILD_UPS) {
             int cur = c.getResBuildUp(rb);
             if (cur >= 100) {
                 // Overload! Apply debuff and reset buildup
@@ -306,7 +309,7 @@ public final class ResistanceUtil {
     public static void decayResBuildUps(Creature c) {
         if (c == null)
             return;
-        for (com.bapppis.core.ResBuildUp rb : com.bapppis.core.ResBuildUp.values()) {
+        for (com.bapppis.core.ResBuildUp rb : RES_BUILD_UPS) {
             // If this buildup was freshly added during the last tick, skip
             // decay once and clear the fresh flag.
             if (c.testAndClearResBuildUpFresh(rb))
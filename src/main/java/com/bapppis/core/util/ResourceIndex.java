@@ -0,0 +1,181 @@
+package com.bapppis.core.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.Resource;
+import io.github.classgraph.ScanResult;
+
+/**
+ * In-memory index of every file on the classpath under {@code data/}.
+ *
+ * The classpath is scanned once, the first time any loader asks for the
+ * index, and every file's bytes are read during that scan. Loaders then list
+ * a directory and parse from memory, so reloading (for example through a
+ * loader's {@code forceReload} in tests) costs no further scanning or I/O.
+ * If the same path appears twice on the classpath, the first copy wins.
+ *
+ * When a {@link DataBundle} is available the index is filled from it in one
+ * read and the classpath is not scanned at all.
+ */
+public final class ResourceIndex {
+    public static final String ROOT = "data";
+
+    private static volatile ResourceIndex instance;
+
+    private final NavigableMap<String, Entry> entries;
+    private final boolean bundled;
+
+    private ResourceIndex(NavigableMap<String, Entry> entries, boolean bundled) {
+        this.entries = entries;
+        this.bundled = bundled;
+    }
+
+    /**
+     * The shared index, built on first use.
+     */
+    public static ResourceIndex get() {
+        ResourceIndex idx = instance;
+        if (idx == null) {
+            synchronized (ResourceIndex.class) {
+                idx = instance;
+                if (idx == null) {
+                    idx = build();
+                    instance = idx;
+                }
+            }
+        }
+        return idx;
+    }
+
+    private static ResourceIndex build() {
+        DataBundle bundle = DataBundle.open();
+        return bundle != null ? fromBundle(bundle.getFiles()) : scan();
+    }
+
+    static ResourceIndex fromBundle(NavigableMap<String, byte[]> files) {
+        NavigableMap<String, Entry> map = new TreeMap<>();
+        for (Map.Entry<String, byte[]> f : files.entrySet()) {
+            map.put(f.getKey(), new Entry(f.getKey(), f.getValue()));
+        }
+        return new ResourceIndex(Collections.unmodifiableNavigableMap(map), true);
+    }
+
+    static ResourceIndex scan() {
+        NavigableMap<String, Entry> map = new TreeMap<>();
+        try (ScanResult scanResult = new ClassGraph().acceptPaths(ROOT).scan()) {
+            for (Resource resource : scanResult.getAllResources()) {
+                String path = resource.getPath();
+                if (map.containsKey(path))
+                    continue;
+                try {
+                    map.put(path, new Entry(path, resource.load()));
+                } catch (Exception e) {
+                    System.err.println("Could not read resource " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        return new ResourceIndex(Collections.unmodifiableNavigableMap(map), false);
+    }
+
+    /**
+     * Every file under {@code dir}, including subdirectories, in path order.
+     */
+    public List<Entry> list(String dir) {
+        return list(dir, null);
+    }
+
+    /**
+     * Files under {@code dir} (recursively) whose name ends with
+     * {@code extension}, in path order. A null extension matches every file.
+     */
+    public List<Entry> list(String dir, String extension) {
+        String prefix = normalize(dir) + "/";
+        List<Entry> out = new ArrayList<>();
+        for (Entry e : entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (extension == null || e.path.endsWith(extension))
+                out.add(e);
+        }
+        return out;
+    }
+
+    /**
+     * Look up one file by its classpath-relative path.
+     * @return the entry, or null if no such file was indexed
+     */
+    public Entry find(String path) {
+        return entries.get(normalize(path));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** True if the index was read from a {@link DataBundle} rather than scanned. */
+    public boolean isBundled() {
+        return bundled;
+    }
+
+    private static String normalize(String path) {
+        String p = path.replace('\\', '/');
+        int start = 0;
+        int end = p.length();
+        while (start < end && p.charAt(start) == '/')
+            start++;
+        while (end > start && p.charAt(end - 1) == '/')
+            end--;
+        return p.substring(start, end);
+    }
+
+    /**
+     * One indexed file.
+     */
+    public static final class Entry {
+        private final String path;
+        private final byte[] bytes;
+
+        Entry(String path, byte[] bytes) {
+            this.path = path;
+            this.bytes = bytes;
+        }
+
+        /** Classpath-relative path, e.g. {@code data/spells/Fireball.json}. */
+        public String getPath() {
+            return path;
+        }
+
+        /** File name without directories. */
+        public String getName() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+
+        /** Raw file contents. Shared; callers must not modify the array. */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        /** UTF-8 reader over the contents. */
+        public Reader openReader() {
+            return new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        }
+
+        /** Contents decoded as UTF-8. */
+        public String readString() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+    }
+}
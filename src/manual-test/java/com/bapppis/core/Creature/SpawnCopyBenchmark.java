@@ -0,0 +1,67 @@
+package com.bapppis.core.Creature;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+
+/**
+ * Rough timing of prototype copies against the Gson round-trip that spawning
+ * used before. Prints the per-spawn cost and asserts nothing about it; run it
+ * on its own, e.g. {@code mvn -P manual-tests test -Dtest=SpawnCopyBenchmark}.
+ */
+public class SpawnCopyBenchmark {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    @Test
+    public void benchmarkCopyAgainstGsonRoundTrip() {
+        Creature tmpl = CreatureLoader.getCreatureById(15000);
+        int n = 2000;
+        for (int i = 0; i < 200; i++) { // warm up both paths
+            gsonCopy(tmpl);
+            CreatureLoader.spawnCopy(tmpl);
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            assertNotNull(gsonCopy(tmpl));
+        }
+        long gsonNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            assertNotNull(CreatureLoader.spawnCopy(tmpl));
+        }
+        long copyNanos = System.nanoTime() - t0;
+
+        System.out.printf("Spawn %s: gson %.1f us, copy %.1f us%n", tmpl.getName(),
+                gsonNanos / 1000.0 / n, copyNanos / 1000.0 / n);
+    }
+
+    // The spawn path used before Creature.copy()
+    private static Creature gsonCopy(Creature tmpl) {
+        com.google.gson.Gson g = new com.google.gson.GsonBuilder()
+                .addSerializationExclusionStrategy(new com.google.gson.ExclusionStrategy() {
+                    @Override
+                    public boolean shouldSkipField(com.google.gson.FieldAttributes f) {
+                        return "propertyManager".equals(f.getName());
+                    }
+
+                    @Override
+                    public boolean shouldSkipClass(Class<?> clazz) {
+                        return false;
+                    }
+                }).create();
+        Creature copy = g.fromJson(g.toJson(tmpl), tmpl.getClass());
+        copy.finalizeAfterLoad();
+        return copy;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bapppis.core.Creature;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.Resistances;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.creature.creatureEnums.Stats;
+import com.bapppis.core.item.itemEnums.EquipmentSlot;
+
+/**
+ * Tests for prototype copies of creature templates. The timing comparison
+ * with the old Gson round-trip lives in the manual tests
+ * ({@code SpawnCopyBenchmark}).
+ */
+public class CreatureCopyTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    @Test
+    public void testCopyMatchesTemplateAndIsIndependent() {
+        Creature tmpl = CreatureLoader.getCreatureById(15000);
+        Creature copy = CreatureLoader.spawnCopy(tmpl);
+
+        assertNotSame(tmpl, copy);
+        assertEquals(tmpl.getClass(), copy.getClass());
+        assertEquals(tmpl.getName(), copy.getName());
+        assertEquals(tmpl.getMaxHp(), copy.getMaxHp());
+        assertEquals(tmpl.getStat(Stats.STRENGTH), copy.getStat(Stats.STRENGTH));
+        assertEquals(tmpl.getResistance(Resistances.FIRE), copy.getResistance(Resistances.FIRE));
+        assertEquals(tmpl.getCrit(), copy.getCrit());
+        assertEquals(tmpl.getAttacks().size(), copy.getAttacks().size());
+        assertEquals(tmpl.getTraits().size(), copy.getTraits().size());
+
+        int tmplStr = tmpl.getStat(Stats.STRENGTH);
+        int tmplFire = tmpl.getResistance(Resistances.FIRE);
+        String tmplAttack = tmpl.getAttacks().get(0).name;
+        copy.modifyStat(Stats.STRENGTH, 5);
+        copy.modifyResistance(Resistances.FIRE, -40);
+        copy.getAttacks().get(0).name = "Changed";
+        copy.modifyHp(-1);
+
+        assertEquals(tmplStr, tmpl.getStat(Stats.STRENGTH));
+        assertEquals(tmplFire, tmpl.getResistance(Resistances.FIRE));
+        assertEquals(tmplAttack, tmpl.getAttacks().get(0).name);
+        assertEquals(tmpl.getMaxHp(), tmpl.getCurrentHp());
+    }
+
+    @Test
+    public void testPlayerCopyKeepsEquipmentAndInventory() {
+        Player tmpl = CreatureLoader.getPlayerById(5000);
+        Creature copy = CreatureLoader.spawnCopy(tmpl);
+
+        assertTrue(copy instanceof Player);
+        for (EquipmentSlot slot : EquipmentSlot.values()) {
+            assertSame(tmpl.getEquipped(slot), copy.getEquipped(slot));
+        }
+        assertEquals(tmpl.getInventory().getAllItems().size(), copy.getInventory().getAllItems().size());
+        assertNotSame(tmpl.getInventory(), copy.getInventory());
+        assertEquals(tmpl.getInventory().getMaxCapacity(), copy.getInventory().getMaxCapacity());
+    }
+}
@@ -0,0 +1,118 @@
+package com.bapppis.core.combat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.ResBuildUp;
+import com.bapppis.core.Resistances;
+import com.bapppis.core.creature.Attack;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+
+public class AttackEngineAllocationTest {
+
+    private static final ResBuildUp[] BUILD_UPS = ResBuildUp.values();
+    private static final int WARM_UP_ATTACKS = 100_000;
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    @AfterEach
+    public void clearListener() {
+        AttackEngine.attackListener = null;
+    }
+
+    private static Attack multiHitAttack() {
+        Attack atk = new Attack();
+        atk.name = "Flurry";
+        atk.times = 4;
+        atk.physicalDamageDice = "2d6";
+        atk.damageType = Resistances.PIERCING;
+        atk.damageMultiplier = 1.0f;
+        atk.magicDamageDice = "1d4+1";
+        atk.magicDamageType = Resistances.FIRE;
+        atk.magicDamageMultiplier = 1.0f;
+        atk.critMod = "25";
+        return atk;
+    }
+
+    private static void attackOnce(Creature attacker, Attack atk, Creature target) {
+        target.setCurrentHp(target.getMaxHp());
+        for (ResBuildUp rb : BUILD_UPS) {
+            target.setResBuildUpAbsolute(rb, 0);
+        }
+        AttackEngine.applyAttackToTarget(attacker, atk, 2, target, Resistances.PIERCING, Resistances.FIRE, null);
+    }
+
+    @Test
+    public void testMultiHitAttackDoesNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+
+        // Copies, so the loaded template is not left damaged for other tests
+        Creature attacker = CreatureLoader.spawnCopy(CreatureLoader.getCreatureById(15000));
+        Creature target = CreatureLoader.spawnCopy(CreatureLoader.getCreatureById(15000));
+        target.setDodge(0f);
+        target.setBlock(0f);
+        Attack atk = multiHitAttack();
+        long[] sink = new long[1];
+        AttackEngine.attackListener = rpt -> sink[0] += rpt.totalDamageDealt + rpt.critCount;
+
+        // Warm up so lazy dice compilation, the per-thread report and JIT are out
+        // of the way. Run long enough for the final tier of compilation to settle:
+        // a recompilation during the measured loop can rematerialise a few
+        // scalar-replaced objects.
+        for (int i = 0; i < WARM_UP_ATTACKS; i++) {
+            attackOnce(attacker, atk, target);
+        }
+
+        long tid = Thread.currentThread().getId();
+        long overheadStart = mx.getThreadAllocatedBytes(tid);
+        long overhead = mx.getThreadAllocatedBytes(tid) - overheadStart;
+
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 10_000; i++) {
+            attackOnce(attacker, atk, target);
+        }
+        long allocated = mx.getThreadAllocatedBytes(tid) - before - overhead;
+
+        assertTrue(sink[0] > 0, "Attacks should have dealt damage");
+        assertEquals(0L, allocated, "Resolving attacks should not allocate");
+    }
+
+    @Test
+    public void testReportIsRecycledAndReset() {
+        Creature attacker = CreatureLoader.spawnCopy(CreatureLoader.getCreatureById(15000));
+        Creature target = CreatureLoader.spawnCopy(CreatureLoader.getCreatureById(15000));
+        AttackEngine.AttackReport[] seen = new AttackEngine.AttackReport[2];
+        int[] calls = new int[1];
+        AttackEngine.attackListener = rpt -> seen[calls[0]++] = rpt;
+
+        Attack magic = new Attack();
+        magic.name = "Spark";
+        magic.magicDamageDice = "1d1";
+        attackOnce(attacker, magic, target);
+        AttackEngine.AttackReport kept = seen[0].copy();
+
+        Attack phys = multiHitAttack();
+        phys.magicDamageDice = null;
+        AttackEngine.applyAttackToTarget(attacker, phys, 0, target, Resistances.PIERCING, null, null);
+
+        assertSame(seen[0], seen[1], "The same report instance should be reused");
+        assertEquals("Flurry", seen[1].attackName);
+        assertEquals(0, seen[1].magicAttempts, "Fields from the previous attack must be cleared");
+        assertEquals("Spark", kept.attackName, "copy() must survive recycling");
+        assertEquals(1, kept.magicAttempts);
+    }
+}
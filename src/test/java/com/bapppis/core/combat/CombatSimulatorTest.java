@@ -0,0 +1,67 @@
+package com.bapppis.core.combat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+
+public class CombatSimulatorTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    @Test
+    public void testOutcomesAddUpAndTemplatesUntouched() {
+        Creature goblin = CreatureLoader.getCreatureById(15000);
+        Creature dummy = CreatureLoader.getCreatureById(9000);
+        int goblinHp = goblin.getCurrentHp();
+        int dummyHp = dummy.getCurrentHp();
+
+        CombatSimulator.Result r = CombatSimulator.simulate(15000, 9000, 300, 99L);
+
+        assertEquals(300, r.getTrials());
+        assertEquals(300, r.getAttackerWins() + r.getDefenderWins() + r.getDraws());
+        assertEquals(r.getAttackerWins() + r.getDefenderWins(), r.getTimeToKill().getCount());
+        assertTrue(r.getAttackerCounts().getAttacks() > 0, "Goblin attacks should be reported");
+        assertTrue(r.getAttackerDamagePerTurn().getMean() > 0.0);
+        double hit = r.getAttackerCounts().getHitRate();
+        assertTrue(hit >= 0.0 && hit <= 1.0);
+
+        assertEquals(goblinHp, goblin.getCurrentHp());
+        assertEquals(dummyHp, dummy.getCurrentHp());
+    }
+
+    @Test
+    public void testSameSeedSameResultAcrossPoolSizes() {
+        Creature goblin = CreatureLoader.getCreatureById(15000);
+        Creature kobold = CreatureLoader.getCreature("Kobold Warrior");
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool wide = new ForkJoinPool(4);
+        try {
+            CombatSimulator.Result a = CombatSimulator.simulate(goblin, kobold, 500, 7L, 100, single);
+            CombatSimulator.Result b = CombatSimulator.simulate(goblin, kobold, 500, 7L, 100, wide);
+            assertEquals(a.getAttackerWins(), b.getAttackerWins());
+            assertEquals(a.getDraws(), b.getDraws());
+            assertEquals(a.getTimeToKill().getMean(), b.getTimeToKill().getMean(), 0.0);
+            assertEquals(a.getDefenderDamagePerTurn().getMean(), b.getDefenderDamagePerTurn().getMean(), 0.0);
+            assertEquals(a.getAttackerCounts().getAttempts(), b.getAttackerCounts().getAttempts());
+        } finally {
+            single.shutdown();
+            wide.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> CombatSimulator.simulate(15000, -1, 10, 1L));
+        assertThrows(IllegalArgumentException.class, () -> CombatSimulator.simulate(15000, 9000, 0, 1L));
+    }
+}
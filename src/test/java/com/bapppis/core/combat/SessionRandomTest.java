@@ -0,0 +1,92 @@
+package com.bapppis.core.combat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.util.Dice;
+
+public class SessionRandomTest {
+
+    private SessionRandom previous;
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    @BeforeEach
+    public void saveSession() {
+        previous = SessionRandom.current();
+    }
+
+    @AfterEach
+    public void restoreSession() {
+        SessionRandom.setCurrent(previous);
+    }
+
+    @Test
+    public void testSameSeedSameStreams() {
+        SessionRandom a = new SessionRandom(42L);
+        SessionRandom b = new SessionRandom(42L);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(a.combat().nextInt(1000), b.combat().nextInt(1000));
+            assertEquals(a.loot().nextDouble(), b.loot().nextDouble());
+            assertEquals(a.ai().nextFloat(), b.ai().nextFloat());
+            assertEquals(a.generation().nextLong(), b.generation().nextLong());
+        }
+    }
+
+    @Test
+    public void testStreamsAreIndependent() {
+        SessionRandom a = new SessionRandom(7L);
+        SessionRandom b = new SessionRandom(7L);
+        for (int i = 0; i < 100; i++) {
+            a.combat().nextInt(6); // extra combat rolls on one side only
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(a.loot().nextInt(1000), b.loot().nextInt(1000),
+                    "Combat rolls must not shift the loot stream");
+        }
+    }
+
+    @Test
+    public void testNextFloatRange() {
+        SplittableRandomProvider rng = new SplittableRandomProvider(1L);
+        for (int i = 0; i < 10_000; i++) {
+            float f = rng.nextFloat();
+            assertTrue(f >= 0f && f < 1f);
+        }
+    }
+
+    @Test
+    public void testReseedReplaysDiceAndCombat() {
+        SessionRandom.reseed(1234L);
+        int dice1 = Dice.roll("10d20");
+        int hp1 = fight();
+
+        SessionRandom.reseed(1234L);
+        int dice2 = Dice.roll("10d20");
+        int hp2 = fight();
+
+        assertEquals(dice1, dice2);
+        assertEquals(hp1, hp2, "A reseeded session should replay the same fight");
+    }
+
+    private static int fight() {
+        // Copies, so the loaded template is not left damaged for other tests
+        Creature attacker = CreatureLoader.spawnCopy(CreatureLoader.getCreatureById(15000));
+        Creature target = CreatureLoader.spawnCopy(CreatureLoader.getCreatureById(15000));
+        target.setCurrentHp(target.getMaxHp());
+        for (int i = 0; i < 20; i++) {
+            attacker.attack(target);
+        }
+        return target.getCurrentHp();
+    }
+}
@@ -0,0 +1,78 @@
+package com.bapppis.core.dungeon;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Enemy;
+
+public class DistanceMapTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    private static Floor parse(String... rows) {
+        Floor floor = new Floor(rows[0].length(), rows.length) {};
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                String type = rows[y].charAt(x) == '#' ? "basicWall" : "basicFloor";
+                floor.setTile(x, y, new Tile(new Coordinate(x, y), TileTypeLoader.getTileTypeByName(type)));
+            }
+        }
+        return floor;
+    }
+
+    @Test
+    public void testDistancesFollowCorridors() {
+        Floor floor = parse(
+                "#######",
+                "#.....#",
+                "#.###.#",
+                "#.#.#.#",
+                "#######");
+        DistanceMap field = floor.getDistanceMap(1, 1);
+        assertEquals(0, field.getDistance(1, 1));
+        assertEquals(4, field.getDistance(5, 1));
+        assertEquals(6, field.getDistance(5, 3));
+        assertEquals(DistanceMap.UNREACHABLE, field.getDistance(3, 3), "Sealed cell must be unreachable");
+        assertEquals(DistanceMap.UNREACHABLE, field.getDistance(0, 0), "Walls are not part of the field");
+    }
+
+    @Test
+    public void testRebuildsOnlyWhenSourceOrLayoutChanges() {
+        Floor floor = parse(
+                "#####",
+                "#...#",
+                "#####");
+        DistanceMap field = floor.getDistanceMap(1, 1);
+        assertFalse(field.update(1, 1), "Same source and layout should reuse the field");
+        assertTrue(field.update(3, 1));
+        assertEquals(2, field.getDistance(1, 1));
+
+        floor.setTile(2, 1, new Tile(new Coordinate(2, 1), TileTypeLoader.getTileTypeByName("basicWall")));
+        assertTrue(field.update(3, 1), "A layout change must invalidate the field");
+        assertEquals(DistanceMap.UNREACHABLE, field.getDistance(1, 1));
+    }
+
+    @Test
+    public void testNextStepSkipsOccupiedCells() {
+        Floor floor = parse(
+                "#####",
+                "#...#",
+                "#...#",
+                "#####");
+        DistanceMap field = floor.getDistanceMap(3, 1);
+        int width = floor.getWidth();
+        assertEquals(1 * width + 3, field.nextStep(3, 2), "North is the only closer cell");
+        assertEquals(1 * width + 2, field.nextStep(2, 2), "North wins ties over east");
+
+        new Enemy().setPosition(floor, new Coordinate(2, 1));
+        assertEquals(2 * width + 3, field.nextStep(2, 2), "Should step east around the occupied cell");
+        new Enemy().setPosition(floor, new Coordinate(3, 2));
+        assertEquals(-1, field.nextStep(2, 2), "No free closer cell means no move");
+    }
+}
@@ -0,0 +1,98 @@
+package com.bapppis.core.dungeon;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.dungeon.generator.BSPRoomGenerator;
+
+public class FieldOfViewTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    private static Floor parse(String... rows) {
+        Floor floor = new Floor(rows[0].length(), rows.length) {};
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                String type = rows[y].charAt(x) == '#' ? "basicWall" : "basicFloor";
+                floor.setTile(x, y, new Tile(new Coordinate(x, y), TileTypeLoader.getTileTypeByName(type)));
+            }
+        }
+        return floor;
+    }
+
+    @Test
+    public void testOpenRoomIsFullyVisibleWithinRadius() {
+        Floor floor = parse(
+                "#######",
+                "#.....#",
+                "#.....#",
+                "#.....#",
+                "#######");
+        FieldOfView fov = floor.computeVision(3, 2, 10);
+        for (int y = 0; y < floor.getHeight(); y++) {
+            for (int x = 0; x < floor.getWidth(); x++) {
+                assertTrue(fov.isVisible(x, y), "(" + x + ", " + y + ") should be visible in an open room");
+            }
+        }
+
+        fov = floor.computeVision(3, 2, 1);
+        assertTrue(fov.isVisible(2, 1));
+        assertFalse(fov.isVisible(1, 2), "Cells beyond the radius must not be visible");
+    }
+
+    @Test
+    public void testWallCastsShadow() {
+        Floor floor = parse(
+                "#########",
+                "#.......#",
+                "#...#...#",
+                "#.......#",
+                "#########");
+        FieldOfView fov = floor.computeVision(1, 2, 10);
+        assertTrue(fov.isVisible(4, 2), "The wall itself should be lit");
+        assertFalse(fov.isVisible(6, 2), "Cell directly behind the wall should be hidden");
+        assertTrue(fov.isVisible(7, 1), "Cells off the shadow line should be visible");
+    }
+
+    @Test
+    public void testRevealMatchesVisibility() {
+        Floor floor = parse(
+                "#####",
+                "#.#.#",
+                "#####");
+        floor.revealTilesWithVision(1, 1, 5);
+        assertTrue(floor.getTile(1, 1).isDiscovered());
+        assertTrue(floor.getTile(2, 1).isDiscovered());
+        assertFalse(floor.getTile(3, 1).isDiscovered(), "Cell behind a wall should stay hidden");
+    }
+
+    @Test
+    public void testVisibilityIsSymmetricOnGeneratedFloor() {
+        Floor floor = new BSPRoomGenerator().generate(25, 25, 3, 4242L);
+        FieldOfView a = new FieldOfView(floor);
+        FieldOfView b = new FieldOfView(floor);
+        int radius = 8;
+        for (int y = 0; y < floor.getHeight(); y += 3) {
+            for (int x = 0; x < floor.getWidth(); x += 3) {
+                Tile origin = floor.getTile(x, y);
+                if (origin == null || origin.isWall()) continue;
+                a.compute(x, y, radius, false);
+                for (int ty = Math.max(0, y - radius); ty <= Math.min(floor.getHeight() - 1, y + radius); ty++) {
+                    for (int tx = Math.max(0, x - radius); tx <= Math.min(floor.getWidth() - 1, x + radius); tx++) {
+                        Tile target = floor.getTile(tx, ty);
+                        if (target == null || target.isWall() || !a.isVisible(tx, ty)) continue;
+                        b.compute(tx, ty, radius, false);
+                        assertTrue(b.isVisible(x, y),
+                                "(" + tx + ", " + ty + ") is seen from (" + x + ", " + y + ") but not vice versa");
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bapppis.core.dungeon;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Enemy;
+
+public class FloorTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    private static Tile floorTile(int x, int y) {
+        return new Tile(new Coordinate(x, y), TileTypeLoader.getTileTypeByName("basicFloor"));
+    }
+
+    @Test
+    public void testFixedSizeFloorLookups() {
+        Floor floor = new Floor(4, 3) {};
+        assertEquals(4, floor.getWidth());
+        assertEquals(3, floor.getHeight());
+
+        Tile t = floorTile(3, 2);
+        floor.setTile(3, 2, t);
+        assertSame(t, floor.getTile(3, 2));
+        assertSame(t, floor.getTile(new Coordinate(3, 2)), "Coordinate overload should hit the same cell");
+        assertNull(floor.getTile(2, 3), "Transposed coordinates must not alias");
+        assertNull(floor.getTile(-1, 0));
+        assertNull(floor.getTile(4, 0));
+        assertNull(floor.getTile(null));
+    }
+
+    @Test
+    public void testGrowingFloorKeepsExistingTiles() {
+        Floor floor = new Floor() {};
+        Tile a = floorTile(1, 0);
+        Tile b = floorTile(0, 2);
+        floor.addTile(a.getCoordinate(), a);
+        floor.addTile(b.getCoordinate(), b);
+
+        assertEquals(2, floor.getWidth());
+        assertEquals(3, floor.getHeight());
+        assertSame(a, floor.getTile(1, 0));
+        assertSame(b, floor.getTile(0, 2));
+        assertEquals(2, floor.getTiles().size(), "Snapshot map should only contain placed tiles");
+    }
+
+    @Test
+    public void testNegativeCoordinatesRejected() {
+        Floor floor = new Floor(2, 2) {};
+        assertThrows(IllegalArgumentException.class, () -> floor.setTile(-1, 0, floorTile(0, 0)));
+    }
+
+    @Test
+    public void testDiscoveryLayerDrivesTiles() {
+        Floor floor = new Floor(3, 3) {};
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                floor.setTile(x, y, floorTile(x, y));
+            }
+        }
+        Tile center = floor.getTile(1, 1);
+        center.setDiscovered(true);
+        assertTrue(floor.isDiscovered(1, 1), "Tile.setDiscovered should write the floor layer");
+
+        floor.hideAll();
+        assertFalse(center.isDiscovered());
+
+        floor.revealAll();
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                assertTrue(floor.getTile(x, y).isDiscovered());
+            }
+        }
+    }
+
+    @Test
+    public void testReplacedTileInheritsDiscovery() {
+        Floor floor = new Floor(2, 1) {};
+        floor.setTile(0, 0, floorTile(0, 0));
+        floor.setTile(1, 0, floorTile(1, 0));
+        floor.setDiscovered(1, 0, true);
+
+        Tile replacement = floorTile(1, 0);
+        floor.setTile(1, 0, replacement);
+        assertTrue(replacement.isDiscovered(), "Discovery belongs to the cell, not the tile object");
+    }
+
+    @Test
+    public void testVisibleLayerTracksLastReveal() {
+        Floor floor = new Floor(12, 1) {};
+        for (int x = 0; x < 12; x++) {
+            floor.setTile(x, 0, floorTile(x, 0));
+        }
+        floor.revealTilesWithVision(0, 0, 2);
+        assertTrue(floor.isVisible(2, 0));
+        floor.revealTilesWithVision(11, 0, 2);
+        assertFalse(floor.isVisible(2, 0), "Cells out of view should drop from the visible layer");
+        assertTrue(floor.isDiscovered(2, 0), "but stay remembered");
+        assertTrue(floor.getTile(10, 0).isVisible());
+    }
+
+    @Test
+    public void testGrowingFloorKeepsDiscovery() {
+        Floor floor = new Floor() {};
+        floor.addTile(new Coordinate(1, 1), floorTile(1, 1));
+        floor.setDiscovered(1, 1, true);
+        floor.addTile(new Coordinate(4, 1), floorTile(4, 1));
+        assertTrue(floor.getTile(1, 1).isDiscovered(), "Resizing must keep discovery bits aligned");
+        assertFalse(floor.getTile(4, 1).isDiscovered());
+    }
+
+    @Test
+    public void testMoveCreatureKeepsRegistryAndOccupantsInSync() {
+        Floor floor = new Floor(3, 1) {};
+        for (int x = 0; x < 3; x++) {
+            floor.setTile(x, 0, floorTile(x, 0));
+        }
+        Enemy enemy = new Enemy();
+        enemy.setPosition(floor, new Coordinate(0, 0));
+        assertEquals(1, floor.getCreatures().size());
+        assertTrue(floor.getTile(0, 0).getOccupants().contains(enemy));
+
+        enemy.setPosition(floor, new Coordinate(2, 0));
+        assertEquals(1, floor.getCreatures().size(), "Moving must not register the creature twice");
+        assertFalse(floor.getTile(0, 0).getOccupants().contains(enemy));
+        assertTrue(floor.getTile(2, 0).getOccupants().contains(enemy));
+
+        floor.setTile(2, 0, floorTile(2, 0));
+        assertTrue(floor.getTile(2, 0).getOccupants().contains(enemy), "Replacing a cell keeps its occupants");
+
+        enemy.setPosition(floor, null);
+        assertTrue(floor.getCreatures().isEmpty());
+        assertTrue(floor.getTile(2, 0).getOccupants().isEmpty());
+    }
+}
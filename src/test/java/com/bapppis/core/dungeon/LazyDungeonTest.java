@@ -0,0 +1,104 @@
+package com.bapppis.core.dungeon;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class LazyDungeonTest {
+
+    private final AtomicInteger built = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Floor> floors = new ConcurrentHashMap<>();
+
+    private Floor build(int id) {
+        built.incrementAndGet();
+        Floor floor = new Floor(3 + Math.abs(id), 3) {};
+        floors.put(id, floor);
+        return floor;
+    }
+
+    @Test
+    public void testFloorsAreBuiltOnFirstUseOnly() {
+        LazyDungeon dungeon = new LazyDungeon(-2, 2, this::build, Runnable::run);
+        assertEquals(0, built.get());
+        assertTrue(dungeon.hasFloor(-2));
+        assertFalse(dungeon.hasFloor(3));
+        assertEquals(0, built.get(), "hasFloor must not build");
+
+        Floor first = dungeon.getFloor(1);
+        assertSame(first, dungeon.getFloor(1));
+        assertEquals(1, built.get());
+        assertTrue(dungeon.isGenerated(1));
+        assertFalse(dungeon.isGenerated(0));
+        assertNull(dungeon.getFloor(5));
+    }
+
+    @Test
+    public void testOnEnterPrefetchesInTheChosenDirection() {
+        List<Runnable> queued = new ArrayList<>();
+        LazyDungeon dungeon = new LazyDungeon(-3, 3, this::build, queued::add);
+
+        dungeon.onEnter(0);
+        assertEquals(2, queued.size(), "Floor 0 forks both ways");
+        queued.forEach(Runnable::run);
+        assertTrue(dungeon.isGenerated(1));
+        assertTrue(dungeon.isGenerated(-1));
+
+        queued.clear();
+        dungeon.onEnter(-1);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertTrue(dungeon.isGenerated(-2));
+        assertFalse(dungeon.isGenerated(0));
+
+        queued.clear();
+        dungeon.onEnter(-3);
+        assertTrue(queued.isEmpty(), "Nothing below the last floor");
+        assertEquals(3, built.get());
+    }
+
+    @Test
+    public void testCallerBuildsAQueuedFloorItself() {
+        List<Runnable> queued = new ArrayList<>();
+        LazyDungeon dungeon = new LazyDungeon(0, 1, this::build, queued::add);
+        dungeon.prefetch(1);
+        assertEquals(1, queued.size());
+        Floor floor = dungeon.getFloor(1);
+        assertSame(floors.get(1), floor);
+        assertEquals(1, built.get());
+        // The queued task runs later and finds the work done
+        queued.get(0).run();
+        assertEquals(1, built.get());
+    }
+
+    @Test
+    public void testGetFloorWaitsForBackgroundBuild() {
+        Executor background = task -> new Thread(task).start();
+        LazyDungeon dungeon = new LazyDungeon(0, 4, this::build, background);
+        for (int i = 0; i <= 4; i++) {
+            dungeon.prefetch(i);
+        }
+        for (int i = 0; i <= 4; i++) {
+            Floor floor = dungeon.getFloor(i);
+            assertSame(floors.get(i), floor);
+            assertEquals(3 + i, floor.getWidth());
+        }
+        assertEquals(5, built.get());
+        assertEquals(5, dungeon.getGeneratedCount());
+    }
+
+    @Test
+    public void testFailedBuildIsRethrown() {
+        LazyDungeon dungeon = new LazyDungeon(0, 0, id -> {
+            throw new IllegalStateException("broken floor");
+        }, Runnable::run);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> dungeon.getFloor(0));
+        assertEquals("broken floor", e.getMessage());
+        assertFalse(dungeon.isGenerated(0));
+    }
+}
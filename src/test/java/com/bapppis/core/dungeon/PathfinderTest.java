@@ -0,0 +1,95 @@
+package com.bapppis.core.dungeon;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Enemy;
+
+public class PathfinderTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    private static Floor parse(String... rows) {
+        Floor floor = new Floor(rows[0].length(), rows.length) {};
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                String type = rows[y].charAt(x) == '#' ? "basicWall" : "basicFloor";
+                floor.setTile(x, y, new Tile(new Coordinate(x, y), TileTypeLoader.getTileTypeByName(type)));
+            }
+        }
+        return floor;
+    }
+
+    @Test
+    public void testFindsShortestPathAroundWall() {
+        // Greedy stepping from (1, 3) toward (5, 3) walks into the cup and stalls
+        Floor floor = parse(
+                "#######",
+                "#.....#",
+                "#.#.#.#",
+                "#.#.#.#",
+                "#.###.#",
+                "#.....#",
+                "#######");
+        Pathfinder pf = floor.getPathfinder();
+        int length = pf.findPath(3, 3, 5, 3, false);
+        assertEquals(6, length, "Shortest route leaves the cup through the top");
+
+        int width = floor.getWidth();
+        int px = 3, py = 3;
+        for (int i = 0; i < length; i++) {
+            int cell = pf.getPathCell(i);
+            int x = cell % width, y = cell / width;
+            assertEquals(1, Math.abs(x - px) + Math.abs(y - py), "Steps must be adjacent");
+            assertFalse(floor.getTile(x, y).isWall(), "Path must not cross walls");
+            px = x;
+            py = y;
+        }
+        assertEquals(5, px);
+        assertEquals(3, py);
+    }
+
+    @Test
+    public void testUnreachableGoal() {
+        Floor floor = parse(
+                "#####",
+                "#.#.#",
+                "#####");
+        assertEquals(-1, floor.getPathfinder().findPath(1, 1, 3, 1, false));
+        assertEquals(0, floor.getPathfinder().findPath(1, 1, 1, 1, false));
+    }
+
+    @Test
+    public void testBuffersAreReusedAcrossSearches() {
+        Floor floor = parse(
+                "#######",
+                "#.....#",
+                "#.###.#",
+                "#.....#",
+                "#######");
+        Pathfinder pf = floor.getPathfinder();
+        assertEquals(4, pf.findPath(1, 1, 5, 1, false));
+        assertEquals(2, pf.findPath(1, 1, 1, 3, false), "A second search must not see stale scores");
+        assertEquals(4, pf.findPath(1, 1, 5, 1, false));
+    }
+
+    @Test
+    public void testCreaturesOnlyBlockWhenAsked() {
+        Floor floor = parse(
+                "#####",
+                "#...#",
+                "#...#",
+                "#####");
+        new Enemy().setPosition(floor, new Coordinate(2, 1));
+        Pathfinder pf = floor.getPathfinder();
+        assertEquals(2, pf.findPath(1, 1, 3, 1, false));
+        assertEquals(4, pf.findPath(1, 1, 3, 1, true), "Detour should go around the creature");
+        assertEquals(1, pf.findPath(1, 1, 2, 1, true), "An occupied goal is still reachable");
+    }
+}
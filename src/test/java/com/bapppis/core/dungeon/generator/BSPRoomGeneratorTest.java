@@ -152,4 +152,18 @@ public class BSPRoomGeneratorTest {
         assertEquals(centerTile, up.getDown(), "Up neighbor should link back to center");
         assertEquals(centerTile, down.getUp(), "Down neighbor should link back to center");
     }
+
+    @Test
+    public void testGeneratorRegistersSpawnedEnemiesOnFloor() {
+        BSPRoomGenerator generator = new BSPRoomGenerator();
+        Floor floor = generator.generate(25, 25, 0, 2468L);
+
+        assertFalse(floor.getCreatures().isEmpty(), "Floor 0 should spawn enemies");
+        for (com.bapppis.core.creature.Creature c : floor.getCreatures()) {
+            com.bapppis.core.creature.Enemy enemy = (com.bapppis.core.creature.Enemy) c;
+            assertNotNull(enemy.getPosition(), "Registered enemies should have a position");
+            assertTrue(floor.getTile(enemy.getPosition()).getOccupants().contains(enemy),
+                    "Registered enemies should occupy their tile on the generated floor");
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package com.bapppis.core.dungeon.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Creature;
+import com.bapppis.core.creature.Enemy;
+import com.bapppis.core.dungeon.Dungeon;
+import com.bapppis.core.dungeon.Floor;
+
+public class DungeonBuilderTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    private static String layout(Floor floor) {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < floor.getHeight(); y++) {
+            for (int x = 0; x < floor.getWidth(); x++) {
+                sb.append(floor.getTile(x, y).getSymbol());
+            }
+            sb.append('\n');
+        }
+        for (Creature c : floor.getCreatures()) {
+            sb.append(c.getName()).append(' ').append(c.getCurrentHp());
+            if (c instanceof Enemy)
+                sb.append(' ').append(((Enemy) c).getPosition()).append(' ').append(((Enemy) c).getPatrolRoute());
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testParallelBuildMatchesSequentialBuild() {
+        long baseSeed = 777;
+        Dungeon sequential;
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            sequential = DungeonBuilder.buildAll(baseSeed, single);
+        } finally {
+            single.shutdown();
+        }
+        ForkJoinPool wide = new ForkJoinPool(8);
+        Dungeon parallel;
+        try {
+            parallel = DungeonBuilder.buildAll(baseSeed, wide);
+        } finally {
+            wide.shutdown();
+        }
+        for (int i = DungeonBuilder.MIN_FLOOR; i <= DungeonBuilder.MAX_FLOOR; i++) {
+            assertNotNull(parallel.getFloor(i), "floor " + i);
+            assertEquals(layout(sequential.getFloor(i)), layout(parallel.getFloor(i)), "floor " + i);
+        }
+        assertNull(parallel.getFloor(DungeonBuilder.MAX_FLOOR + 1));
+    }
+
+    @Test
+    public void testFloorDoesNotDependOnBuildOrder() {
+        long baseSeed = 99;
+        String deepFirst = layout(DungeonBuilder.generateFloor(baseSeed, -6));
+        DungeonBuilder.generateFloor(baseSeed, -5);
+        DungeonBuilder.generateFloor(baseSeed, 2);
+        assertEquals(deepFirst, layout(DungeonBuilder.generateFloor(baseSeed, -6)));
+    }
+
+    @Test
+    public void testFloorSizesFollowDepth() {
+        Dungeon dungeon = DungeonBuilder.buildAll(5, -5, 4, ForkJoinPool.commonPool());
+        for (int i = -4; i <= 4; i++) {
+            Floor floor = dungeon.getFloor(i);
+            assertTrue(floor.getWidth() >= 20 && floor.getWidth() <= 30, "floor " + i + " width " + floor.getWidth());
+        }
+        assertTrue(dungeon.getFloor(-5).getWidth() >= 30);
+        assertThrows(IllegalArgumentException.class, () -> DungeonBuilder.buildAll(5, 2, 1, ForkJoinPool.commonPool()));
+    }
+}
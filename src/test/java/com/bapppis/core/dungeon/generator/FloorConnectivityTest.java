@@ -0,0 +1,136 @@
+package com.bapppis.core.dungeon.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.dungeon.Coordinate;
+import com.bapppis.core.dungeon.Floor;
+import com.bapppis.core.dungeon.Tile;
+import com.bapppis.core.dungeon.TileTypeLoader;
+
+public class FloorConnectivityTest {
+
+    @BeforeAll
+    public static void setupAll() {
+        AllLoaders.loadAll();
+    }
+
+    // rows[y].charAt(x); 'C' is an occupied chest
+    private static Tile[][] grid(String... rows) {
+        Tile[][] tiles = new Tile[rows[0].length()][rows.length];
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                char c = rows[y].charAt(x);
+                String type = c == '#' ? "basicWall" : c == 'C' ? "commonTreasureChest" : "basicFloor";
+                tiles[x][y] = new Tile(new Coordinate(x, y), TileTypeLoader.getTileTypeByName(type));
+            }
+        }
+        return tiles;
+    }
+
+    // Reference answer: BFS from a to b with (bx,by) walled off
+    private static boolean reachableWithout(Tile[][] tiles, Coordinate a, Coordinate b, int bx, int by) {
+        int w = tiles.length, h = tiles[0].length;
+        boolean[][] seen = new boolean[w][h];
+        ArrayDeque<int[]> q = new ArrayDeque<>();
+        q.add(new int[] { a.getX(), a.getY() });
+        seen[a.getX()][a.getY()] = true;
+        int[][] dirs = { { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 } };
+        while (!q.isEmpty()) {
+            int[] cur = q.remove();
+            if (cur[0] == b.getX() && cur[1] == b.getY())
+                return true;
+            for (int[] d : dirs) {
+                int nx = cur[0] + d[0], ny = cur[1] + d[1];
+                if (nx < 0 || ny < 0 || nx >= w || ny >= h || seen[nx][ny] || (nx == bx && ny == by))
+                    continue;
+                Tile t = tiles[nx][ny];
+                if (t.getSymbol() == '#' || (t.isOccupied() && !(nx == b.getX() && ny == b.getY())))
+                    continue;
+                seen[nx][ny] = true;
+                q.add(new int[] { nx, ny });
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testCorridorCellsAreCriticalButRoomCellsAreNot() {
+        Tile[][] tiles = grid(
+                "########",
+                "#...#.##",
+                "#......#",
+                "#...#.##",
+                "########");
+        Coordinate spawn = new Coordinate(1, 2);
+        Coordinate stairs = new Coordinate(5, 1);
+        FloorConnectivity paths = new FloorConnectivity(tiles, spawn, stairs);
+
+        assertTrue(paths.allTargetsReachable());
+        assertTrue(paths.isCritical(4, 2), "door between the rooms");
+        assertTrue(paths.isCritical(5, 2), "only way up to the stairs");
+        assertFalse(paths.isCritical(2, 1), "room cell with a way around it");
+        assertFalse(paths.isCritical(6, 2), "dead end");
+        assertFalse(paths.isCritical(5, 3), "dead end");
+        assertTrue(paths.isCritical(1, 2));
+        assertTrue(paths.isCritical(5, 1));
+        assertFalse(paths.isCritical(0, 0), "walls never block");
+    }
+
+    @Test
+    public void testOccupiedTilesSplitComponents() {
+        Tile[][] tiles = grid(
+                "#####",
+                "#.C.#",
+                "#####");
+        Coordinate left = new Coordinate(1, 1);
+        Coordinate right = new Coordinate(3, 1);
+        FloorConnectivity paths = new FloorConnectivity(tiles, left, right);
+        assertFalse(paths.allTargetsReachable());
+        assertFalse(paths.connected(left, right));
+        assertTrue(paths.isCritical(1, 1), "everything blocks once a target is cut off");
+
+        // An occupied target is still reachable
+        FloorConnectivity toChest = new FloorConnectivity(tiles, left, new Coordinate(2, 1));
+        assertTrue(toChest.allTargetsReachable());
+    }
+
+    @Test
+    public void testCriticalCellsMatchBruteForceOnGeneratedFloors() {
+        for (long seed = 1; seed <= 6; seed++) {
+            Floor floor = new BSPRoomGenerator().generate(24, 22, 0, seed);
+            Tile[][] tiles = new Tile[floor.getWidth()][floor.getHeight()];
+            Coordinate spawn = null, up = null, down = null;
+            for (int x = 0; x < floor.getWidth(); x++) {
+                for (int y = 0; y < floor.getHeight(); y++) {
+                    Tile t = floor.getTile(x, y);
+                    tiles[x][y] = t;
+                    if (t.isSpawn())
+                        spawn = new Coordinate(x, y);
+                    else if (t.getSymbol() == '^')
+                        up = new Coordinate(x, y);
+                    else if (t.getSymbol() == 'v')
+                        down = new Coordinate(x, y);
+                }
+            }
+            assertNotNull(spawn, "seed " + seed);
+            FloorConnectivity paths = new FloorConnectivity(tiles, spawn, up, down);
+            assertTrue(paths.allTargetsReachable(), "seed " + seed);
+            for (int x = 0; x < tiles.length; x++) {
+                for (int y = 0; y < tiles[0].length; y++) {
+                    Coordinate c = new Coordinate(x, y);
+                    if (c.equals(spawn) || c.equals(up) || c.equals(down))
+                        continue;
+                    boolean expected = !reachableWithout(tiles, spawn, up, x, y)
+                            || !reachableWithout(tiles, spawn, down, x, y);
+                    assertEquals(expected, paths.isCritical(x, y), "seed " + seed + " at " + c);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bapppis.core.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CommandParserTest {
+
+    @Test
+    public void testParsesConsoleTextIntoTypedCommands() {
+        assertEquals(new GameCommand.Move(Direction.NORTH), CommandParser.parse("move north"));
+        assertEquals(new GameCommand.Move(Direction.EAST), CommandParser.parse("  MOVE   Right "));
+        assertEquals(new GameCommand.Move(Direction.WEST), CommandParser.parse("move l"));
+        assertEquals(new GameCommand.Interact(Direction.SOUTH), CommandParser.parse("e s"));
+        assertEquals(new GameCommand.Interact(Direction.EAST), CommandParser.parse("interact east"));
+        assertEquals(new GameCommand.Stairs(true), CommandParser.parse("up"));
+        assertEquals(new GameCommand.Stairs(false), CommandParser.parse("Down"));
+        assertSame(GameCommand.WAIT, CommandParser.parse("pass"));
+        assertEquals(new GameCommand.Look(null), CommandParser.parse("look"));
+        assertEquals(new GameCommand.SelectPlayer(5000), CommandParser.parse("player 5000"));
+        assertEquals(new GameCommand.Attack(null), CommandParser.parse("attack"));
+        assertSame(GameCommand.HIT, CommandParser.parse("hit"));
+        assertEquals(new GameCommand.Cast(7001), CommandParser.parse("Cast 7001"));
+        assertSame(GameCommand.FLEE, CommandParser.parse("flee"));
+        assertEquals(new GameCommand.UseItem(42), CommandParser.parse("use 42"));
+    }
+
+    @Test
+    public void testInvalidLinesParseToNull() {
+        assertNull(CommandParser.parse(null));
+        assertNull(CommandParser.parse("   "));
+        assertNull(CommandParser.parse("dance"));
+        assertNull(CommandParser.parse("move"));
+        assertNull(CommandParser.parse("move sideways"));
+        assertNull(CommandParser.parse("player abc"));
+        assertNull(CommandParser.parse("cast"));
+        assertNull(CommandParser.parse("equip sword"));
+    }
+
+    @Test
+    public void testConsoleFormRoundTrips() {
+        List<GameCommand> commands = List.of(new GameCommand.Move(Direction.WEST),
+                new GameCommand.Interact(Direction.NORTH), new GameCommand.Look(Direction.SOUTH),
+                new GameCommand.Look(null), new GameCommand.Stairs(true), new GameCommand.Stairs(false),
+                GameCommand.WAIT, GameCommand.SHOW_MAP, new GameCommand.Attack("goblin"),
+                new GameCommand.SelectPlayer(5000), GameCommand.HIT, new GameCommand.Cast(7001),
+                GameCommand.ENEMY_TURN, GameCommand.FLEE, new GameCommand.UseItem(42), new GameCommand.Equip(43));
+        for (GameCommand c : commands) {
+            assertEquals(c, CommandParser.parse(c.toString()), c.toString());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.bapppis.core.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.combat.SessionRandom;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.Floor;
+
+public class GameContextTest {
+
+    private static String runExplorer(long seed) {
+        Player player = (Player) CreatureLoader.spawnCopy(CreatureLoader.getPlayerById(5000));
+        GameSession session = new GameSession(player, seed);
+        GameSession.Result result = session.run(GameSession.explorer(seed, true), 1500);
+        return result.commands + " " + result.fights + " " + result.kills + " " + result.finalFloor + " "
+                + session.getPlayer().getPosition() + " hp " + session.getPlayer().getCurrentHp();
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testBindingScopesGameState() {
+        Floor outside = GameState.getCurrentFloor();
+        SessionRandom globalRandom = SessionRandom.current();
+        GameContext context = new GameContext(42);
+        Floor floor = new Floor(3, 3) {
+        };
+        try (GameContext.Scope scope = context.bind()) {
+            assertSame(context, GameContext.current());
+            GameState.setCurrentFloor(floor);
+            assertSame(floor, GameState.getCurrentFloor());
+            assertEquals(42, SessionRandom.current().getSeed());
+        }
+        assertSame(GameContext.getDefault(), GameContext.current());
+        assertSame(outside, GameState.getCurrentFloor());
+        assertSame(globalRandom, SessionRandom.current());
+        assertSame(floor, context.getCurrentFloor());
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testReseedWhileBoundStaysInContext() {
+        SessionRandom globalRandom = SessionRandom.current();
+        GameContext context = new GameContext(1);
+        try (GameContext.Scope scope = context.bind()) {
+            SessionRandom.reseed(7);
+        }
+        assertSame(globalRandom, SessionRandom.current());
+        assertEquals(7, context.getRandom().getSeed());
+    }
+
+    @Test
+    public void testParallelSessionsMatchSequentialRuns() throws Exception {
+        AllLoaders.loadAll();
+        long[] seeds = { 2, 3, 5, 7 };
+        List<String> sequential = new ArrayList<>();
+        for (long seed : seeds) {
+            sequential.add(runExplorer(seed));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(seeds.length);
+        try {
+            List<Future<String>> parallel = new ArrayList<>();
+            for (long seed : seeds) {
+                parallel.add(pool.submit(() -> runExplorer(seed)));
+            }
+            for (int i = 0; i < seeds.length; i++) {
+                assertEquals(sequential.get(i), parallel.get(i).get(), "seed " + seeds[i]);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
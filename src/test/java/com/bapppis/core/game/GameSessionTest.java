@@ -0,0 +1,74 @@
+package com.bapppis.core.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.LazyDungeon;
+
+public class GameSessionTest {
+
+    private static GameSession newSession(long seed) {
+        AllLoaders.loadAll();
+        Player player = (Player) CreatureLoader.spawnCopy(CreatureLoader.getPlayerById(5000));
+        return new GameSession(player, seed);
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testExplorerDescendsWithoutGui() {
+        GameSession session = newSession(3);
+        GameSession.Result result = session.run(GameSession.explorer(3, true), 5000);
+        assertTrue(result.commands > 0);
+        assertTrue(result.deepestFloor < 0, "The explorer should have taken the stairs down: " + result);
+        assertEquals(0, result.highestFloor);
+        assertEquals(result.finalFloor, session.getCurrentFloorIndex());
+        try (GameContext.Scope scope = session.getContext().bind()) {
+            assertSame(session.getCurrentFloor(), GameState.getCurrentFloor());
+        }
+    }
+
+    @Test
+    public void testSameSeedReplaysSameRun() {
+        GameSession first = newSession(11);
+        GameSession.Result a = first.run(GameSession.explorer(4, true), 3000);
+        String endA = first.getPlayer().getPosition() + " hp " + first.getPlayer().getCurrentHp();
+
+        GameSession second = newSession(11);
+        GameSession.Result b = second.run(GameSession.explorer(4, true), 3000);
+        String endB = second.getPlayer().getPosition() + " hp " + second.getPlayer().getCurrentHp();
+
+        assertEquals(a.commands, b.commands);
+        assertEquals(a.fights, b.fights);
+        assertEquals(a.kills, b.kills);
+        assertEquals(a.finalFloor, b.finalFloor);
+        assertEquals(endA, endB);
+    }
+
+    @Test
+    public void testScriptEndsTheRun() {
+        GameSession session = newSession(5);
+        List<GameCommand> script = List.of(GameCommand.WAIT, new GameCommand.Move(Direction.NORTH),
+                new GameCommand.Look(null), GameCommand.WAIT);
+        GameSession.Result result = session.run(GameSession.script(script), 100);
+        assertEquals(4, result.commands);
+        assertEquals(4, session.getCommands());
+    }
+
+    @Test
+    public void testFloorsAreBuiltLazily() {
+        GameSession session = newSession(13);
+        LazyDungeon dungeon = (LazyDungeon) session.getGame().getDungeon();
+        assertTrue(dungeon.isGenerated(0));
+        // Floor 0 plus at most its two prefetched neighbours
+        assertTrue(dungeon.getGeneratedCount() <= 3, dungeon.getGeneratedCount() + " floors built at start");
+        assertFalse(dungeon.isGenerated(-5));
+        assertFalse(dungeon.isGenerated(5));
+        assertTrue(dungeon.hasFloor(-10));
+    }
+}
@@ -1,7 +1,19 @@
 package com.bapppis.core.game;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.Enemy;
+import com.bapppis.core.dungeon.Coordinate;
+import com.bapppis.core.dungeon.Floor;
+import com.bapppis.core.dungeon.Tile;
+import com.bapppis.core.dungeon.TileTypeLoader;
+
 public class GameTest {
     @Test
     public void testGameInitialization() {
@@ -10,4 +22,36 @@ public class GameTest {
         game.initialize();
         // Add assertions to verify the expected behavior
     }
+
+    @Test
+    public void testPassTurnSurvivesCreaturesLeavingMidTurn() {
+        AllLoaders.loadAll();
+        Floor floor = new Floor(3, 1) {};
+        for (int x = 0; x < 3; x++) {
+            floor.setTile(x, 0, new Tile(new Coordinate(x, 0), TileTypeLoader.getTileTypeByName("basicFloor")));
+        }
+        List<Enemy> acted = new ArrayList<>();
+        Enemy[] enemies = new Enemy[3];
+        for (int i = 0; i < 3; i++) {
+            final int k = i;
+            enemies[i] = new Enemy() {
+                @Override
+                public void takeAITurn(GameContext game) {
+                    acted.add(this);
+                    // The first enemy leaves, the second takes the third with it
+                    if (k == 0)
+                        setPosition(floor, null);
+                    else if (k == 1)
+                        enemies[2].setPosition(floor, null);
+                }
+            };
+            enemies[i].setPosition(floor, new Coordinate(i, 0));
+        }
+
+        GameContext context = new GameContext(1);
+        context.setCurrentFloor(floor);
+        Game.passTurn(context);
+        assertEquals(List.of(enemies[0], enemies[1]), acted);
+        assertEquals(1, floor.getCreatures().size());
+    }
 }
@@ -2,6 +2,7 @@ package com.bapppis.core.game;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
 import com.bapppis.core.AllLoaders;
@@ -17,6 +18,13 @@ import com.bapppis.core.Resistances;
 
 public class SecondaryDamageAndBuildupTest {
 
+  // These tests fight the loaded templates; reload them so later tests see
+  // clean ones
+  @AfterAll
+  public static void reloadTemplates() {
+    CreatureLoader.forceReload();
+  }
+
   @Test
   public void testMorningstarSecondaryDamage() {
     AllLoaders.loadAll();
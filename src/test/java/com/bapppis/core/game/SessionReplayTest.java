@@ -0,0 +1,140 @@
+package com.bapppis.core.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.creature.Player;
+
+public class SessionReplayTest {
+
+    private static byte[] record(long seed, long botSeed, int commands, int hashInterval) throws IOException {
+        AllLoaders.loadAll();
+        Player player = (Player) CreatureLoader.spawnCopy(CreatureLoader.getPlayerById(5000));
+        GameSession session = new GameSession(player, seed);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SessionRecorder recorder = new SessionRecorder(bytes, seed, player, hashInterval)) {
+            session.setRecorder(recorder);
+            session.run(GameSession.explorer(botSeed, true), commands);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testRecordedRunReplaysWithoutDivergence() throws IOException {
+        byte[] log = record(21, 6, 2000, 32);
+        SessionReplayer.Result result = SessionReplayer.replay(new ByteArrayInputStream(log));
+        assertFalse(result.diverged(), result.toString());
+        assertTrue(result.isComplete());
+        assertTrue(result.getCommands() > 0);
+        assertTrue(result.getHashesChecked() >= result.getCommands() / 32);
+        assertFalse(result.getSlowest().isEmpty());
+        assertTrue(result.getSlowest().size() <= SessionReplayer.SLOWEST_KEPT);
+    }
+
+    @Test
+    public void testTamperedLogDiverges() throws IOException {
+        GameSession session = newScriptSession(8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<GameCommand> script = List.of(new GameCommand.Move(Direction.NORTH), new GameCommand.Move(Direction.EAST),
+                new GameCommand.Move(Direction.SOUTH), new GameCommand.Move(Direction.WEST));
+        try (SessionRecorder recorder = new SessionRecorder(bytes, 8, session.getPlayer(), 1)) {
+            session.setRecorder(recorder);
+            session.run(GameSession.script(script), script.size());
+        }
+        byte[] log = bytes.toByteArray();
+        // The last hash record covers the player's position; flip a bit in it
+        log[log.length - 1] ^= 1;
+        SessionReplayer.Result result = SessionReplayer.replay(new ByteArrayInputStream(log));
+        assertTrue(result.diverged());
+        assertEquals(4, result.getDivergedAt());
+    }
+
+    @Test
+    public void testLogIsCompact() throws IOException {
+        byte[] log = record(4, 9, 1000, SessionRecorder.DEFAULT_HASH_INTERVAL);
+        SessionReplayer.Result result = SessionReplayer.replay(new ByteArrayInputStream(log));
+        assertFalse(result.diverged(), result.toString());
+        // Two bytes per move plus a 17-byte hash record every 64 commands
+        assertTrue(log.length < 64 + result.getCommands() * 3, "log is " + log.length + " bytes");
+    }
+
+    @Test
+    public void testManualFightsReplayWithoutDivergence() throws IOException {
+        GameSession session = newScriptSession(12);
+        session.setManualCombat(true);
+        GameSession.InputSource explorer = GameSession.explorer(3, true);
+        // Flee the first fight, which an auto-resolved fight never does; after
+        // that, let the enemy go first and trade blows as the combat screen does
+        int[] combatCommands = new int[1];
+        GameSession.InputSource input = s -> {
+            if (!s.getContext().isInCombat())
+                return explorer.next(s);
+            int n = combatCommands[0]++;
+            if (n == 0)
+                return GameCommand.FLEE;
+            return n % 2 == 1 ? GameCommand.ENEMY_TURN : GameCommand.HIT;
+        };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GameSession.Result run;
+        try (SessionRecorder recorder = new SessionRecorder(bytes, 12, session.getPlayer(), 16, true)) {
+            session.setRecorder(recorder);
+            run = session.run(input, 2000);
+        }
+        assertTrue(run.fights > 0, run.toString());
+        assertTrue(combatCommands[0] > 1);
+
+        SessionReplayer.Result result = SessionReplayer.replay(new ByteArrayInputStream(bytes.toByteArray()));
+        assertFalse(result.diverged(), result.toString());
+        assertTrue(result.isComplete());
+        assertEquals(run.commands, result.getCommands());
+    }
+
+    @Test
+    public void testRecorderMustMatchTheSessionCombatMode() throws IOException {
+        GameSession session = newScriptSession(5);
+        SessionRecorder manual = new SessionRecorder(new ByteArrayOutputStream(), 5, session.getPlayer(), 0, true);
+        assertThrows(IllegalArgumentException.class, () -> session.setRecorder(manual));
+    }
+
+    @Test
+    public void testEveryCommandRoundTripsThroughTheLog() throws IOException {
+        List<GameCommand> commands = List.of(new GameCommand.Move(Direction.WEST),
+                new GameCommand.Interact(Direction.NORTH), new GameCommand.Look(null),
+                new GameCommand.Look(Direction.EAST), new GameCommand.Stairs(false), GameCommand.WAIT,
+                new GameCommand.Attack(null), new GameCommand.Attack("goblin"), GameCommand.SHOW_MAP,
+                new GameCommand.SelectPlayer(5000), GameCommand.HIT, new GameCommand.Cast(7001),
+                GameCommand.ENEMY_TURN, GameCommand.FLEE, new GameCommand.UseItem(42), new GameCommand.Equip(43));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (GameCommand c : commands) {
+            SessionLog.writeCommand(out, c);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (GameCommand c : commands) {
+            assertEquals(c, SessionLog.readCommand(in.readUnsignedByte(), in), c.toString());
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testRejectsForeignInput() {
+        assertThrows(IOException.class,
+                () -> SessionReplayer.replay(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 })));
+    }
+
+    private static GameSession newScriptSession(long seed) {
+        AllLoaders.loadAll();
+        Player player = (Player) CreatureLoader.spawnCopy(CreatureLoader.getPlayerById(5000));
+        return new GameSession(player, seed);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bapppis.core.loaders;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.creature.Player;
+import com.bapppis.core.dungeon.TileTypeLoader;
+import com.bapppis.core.item.itemEnums.EquipmentSlot;
+import com.bapppis.core.loot.LootPoolLoader;
+import com.bapppis.core.spell.SpellLoader;
+
+public class AllLoadersStagesTest {
+
+    @Test
+    public void testEveryStageRunsAndReportsTime() {
+        AllLoaders.loadAll();
+        Map<String, Long> timings = AllLoaders.getStageTimings();
+        List<String> names = new ArrayList<>(timings.keySet());
+        assertEquals(List.of("resource index", "properties", "tile types", "spells", "player classes",
+                "talent trees", "loot pools", "items", "creatures"), names);
+        for (long ms : timings.values()) {
+            assertTrue(ms >= 0);
+        }
+        assertTrue(AllLoaders.getTotalLoadMillis() >= 0);
+    }
+
+    @Test
+    public void testDependentDataIsResolved() {
+        AllLoaders.loadAll();
+        assertNotNull(TileTypeLoader.getTileTypeByName("basicWall"));
+        assertNotNull(SpellLoader.getSpellByName("Fireball"));
+        assertNotNull(LootPoolLoader.getLootPoolByName("Common Potions"));
+        assertNotNull(AllLoaders.getPlayerClassLoader());
+        assertNotNull(AllLoaders.getTalentTreeLoader());
+
+        // Creatures load after items, so starting equipment resolves
+        Player biggles = CreatureLoader.getPlayerById(5000);
+        assertNotNull(biggles);
+        boolean anyEquipped = false;
+        for (EquipmentSlot slot : EquipmentSlot.values()) {
+            anyEquipped |= biggles.getEquipped(slot) != null;
+        }
+        assertTrue(anyEquipped);
+    }
+}
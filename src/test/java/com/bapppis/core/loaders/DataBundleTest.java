@@ -0,0 +1,107 @@
+package com.bapppis.core.loaders;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.creature.CreatureLoader;
+import com.bapppis.core.item.ItemLoader;
+import com.bapppis.core.property.PropertyLoader;
+import com.bapppis.core.util.DataBundle;
+import com.bapppis.core.util.ResourceIndex;
+
+public class DataBundleTest {
+
+    @Test
+    public void testBundleReproducesLoadedRegistries() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AllLoaders.writeBundle(out);
+        DataBundle bundle = DataBundle.read(ByteBuffer.wrap(out.toByteArray()));
+
+        // Raw files match the scanned index
+        List<ResourceIndex.Entry> files = ResourceIndex.get().list(ResourceIndex.ROOT);
+        assertEquals(files.size(), bundle.getFiles().size());
+        for (ResourceIndex.Entry e : files) {
+            assertArrayEquals(e.getBytes(), bundle.getFiles().get(e.getPath()), e.getPath());
+        }
+
+        // Registries decode to an equal graph with the same sharing
+        Map<?, ?> registries = (Map<?, ?>) bundle.readRegistries();
+        IdentityHashMap<Object, Object> seen = new IdentityHashMap<>();
+        assertGraphEquals(PropertyLoader.getRegistries(), registries.get("properties"), seen, "properties");
+        assertGraphEquals(ItemLoader.getRegistries(), registries.get("items"), seen, "items");
+        assertGraphEquals(CreatureLoader.getRegistries(), registries.get("creatures"), seen, "creatures");
+        assertNotSame(CreatureLoader.getCreature("Kobold Warrior"),
+                ((Map<?, ?>) ((List<?>) registries.get("creatures")).get(0)).get("Kobold Warrior"));
+    }
+
+    @Test
+    public void testRejectsOtherData() {
+        assertThrows(java.io.IOException.class, () -> DataBundle.read(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 })));
+    }
+
+    // Structural equality that also requires each live object to correspond to
+    // exactly one decoded object
+    private static void assertGraphEquals(Object live, Object decoded, IdentityHashMap<Object, Object> seen, String path)
+            throws IllegalAccessException {
+        if (live == null || decoded == null) {
+            assertSame(live, decoded, path);
+            return;
+        }
+        Class<?> c = live.getClass();
+        if (c == String.class || live instanceof Number || live instanceof Boolean || live instanceof Character
+                || live instanceof Enum) {
+            assertEquals(live, decoded, path);
+            return;
+        }
+        Object previous = seen.get(live);
+        if (previous != null) {
+            assertSame(previous, decoded, path + " should be shared");
+            return;
+        }
+        seen.put(live, decoded);
+        if (c.isArray()) {
+            assertEquals(Array.getLength(live), Array.getLength(decoded), path);
+            for (int i = 0; i < Array.getLength(live); i++) {
+                assertGraphEquals(Array.get(live, i), Array.get(decoded, i), seen, path + "[" + i + "]");
+            }
+        } else if (live instanceof Map) {
+            Map<?, ?> a = (Map<?, ?>) live;
+            Map<?, ?> b = (Map<?, ?>) decoded;
+            assertEquals(a.keySet(), b.keySet(), path);
+            for (Map.Entry<?, ?> e : a.entrySet()) {
+                assertGraphEquals(e.getValue(), b.get(e.getKey()), seen, path + "." + e.getKey());
+            }
+        } else if (live instanceof Collection) {
+            List<?> a = new ArrayList<>((Collection<?>) live);
+            assertEquals(a.size(), ((Collection<?>) decoded).size(), path);
+            Iterator<?> it = ((Collection<?>) decoded).iterator();
+            for (int i = 0; i < a.size(); i++) {
+                assertGraphEquals(a.get(i), it.next(), seen, path + "[" + i + "]");
+            }
+        } else {
+            assertSame(c, decoded.getClass(), path);
+            for (Class<?> k = c; k != Object.class; k = k.getSuperclass()) {
+                for (Field f : k.getDeclaredFields()) {
+                    if (Modifier.isStatic(f.getModifiers()))
+                        continue;
+                    f.setAccessible(true);
+                    assertGraphEquals(f.get(live), f.get(decoded), seen, path + "." + f.getName());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.bapppis.core.loot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.combat.SplittableRandomProvider;
+
+public class LootAnalyticsTest {
+
+    private static LootPool.Entry item(String id, int min, int max, Integer weight, Double chance) {
+        LootPool.Entry e = new LootPool.Entry();
+        e.type = "item";
+        e.id = id;
+        e.countMin = min;
+        e.countMax = max;
+        e.weight = weight;
+        e.chance = chance;
+        return e;
+    }
+
+    // a: 0..2 of them, guaranteed; b: 40% chance; weighted pick of c (3) or a nested pool of c (1)
+    private static LootManager managerWithTestPools() {
+        LootPool inner = new LootPool();
+        inner.id = "an-inner";
+        inner.entries = new ArrayList<>(List.of(item("c", 2, 2, null, null)));
+        LootPool.Entry guaranteed = item("a", 0, 2, null, null);
+        guaranteed.guaranteed = true;
+        LootPool.Entry nested = new LootPool.Entry();
+        nested.type = "pool";
+        nested.id = "an-inner";
+        nested.weight = 1;
+        LootPool outer = new LootPool();
+        outer.id = "an-outer";
+        outer.entries = new ArrayList<>(List.of(guaranteed, item("b", 1, 1, null, 0.4),
+                item("c", 1, 1, 3, null), nested));
+        LootManager manager = new LootManager();
+        manager.registerPool(inner);
+        manager.registerPool(outer);
+        return manager;
+    }
+
+    @Test
+    public void testExactDistributionOfHandBuiltPool() {
+        AllLoaders.loadAll();
+        LootDistribution d = managerWithTestPools().exactDistribution("an-outer");
+        assertEquals(1.0, d.getExpected("item:a"), 1e-12);
+        assertEquals(2.0 / 3.0, d.getProbability("item:a"), 1e-12);
+        assertEquals(0.4, d.getExpected("item:b"), 1e-12);
+        assertEquals(0.4, d.getProbability("item:b"), 1e-12);
+        assertEquals(0.75 * 1 + 0.25 * 2, d.getExpected("item:c"), 1e-12);
+        assertEquals(1.0, d.getProbability("item:c"), 1e-12);
+        assertEquals(0.0, d.getProbability("item:never"));
+        assertEquals(3, d.getDrops().size());
+    }
+
+    @Test
+    public void testCommonTreasureChestExactMatchesSampling() {
+        AllLoaders.loadAll();
+        LootManager manager = new LootManager();
+        LootDistribution exact = manager.exactDistribution("Common Treasure Chest");
+        String potion = LootHistogram.key("item", "MinorHealingPotion");
+        assertEquals(1.0, exact.getProbability(potion), 1e-12, "The chest always holds a potion");
+        assertEquals(1.2, exact.getExpected(potion), 1e-12);
+
+        LootHistogram h = manager.sampleMany("40002", 200_000, new SplittableRandomProvider(11));
+        assertEquals(200_000, h.getSamples());
+        for (LootDistribution.Drop drop : exact.getDrops()) {
+            assertEquals(drop.expected, h.getMean(drop.key), 0.01, drop.key);
+            assertEquals(drop.probability, h.getDropRate(drop.key), 0.01, drop.key);
+        }
+        for (String key : h.keys()) {
+            assertTrue(exact.getProbability(key) > 0, key + " dropped but is not in the exact distribution");
+        }
+    }
+
+    @Test
+    public void testSampleManyIsDeterministicAcrossPoolSizes() {
+        AllLoaders.loadAll();
+        LootManager manager = managerWithTestPools();
+        LootHistogram one;
+        LootHistogram many;
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            one = manager.sampleMany("an-outer", 50_000, new SplittableRandomProvider(5), new LootHistogram(), single);
+            many = manager.sampleMany("an-outer", 50_000, new SplittableRandomProvider(5), new LootHistogram(), four);
+        } finally {
+            single.shutdown();
+            four.shutdown();
+        }
+        assertEquals(one.toString(), many.toString());
+        assertEquals(one.keys(), many.keys());
+    }
+
+    @Test
+    public void testHistogramIsClearedOnReuse() {
+        AllLoaders.loadAll();
+        LootManager manager = managerWithTestPools();
+        LootHistogram h = new LootHistogram();
+        manager.sampleMany("an-outer", 10_000, new SplittableRandomProvider(1), h);
+        assertSame(h, manager.sampleMany("an-outer", 100, new SplittableRandomProvider(2), h));
+        assertEquals(100, h.getSamples());
+        assertEquals(100, h.getSamplesWith("item:c"));
+        assertTrue(h.getTotal("item:c") >= 100);
+        assertThrows(IllegalArgumentException.class, () -> manager.sampleMany("no-such-pool", 1,
+                new SplittableRandomProvider(3)));
+    }
+}
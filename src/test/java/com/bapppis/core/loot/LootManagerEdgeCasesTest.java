@@ -12,7 +12,6 @@ public class LootManagerEdgeCasesTest {
     public void testUnknownPoolReturnsEmpty() {
         AllLoaders.loadAll();
         LootManager manager = new LootManager();
-        manager.loadDefaults();
         assertTrue(manager.samplePool("unknown-pool").isEmpty());
         assertTrue(manager.samplePoolByName(null).isEmpty());
     }
@@ -0,0 +1,90 @@
+package com.bapppis.core.loot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.AllLoaders;
+import com.bapppis.core.item.Item;
+import com.bapppis.core.item.ItemLoader;
+
+public class LootPoolRegistryTest {
+
+    @Test
+    public void testRegistryIsSharedAndReadOnly() {
+        AllLoaders.loadAll();
+        LootPoolRegistry registry = LootPoolRegistry.get();
+        assertSame(registry, LootPoolRegistry.get(), "The registry should be built once");
+
+        LootPool chest = LootPoolRegistry.getPoolById("40002");
+        assertNotNull(chest);
+        assertSame(chest, registry.find(chest.name.toLowerCase()));
+        assertSame(chest, LootPoolRegistry.getPoolByName(chest.name.replace(" ", "")));
+        assertThrows(UnsupportedOperationException.class, () -> LootPoolRegistry.getAllPools().clear());
+        assertTrue(LootPoolRegistry.getAllPools().contains(chest));
+    }
+
+    @Test
+    public void testManagerSamplesRegistryWithoutLoading() {
+        AllLoaders.loadAll();
+        LootManager manager = new LootManager(new com.bapppis.core.combat.SplittableRandomProvider(42));
+        assertFalse(manager.samplePool("40002").isEmpty());
+        assertFalse(manager.samplePool(LootPoolRegistry.getPoolById("40002")).isEmpty());
+    }
+
+    @Test
+    public void testReloadInvalidatesRegistry() {
+        AllLoaders.loadAll();
+        LootPoolRegistry before = LootPoolRegistry.get();
+        LootPoolLoader.loadPoolsFromResources("loot_pools");
+        LootPoolRegistry after = LootPoolRegistry.get();
+        assertNotSame(before, after);
+        assertSame(LootPoolLoader.getLootPoolById("40002"), LootPoolRegistry.getPoolById("40002"));
+    }
+
+    @Test
+    public void testTablesResolveItemsLoadedAfterTheRegistry() {
+        AllLoaders.loadAll();
+        LootPoolRegistry.loadPools();
+        LootPoolRegistry registry = LootPoolRegistry.get();
+        ItemLoader.forceReload();
+
+        // Sample through the registry built before the reload
+        LootTable chest = registry.table(registry.find("40002"));
+        com.bapppis.core.combat.RandomProvider rng = new com.bapppis.core.combat.SplittableRandomProvider(7);
+        assertSpawnsCurrentItems(() -> {
+            List<LootManager.Spawn> out = new ArrayList<>();
+            chest.sample(rng, out);
+            return out;
+        });
+    }
+
+    @Test
+    public void testItemReloadInvalidatesCompiledTables() {
+        AllLoaders.loadAll();
+        LootManager manager = new LootManager(new com.bapppis.core.combat.SplittableRandomProvider(11));
+        assertSpawnsCurrentItems(() -> manager.samplePool("40002"));
+        LootPoolRegistry before = LootPoolRegistry.get();
+        ItemLoader.forceReload();
+        assertNotSame(before, LootPoolRegistry.get());
+        assertSpawnsCurrentItems(() -> manager.samplePool("40002"));
+    }
+
+    // The chest always drops a potion, so every call checks at least one item
+    private static void assertSpawnsCurrentItems(Supplier<List<LootManager.Spawn>> chest) {
+        for (int i = 0; i < 20; i++) {
+            List<LootManager.Spawn> spawns = chest.get();
+            assertFalse(spawns.isEmpty());
+            for (LootManager.Spawn s : spawns) {
+                assertEquals("item", s.type);
+                Item current = ItemLoader.getItemByName(s.id);
+                assertNotNull(current, s.id);
+                assertSame(current, s.item, s.id + " should be the currently loaded template");
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bapppis.core.loot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.combat.SplittableRandomProvider;
+
+public class LootTableTest {
+
+    private static LootPool.Entry item(String id, Integer weight) {
+        LootPool.Entry e = new LootPool.Entry();
+        e.type = "item";
+        e.id = id;
+        e.weight = weight;
+        return e;
+    }
+
+    private static LootPool.Entry nested(String id) {
+        LootPool.Entry e = new LootPool.Entry();
+        e.type = "pool";
+        e.id = id;
+        return e;
+    }
+
+    private static LootPool pool(String id, LootPool.Entry... entries) {
+        LootPool p = new LootPool();
+        p.id = id;
+        p.name = "Pool " + id;
+        p.entries = new ArrayList<>(List.of(entries));
+        return p;
+    }
+
+    @Test
+    public void testAliasTableMatchesWeights() {
+        LootPool p = pool("t1", item("a", 1), item("b", 2), item("c", 7), item("never", 0));
+        LootTable table = new LootTable.Compiler(k -> null, Map.of()).compile(p);
+        SplittableRandomProvider rng = new SplittableRandomProvider(7);
+        Map<String, Integer> counts = new HashMap<>();
+        int n = 100_000;
+        List<LootManager.Spawn> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.clear();
+            table.sample(rng, out);
+            assertEquals(1, out.size(), "Exactly one weighted pick per sample");
+            counts.merge(out.get(0).id, 1, Integer::sum);
+        }
+        assertEquals(0.1, counts.get("a") / (double) n, 0.01);
+        assertEquals(0.2, counts.get("b") / (double) n, 0.01);
+        assertEquals(0.7, counts.get("c") / (double) n, 0.01);
+        assertNull(counts.get("never"));
+    }
+
+    @Test
+    public void testGuaranteedChanceAndNestedPools() {
+        LootPool.Entry always = item("always", null);
+        always.guaranteed = true;
+        LootPool.Entry sometimes = item("sometimes", null);
+        sometimes.chance = 0.5;
+        LootPool inner = pool("inner", item("innerItem", 1));
+        LootPool outer = pool("outer", always, sometimes, nested("inner"));
+        Map<String, LootPool> byId = Map.of("inner", inner, "outer", outer);
+        LootTable table = new LootTable.Compiler(byId::get, Map.of()).compile(outer);
+
+        SplittableRandomProvider rng = new SplittableRandomProvider(11);
+        int sometimesCount = 0;
+        int n = 20_000;
+        for (int i = 0; i < n; i++) {
+            List<LootManager.Spawn> out = new ArrayList<>();
+            table.sample(rng, out);
+            assertEquals("always", out.get(0).id);
+            assertEquals("innerItem", out.get(out.size() - 1).id, "The nested pool is the only weighted entry");
+            if (out.stream().anyMatch(s -> s.id.equals("sometimes")))
+                sometimesCount++;
+        }
+        assertEquals(0.5, sometimesCount / (double) n, 0.02);
+    }
+
+    @Test
+    public void testNestingCycleIsRejected() {
+        LootPool a = pool("a", nested("b"));
+        LootPool b = pool("b", nested("c"));
+        LootPool c = pool("c", nested("a"));
+        Map<String, LootPool> byId = Map.of("a", a, "b", b, "c", c);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new LootTable.Compiler(byId::get, Map.of()).compile(a));
+        assertEquals("Loot pool cycle: Pool a -> Pool b -> Pool c -> Pool a", e.getMessage());
+
+        LootManager manager = new LootManager(new SplittableRandomProvider(1));
+        manager.registerAll(List.of(a, b, c));
+        assertTrue(manager.samplePool("a").isEmpty(), "A cyclic pool drops nothing instead of recursing forever");
+    }
+}
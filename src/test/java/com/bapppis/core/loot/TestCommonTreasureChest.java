@@ -15,7 +15,6 @@ public class TestCommonTreasureChest {
     public void testChestBehavior() {
         AllLoaders.loadAll();
         LootManager manager = new LootManager();
-        manager.loadDefaults();
 
         int iterations = 1000;
         AtomicInteger potions = new AtomicInteger(0);
@@ -18,7 +18,6 @@ public class TestCommonWeaponsPool {
         // Load items and pools
         AllLoaders.loadAll();
         LootManager manager = new LootManager();
-        manager.loadDefaults();
 
         // Allowed refs in Common Weapons pool (from Common Weapons.json)
         Set<String> allowed = new HashSet<>();
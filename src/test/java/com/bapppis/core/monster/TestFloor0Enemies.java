@@ -17,7 +17,6 @@ public class TestFloor0Enemies {
         AllLoaders.loadAll();
 
         LootManager manager = new LootManager();
-        manager.loadDefaults();
 
         int iterations = 1000;
         AtomicInteger spearman = new AtomicInteger(0);
@@ -0,0 +1,84 @@
+package com.bapppis.core.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.util.DebugLog.Category;
+import com.bapppis.core.util.DebugLog.Level;
+
+public class DebugLogTest {
+
+    @AfterEach
+    public void restore() {
+        DebugLog.resetLevels();
+        DebugLog.setSink(null);
+    }
+
+    @Test
+    public void testDisabledMessagesAreNeverBuilt() {
+        List<String> seen = new ArrayList<>();
+        DebugLog.setSink((c, l, m) -> seen.add(c + "/" + l + "/" + m));
+        DebugLog.setLevel(Level.INFO);
+        DebugLog.setLevel(Category.AI, Level.TRACE);
+        AtomicInteger built = new AtomicInteger();
+
+        DebugLog.debug(Category.LOOT, () -> "loot " + built.incrementAndGet());
+        DebugLog.trace(Category.AI, () -> "ai " + built.incrementAndGet());
+        DebugLog.info(Category.LOOT, "loaded");
+        DebugLog.setLevel(Category.LOOT, Level.OFF);
+        DebugLog.error(Category.LOOT, "hidden");
+
+        assertEquals(1, built.get(), "Only the enabled supplier should run");
+        assertEquals(List.of("AI/TRACE/ai 1", "LOOT/INFO/loaded"), seen);
+        assertTrue(DebugLog.isEnabled(Category.AI, Level.DEBUG));
+        assertFalse(DebugLog.isEnabled(Category.LOOT, Level.ERROR));
+        assertEquals(Level.TRACE, DebugLog.getLevel(Category.AI));
+    }
+
+    @Test
+    public void testAsyncSinkKeepsOrderAndDropsOldestWhenFull() throws Exception {
+        List<String> out = Collections.synchronizedList(new ArrayList<>());
+        Object gate = new Object();
+        boolean[] open = { false };
+        DebugLog.Sink slow = (c, l, m) -> {
+            synchronized (gate) {
+                while (!open[0]) {
+                    try {
+                        gate.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            out.add(m);
+        };
+        try (DebugLog.AsyncSink sink = new DebugLog.AsyncSink(slow, 4)) {
+            for (int i = 0; i < 20; i++) {
+                sink.write(Category.GENERAL, Level.INFO, "m" + i);
+            }
+            synchronized (gate) {
+                open[0] = true;
+                gate.notifyAll();
+            }
+            sink.flush();
+            // The writer may already hold the first message while the rest wait in the buffer
+            assertTrue(sink.getDropped() >= 15, "dropped " + sink.getDropped());
+            assertEquals(20 - sink.getDropped(), out.size());
+            assertEquals("m19", out.get(out.size() - 1));
+            List<Integer> order = new ArrayList<>();
+            for (String m : out) {
+                order.add(Integer.parseInt(m.substring(1)));
+            }
+            List<Integer> sorted = new ArrayList<>(order);
+            Collections.sort(sorted);
+            assertEquals(sorted, order);
+        }
+    }
+}
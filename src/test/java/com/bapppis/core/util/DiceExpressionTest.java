@@ -0,0 +1,52 @@
+package com.bapppis.core.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.combat.RandomProvider;
+
+public class DiceExpressionTest {
+
+    @Test
+    public void testParseAndBounds() {
+        DiceExpression d = DiceExpression.parse("2d6+3");
+        assertEquals(2, d.getCount());
+        assertEquals(6, d.getSides());
+        assertEquals(3, d.getModifier());
+        assertEquals(5, d.min());
+        assertEquals(15, d.max());
+        assertEquals(10.0, d.mean(), 1e-9);
+
+        DiceExpression neg = DiceExpression.parse(" 1d4-1 ");
+        assertEquals(0, neg.min());
+        assertEquals(3, neg.max());
+        assertEquals("1d4-1", neg.toString());
+    }
+
+    @Test
+    public void testInvalidTextCompilesToZero() {
+        assertSame(DiceExpression.ZERO, DiceExpression.parse(null));
+        assertSame(DiceExpression.ZERO, DiceExpression.parse("d6"));
+        assertSame(DiceExpression.ZERO, DiceExpression.parse("1d6+"));
+        assertSame(DiceExpression.ZERO, DiceExpression.parse("0d6"));
+        assertSame(DiceExpression.ZERO, DiceExpression.parse("99999999999d6"));
+        assertEquals(0, DiceExpression.ZERO.roll());
+        assertEquals(0, DiceExpression.ZERO.max());
+    }
+
+    @Test
+    public void testRollUsesProvider() {
+        RandomProvider low = () -> 0.0f;
+        RandomProvider high = () -> 0.9999f;
+        DiceExpression d = DiceExpression.parse("3d8-2");
+        assertEquals(d.min(), d.roll(low));
+        assertEquals(d.max(), d.roll(high));
+    }
+
+    @Test
+    public void testDiceCachesCompiledExpressions() {
+        assertSame(Dice.compile("4d10+1"), Dice.compile("4d10+1"));
+        assertSame(DiceExpression.ZERO, Dice.compile(null));
+    }
+}
@@ -0,0 +1,104 @@
+package com.bapppis.core.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.bapppis.core.creature.creatureEnums.Stats;
+
+public class GraphCodecTest {
+
+    static class Node {
+        String name;
+        int weight;
+        final double[] samples;
+        Node next;
+        List<Node> children = new ArrayList<>();
+        EnumMap<Stats, Integer> stats = new EnumMap<>(Stats.class);
+        Map<String, Object> extra;
+
+        private Node() {
+            this(null, 0);
+        }
+
+        Node(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+            this.samples = new double[] { weight, weight / 2.0 };
+        }
+    }
+
+    static class Sized {
+        final int size;
+
+        Sized(int size) {
+            this.size = size;
+        }
+    }
+
+    private static Object roundTrip(Object root) throws IOException {
+        return GraphCodec.decode(ByteBuffer.wrap(GraphCodec.encode(root)));
+    }
+
+    @Test
+    public void testRoundTripKeepsValuesAndSharing() throws IOException {
+        Node a = new Node("a", 3);
+        Node b = new Node("b", 5);
+        a.next = b;
+        b.next = a; // cycle
+        a.children.add(b);
+        a.children.add(b);
+        a.stats.put(Stats.STRENGTH, 2);
+        b.extra = Map.of("tooltip", List.of("one", "two"));
+        Map<String, Node> registry = new HashMap<>();
+        registry.put("a", a);
+        registry.put("b", b);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Node> copy = (Map<String, Node>) roundTrip(registry);
+        Node a2 = copy.get("a");
+        Node b2 = copy.get("b");
+        assertNotSame(a, a2);
+        assertEquals("a", a2.name);
+        assertEquals(3, a2.weight);
+        assertArrayEquals(new double[] { 3, 1.5 }, a2.samples);
+        assertSame(b2, a2.next);
+        assertSame(a2, b2.next);
+        assertSame(b2, a2.children.get(0));
+        assertSame(b2, a2.children.get(1));
+        assertEquals(Integer.valueOf(2), a2.stats.get(Stats.STRENGTH));
+        assertTrue(b2.stats.isEmpty());
+        assertSame(EnumMap.class, b2.stats.getClass());
+        // Immutable collections come back as mutable ones with the same contents
+        assertEquals(Arrays.asList("one", "two"), b2.extra.get("tooltip"));
+        assertNull(a2.extra);
+    }
+
+    @Test
+    public void testUnsupportedValueFailsAtEncode() {
+        Node n = new Node("n", 1);
+        n.extra = new HashMap<>();
+        n.extra.put("thread", new Thread());
+        IOException e = assertThrows(IOException.class, () -> GraphCodec.encode(n));
+        assertTrue(e.getMessage().contains("java.lang.Thread"), e.getMessage());
+
+        IOException noCtor = assertThrows(IOException.class, () -> GraphCodec.encode(List.of(new Sized(2))));
+        assertTrue(noCtor.getMessage().contains("Sized"), noCtor.getMessage());
+    }
+
+    @Test
+    public void testTruncatedDataIsRejected() throws IOException {
+        byte[] bytes = GraphCodec.encode(new Node("n", 1));
+        ByteBuffer cut = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> GraphCodec.decode(cut));
+    }
+}
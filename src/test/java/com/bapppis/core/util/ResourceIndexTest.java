@@ -0,0 +1,39 @@
+package com.bapppis.core.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ResourceIndexTest {
+
+    @Test
+    public void testListsDirectoryRecursivelyInPathOrder() {
+        ResourceIndex index = ResourceIndex.get();
+        assertSame(index, ResourceIndex.get(), "The index should be built once");
+
+        List<ResourceIndex.Entry> items = index.list("data/items", ".json");
+        assertFalse(items.isEmpty());
+        for (int i = 0; i < items.size(); i++) {
+            ResourceIndex.Entry e = items.get(i);
+            assertTrue(e.getPath().startsWith("data/items/"));
+            assertTrue(e.getPath().endsWith(".json"));
+            if (i > 0)
+                assertTrue(items.get(i - 1).getPath().compareTo(e.getPath()) < 0);
+        }
+        assertTrue(items.stream().anyMatch(e -> e.getPath().indexOf('/', "data/items/".length()) > 0),
+                "Subdirectories should be included");
+    }
+
+    @Test
+    public void testFindAndRead() {
+        ResourceIndex index = ResourceIndex.get();
+        ResourceIndex.Entry wall = index.find("/data/tile_types/basicWall.json");
+        assertNotNull(wall);
+        assertEquals("basicWall.json", wall.getName());
+        assertTrue(wall.readString().contains("{"));
+        assertNull(index.find("data/tile_types/missing.json"));
+        assertTrue(index.list("data/no_such_dir").isEmpty());
+    }
+}